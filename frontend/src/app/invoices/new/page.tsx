@@ -100,6 +100,11 @@ export default function CreateInvoicePage() {
                 lines: values.lines.map(line => ({
                     ...line,
                     productId: "00000000-0000-0000-0000-000000000002", // Valid Product ID
+                    // The server derives the line total from unitPrice x quantity
+                    unitPrice: {
+                        amount: line.unitPrice,
+                        currency: values.currencyUomId
+                    },
                     amount: {
                         amount: line.quantity * line.unitPrice,
                         currency: values.currencyUomId
@@ -20,8 +20,9 @@ async function getData(): Promise<Invoice[]> {
             return [];
         }
 
+        // The list endpoint is keyset-paginated; render the first page
         const data = await res.json();
-        return data;
+        return data.content ?? [];
     } catch (error) {
         console.error("Error fetching invoices:", error);
         return [];
@@ -7,6 +7,8 @@ import lombok.EqualsAndHashCode;
 
 import java.time.Instant;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Currency;
 import java.util.List;
 
 @Data
@@ -24,6 +26,49 @@ public class Invoice extends AggregateRoot {
     private List<InvoiceLine> lines;
     private Money totalAmount;
 
+    /**
+     * Derives line totals from unit price and quantity, and the invoice total from the
+     * lines, so clients cannot submit totals that disagree with their own lines. Amounts
+     * without a currency take the invoice currency; a different currency is rejected.
+     * An invoice without lines keeps the total it was given.
+     */
+    public void recalculateTotals() {
+        Currency currency = Currency.getInstance(this.currencyUomId);
+        if (this.lines == null || this.lines.isEmpty()) {
+            this.totalAmount = inCurrency(this.totalAmount, currency, "totalAmount");
+            return;
+        }
+        List<Money> lineTotals = new ArrayList<>(this.lines.size());
+        for (InvoiceLine line : this.lines) {
+            Money unitPrice = inCurrency(line.getUnitPrice(), currency, "unitPrice");
+            line.setUnitPrice(unitPrice);
+            if (unitPrice != null && line.getQuantity() != null) {
+                line.setAmount(unitPrice.multiply(line.getQuantity()));
+            } else {
+                Money amount = inCurrency(line.getAmount(), currency, "amount");
+                if (amount == null) {
+                    throw new IllegalArgumentException("Invoice line needs an amount or a unitPrice and quantity");
+                }
+                line.setAmount(amount.rounded());
+            }
+            lineTotals.add(line.getAmount());
+        }
+        this.totalAmount = Money.sum(currency, lineTotals);
+    }
+
+    private static Money inCurrency(Money money, Currency currency, String field) {
+        if (money == null || money.getAmount() == null) {
+            return null;
+        }
+        if (money.getCurrency() == null) {
+            return new Money(money.getAmount(), currency);
+        }
+        if (!money.getCurrency().equals(currency)) {
+            throw new IllegalArgumentException(field + " is in " + money.getCurrency() + " but the invoice is in " + currency);
+        }
+        return money;
+    }
+
     /**
      * Mark this invoice as issued and register a domain event.
      *
@@ -12,5 +12,6 @@ public class InvoiceLine {
     private String productId;
     private String description;
     private BigDecimal quantity;
+    private Money unitPrice; // Optional; when present the line total is unitPrice x quantity
     private Money amount; // Total for this line
 }
@@ -0,0 +1,87 @@
+package com.astracore.event.codec;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compact binary encoding for the event contracts in this module.
+ * <p>
+ * Layout: a magic byte ({@code 0xA5}), the contract's type id and schema version as
+ * varints, then one {@code (field number << 3 | wire type)} tag per present field
+ * followed by its value. Wire type 0 is a varint, wire type 2 is a length-prefixed
+ * blob. Strings are UTF-8, decimals are scale + unscaled value, dates are epoch days
+ * and instants are epoch seconds + nanos. Null fields are omitted.
+ * <p>
+ * Compatibility rules for changing a contract:
+ * <ul>
+ *     <li>Never renumber a field or reuse the number of a removed field.</li>
+ *     <li>Never change a field's type; add a new field instead.</li>
+ *     <li>New fields are optional. Readers must cope with them being absent (backward
+ *     compatible: new code reads old events) and skip numbers they do not know (forward
+ *     compatible: old code reads new events).</li>
+ *     <li>Bump the codec's schema version when adding fields.</li>
+ *     <li>Anything else (changing meaning, making a field required) is a new contract
+ *     with a new type id, published on a new topic version.</li>
+ * </ul>
+ */
+public final class BinaryEventCodec {
+
+    static final int MAGIC = 0xA5;
+
+    private static final Map<Class<?>, EventCodec<?>> BY_TYPE = new HashMap<>();
+    private static final Map<Integer, EventCodec<?>> BY_ID = new HashMap<>();
+
+    static {
+        register(new InvoiceIssuedCodec());
+        register(new PaymentReceivedCodec());
+    }
+
+    private BinaryEventCodec() {
+    }
+
+    private static void register(EventCodec<?> codec) {
+        BY_TYPE.put(codec.type(), codec);
+        BY_ID.put(codec.typeId(), codec);
+    }
+
+    public static boolean supports(Class<?> type) {
+        return BY_TYPE.containsKey(type);
+    }
+
+    /**
+     * True when {@code payload} starts like a binary event. JSON payloads never do, as
+     * they start with {@code '{'} or whitespace.
+     */
+    public static boolean isBinary(byte[] payload) {
+        return payload != null && payload.length > 0 && (payload[0] & 0xFF) == MAGIC;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static byte[] encode(Object event) {
+        EventCodec<Object> codec = (EventCodec<Object>) BY_TYPE.get(event.getClass());
+        if (codec == null) {
+            throw new EventCodecException("No binary codec for " + event.getClass().getName());
+        }
+        BinaryWriter out = new BinaryWriter(128);
+        out.writeRawByte(MAGIC);
+        out.writeVarint(codec.typeId());
+        out.writeVarint(codec.schemaVersion());
+        codec.encode(event, out);
+        return out.toByteArray();
+    }
+
+    public static Object decode(byte[] payload) {
+        if (!isBinary(payload)) {
+            throw new EventCodecException("Payload is not a binary event");
+        }
+        BinaryReader in = new BinaryReader(payload, 1);
+        int typeId = (int) in.readVarint();
+        EventCodec<?> codec = BY_ID.get(typeId);
+        if (codec == null) {
+            throw new EventCodecException("Unknown event type id " + typeId);
+        }
+        // Any schema version is readable: unknown fields are skipped, missing ones stay null
+        in.readVarint();
+        return codec.decode(in);
+    }
+}
@@ -0,0 +1,67 @@
+package com.astracore.event.codec;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.utils.Utils;
+
+import java.util.Map;
+
+/**
+ * Kafka value deserializer for {@link BinaryEventCodec} payloads. Records that are not
+ * binary (for example JSON written before producers switched over) are handed to the
+ * deserializer named by {@value #FALLBACK_CONFIG}, so a topic can be migrated without
+ * draining it first.
+ */
+public class BinaryEventDeserializer implements Deserializer<Object> {
+
+    public static final String FALLBACK_CONFIG = "astracore.codec.fallback.deserializer";
+
+    private Deserializer<Object> fallback;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        Object fallbackClass = configs.get(FALLBACK_CONFIG);
+        if (fallbackClass != null) {
+            try {
+                fallback = fallbackClass instanceof Class<?> type
+                        ? (Deserializer<Object>) Utils.newInstance(type)
+                        : Utils.newInstance(fallbackClass.toString(), Deserializer.class);
+            } catch (ClassNotFoundException e) {
+                throw new SerializationException("Fallback deserializer not found: " + fallbackClass, e);
+            }
+            fallback.configure(configs, isKey);
+        }
+    }
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        return deserialize(topic, null, data);
+    }
+
+    @Override
+    public Object deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (!BinaryEventCodec.isBinary(data)) {
+            if (fallback == null) {
+                throw new SerializationException("Record on " + topic + " is not a binary event and no fallback is configured");
+            }
+            return fallback.deserialize(topic, headers, data);
+        }
+        try {
+            return BinaryEventCodec.decode(data);
+        } catch (EventCodecException e) {
+            throw new SerializationException("Cannot decode event from " + topic, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (fallback != null) {
+            fallback.close();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.astracore.event.codec;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.utils.Utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Kafka value serializer writing event contracts with {@link BinaryEventCodec}. Values
+ * without a binary codec go to the serializer named by {@value #FALLBACK_CONFIG}, if any.
+ * A {@value #CONTENT_TYPE_HEADER} header marks binary records for tooling; consumers
+ * detect the format from the payload itself. A {@code byte[]} value is taken to be a
+ * payload serialized earlier, e.g. a record being forwarded or replayed, and written as is.
+ */
+public class BinaryEventSerializer implements Serializer<Object> {
+
+    public static final String FALLBACK_CONFIG = "astracore.codec.fallback.serializer";
+    public static final String CONTENT_TYPE_HEADER = "content-type";
+    public static final String CONTENT_TYPE = "application/vnd.astracore.event+binary";
+
+    private static final byte[] CONTENT_TYPE_BYTES = CONTENT_TYPE.getBytes(StandardCharsets.UTF_8);
+
+    private Serializer<Object> fallback;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        Object fallbackClass = configs.get(FALLBACK_CONFIG);
+        if (fallbackClass != null) {
+            try {
+                fallback = fallbackClass instanceof Class<?> type
+                        ? (Serializer<Object>) Utils.newInstance(type)
+                        : Utils.newInstance(fallbackClass.toString(), Serializer.class);
+            } catch (ClassNotFoundException e) {
+                throw new SerializationException("Fallback serializer not found: " + fallbackClass, e);
+            }
+            fallback.configure(configs, isKey);
+        }
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        return serialize(topic, null, data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, Object data) {
+        if (data == null) {
+            return null;
+        }
+        if (data instanceof byte[] payload) {
+            return payload;
+        }
+        if (!BinaryEventCodec.supports(data.getClass())) {
+            if (fallback == null) {
+                throw new SerializationException("No binary codec for " + data.getClass().getName() + " and no fallback configured");
+            }
+            return fallback.serialize(topic, headers, data);
+        }
+        if (headers != null) {
+            headers.remove(CONTENT_TYPE_HEADER);
+            headers.add(CONTENT_TYPE_HEADER, CONTENT_TYPE_BYTES);
+        }
+        try {
+            return BinaryEventCodec.encode(data);
+        } catch (EventCodecException e) {
+            throw new SerializationException("Cannot encode " + data.getClass().getName() + " for topic " + topic, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (fallback != null) {
+            fallback.close();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.astracore.event.codec;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Cursor over a payload written by {@link BinaryWriter}. Fields a reader does not know
+ * are skipped by wire type, which is what makes older consumers forward compatible.
+ */
+final class BinaryReader {
+
+    private final byte[] data;
+    private int position;
+
+    BinaryReader(byte[] data, int offset) {
+        this.data = data;
+        this.position = offset;
+    }
+
+    boolean hasRemaining() {
+        return position < data.length;
+    }
+
+    int readRawByte() {
+        require(1);
+        return data[position++] & 0xFF;
+    }
+
+    long readVarint() {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readRawByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new EventCodecException("Malformed varint at offset " + position);
+    }
+
+    long readZigZag() {
+        long value = readVarint();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    int readTag() {
+        return (int) readVarint();
+    }
+
+    String readString(int tag) {
+        expect(tag, BinaryWriter.WIRE_LENGTH_DELIMITED);
+        int length = readLength();
+        String value = new String(data, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    BigDecimal readDecimal(int tag) {
+        expect(tag, BinaryWriter.WIRE_LENGTH_DELIMITED);
+        int end = readLength() + position;
+        long header = readVarint();
+        long zigZagScale = header >>> 1;
+        int scale = (int) ((zigZagScale >>> 1) ^ -(zigZagScale & 1));
+        BigDecimal value;
+        if ((header & 1) == 0) {
+            value = BigDecimal.valueOf(readZigZag(), scale);
+        } else {
+            value = new BigDecimal(new BigInteger(Arrays.copyOfRange(data, position, end)), scale);
+        }
+        position = end;
+        return value;
+    }
+
+    LocalDate readDate(int tag) {
+        expect(tag, BinaryWriter.WIRE_VARINT);
+        return LocalDate.ofEpochDay(readZigZag());
+    }
+
+    Instant readInstant(int tag) {
+        expect(tag, BinaryWriter.WIRE_LENGTH_DELIMITED);
+        int end = readLength() + position;
+        long seconds = readZigZag();
+        long nanos = readVarint();
+        position = end;
+        return Instant.ofEpochSecond(seconds, nanos);
+    }
+
+    void skip(int tag) {
+        switch (tag & 7) {
+            case BinaryWriter.WIRE_VARINT -> readVarint();
+            case BinaryWriter.WIRE_LENGTH_DELIMITED -> {
+                int length = readLength();
+                position += length;
+            }
+            default -> throw new EventCodecException("Unknown wire type " + (tag & 7) + " for field " + (tag >>> 3));
+        }
+    }
+
+    private int readLength() {
+        long length = readVarint();
+        if (length < 0 || length > data.length - position) {
+            throw new EventCodecException("Length " + length + " overruns payload at offset " + position);
+        }
+        return (int) length;
+    }
+
+    private void require(int bytes) {
+        if (position + bytes > data.length) {
+            throw new EventCodecException("Unexpected end of payload at offset " + position);
+        }
+    }
+
+    private static void expect(int tag, int wireType) {
+        if ((tag & 7) != wireType) {
+            throw new EventCodecException("Field " + (tag >>> 3) + " has wire type " + (tag & 7) + ", expected " + wireType);
+        }
+    }
+}
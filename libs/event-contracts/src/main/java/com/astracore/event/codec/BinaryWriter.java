@@ -0,0 +1,126 @@
+package com.astracore.event.codec;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Growable buffer for the tagged binary format. Absent (null) values are simply not
+ * written, which is what lets readers treat every field as optional.
+ */
+final class BinaryWriter {
+
+    static final int WIRE_VARINT = 0;
+    static final int WIRE_LENGTH_DELIMITED = 2;
+
+    private byte[] buffer;
+    private int position;
+
+    BinaryWriter(int initialCapacity) {
+        this.buffer = new byte[initialCapacity];
+    }
+
+    void writeRawByte(int value) {
+        ensureCapacity(1);
+        buffer[position++] = (byte) value;
+    }
+
+    void writeVarint(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    void writeZigZag(long value) {
+        writeVarint((value << 1) ^ (value >> 63));
+    }
+
+    void writeString(int field, String value) {
+        if (value == null) {
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeTag(field, WIRE_LENGTH_DELIMITED);
+        writeVarint(bytes.length);
+        writeBytes(bytes);
+    }
+
+    /**
+     * Decimal as {@code varint(zigzag(scale) << 1 | big)} followed by either a zigzag
+     * varint unscaled value or, when it does not fit a long, its two's-complement bytes.
+     */
+    void writeDecimal(int field, BigDecimal value) {
+        if (value == null) {
+            return;
+        }
+        BigInteger unscaled = value.unscaledValue();
+        long header = ((long) value.scale() << 1) ^ ((long) value.scale() >> 63);
+        writeTag(field, WIRE_LENGTH_DELIMITED);
+        if (unscaled.bitLength() < 64) {
+            long compact = unscaled.longValue();
+            long zigZag = (compact << 1) ^ (compact >> 63);
+            writeVarint(varintSize(header << 1) + varintSize(zigZag));
+            writeVarint(header << 1);
+            writeVarint(zigZag);
+        } else {
+            byte[] bytes = unscaled.toByteArray();
+            writeVarint(varintSize(header << 1 | 1) + bytes.length);
+            writeVarint(header << 1 | 1);
+            writeBytes(bytes);
+        }
+    }
+
+    void writeDate(int field, LocalDate value) {
+        if (value == null) {
+            return;
+        }
+        writeTag(field, WIRE_VARINT);
+        writeZigZag(value.toEpochDay());
+    }
+
+    void writeInstant(int field, Instant value) {
+        if (value == null) {
+            return;
+        }
+        long seconds = (value.getEpochSecond() << 1) ^ (value.getEpochSecond() >> 63);
+        writeTag(field, WIRE_LENGTH_DELIMITED);
+        writeVarint(varintSize(seconds) + varintSize(value.getNano()));
+        writeVarint(seconds);
+        writeVarint(value.getNano());
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(buffer, position);
+    }
+
+    private void writeTag(int field, int wireType) {
+        writeVarint((long) field << 3 | wireType);
+    }
+
+    private void writeBytes(byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (position + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+        }
+    }
+
+    static int varintSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            size++;
+            value >>>= 7;
+        }
+        return size;
+    }
+}
@@ -0,0 +1,20 @@
+package com.astracore.event.codec;
+
+/**
+ * Field layout of one event contract. Implementations own the field numbers; see
+ * {@link BinaryEventCodec} for the rules that keep them compatible.
+ */
+interface EventCodec<T> {
+
+    /** Identifies the contract on the wire; never reused for a different class. */
+    int typeId();
+
+    /** Bumped whenever fields are added; informational for readers. */
+    int schemaVersion();
+
+    Class<T> type();
+
+    void encode(T event, BinaryWriter out);
+
+    T decode(BinaryReader in);
+}
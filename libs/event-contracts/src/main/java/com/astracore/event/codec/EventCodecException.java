@@ -0,0 +1,11 @@
+package com.astracore.event.codec;
+
+/**
+ * Thrown when an event cannot be encoded or a payload is not valid for its schema.
+ */
+public class EventCodecException extends RuntimeException {
+
+    public EventCodecException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,62 @@
+package com.astracore.event.codec;
+
+import com.astracore.event.InvoiceIssued;
+
+final class InvoiceIssuedCodec implements EventCodec<InvoiceIssued> {
+
+    private static final int TENANT_ID = 1;
+    private static final int INVOICE_ID = 2;
+    private static final int CUSTOMER_ID = 3;
+    private static final int TOTAL_AMOUNT = 4;
+    private static final int CURRENCY = 5;
+    private static final int ISSUE_DATE = 6;
+    private static final int DUE_DATE = 7;
+    private static final int OCCURRED_ON = 8;
+
+    @Override
+    public int typeId() {
+        return 1;
+    }
+
+    @Override
+    public int schemaVersion() {
+        return 1;
+    }
+
+    @Override
+    public Class<InvoiceIssued> type() {
+        return InvoiceIssued.class;
+    }
+
+    @Override
+    public void encode(InvoiceIssued event, BinaryWriter out) {
+        out.writeString(TENANT_ID, event.getTenantId());
+        out.writeString(INVOICE_ID, event.getInvoiceId());
+        out.writeString(CUSTOMER_ID, event.getCustomerId());
+        out.writeDecimal(TOTAL_AMOUNT, event.getTotalAmount());
+        out.writeString(CURRENCY, event.getCurrency());
+        out.writeDate(ISSUE_DATE, event.getIssueDate());
+        out.writeDate(DUE_DATE, event.getDueDate());
+        out.writeInstant(OCCURRED_ON, event.getOccurredOn());
+    }
+
+    @Override
+    public InvoiceIssued decode(BinaryReader in) {
+        InvoiceIssued event = new InvoiceIssued();
+        while (in.hasRemaining()) {
+            int tag = in.readTag();
+            switch (tag >>> 3) {
+                case TENANT_ID -> event.setTenantId(in.readString(tag));
+                case INVOICE_ID -> event.setInvoiceId(in.readString(tag));
+                case CUSTOMER_ID -> event.setCustomerId(in.readString(tag));
+                case TOTAL_AMOUNT -> event.setTotalAmount(in.readDecimal(tag));
+                case CURRENCY -> event.setCurrency(in.readString(tag));
+                case ISSUE_DATE -> event.setIssueDate(in.readDate(tag));
+                case DUE_DATE -> event.setDueDate(in.readDate(tag));
+                case OCCURRED_ON -> event.setOccurredOn(in.readInstant(tag));
+                default -> in.skip(tag);
+            }
+        }
+        return event;
+    }
+}
@@ -0,0 +1,59 @@
+package com.astracore.event.codec;
+
+import com.astracore.event.PaymentReceived;
+
+final class PaymentReceivedCodec implements EventCodec<PaymentReceived> {
+
+    private static final int TENANT_ID = 1;
+    private static final int PAYMENT_ID = 2;
+    private static final int INVOICE_ID = 3;
+    private static final int AMOUNT = 4;
+    private static final int CURRENCY = 5;
+    private static final int METHOD = 6;
+    private static final int OCCURRED_ON = 7;
+
+    @Override
+    public int typeId() {
+        return 2;
+    }
+
+    @Override
+    public int schemaVersion() {
+        return 1;
+    }
+
+    @Override
+    public Class<PaymentReceived> type() {
+        return PaymentReceived.class;
+    }
+
+    @Override
+    public void encode(PaymentReceived event, BinaryWriter out) {
+        out.writeString(TENANT_ID, event.getTenantId());
+        out.writeString(PAYMENT_ID, event.getPaymentId());
+        out.writeString(INVOICE_ID, event.getInvoiceId());
+        out.writeDecimal(AMOUNT, event.getAmount());
+        out.writeString(CURRENCY, event.getCurrency());
+        out.writeString(METHOD, event.getMethod());
+        out.writeInstant(OCCURRED_ON, event.getOccurredOn());
+    }
+
+    @Override
+    public PaymentReceived decode(BinaryReader in) {
+        PaymentReceived event = new PaymentReceived();
+        while (in.hasRemaining()) {
+            int tag = in.readTag();
+            switch (tag >>> 3) {
+                case TENANT_ID -> event.setTenantId(in.readString(tag));
+                case PAYMENT_ID -> event.setPaymentId(in.readString(tag));
+                case INVOICE_ID -> event.setInvoiceId(in.readString(tag));
+                case AMOUNT -> event.setAmount(in.readDecimal(tag));
+                case CURRENCY -> event.setCurrency(in.readString(tag));
+                case METHOD -> event.setMethod(in.readString(tag));
+                case OCCURRED_ON -> event.setOccurredOn(in.readInstant(tag));
+                default -> in.skip(tag);
+            }
+        }
+        return event;
+    }
+}
@@ -0,0 +1,39 @@
+package com.astracore.event.routing;
+
+import org.apache.kafka.clients.producer.Partitioner;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.utils.Utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Chooses the partition from the tenant prefix of a {@link TenantKeys} key only, with the
+ * same murmur2 hash the default partitioner applies to whole keys. One tenant therefore
+ * never spreads over more than one partition, which keeps its records ordered and lets a
+ * consumer route a whole poll to few shards; the price is that a single tenant's
+ * throughput is bounded by one partition. Keys without a tenant prefix are hashed whole,
+ * and records without a key are left to the producer's built-in sticky partitioning.
+ */
+public class TenantKeyPartitioner implements Partitioner {
+
+    @Override
+    public int partition(String topic, Object key, byte[] keyBytes, Object value, byte[] valueBytes, Cluster cluster) {
+        if (key == null) {
+            return RecordMetadata.UNKNOWN_PARTITION;
+        }
+        String tenantId = TenantKeys.tenantOf(key.toString());
+        byte[] hashed = tenantId != null ? tenantId.getBytes(StandardCharsets.UTF_8) : keyBytes;
+        int partitions = cluster.partitionsForTopic(topic).size();
+        return Utils.toPositive(Utils.murmur2(hashed)) % partitions;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,29 @@
+package com.astracore.event.routing;
+
+/**
+ * Record keys of the form {@code <tenantId>:<entityId>}. The tenant prefix is what
+ * {@link TenantKeyPartitioner} hashes, so all of a tenant's records share a partition
+ * and consumers see them in order; the entity id keeps keys unique per record.
+ */
+public final class TenantKeys {
+
+    public static final char SEPARATOR = ':';
+
+    private TenantKeys() {
+    }
+
+    public static String key(String tenantId, Object entityId) {
+        return tenantId + SEPARATOR + entityId;
+    }
+
+    /**
+     * @return the tenant prefix, or {@code null} for keys written before keys carried one
+     */
+    public static String tenantOf(String key) {
+        if (key == null) {
+            return null;
+        }
+        int separator = key.indexOf(SEPARATOR);
+        return separator > 0 ? key.substring(0, separator) : null;
+    }
+}
@@ -0,0 +1,144 @@
+package com.astracore.event.codec;
+
+import com.astracore.event.InvoiceIssued;
+import com.astracore.event.PaymentReceived;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class BinaryEventCodecTest {
+
+    private static final InvoiceIssued INVOICE_ISSUED = new InvoiceIssued("acme",
+            "01a14d77-d5df-767d-9c34-60b201a5756c", "01a14d77-d5e4-7554-93bd-859aaac9aa54",
+            new BigDecimal("1234.56"), "USD", LocalDate.of(2023, 3, 1), LocalDate.of(2023, 3, 31),
+            Instant.parse("2023-03-01T10:15:30.123456789Z"));
+
+    private static final PaymentReceived PAYMENT_RECEIVED = new PaymentReceived("acme",
+            "01a14d77-d5e4-7555-b9f0-078cf7bf950f", "01a14d77-d5df-767d-9c34-60b201a5756c",
+            new BigDecimal("-0.01"), "EUR", "CARD", Instant.parse("2023-03-02T00:00:00Z"));
+
+    @Test
+    void invoiceIssued_shouldRoundTrip() {
+        assertThat(BinaryEventCodec.decode(BinaryEventCodec.encode(INVOICE_ISSUED))).isEqualTo(INVOICE_ISSUED);
+    }
+
+    @Test
+    void paymentReceived_shouldRoundTrip() {
+        assertThat(BinaryEventCodec.decode(BinaryEventCodec.encode(PAYMENT_RECEIVED))).isEqualTo(PAYMENT_RECEIVED);
+    }
+
+    @Test
+    void decimalsBeyondLongRange_shouldRoundTrip() {
+        PaymentReceived large = new PaymentReceived("acme", "p", "i",
+                new BigDecimal("123456789012345678901234567890.123456789"), "USD", null, null);
+
+        assertThat(BinaryEventCodec.decode(BinaryEventCodec.encode(large))).isEqualTo(large);
+    }
+
+    @Test
+    void olderReader_shouldSkipFieldsItDoesNotKnow() {
+        // What a later schema version might write: new fields of both wire types, before
+        // and after the ones this reader knows
+        BinaryWriter out = header(new InvoiceIssuedCodec(), 2);
+        out.writeString(30, "added before");
+        new InvoiceIssuedCodec().encode(INVOICE_ISSUED, out);
+        out.writeDate(31, LocalDate.of(2024, 1, 1));
+        out.writeDecimal(32, new BigDecimal("99.99"));
+        out.writeInstant(33, Instant.now());
+
+        assertThat(BinaryEventCodec.decode(out.toByteArray())).isEqualTo(INVOICE_ISSUED);
+    }
+
+    @Test
+    void newerReader_shouldLeaveFieldsMissingFromOlderPayloadsNull() {
+        // An early writer that knew neither the tenant nor the due date
+        BinaryWriter out = header(new InvoiceIssuedCodec(), 0);
+        out.writeString(2, INVOICE_ISSUED.getInvoiceId());
+        out.writeDecimal(4, INVOICE_ISSUED.getTotalAmount());
+        out.writeString(5, INVOICE_ISSUED.getCurrency());
+
+        InvoiceIssued decoded = (InvoiceIssued) BinaryEventCodec.decode(out.toByteArray());
+
+        assertThat(decoded.getInvoiceId()).isEqualTo(INVOICE_ISSUED.getInvoiceId());
+        assertThat(decoded.getTotalAmount()).isEqualTo(INVOICE_ISSUED.getTotalAmount());
+        assertThat(decoded.getCurrency()).isEqualTo("USD");
+        assertThat(decoded.getTenantId()).isNull();
+        assertThat(decoded.getCustomerId()).isNull();
+        assertThat(decoded.getDueDate()).isNull();
+        assertThat(decoded.getOccurredOn()).isNull();
+    }
+
+    @Test
+    void unknownTypeId_shouldBeRejected() {
+        BinaryWriter out = new BinaryWriter(16);
+        out.writeRawByte(BinaryEventCodec.MAGIC);
+        out.writeVarint(99);
+        out.writeVarint(1);
+
+        assertThatThrownBy(() -> BinaryEventCodec.decode(out.toByteArray()))
+                .isInstanceOf(EventCodecException.class)
+                .hasMessageContaining("99");
+    }
+
+    @Test
+    void otherFormat_shouldBeRejected() {
+        byte[] payload = BinaryEventCodec.encode(INVOICE_ISSUED);
+        payload[0] = (byte) 0xA6;
+
+        assertThatThrownBy(() -> BinaryEventCodec.decode(payload)).isInstanceOf(EventCodecException.class);
+        assertThatThrownBy(() -> BinaryEventCodec.decode("{\"tenantId\":\"acme\"}".getBytes()))
+                .isInstanceOf(EventCodecException.class);
+        assertThatThrownBy(() -> BinaryEventCodec.decode(new byte[0])).isInstanceOf(EventCodecException.class);
+    }
+
+    @Test
+    void unknownWireType_shouldBeRejected() {
+        BinaryWriter out = header(new PaymentReceivedCodec(), 1);
+        out.writeVarint(40 << 3 | 5);
+        out.writeVarint(1);
+
+        assertThatThrownBy(() -> BinaryEventCodec.decode(out.toByteArray()))
+                .isInstanceOf(EventCodecException.class)
+                .hasMessageContaining("wire type 5");
+    }
+
+    @Test
+    void truncatedPayload_shouldBeRejected() {
+        byte[] payload = BinaryEventCodec.encode(INVOICE_ISSUED);
+
+        // Cut inside the last field, and inside the header
+        assertThatThrownBy(() -> BinaryEventCodec.decode(Arrays.copyOf(payload, payload.length - 1)))
+                .isInstanceOf(EventCodecException.class);
+        assertThatThrownBy(() -> BinaryEventCodec.decode(Arrays.copyOf(payload, 1)))
+                .isInstanceOf(EventCodecException.class);
+    }
+
+    @Test
+    void anyTruncation_shouldFailOnlyWithEventCodecException() {
+        byte[] payload = BinaryEventCodec.encode(INVOICE_ISSUED);
+
+        // A cut between fields reads as an older payload; anywhere else it must be reported
+        for (int length = 1; length < payload.length; length++) {
+            byte[] truncated = Arrays.copyOf(payload, length);
+            Throwable failure = catchThrowable(() -> BinaryEventCodec.decode(truncated));
+            assertThat(failure).as("cut at %d", length).satisfiesAnyOf(
+                    thrown -> assertThat(thrown).isNull(),
+                    thrown -> assertThat(thrown).isInstanceOf(EventCodecException.class));
+        }
+    }
+
+    private static BinaryWriter header(EventCodec<?> codec, int schemaVersion) {
+        BinaryWriter out = new BinaryWriter(128);
+        out.writeRawByte(BinaryEventCodec.MAGIC);
+        out.writeVarint(codec.typeId());
+        out.writeVarint(schemaVersion);
+        return out;
+    }
+}
@@ -0,0 +1,83 @@
+package com.astracore.event.codec;
+
+import com.astracore.event.InvoiceIssued;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encodes and decodes an {@link InvoiceIssued} with Jackson (what the services used
+ * before) and with {@link BinaryEventCodec}. Payload sizes are printed during setup.
+ * <pre>
+ * mvn -pl libs/event-contracts test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main EventCodecBenchmark -prof gc"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventCodecBenchmark {
+
+    private ObjectMapper objectMapper;
+    private InvoiceIssued event;
+    private byte[] json;
+    private byte[] binary;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        event = new InvoiceIssued(
+                "tenant-1",
+                UUID.randomUUID().toString(),
+                UUID.randomUUID().toString(),
+                new BigDecimal("1234.56"),
+                "USD",
+                LocalDate.of(2024, 1, 15),
+                LocalDate.of(2024, 2, 14),
+                Instant.parse("2024-01-15T10:15:30.123456Z"));
+        json = objectMapper.writeValueAsBytes(event);
+        binary = BinaryEventCodec.encode(event);
+        if (!event.equals(BinaryEventCodec.decode(binary))) {
+            throw new IllegalStateException("Binary round trip changed the event");
+        }
+        System.out.printf("%nPayload size: json=%d bytes, binary=%d bytes%n", json.length, binary.length);
+    }
+
+    @Benchmark
+    public byte[] encodeJson() throws Exception {
+        return objectMapper.writeValueAsBytes(event);
+    }
+
+    @Benchmark
+    public byte[] encodeBinary() {
+        return BinaryEventCodec.encode(event);
+    }
+
+    @Benchmark
+    public Object decodeJson() throws Exception {
+        return objectMapper.readValue(json, InvoiceIssued.class);
+    }
+
+    @Benchmark
+    public Object decodeBinary() {
+        return BinaryEventCodec.decode(binary);
+    }
+}
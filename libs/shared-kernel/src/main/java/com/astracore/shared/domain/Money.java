@@ -1,33 +1,318 @@
 package com.astracore.shared.domain;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
 import java.util.Currency;
 import java.util.Objects;
 
 /**
  * Value Object for Money.
+ * <p>
+ * Amounts that fit are also held as a {@code long} count of the currency's minor units
+ * (cents for USD), and arithmetic between such values runs on primitives. A
+ * {@link BigDecimal} is only built when the caller asks for it, when an amount has a
+ * fraction finer than the currency's minor unit, or when a {@code long} would overflow.
+ * Amounts compare by value, so {@code 1.000 USD} equals {@code 1.00 USD}.
+ * Results of arithmetic are always rounded to the currency's minor unit with
+ * {@link RoundingMode#HALF_EVEN}.
  */
 public class Money {
-    private final BigDecimal amount;
+
+    private static final long[] POWERS_OF_TEN = new long[19];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private static final RoundingMode ROUNDING = RoundingMode.HALF_EVEN;
+
     private final Currency currency;
+    private final boolean compact;
+    private final long minorUnits;
+    // Built lazily for compact values; benign race, the result is always the same
+    private BigDecimal amount;
 
     public Money(BigDecimal amount, Currency currency) {
         this.amount = amount;
         this.currency = currency;
+        long minor = 0;
+        boolean fits = false;
+        if (amount != null && currency != null) {
+            try {
+                // Trailing zeros beyond the minor unit (1.000 USD, or a DECIMAL(18,6) column)
+                // still fit; only a real sub-minor fraction or overflow throws here
+                minor = amount.movePointRight(scale(currency)).longValueExact();
+                fits = true;
+            } catch (ArithmeticException e) {
+                // Finer than the minor unit or too large for a long; stays on the BigDecimal path
+            }
+        }
+        this.minorUnits = minor;
+        this.compact = fits;
+    }
+
+    private Money(long minorUnits, Currency currency) {
+        this.currency = currency;
+        this.minorUnits = minorUnits;
+        this.compact = true;
     }
 
     public static Money of(BigDecimal amount, String currencyCode) {
         return new Money(amount, Currency.getInstance(currencyCode));
     }
 
+    public static Money ofMinor(long minorUnits, Currency currency) {
+        return new Money(minorUnits, Objects.requireNonNull(currency, "currency"));
+    }
+
+    public static Money zero(Currency currency) {
+        return ofMinor(0, currency);
+    }
+
+    /**
+     * Sums {@code amounts} without allocating per element while the running total fits
+     * in a {@code long}.
+     */
+    public static Money sum(Currency currency, Iterable<Money> amounts) {
+        long total = 0;
+        BigDecimal overflow = null;
+        for (Money money : amounts) {
+            money.requireCurrency(currency);
+            if (overflow == null && money.compact) {
+                long next = total + money.minorUnits;
+                if (((total ^ next) & (money.minorUnits ^ next)) >= 0) {
+                    total = next;
+                    continue;
+                }
+            }
+            if (overflow == null) {
+                overflow = BigDecimal.valueOf(total, scale(currency));
+            }
+            overflow = overflow.add(money.getAmount());
+        }
+        return overflow == null ? ofMinor(total, currency) : rounded(overflow, currency);
+    }
+
     public BigDecimal getAmount() {
-        return amount;
+        BigDecimal value = amount;
+        if (value == null && compact) {
+            value = BigDecimal.valueOf(minorUnits, scale(currency));
+            amount = value;
+        }
+        return value;
     }
 
     public Currency getCurrency() {
         return currency;
     }
 
+    public Money add(Money other) {
+        requireCurrency(other.currency);
+        if (compact && other.compact) {
+            long result = minorUnits + other.minorUnits;
+            if (((minorUnits ^ result) & (other.minorUnits ^ result)) >= 0) {
+                return new Money(result, currency);
+            }
+        }
+        return rounded(getAmount().add(other.getAmount()), currency);
+    }
+
+    public Money subtract(Money other) {
+        requireCurrency(other.currency);
+        if (compact && other.compact) {
+            long result = minorUnits - other.minorUnits;
+            if (((minorUnits ^ other.minorUnits) & (minorUnits ^ result)) >= 0) {
+                return new Money(result, currency);
+            }
+        }
+        return rounded(getAmount().subtract(other.getAmount()), currency);
+    }
+
+    /**
+     * Multiplies by a quantity (e.g. unit price times quantity), rounding to the minor unit.
+     */
+    public Money multiply(BigDecimal quantity) {
+        Objects.requireNonNull(quantity, "quantity");
+        if (compact && quantity.scale() >= 0 && quantity.scale() < POWERS_OF_TEN.length
+                && quantity.precision() <= 18) {
+            // Whole quantities (the common case) read the long without building a BigInteger
+            long factor = quantity.scale() == 0 ? quantity.longValue() : quantity.unscaledValue().longValue();
+            long high = Math.multiplyHigh(minorUnits, factor);
+            long product = minorUnits * factor;
+            // No overflow when the high word is just the sign extension of the low word
+            if ((high == 0 && product >= 0) || (high == -1 && product < 0)) {
+                return new Money(divideRounded(product, POWERS_OF_TEN[quantity.scale()]), currency);
+            }
+        }
+        return rounded(requireAmount().multiply(quantity), currency);
+    }
+
+    public Money multiply(long factor) {
+        if (compact) {
+            long high = Math.multiplyHigh(minorUnits, factor);
+            long product = minorUnits * factor;
+            if ((high == 0 && product >= 0) || (high == -1 && product < 0)) {
+                return new Money(product, currency);
+            }
+        }
+        return rounded(requireAmount().multiply(BigDecimal.valueOf(factor)), currency);
+    }
+
+    /**
+     * Splits this amount in proportion to {@code ratios} without losing a minor unit: the
+     * remainder left by rounding down is handed out one unit at a time from the first share.
+     */
+    public Money[] allocate(long... ratios) {
+        if (ratios.length == 0) {
+            throw new IllegalArgumentException("At least one ratio is required");
+        }
+        long totalRatio = 0;
+        for (long ratio : ratios) {
+            if (ratio < 0) {
+                throw new IllegalArgumentException("Ratios must not be negative");
+            }
+            totalRatio = Math.addExact(totalRatio, ratio);
+        }
+        if (totalRatio == 0) {
+            throw new IllegalArgumentException("Ratios must not all be zero");
+        }
+
+        Money whole = rounded();
+        if (whole.signum() < 0) {
+            // Allocate the magnitude so leftover units are handed out in the same order
+            Money[] shares = whole.multiply(-1).allocate(ratios);
+            for (int i = 0; i < shares.length; i++) {
+                shares[i] = shares[i].multiply(-1);
+            }
+            return shares;
+        }
+        if (!whole.compact) {
+            return allocateBig(whole.getAmount(), ratios, totalRatio);
+        }
+        Money[] shares = new Money[ratios.length];
+        long remainder = whole.minorUnits;
+        long[] parts = new long[ratios.length];
+        for (int i = 0; i < ratios.length; i++) {
+            parts[i] = floorMultiplyDivide(whole.minorUnits, ratios[i], totalRatio);
+            remainder -= parts[i];
+        }
+        for (int i = 0; remainder > 0; i = (i + 1) % ratios.length) {
+            if (ratios[i] > 0) {
+                parts[i]++;
+                remainder--;
+            }
+        }
+        for (int i = 0; i < ratios.length; i++) {
+            shares[i] = new Money(parts[i], currency);
+        }
+        return shares;
+    }
+
+    /**
+     * Splits this amount into {@code parts} shares that differ by at most one minor unit.
+     */
+    public Money[] split(int parts) {
+        if (parts <= 0) {
+            throw new IllegalArgumentException("parts must be positive");
+        }
+        long[] ratios = new long[parts];
+        Arrays.fill(ratios, 1);
+        return allocate(ratios);
+    }
+
+    /**
+     * This amount rounded to the currency's minor unit.
+     */
+    public Money rounded() {
+        if (compact) {
+            // Drop trailing zeros past the minor unit so the amount comes back at its scale
+            BigDecimal value = amount;
+            return value == null || value.scale() <= scale(currency) ? this : new Money(minorUnits, currency);
+        }
+        return rounded(requireAmount(), currency);
+    }
+
+    public boolean isZero() {
+        return compact ? minorUnits == 0 : requireAmount().signum() == 0;
+    }
+
+    public int signum() {
+        return compact ? Long.signum(minorUnits) : requireAmount().signum();
+    }
+
+    private Money[] allocateBig(BigDecimal total, long[] ratios, long totalRatio) {
+        int scale = scale(currency);
+        BigDecimal unit = BigDecimal.ONE.movePointLeft(scale);
+        BigDecimal divisor = BigDecimal.valueOf(totalRatio);
+        BigDecimal[] parts = new BigDecimal[ratios.length];
+        BigDecimal remainder = total;
+        for (int i = 0; i < ratios.length; i++) {
+            parts[i] = total.multiply(BigDecimal.valueOf(ratios[i])).divide(divisor, scale, RoundingMode.FLOOR);
+            remainder = remainder.subtract(parts[i]);
+        }
+        for (int i = 0; remainder.signum() > 0; i = (i + 1) % ratios.length) {
+            if (ratios[i] > 0) {
+                parts[i] = parts[i].add(unit);
+                remainder = remainder.subtract(unit);
+            }
+        }
+        Money[] shares = new Money[ratios.length];
+        for (int i = 0; i < ratios.length; i++) {
+            shares[i] = new Money(parts[i], currency);
+        }
+        return shares;
+    }
+
+    private BigDecimal requireAmount() {
+        BigDecimal value = getAmount();
+        if (value == null) {
+            throw new IllegalStateException("Money has no amount");
+        }
+        return value;
+    }
+
+    private void requireCurrency(Currency expected) {
+        if (!Objects.equals(currency, expected)) {
+            throw new IllegalArgumentException("Currency mismatch: " + currency + " vs " + expected);
+        }
+    }
+
+    private static Money rounded(BigDecimal value, Currency currency) {
+        return new Money(value.setScale(scale(currency), ROUNDING), currency);
+    }
+
+    // floor(value * ratio / divisor) for non-negative operands, widening only on overflow
+    private static long floorMultiplyDivide(long value, long ratio, long divisor) {
+        long high = Math.multiplyHigh(value, ratio);
+        long product = value * ratio;
+        if (high == 0 && product >= 0) {
+            return product / divisor;
+        }
+        return BigDecimal.valueOf(value).multiply(BigDecimal.valueOf(ratio))
+                .divide(BigDecimal.valueOf(divisor), 0, RoundingMode.FLOOR).longValueExact();
+    }
+
+    private static long divideRounded(long dividend, long divisor) {
+        if (divisor == 1) {
+            return dividend;
+        }
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        long twiceRemainder = Math.abs(remainder) * 2;
+        if (twiceRemainder > divisor || (twiceRemainder == divisor && (quotient & 1) != 0)) {
+            quotient += Long.signum(dividend);
+        }
+        return quotient;
+    }
+
+    private static int scale(Currency currency) {
+        return Math.max(0, currency.getDefaultFractionDigits());
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o)
@@ -35,16 +320,27 @@ public class Money {
         if (o == null || getClass() != o.getClass())
             return false;
         Money money = (Money) o;
-        return Objects.equals(amount, money.amount) && Objects.equals(currency, money.currency);
+        if (compact && money.compact) {
+            return minorUnits == money.minorUnits && Objects.equals(currency, money.currency);
+        }
+        BigDecimal value = getAmount();
+        BigDecimal other = money.getAmount();
+        boolean sameValue = value == null ? other == null : other != null && value.compareTo(other) == 0;
+        return sameValue && Objects.equals(currency, money.currency);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(amount, currency);
+        // Must agree with equals: values compare numerically, whatever their scale
+        if (compact) {
+            return Objects.hash(minorUnits, currency);
+        }
+        BigDecimal value = getAmount();
+        return Objects.hash(value == null ? null : value.stripTrailingZeros(), currency);
     }
 
     @Override
     public String toString() {
-        return amount + " " + currency;
+        return getAmount() + " " + currency;
     }
 }
@@ -0,0 +1,99 @@
+package com.astracore.shared.domain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Totals a large invoice the old way (BigDecimal per line) and with {@link Money}.
+ * Run with the GC profiler to compare bytes allocated per operation:
+ * <pre>
+ * mvn -pl libs/shared-kernel test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main MoneyBenchmark -prof gc"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+
+    private static final Currency USD = Currency.getInstance("USD");
+
+    @Param({"100", "10000"})
+    private int lines;
+
+    private BigDecimal[] unitPrices;
+    private BigDecimal[] quantities;
+    private BigDecimal[] lineAmounts;
+    private List<Money> lineMoney;
+    private Money[] unitPriceMoney;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        unitPrices = new BigDecimal[lines];
+        quantities = new BigDecimal[lines];
+        lineAmounts = new BigDecimal[lines];
+        unitPriceMoney = new Money[lines];
+        lineMoney = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            unitPrices[i] = BigDecimal.valueOf(random.nextInt(1_000_000), 2);
+            quantities[i] = BigDecimal.valueOf(1 + random.nextInt(50));
+            lineAmounts[i] = unitPrices[i].multiply(quantities[i]).setScale(2, RoundingMode.HALF_EVEN);
+            unitPriceMoney[i] = new Money(unitPrices[i], USD);
+            lineMoney.add(new Money(lineAmounts[i], USD));
+        }
+    }
+
+    @Benchmark
+    public BigDecimal sumBigDecimal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (BigDecimal amount : lineAmounts) {
+            total = total.add(amount);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public Money sumMoney() {
+        return Money.sum(USD, lineMoney);
+    }
+
+    // Both pricing benchmarks mirror Invoice.recalculateTotals: store each line total, then sum
+    @Benchmark
+    public BigDecimal priceLinesBigDecimal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < lines; i++) {
+            lineAmounts[i] = unitPrices[i].multiply(quantities[i]).setScale(2, RoundingMode.HALF_EVEN);
+            total = total.add(lineAmounts[i]);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public Money priceLinesMoney() {
+        for (int i = 0; i < lines; i++) {
+            lineMoney.set(i, unitPriceMoney[i].multiply(quantities[i]));
+        }
+        return Money.sum(USD, lineMoney);
+    }
+}
@@ -0,0 +1,153 @@
+package com.astracore.shared.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyTest {
+
+    private static final Currency USD = Currency.getInstance("USD");
+    private static final Currency JPY = Currency.getInstance("JPY");
+
+    @Test
+    void multiply_shouldRoundHalfEvenToMinorUnit() {
+        Money price = Money.of(new BigDecimal("0.05"), "USD");
+
+        // 0.025 and 0.035 are both ties: they go to the even cent
+        assertThat(price.multiply(new BigDecimal("0.5")).getAmount()).isEqualByComparingTo("0.02");
+        assertThat(Money.of(new BigDecimal("0.07"), "USD").multiply(new BigDecimal("0.5")).getAmount())
+                .isEqualByComparingTo("0.04");
+        assertThat(Money.of(new BigDecimal("-0.05"), "USD").multiply(new BigDecimal("0.5")).getAmount())
+                .isEqualByComparingTo("-0.02");
+        assertThat(Money.of(new BigDecimal("19.99"), "USD").multiply(new BigDecimal("3")).getAmount())
+                .isEqualByComparingTo("59.97");
+        assertThat(Money.of(new BigDecimal("100"), "JPY").multiply(new BigDecimal("1.005")).getAmount())
+                .isEqualByComparingTo("100");
+    }
+
+    @Test
+    void rounded_shouldRoundExtraPrecisionHalfEven() {
+        assertThat(Money.of(new BigDecimal("10.125"), "USD").rounded().getAmount()).isEqualByComparingTo("10.12");
+        assertThat(Money.of(new BigDecimal("10.135"), "USD").rounded().getAmount()).isEqualByComparingTo("10.14");
+        assertThat(Money.of(new BigDecimal("10.1251"), "USD").rounded().getAmount()).isEqualByComparingTo("10.13");
+        // Precision the currency allows is kept as given
+        assertThat(Money.of(new BigDecimal("10.1"), "USD").getAmount()).isEqualTo(new BigDecimal("10.1"));
+    }
+
+    @Test
+    void equals_shouldCompareValueWhateverTheScale() {
+        Money one = Money.of(new BigDecimal("1.0"), "USD");
+        Money same = Money.of(new BigDecimal("1.00"), "USD");
+
+        assertThat(one).isEqualTo(same).hasSameHashCodeAs(same);
+        assertThat(one).isNotEqualTo(Money.of(new BigDecimal("1.00"), "EUR"));
+
+        // Scales above the currency's, as read from a DECIMAL(18,6) column
+        Money finer = Money.of(new BigDecimal("1.000"), "USD");
+        assertThat(finer).isEqualTo(same).hasSameHashCodeAs(same);
+        Money twenty = Money.of(new BigDecimal("20.000000"), "USD");
+        Money whole = Money.of(new BigDecimal("20"), "USD");
+        assertThat(twenty).isEqualTo(whole).hasSameHashCodeAs(whole);
+        assertThat(twenty.rounded().getAmount()).isEqualTo(new BigDecimal("20.00"));
+        assertThat(twenty.add(Money.ofMinor(1, USD)).getAmount()).isEqualTo(new BigDecimal("20.01"));
+
+        // A fraction finer than a cent stays distinct, but still compares by value
+        Money subCent = Money.of(new BigDecimal("1.0050"), "USD");
+        assertThat(subCent).isNotEqualTo(same);
+        assertThat(subCent).isEqualTo(Money.of(new BigDecimal("1.005"), "USD"))
+                .hasSameHashCodeAs(Money.of(new BigDecimal("1.005"), "USD"));
+    }
+
+    @Test
+    void add_shouldPromoteToBigDecimalWhenMinorUnitsOverflow() {
+        Money max = Money.ofMinor(Long.MAX_VALUE, USD);
+        Money cent = Money.ofMinor(1, USD);
+
+        assertThat(max.add(cent).getAmount())
+                .isEqualByComparingTo(BigDecimal.valueOf(Long.MAX_VALUE).add(BigDecimal.ONE).movePointLeft(2));
+        assertThat(Money.ofMinor(Long.MIN_VALUE, USD).subtract(cent).getAmount())
+                .isEqualByComparingTo(BigDecimal.valueOf(Long.MIN_VALUE).subtract(BigDecimal.ONE).movePointLeft(2));
+        // Back below the limit the value compares equal to a compact one
+        assertThat(max.add(cent).subtract(cent)).isEqualTo(max);
+    }
+
+    @Test
+    void multiply_shouldPromoteToBigDecimalWhenMinorUnitsOverflow() {
+        Money large = Money.ofMinor(Long.MAX_VALUE / 2 + 1, USD);
+
+        assertThat(large.multiply(2).getAmount())
+                .isEqualByComparingTo(BigDecimal.valueOf(Long.MAX_VALUE / 2 + 1).multiply(BigDecimal.valueOf(2)).movePointLeft(2));
+        assertThat(large.multiply(new BigDecimal("2.5")).getAmount())
+                .isEqualByComparingTo(BigDecimal.valueOf(Long.MAX_VALUE / 2 + 1)
+                        .multiply(new BigDecimal("2.5")).movePointLeft(2).setScale(2, RoundingMode.HALF_EVEN));
+    }
+
+    @Test
+    void sum_shouldKeepSummingPastLongOverflow() {
+        Money max = Money.ofMinor(Long.MAX_VALUE, USD);
+
+        Money total = Money.sum(USD, List.of(max, max, Money.ofMinor(-1, USD)));
+
+        assertThat(total.getAmount()).isEqualByComparingTo(
+                BigDecimal.valueOf(Long.MAX_VALUE).multiply(BigDecimal.valueOf(2)).subtract(BigDecimal.ONE).movePointLeft(2));
+    }
+
+    @Test
+    void sum_shouldRejectOtherCurrencies() {
+        assertThatThrownBy(() -> Money.sum(USD, List.of(Money.zero(JPY))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void allocate_shouldHandRemainderOutFromFirstShare() {
+        Money[] shares = Money.of(new BigDecimal("100.00"), "USD").split(3);
+
+        assertThat(amounts(shares)).containsExactly("33.34", "33.33", "33.33");
+    }
+
+    @Test
+    void allocate_shouldFollowRatiosAndSkipZeroRatiosForRemainder() {
+        Money[] shares = Money.of(new BigDecimal("0.05"), "USD").allocate(0, 3, 7);
+
+        // 0.015 and 0.035 floor to 0.01 and 0.03; the leftover cent skips the zero share
+        assertThat(amounts(shares)).containsExactly("0.00", "0.02", "0.03");
+        assertThat(Money.sum(USD, Arrays.asList(shares)).getAmount()).isEqualByComparingTo("0.05");
+    }
+
+    @Test
+    void allocate_shouldHandOutNegativeRemainderInTheSameOrder() {
+        Money[] shares = Money.of(new BigDecimal("-100.00"), "USD").split(3);
+
+        assertThat(amounts(shares)).containsExactly("-33.34", "-33.33", "-33.33");
+    }
+
+    @Test
+    void allocate_shouldNotLoseUnitsBeyondLongRange() {
+        Money huge = Money.ofMinor(Long.MAX_VALUE, USD).add(Money.ofMinor(Long.MAX_VALUE, USD));
+
+        Money[] shares = huge.split(3);
+
+        assertThat(Money.sum(USD, Arrays.asList(shares))).isEqualTo(huge);
+        assertThat(shares[0].subtract(shares[2]).getAmount()).isBetween(BigDecimal.ZERO, new BigDecimal("0.01"));
+    }
+
+    @Test
+    void allocate_shouldRejectInvalidRatios() {
+        Money money = Money.of(new BigDecimal("1.00"), "USD");
+
+        assertThatThrownBy(money::allocate).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> money.allocate(1, -1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> money.allocate(0, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static String[] amounts(Money[] shares) {
+        return Arrays.stream(shares).map(share -> share.getAmount().toPlainString()).toArray(String[]::new);
+    }
+}
@@ -0,0 +1,162 @@
+package com.astracore.tenancy;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Decides which shard the current thread's database work goes to. A shard bound with
+ * {@link #runOnShard} wins; otherwise the current tenant's shard is used, taken from its
+ * placement in the catalog if it has one and from the hash ring if not.
+ * <p>
+ * Placements are cached and reloaded with {@link #refreshPlacements()}, so a move is
+ * seen by other instances within one refresh interval; movers wait at least that long
+ * after freezing a tenant before copying its data. With a single shard there is no
+ * catalog and every tenant lives on that shard.
+ */
+@Slf4j
+public class ShardRouter {
+
+    private static final long LOAD_RETRY_MILLIS = 5000;
+
+    private final TenantShardRing ring;
+    private final TenantPlacementStore placementStore;
+    private final ThreadLocal<String> boundShard = new ThreadLocal<>();
+    private volatile Map<String, TenantPlacement> placements = Map.of();
+    private volatile boolean loaded;
+    private long nextLoadAttempt;
+
+    public ShardRouter(TenantShardRing ring, TenantPlacementStore placementStore) {
+        this.ring = ring;
+        this.placementStore = placementStore;
+        this.loaded = placementStore == null;
+    }
+
+    public static ShardRouter singleShard(String shard) {
+        return new ShardRouter(new TenantShardRing(List.of(shard), 1), null);
+    }
+
+    public List<String> shards() {
+        return ring.shards();
+    }
+
+    public TenantShardRing ring() {
+        return ring;
+    }
+
+    /**
+     * @throws TenantUnavailableException while the tenant is being moved
+     */
+    public String shardFor(String tenantId) {
+        if (!loaded) {
+            loadPlacements();
+        }
+        TenantPlacement placement = placements.get(tenantId);
+        if (placement == null) {
+            return ring.shardFor(tenantId);
+        }
+        if (placement.frozen()) {
+            throw new TenantUnavailableException(tenantId);
+        }
+        return placement.shard();
+    }
+
+    /**
+     * Like {@link #shardFor} but waits, re-reading the catalog, for a move to finish.
+     * For consumers that would rather hold a record back than fail it.
+     */
+    public String awaitShardFor(String tenantId, long timeoutMillis) {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (true) {
+            try {
+                return shardFor(tenantId);
+            } catch (TenantUnavailableException e) {
+                if (System.currentTimeMillis() >= deadline) {
+                    throw e;
+                }
+                try {
+                    Thread.sleep(Math.min(500, Math.max(1, deadline - System.currentTimeMillis())));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+                refreshPlacements();
+            }
+        }
+    }
+
+    public String currentShard() {
+        String shard = boundShard.get();
+        return shard != null ? shard : shardFor(TenantContext.current());
+    }
+
+    public void runOnShard(String shard, Runnable action) {
+        callOnShard(shard, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public <T> T callOnShard(String shard, Supplier<T> action) {
+        if (!ring.shards().contains(shard)) {
+            throw new IllegalArgumentException("Unknown shard: " + shard);
+        }
+        String previous = boundShard.get();
+        boundShard.set(shard);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                boundShard.remove();
+            } else {
+                boundShard.set(previous);
+            }
+        }
+    }
+
+    public void refreshPlacements() {
+        if (placementStore == null) {
+            return;
+        }
+        Map<String, TenantPlacement> found = new HashMap<>();
+        for (TenantPlacement placement : placementStore.findAll()) {
+            if (!ring.shards().contains(placement.shard())) {
+                log.warn("Ignoring placement of tenant {} on unknown shard {}", placement.tenantId(), placement.shard());
+                continue;
+            }
+            found.put(placement.tenantId(), placement);
+        }
+        placements = Map.copyOf(found);
+        loaded = true;
+    }
+
+    // The catalog is read on first use rather than at startup, once migrations have created it
+    private synchronized void loadPlacements() {
+        long now = System.currentTimeMillis();
+        if (loaded || now < nextLoadAttempt) {
+            return;
+        }
+        try {
+            refreshPlacements();
+        } catch (RuntimeException e) {
+            nextLoadAttempt = now + LOAD_RETRY_MILLIS;
+            log.warn("Could not load tenant placements yet, routing by the ring alone: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Applies a placement this instance has just written, ahead of the next refresh.
+     */
+    public void placed(TenantPlacement placement) {
+        Map<String, TenantPlacement> updated = new HashMap<>(placements);
+        updated.put(placement.tenantId(), placement);
+        placements = Map.copyOf(updated);
+    }
+
+    public Map<String, TenantPlacement> placements() {
+        return placements;
+    }
+}
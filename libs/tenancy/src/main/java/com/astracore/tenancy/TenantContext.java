@@ -0,0 +1,78 @@
+package com.astracore.tenancy;
+
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * The tenant the current thread is working for. Set per request by the services' tenant
+ * filters and per record by message listeners; code running outside either sees
+ * {@link #DEFAULT_TENANT}, which is also the tenant every row written before tenancy
+ * existed belongs to.
+ */
+public final class TenantContext {
+
+    public static final String DEFAULT_TENANT = "default";
+
+    private static final Pattern VALID_TENANT_ID = Pattern.compile("[A-Za-z0-9][A-Za-z0-9_-]{0,63}");
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private TenantContext() {
+    }
+
+    public static String current() {
+        String tenantId = CURRENT.get();
+        return tenantId != null ? tenantId : DEFAULT_TENANT;
+    }
+
+    /**
+     * Tenant ids end up in Kafka keys and SQL literals, so only letters, digits,
+     * {@code -} and {@code _} are accepted, at most 64 characters.
+     */
+    public static String requireValid(String tenantId) {
+        if (tenantId == null || !VALID_TENANT_ID.matcher(tenantId).matches()) {
+            throw new IllegalArgumentException("Invalid tenant id: " + tenantId);
+        }
+        return tenantId;
+    }
+
+    public static void run(String tenantId, Runnable action) {
+        call(tenantId, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public static <T> T call(String tenantId, Supplier<T> action) {
+        try (Scope ignored = enter(tenantId)) {
+            return action.get();
+        }
+    }
+
+    /**
+     * Makes {@code tenantId} current until the returned scope is closed, for callers that
+     * have checked exceptions to pass through.
+     */
+    public static Scope enter(String tenantId) {
+        String previous = CURRENT.get();
+        CURRENT.set(requireValid(tenantId));
+        return new Scope(previous);
+    }
+
+    public static final class Scope implements AutoCloseable {
+
+        private final String previous;
+
+        private Scope(String previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.astracore.tenancy;
+
+import java.util.Map;
+
+/**
+ * Outcome of moving one tenant.
+ *
+ * @param copiedRows    rows written to the target, by table
+ * @param sourceCleaned false if the tenant's rows could not be deleted from the source
+ *                      after the switch; they are unreachable there but take up space
+ *                      until removed by hand
+ */
+public record TenantMove(String tenantId,
+                         String sourceShard,
+                         String targetShard,
+                         Map<String, Long> copiedRows,
+                         long elapsedMillis,
+                         boolean sourceCleaned) {
+}
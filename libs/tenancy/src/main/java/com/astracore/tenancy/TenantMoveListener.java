@@ -0,0 +1,30 @@
+package com.astracore.tenancy;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Service-specific steps around a {@link TenantMover} move.
+ */
+public interface TenantMoveListener {
+
+    /**
+     * Called once the tenant is frozen and before anything is copied. Throw to refuse
+     * the move; the tenant is unfrozen where it was.
+     */
+    default void beforeCopy(String tenantId, String sourceShard, String targetShard) {
+    }
+
+    /**
+     * Called on the target's copy transaction once every table is copied and before it
+     * commits, for changes that must land together with the tenant's rows.
+     */
+    default void afterCopy(String tenantId, String targetShard, Connection target) throws SQLException {
+    }
+
+    /**
+     * Called after the tenant has switched to the target and the source was cleaned up.
+     */
+    default void afterMove(String tenantId, String sourceShard, String targetShard) {
+    }
+}
@@ -0,0 +1,323 @@
+package com.astracore.tenancy;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.copy.CopyOut;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Moves a tenant's rows from one shard to another.
+ * <ol>
+ *   <li>The tenant is frozen in the catalog; requests for it fail with
+ *       {@link TenantUnavailableException} and consumers hold its records back. The mover
+ *       then waits {@code freezeGrace}, long enough for every instance to reload
+ *       placements and for transactions already under way to finish.</li>
+ *   <li>Each table is streamed with binary {@code COPY} from one repeatable-read snapshot
+ *       of the source into the target, all in one target transaction; nothing is
+ *       buffered beyond a row. Owned rows go straight into the table, which must not
+ *       hold any of the tenant's rows yet; shared rows go through a temporary table and
+ *       are inserted unless already present.</li>
+ *   <li>The placement switches to the target and the tenant is unfrozen, after which
+ *       owned and derived rows are deleted from the source in reverse table order.</li>
+ * </ol>
+ * A failure before the switch leaves the tenant where it was. Tables are listed parents
+ * first, so foreign keys hold at every step.
+ * <p>
+ * Before the ring changes (a shard is added or removed), {@link #pinAll()} records where
+ * every tenant's data is now, so nothing moves implicitly; {@link #rebalance()} then
+ * moves pinned tenants to the shard the new ring picks, one at a time.
+ */
+@Slf4j
+public class TenantMover {
+
+    private static final String COLUMNS_SQL = """
+            SELECT column_name
+              FROM information_schema.columns
+             WHERE table_schema = current_schema() AND table_name = ?
+             ORDER BY ordinal_position
+            """;
+
+    private final ShardRouter router;
+    private final TenantPlacementStore placementStore;
+    private final Map<String, DataSource> shards;
+    private final List<TenantTable> tables;
+    private final String tenantsSql;
+    private final TenantMoveListener listener;
+    private final Duration freezeGrace;
+
+    /**
+     * @param tables     the tenant's tables, parents before children
+     * @param tenantsSql lists the tenants that have data on a shard, for {@link #pinAll()}
+     */
+    public TenantMover(ShardRouter router,
+                       TenantPlacementStore placementStore,
+                       Map<String, DataSource> shards,
+                       List<TenantTable> tables,
+                       String tenantsSql,
+                       TenantMoveListener listener,
+                       Duration freezeGrace) {
+        this.router = router;
+        this.placementStore = placementStore;
+        this.shards = Map.copyOf(shards);
+        this.tables = List.copyOf(tables);
+        this.tenantsSql = tenantsSql;
+        this.listener = listener != null ? listener : new TenantMoveListener() {
+        };
+        this.freezeGrace = freezeGrace;
+    }
+
+    public TenantMove move(String tenantId, String targetShard) {
+        TenantContext.requireValid(tenantId);
+        if (!shards.containsKey(targetShard)) {
+            throw new IllegalArgumentException("Unknown shard: " + targetShard);
+        }
+        router.refreshPlacements();
+        String sourceShard = router.shardFor(tenantId);
+        if (sourceShard.equals(targetShard)) {
+            return new TenantMove(tenantId, sourceShard, targetShard, Map.of(), 0, true);
+        }
+        if (!placementStore.freeze(tenantId, sourceShard)) {
+            throw new IllegalStateException("Tenant " + tenantId + " is already being moved");
+        }
+        router.placed(new TenantPlacement(tenantId, sourceShard, true));
+        log.info("Moving tenant {} from shard {} to {}", tenantId, sourceShard, targetShard);
+        long started = System.nanoTime();
+
+        Map<String, Long> copied;
+        try {
+            Thread.sleep(freezeGrace.toMillis());
+            listener.beforeCopy(tenantId, sourceShard, targetShard);
+            copied = copy(tenantId, sourceShard, targetShard);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            release(tenantId, sourceShard);
+            throw new IllegalStateException("Interrupted while moving tenant " + tenantId, e);
+        } catch (RuntimeException e) {
+            release(tenantId, sourceShard);
+            throw e;
+        }
+
+        TenantPlacement moved = new TenantPlacement(tenantId, targetShard, false);
+        try {
+            placementStore.save(moved);
+        } catch (RuntimeException e) {
+            // The copy must go, or the next attempt finds the target already holding the tenant
+            delete(targetShard, tenantId, EnumSet.of(TenantTable.Kind.OWNED));
+            release(tenantId, sourceShard);
+            throw e;
+        }
+        router.placed(moved);
+
+        boolean cleaned = delete(sourceShard, tenantId, EnumSet.of(TenantTable.Kind.OWNED, TenantTable.Kind.DERIVED));
+        listener.afterMove(tenantId, sourceShard, targetShard);
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        log.info("Moved tenant {} from shard {} to {} in {} ms: {}", tenantId, sourceShard, targetShard, elapsedMillis, copied);
+        return new TenantMove(tenantId, sourceShard, targetShard, copied, elapsedMillis, cleaned);
+    }
+
+    /**
+     * Pins every tenant with data on a shard to that shard, unless it already has a
+     * placement. Run before changing the shard list, and once more right after.
+     *
+     * @return the placements added
+     */
+    public List<TenantPlacement> pinAll() {
+        Map<String, String> seen = new HashMap<>();
+        List<TenantPlacement> pinned = new ArrayList<>();
+        for (String shard : router.shards()) {
+            for (String tenantId : new JdbcTemplate(shards.get(shard)).queryForList(tenantsSql, String.class)) {
+                String other = seen.putIfAbsent(tenantId, shard);
+                if (other != null) {
+                    log.warn("Tenant {} has data on shards {} and {}; keeping its placement on {}",
+                            tenantId, other, shard, other);
+                    continue;
+                }
+                if (placementStore.pinIfAbsent(tenantId, shard)) {
+                    pinned.add(new TenantPlacement(tenantId, shard, false));
+                }
+            }
+        }
+        router.refreshPlacements();
+        log.info("Pinned {} tenants to their current shards", pinned.size());
+        return pinned;
+    }
+
+    /**
+     * Moves every placed tenant that the ring would put elsewhere. Stops at the first
+     * failure; moves already made stand, and running it again carries on.
+     */
+    public List<TenantMove> rebalance() {
+        router.refreshPlacements();
+        List<TenantPlacement> placements = new ArrayList<>(router.placements().values());
+        placements.sort(Comparator.comparing(TenantPlacement::tenantId));
+        List<TenantMove> moves = new ArrayList<>();
+        for (TenantPlacement placement : placements) {
+            String wanted = router.ring().shardFor(placement.tenantId());
+            if (!placement.frozen() && !wanted.equals(placement.shard())) {
+                moves.add(move(placement.tenantId(), wanted));
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * Unfreezes a tenant left frozen by a move that died half way, keeping it on the
+     * shard it was frozen on.
+     */
+    public TenantPlacement release(String tenantId) {
+        TenantPlacement placement = placementStore.find(tenantId)
+                .orElseThrow(() -> new IllegalArgumentException("Tenant " + tenantId + " has no placement"));
+        TenantPlacement released = new TenantPlacement(tenantId, placement.shard(), false);
+        placementStore.save(released);
+        router.placed(released);
+        return released;
+    }
+
+    private void release(String tenantId, String shard) {
+        TenantPlacement placement = new TenantPlacement(tenantId, shard, false);
+        placementStore.save(placement);
+        router.placed(placement);
+    }
+
+    private Map<String, Long> copy(String tenantId, String sourceShard, String targetShard) {
+        Map<String, Long> copied = new LinkedHashMap<>();
+        try (Connection source = shards.get(sourceShard).getConnection();
+             Connection target = shards.get(targetShard).getConnection()) {
+            source.setReadOnly(true);
+            source.setAutoCommit(false);
+            source.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            target.setAutoCommit(false);
+            try {
+                CopyManager sourceCopy = source.unwrap(PGConnection.class).getCopyAPI();
+                CopyManager targetCopy = target.unwrap(PGConnection.class).getCopyAPI();
+                for (TenantTable table : tables) {
+                    if (table.kind() == TenantTable.Kind.DERIVED) {
+                        continue;
+                    }
+                    copied.put(table.name(), copyTable(table, tenantId, source, target, sourceCopy, targetCopy, targetShard));
+                }
+                listener.afterCopy(tenantId, targetShard, target);
+                target.commit();
+            } catch (SQLException | RuntimeException e) {
+                target.rollback();
+                throw e;
+            } finally {
+                source.rollback();
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Copying tenant " + tenantId + " to shard " + targetShard
+                    + " failed: " + e.getMessage(), e);
+        }
+        return copied;
+    }
+
+    private long copyTable(TenantTable table, String tenantId, Connection source, Connection target,
+                           CopyManager sourceCopy, CopyManager targetCopy, String targetShard) throws SQLException {
+        String condition = table.conditionFor(tenantId);
+        String columns = String.join(", ", columns(source, table));
+        if (table.kind() == TenantTable.Kind.OWNED) {
+            try (Statement statement = target.createStatement();
+                 ResultSet rs = statement.executeQuery("SELECT 1 FROM " + table.name() + " WHERE " + condition + " LIMIT 1")) {
+                if (rs.next()) {
+                    throw new IllegalStateException("Shard " + targetShard + " already holds rows of tenant "
+                            + tenantId + " in " + table.name());
+                }
+            }
+        }
+
+        String into = table.name();
+        if (table.kind() == TenantTable.Kind.SHARED) {
+            into = "tenant_move_" + table.name();
+            try (Statement statement = target.createStatement()) {
+                statement.execute("CREATE TEMPORARY TABLE " + into + " (LIKE " + table.name() + ") ON COMMIT DROP");
+            }
+        }
+        long rows = pipe(
+                sourceCopy.copyOut("COPY (SELECT " + columns + " FROM " + table.name() + " WHERE " + condition
+                        + ") TO STDOUT (FORMAT binary)"),
+                targetCopy.copyIn("COPY " + into + " (" + columns + ") FROM STDIN (FORMAT binary)"));
+        if (table.kind() == TenantTable.Kind.SHARED) {
+            try (Statement statement = target.createStatement()) {
+                rows = statement.executeUpdate("INSERT INTO " + table.name() + " (" + columns + ") SELECT "
+                        + columns + " FROM " + into + " ON CONFLICT DO NOTHING");
+            }
+        }
+        return rows;
+    }
+
+    private static long pipe(CopyOut out, CopyIn in) throws SQLException {
+        try {
+            byte[] chunk;
+            while ((chunk = out.readFromCopy()) != null) {
+                in.writeToCopy(chunk, 0, chunk.length);
+            }
+            return in.endCopy();
+        } finally {
+            if (out.isActive()) {
+                out.cancelCopy();
+            }
+            if (in.isActive()) {
+                in.cancelCopy();
+            }
+        }
+    }
+
+    private static List<String> columns(Connection connection, TenantTable table) throws SQLException {
+        List<String> columns = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(COLUMNS_SQL)) {
+            statement.setString(1, table.name());
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    if (!table.excludedColumns().contains(rs.getString(1))) {
+                        columns.add(rs.getString(1));
+                    }
+                }
+            }
+        }
+        if (columns.isEmpty()) {
+            throw new IllegalStateException("Table " + table.name() + " does not exist");
+        }
+        return columns;
+    }
+
+    private boolean delete(String shard, String tenantId, Set<TenantTable.Kind> kinds) {
+        try (Connection connection = shards.get(shard).getConnection()) {
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                for (int i = tables.size() - 1; i >= 0; i--) {
+                    TenantTable table = tables.get(i);
+                    if (kinds.contains(table.kind())) {
+                        statement.executeUpdate("DELETE FROM " + table.name() + " WHERE " + table.conditionFor(tenantId));
+                    }
+                }
+                connection.commit();
+                return true;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException | RuntimeException e) {
+            log.error("Could not delete rows of tenant {} from shard {}; they are no longer used and can be removed by hand",
+                    tenantId, shard, e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.astracore.tenancy;
+
+/**
+ * An explicit shard assignment that overrides the hash ring. {@code frozen} is set for
+ * the duration of a move; nothing may read or write the tenant's data meanwhile.
+ */
+public record TenantPlacement(String tenantId, String shard, boolean frozen) {
+}
@@ -0,0 +1,82 @@
+package com.astracore.tenancy;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The {@code tenant_placement} catalog: tenants pinned to a shard other than (or ahead
+ * of) the one the ring picks. It lives on a single catalog shard that every instance
+ * reads; the table is created by each service's migrations on every shard, but only the
+ * catalog's copy is used.
+ */
+public class TenantPlacementStore {
+
+    private static final String SELECT_COLUMNS = "SELECT tenant_id, shard, frozen FROM tenant_placement";
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO tenant_placement (tenant_id, shard, frozen, updated_at)
+            VALUES (?, ?, ?, NOW())
+            ON CONFLICT (tenant_id) DO UPDATE
+               SET shard = EXCLUDED.shard, frozen = EXCLUDED.frozen, updated_at = NOW()
+            """;
+
+    // Succeeds only if no other move holds the tenant
+    private static final String FREEZE_SQL = """
+            INSERT INTO tenant_placement (tenant_id, shard, frozen, updated_at)
+            VALUES (?, ?, TRUE, NOW())
+            ON CONFLICT (tenant_id) DO UPDATE
+               SET shard = EXCLUDED.shard, frozen = TRUE, updated_at = NOW()
+             WHERE NOT tenant_placement.frozen
+            """;
+
+    private static final String PIN_IF_ABSENT_SQL = """
+            INSERT INTO tenant_placement (tenant_id, shard, frozen, updated_at)
+            VALUES (?, ?, FALSE, NOW())
+            ON CONFLICT (tenant_id) DO NOTHING
+            """;
+
+    private static final RowMapper<TenantPlacement> ROW_MAPPER = (rs, rowNum) -> new TenantPlacement(
+            rs.getString("tenant_id"),
+            rs.getString("shard"),
+            rs.getBoolean("frozen"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TenantPlacementStore(DataSource catalog) {
+        this.jdbcTemplate = new JdbcTemplate(catalog);
+    }
+
+    public List<TenantPlacement> findAll() {
+        return jdbcTemplate.query(SELECT_COLUMNS, ROW_MAPPER);
+    }
+
+    public Optional<TenantPlacement> find(String tenantId) {
+        return jdbcTemplate.query(SELECT_COLUMNS + " WHERE tenant_id = ?", ROW_MAPPER, tenantId).stream().findFirst();
+    }
+
+    public void save(TenantPlacement placement) {
+        jdbcTemplate.update(UPSERT_SQL, placement.tenantId(), placement.shard(), placement.frozen());
+    }
+
+    /**
+     * Freezes the tenant on {@code shard}.
+     *
+     * @return false if the tenant is already frozen by another move
+     */
+    public boolean freeze(String tenantId, String shard) {
+        return jdbcTemplate.update(FREEZE_SQL, tenantId, shard) == 1;
+    }
+
+    /**
+     * Pins the tenant to {@code shard} unless it already has a placement.
+     *
+     * @return true if a placement was added
+     */
+    public boolean pinIfAbsent(String tenantId, String shard) {
+        return jdbcTemplate.update(PIN_IF_ABSENT_SQL, tenantId, shard) == 1;
+    }
+}
@@ -0,0 +1,31 @@
+package com.astracore.tenancy;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Hands out connections from the pool of the shard {@link ShardRouter#currentShard()}
+ * names. The shard is chosen when a connection is taken, i.e. when a transaction starts,
+ * so the tenant (or an explicit shard) must be set before that and stay put for the
+ * whole transaction.
+ */
+public class TenantRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final ShardRouter router;
+
+    public TenantRoutingDataSource(ShardRouter router, Map<String, DataSource> shards) {
+        this.router = router;
+        setTargetDataSources(new HashMap<>(shards));
+        // An unknown shard is a configuration error, never a reason to fall back
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return router.currentShard();
+    }
+}
@@ -0,0 +1,75 @@
+package com.astracore.tenancy;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Consistent hashing of tenant ids onto shard names. Every shard is placed on a 64-bit
+ * ring at {@code virtualNodes} points derived from its name, and a tenant belongs to the
+ * first point at or after its own hash, wrapping around. Adding a shard therefore only
+ * takes over the tenants that now hash closest to its points, roughly
+ * {@code 1 / shardCount} of them, and leaves every other placement as it was.
+ * <p>
+ * The ring depends on nothing but the shard names, so every instance configured with
+ * the same shards computes the same placement without talking to the others.
+ */
+public final class TenantShardRing {
+
+    private final TreeMap<Long, String> ring = new TreeMap<>();
+    private final List<String> shards;
+
+    public TenantShardRing(Collection<String> shards, int virtualNodes) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        if (virtualNodes <= 0) {
+            throw new IllegalArgumentException("virtualNodes must be positive");
+        }
+        List<String> sorted = new ArrayList<>(shards);
+        Collections.sort(sorted);
+        for (String shard : sorted) {
+            for (int node = 0; node < virtualNodes; node++) {
+                // On a (vanishingly rare) collision the first shard in name order keeps the point
+                ring.putIfAbsent(hash(shard + "#" + node), shard);
+            }
+        }
+        this.shards = List.copyOf(sorted);
+    }
+
+    public String shardFor(String tenantId) {
+        Map.Entry<Long, String> point = ring.ceilingEntry(hash(tenantId));
+        return point != null ? point.getValue() : ring.firstEntry().getValue();
+    }
+
+    /**
+     * Shard names in sorted order.
+     */
+    public List<String> shards() {
+        return shards;
+    }
+
+    // First eight bytes of the MD5 digest; well spread, and stable across JVMs and releases
+    static long hash(String value) {
+        byte[] digest = md5().digest(value.getBytes(StandardCharsets.UTF_8));
+        long hash = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            hash = (hash << 8) | (digest[i] & 0xFF);
+        }
+        return hash;
+    }
+
+    private static MessageDigest md5() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.astracore.tenancy;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * One connection pool per shard, bound from {@code <prefix>.shards.<name>.url},
+ * {@code .username} and {@code .password}. Every pool also takes the
+ * {@code spring.datasource.hikari} settings, so pool sizing and driver properties are
+ * configured once for all shards.
+ */
+public final class TenantShards implements AutoCloseable {
+
+    private final Map<String, DataSource> dataSources;
+
+    public TenantShards(Map<String, DataSource> dataSources) {
+        this.dataSources = Collections.unmodifiableMap(new LinkedHashMap<>(new TreeMap<>(dataSources)));
+    }
+
+    public static TenantShards bind(Environment environment, String prefix) {
+        Binder binder = Binder.get(environment);
+        Map<String, DataSourceProperties> configured = binder
+                .bind(prefix + ".shards", Bindable.mapOf(String.class, DataSourceProperties.class))
+                .orElse(Map.of());
+        if (configured.isEmpty()) {
+            throw new IllegalStateException(prefix + ".shards must configure at least one shard");
+        }
+        Map<String, DataSource> dataSources = new TreeMap<>();
+        for (Map.Entry<String, DataSourceProperties> shard : configured.entrySet()) {
+            HikariDataSource dataSource = shard.getValue().initializeDataSourceBuilder().type(HikariDataSource.class).build();
+            binder.bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+            dataSource.setPoolName("shard-" + shard.getKey());
+            dataSources.put(shard.getKey(), dataSource);
+        }
+        return new TenantShards(dataSources);
+    }
+
+    /**
+     * Pools by shard name, in name order.
+     */
+    public Map<String, DataSource> dataSources() {
+        return dataSources;
+    }
+
+    public DataSource get(String shard) {
+        DataSource dataSource = dataSources.get(shard);
+        if (dataSource == null) {
+            throw new IllegalArgumentException("Unknown shard: " + shard);
+        }
+        return dataSource;
+    }
+
+    @Override
+    public void close() {
+        for (DataSource dataSource : dataSources.values()) {
+            if (dataSource instanceof HikariDataSource hikari) {
+                hikari.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.astracore.tenancy;
+
+import java.util.Set;
+
+/**
+ * One table a {@link TenantMover} handles. {@code condition} is a SQL predicate selecting
+ * the tenant's rows, with {@code {tenant}} standing for the quoted tenant id; it may use
+ * subqueries against tables earlier in the move, which still hold the tenant's rows on
+ * the source while it is copied.
+ *
+ * @param kind            {@link Kind#OWNED} rows are copied and then deleted from the
+ *                        source; {@link Kind#SHARED} rows (reference data other tenants
+ *                        may use too) are copied unless present and never deleted;
+ *                        {@link Kind#DERIVED} rows are not copied, only deleted from the
+ *                        source, for data the target rebuilds itself
+ * @param excludedColumns columns left for the target to fill in, e.g. serial keys
+ */
+public record TenantTable(String name, String condition, Kind kind, Set<String> excludedColumns) {
+
+    public enum Kind { OWNED, SHARED, DERIVED }
+
+    public static TenantTable owned(String name, String condition) {
+        return new TenantTable(name, condition, Kind.OWNED, Set.of());
+    }
+
+    public static TenantTable shared(String name, String condition) {
+        return new TenantTable(name, condition, Kind.SHARED, Set.of());
+    }
+
+    public static TenantTable derived(String name, String condition) {
+        return new TenantTable(name, condition, Kind.DERIVED, Set.of());
+    }
+
+    public TenantTable withoutColumns(String... columns) {
+        return new TenantTable(name, condition, kind, Set.of(columns));
+    }
+
+    String conditionFor(String tenantId) {
+        return condition.replace("{tenant}", "'" + TenantContext.requireValid(tenantId).replace("'", "''") + "'");
+    }
+}
@@ -0,0 +1,19 @@
+package com.astracore.tenancy;
+
+/**
+ * The tenant is frozen while its data moves between shards. Callers should retry once
+ * the move has finished.
+ */
+public class TenantUnavailableException extends RuntimeException {
+
+    private final String tenantId;
+
+    public TenantUnavailableException(String tenantId) {
+        super("Tenant " + tenantId + " is being moved between shards; retry shortly");
+        this.tenantId = tenantId;
+    }
+
+    public String getTenantId() {
+        return tenantId;
+    }
+}
@@ -0,0 +1,33 @@
+package com.astracore.tenancy.config;
+
+import org.springframework.context.annotation.Import;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Tenant sharding for a service. With {@code <prefix>.enabled} off (the default) the
+ * service runs on {@code spring.datasource} alone and every tenant lives there. Switched
+ * on, {@code <prefix>.shards.<name>} configures one database per shard; tenants are
+ * spread over them by a {@link com.astracore.tenancy.TenantShardRing}, and the
+ * placements kept on {@code <prefix>.catalog-shard} (the first shard by name unless set)
+ * override the ring for tenants that were moved.
+ * <p>
+ * Either way requests run as the tenant in their {@code X-Tenant-ID} header. Sharded,
+ * the service must also declare a {@link TenantDataModel} bean saying what moving one of
+ * its tenants copies.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Import(TenancyImportSelector.class)
+public @interface EnableTenancy {
+
+    /**
+     * Property prefix of the service's tenancy settings, e.g. {@code gl.tenancy}.
+     */
+    String prefix();
+}
@@ -0,0 +1,86 @@
+package com.astracore.tenancy.config;
+
+import com.astracore.tenancy.ShardRouter;
+import com.astracore.tenancy.TenantMover;
+import com.astracore.tenancy.TenantPlacementStore;
+import com.astracore.tenancy.TenantRoutingDataSource;
+import com.astracore.tenancy.TenantShardRing;
+import com.astracore.tenancy.TenantShards;
+import com.astracore.tenancy.web.TenantAdminController;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Beans of a service whose tenancy is switched on; see {@link EnableTenancy}.
+ */
+@Slf4j
+@Configuration(proxyBeanMethods = false)
+class ShardedTenancyConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public TenantShards tenantShards(Environment environment, TenancySettings settings) {
+        return TenantShards.bind(environment, settings.prefix());
+    }
+
+    @Bean
+    public TenantPlacementStore tenantPlacementStore(TenantShards shards, TenancySettings settings) {
+        String catalog = settings.catalogShard().isBlank()
+                ? shards.dataSources().keySet().iterator().next()
+                : settings.catalogShard();
+        return new TenantPlacementStore(shards.get(catalog));
+    }
+
+    @Bean
+    public ShardRouter shardRouter(TenantShards shards,
+                                   TenantPlacementStore tenantPlacementStore,
+                                   TenancySettings settings) {
+        return new ShardRouter(new TenantShardRing(shards.dataSources().keySet(), settings.virtualNodes()),
+                tenantPlacementStore);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRouter shardRouter, TenantShards shards) {
+        return new TenantRoutingDataSource(shardRouter, shards.dataSources());
+    }
+
+    // Boot migrates only the primary DataSource, which would reach a single shard
+    @Bean
+    public FlywayMigrationStrategy shardMigrationStrategy(TenantShards shards) {
+        return flyway -> shards.dataSources().forEach((shard, dataSource) -> {
+            log.info("Migrating schema on shard {}", shard);
+            Flyway.configure().configuration(flyway.getConfiguration()).dataSource(dataSource).load().migrate();
+        });
+    }
+
+    @Bean
+    public TenantMover tenantMover(ShardRouter shardRouter,
+                                   TenantPlacementStore tenantPlacementStore,
+                                   TenantShards shards,
+                                   TenantDataModel dataModel,
+                                   TenancySettings settings) {
+        // Two refresh intervals and a second: every instance has seen the freeze and
+        // finished what it started before it
+        return new TenantMover(shardRouter, tenantPlacementStore, shards.dataSources(), dataModel.tables(),
+                dataModel.tenantsSql(), dataModel.listener(),
+                Duration.ofMillis(2 * settings.placementRefreshMillis() + 1000));
+    }
+
+    @Bean
+    public TenantPlacementRefresher tenantPlacementRefresher(ShardRouter shardRouter, TenancySettings settings) {
+        return new TenantPlacementRefresher(shardRouter, Duration.ofMillis(settings.placementRefreshMillis()));
+    }
+
+    @Bean
+    public TenantAdminController tenantAdminController(ShardRouter shardRouter, TenantMover tenantMover) {
+        return new TenantAdminController(shardRouter, tenantMover);
+    }
+}
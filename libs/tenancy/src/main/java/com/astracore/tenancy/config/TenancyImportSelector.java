@@ -0,0 +1,29 @@
+package com.astracore.tenancy.config;
+
+import org.springframework.context.EnvironmentAware;
+import org.springframework.context.annotation.ImportSelector;
+import org.springframework.core.env.Environment;
+import org.springframework.core.type.AnnotationMetadata;
+
+/**
+ * Picks the tenancy configuration for the prefix named by {@link EnableTenancy}. The
+ * prefix decides which properties apply, so the choice is made here rather than by
+ * property conditions on fixed names. Importing keeps the sharded beans ahead of
+ * Boot's auto-configured {@code DataSource}, which backs off for them.
+ */
+class TenancyImportSelector implements ImportSelector, EnvironmentAware {
+
+    private Environment environment;
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public String[] selectImports(AnnotationMetadata metadata) {
+        return TenancyRegistrar.settings(metadata, environment).enabled()
+                ? new String[]{TenancyRegistrar.class.getName(), ShardedTenancyConfiguration.class.getName()}
+                : new String[]{TenancyRegistrar.class.getName()};
+    }
+}
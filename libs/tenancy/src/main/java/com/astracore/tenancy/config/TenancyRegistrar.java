@@ -0,0 +1,45 @@
+package com.astracore.tenancy.config;
+
+import com.astracore.tenancy.ShardRouter;
+import com.astracore.tenancy.web.TenantRequestFilter;
+import org.springframework.beans.factory.support.BeanDefinitionBuilder;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.context.annotation.ImportBeanDefinitionRegistrar;
+import org.springframework.core.env.Environment;
+import org.springframework.core.type.AnnotationMetadata;
+
+import java.util.Map;
+
+/**
+ * Registers the beans every service gets from {@link EnableTenancy}: its settings, the
+ * request filter and, unless sharded, a router with the single shard.
+ */
+class TenancyRegistrar implements ImportBeanDefinitionRegistrar, EnvironmentAware {
+
+    private Environment environment;
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public void registerBeanDefinitions(AnnotationMetadata metadata, BeanDefinitionRegistry registry) {
+        TenancySettings settings = settings(metadata, environment);
+        registry.registerBeanDefinition("tenancySettings",
+                BeanDefinitionBuilder.genericBeanDefinition(TenancySettings.class, () -> settings).getBeanDefinition());
+        registry.registerBeanDefinition("tenantRequestFilter", new RootBeanDefinition(TenantRequestFilter.class));
+        if (!settings.enabled()) {
+            registry.registerBeanDefinition("singleShardRouter", BeanDefinitionBuilder
+                    .genericBeanDefinition(ShardRouter.class, () -> ShardRouter.singleShard(TenancySettings.SINGLE_SHARD))
+                    .getBeanDefinition());
+        }
+    }
+
+    static TenancySettings settings(AnnotationMetadata metadata, Environment environment) {
+        Map<String, Object> attributes = metadata.getAnnotationAttributes(EnableTenancy.class.getName());
+        return TenancySettings.bind(environment, (String) attributes.get("prefix"));
+    }
+}
@@ -0,0 +1,24 @@
+package com.astracore.tenancy.config;
+
+import org.springframework.core.env.Environment;
+
+/**
+ * The {@code <prefix>.*} tenancy properties of a service.
+ */
+public record TenancySettings(String prefix,
+                              boolean enabled,
+                              String catalogShard,
+                              int virtualNodes,
+                              long placementRefreshMillis) {
+
+    /** Name of the only shard when tenancy is off. */
+    public static final String SINGLE_SHARD = "default";
+
+    public static TenancySettings bind(Environment environment, String prefix) {
+        return new TenancySettings(prefix,
+                environment.getProperty(prefix + ".enabled", Boolean.class, false),
+                environment.getProperty(prefix + ".catalog-shard", ""),
+                environment.getProperty(prefix + ".virtual-nodes", Integer.class, 160),
+                environment.getProperty(prefix + ".placement-refresh-ms", Long.class, 5000L));
+    }
+}
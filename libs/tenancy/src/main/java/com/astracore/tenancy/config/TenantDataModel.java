@@ -0,0 +1,20 @@
+package com.astracore.tenancy.config;
+
+import com.astracore.tenancy.TenantMoveListener;
+import com.astracore.tenancy.TenantTable;
+
+import java.util.List;
+
+/**
+ * What a service's tenants own, for moving them between shards.
+ *
+ * @param tables     tables to copy, parents first
+ * @param tenantsSql query listing every tenant with data on a shard
+ * @param listener   service rules around a move, or {@code null} for none
+ */
+public record TenantDataModel(List<TenantTable> tables, String tenantsSql, TenantMoveListener listener) {
+
+    public TenantDataModel(List<TenantTable> tables, String tenantsSql) {
+        this(tables, tenantsSql, null);
+    }
+}
@@ -0,0 +1,36 @@
+package com.astracore.tenancy.config;
+
+import com.astracore.tenancy.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+import java.time.Duration;
+
+/**
+ * Reloads tenant placements from the catalog, so moves made by other instances take
+ * effect here within {@code <prefix>.placement-refresh-ms}. Needs scheduling enabled in
+ * the service.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class TenantPlacementRefresher implements SchedulingConfigurer {
+
+    private final ShardRouter shardRouter;
+    private final Duration interval;
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        registrar.addFixedDelayTask(this::refresh, interval);
+    }
+
+    public void refresh() {
+        try {
+            shardRouter.refreshPlacements();
+        } catch (RuntimeException e) {
+            // Keep routing with the placements already loaded
+            log.warn("Could not refresh tenant placements: {}", e.getMessage());
+        }
+    }
+}
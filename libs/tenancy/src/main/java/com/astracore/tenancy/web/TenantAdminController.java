@@ -0,0 +1,58 @@
+package com.astracore.tenancy.web;
+
+import com.astracore.tenancy.ShardRouter;
+import com.astracore.tenancy.TenantContext;
+import com.astracore.tenancy.TenantMove;
+import com.astracore.tenancy.TenantMover;
+import com.astracore.tenancy.TenantPlacement;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Operator endpoints for tenant placement: where a tenant lives, moving it to another
+ * shard, and pinning then rebalancing everything around a change of the shard list.
+ * Registered only when tenancy is sharded.
+ */
+@RestController
+@RequestMapping("/api/v1/admin/tenants")
+@RequiredArgsConstructor
+public class TenantAdminController {
+
+    private final ShardRouter shardRouter;
+    private final TenantMover tenantMover;
+
+    @GetMapping("/{tenantId}/shard")
+    public ResponseEntity<Map<String, String>> getShard(@PathVariable String tenantId) {
+        return ResponseEntity.ok(Map.of("tenantId", tenantId,
+                "shard", shardRouter.shardFor(TenantContext.requireValid(tenantId))));
+    }
+
+    @PostMapping("/{tenantId}/move")
+    public ResponseEntity<TenantMove> moveTenant(@PathVariable String tenantId, @RequestParam String shard) {
+        return ResponseEntity.ok(tenantMover.move(tenantId, shard));
+    }
+
+    @PostMapping("/{tenantId}/release")
+    public ResponseEntity<TenantPlacement> releaseTenant(@PathVariable String tenantId) {
+        return ResponseEntity.ok(tenantMover.release(tenantId));
+    }
+
+    @PostMapping("/pin")
+    public ResponseEntity<List<TenantPlacement>> pinTenants() {
+        return ResponseEntity.ok(tenantMover.pinAll());
+    }
+
+    @PostMapping("/rebalance")
+    public ResponseEntity<List<TenantMove>> rebalanceTenants() {
+        return ResponseEntity.ok(tenantMover.rebalance());
+    }
+}
@@ -0,0 +1,54 @@
+package com.astracore.tenancy.web;
+
+import com.astracore.tenancy.ShardRouter;
+import com.astracore.tenancy.TenantContext;
+import com.astracore.tenancy.TenantUnavailableException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Runs each request as the tenant named in the {@value #TENANT_HEADER} header, or as the
+ * default tenant without one. A malformed tenant id is rejected with 400, and a tenant
+ * that is being moved between shards with 503, before any work is done. Admin endpoints
+ * are left alone: they name their tenant in the path or work across tenants.
+ */
+@RequiredArgsConstructor
+public class TenantRequestFilter extends OncePerRequestFilter {
+
+    public static final String TENANT_HEADER = "X-Tenant-ID";
+
+    private final ShardRouter shardRouter;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith(request.getContextPath() + "/api/v1/admin/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(TENANT_HEADER);
+        String tenantId = header == null || header.isBlank() ? TenantContext.DEFAULT_TENANT : header.trim();
+        try {
+            shardRouter.shardFor(TenantContext.requireValid(tenantId));
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), e.getMessage());
+            return;
+        } catch (TenantUnavailableException e) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, "5");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), e.getMessage());
+            return;
+        }
+        try (TenantContext.Scope ignored = TenantContext.enter(tenantId)) {
+            chain.doFilter(request, response);
+        }
+    }
+}
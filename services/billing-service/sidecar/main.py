@@ -16,12 +16,26 @@ class AnomalyResult(BaseModel):
     confidence_score: float
     reason: str
 
+class BatchAnomalyRequest(BaseModel):
+    invoices: List[InvoiceData]
+
+class BatchAnomalyResponse(BaseModel):
+    results: List[AnomalyResult]
+
 @app.get("/health")
 def health_check():
     return {"status": "ok"}
 
 @app.post("/predict/anomaly", response_model=AnomalyResult)
 def predict_anomaly(invoice: InvoiceData):
+    return score(invoice)
+
+@app.post("/predict/anomaly/batch", response_model=BatchAnomalyResponse)
+def predict_anomaly_batch(request: BatchAnomalyRequest):
+    # Results are positional: results[i] scores invoices[i]
+    return BatchAnomalyResponse(results=[score(invoice) for invoice in request.invoices])
+
+def score(invoice: InvoiceData) -> AnomalyResult:
     # Stub implementation: Flag high amounts as anomalous
     # In real implementation, this would load a trained model
     
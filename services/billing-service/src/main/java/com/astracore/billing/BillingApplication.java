@@ -5,6 +5,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 
 @SpringBootApplication
 @org.springframework.data.jpa.repository.config.EnableJpaAuditing
+@org.springframework.scheduling.annotation.EnableScheduling
 public class BillingApplication {
 
     public static void main(String[] args) {
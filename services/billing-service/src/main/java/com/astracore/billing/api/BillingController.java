@@ -1,13 +1,31 @@
 package com.astracore.billing.api;
 
+import com.astracore.billing.application.dto.BatchItemResultDTO;
+import com.astracore.billing.application.dto.BatchResultDTO;
 import com.astracore.billing.application.dto.InvoiceDTO;
+import com.astracore.billing.application.dto.InvoicePageDTO;
+import com.astracore.billing.application.usecase.BulkCreateInvoicesUseCase;
 import com.astracore.billing.application.usecase.CreateInvoiceUseCase;
 import com.astracore.billing.application.usecase.GetInvoiceUseCase;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @RestController
@@ -19,6 +37,8 @@ public class BillingController {
     private final CreateInvoiceUseCase createInvoiceUseCase;
     private final GetInvoiceUseCase getInvoiceUseCase;
     private final com.astracore.billing.application.usecase.GetInvoiceListUseCase getInvoiceListUseCase;
+    private final BulkCreateInvoicesUseCase bulkCreateInvoicesUseCase;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public ResponseEntity<InvoiceDTO> createInvoice(@RequestBody InvoiceDTO invoiceDTO) {
@@ -26,6 +46,64 @@ public class BillingController {
         return new ResponseEntity<>(created, HttpStatus.CREATED);
     }
 
+    @PostMapping(path = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BatchResultDTO> createInvoices(@RequestBody List<InvoiceDTO> invoices) {
+        return ResponseEntity.ok(bulkCreateInvoicesUseCase.execute(invoices));
+    }
+
+    /**
+     * Streaming variant of {@code /batch}: one invoice per line in, one result per line out.
+     * Input is consumed chunk by chunk, so memory stays bounded regardless of file size.
+     */
+    @PostMapping(path = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public void createInvoicesStream(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        OutputStream out = response.getOutputStream();
+
+        int chunkSize = bulkCreateInvoicesUseCase.getChunkSize();
+        List<InvoiceDTO> chunk = new ArrayList<>(chunkSize);
+        Map<Integer, String> parseErrors = new HashMap<>();
+        int firstIndex = 0;
+
+        try (BufferedReader reader = request.getReader()) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    chunk.add(objectMapper.readValue(line, InvoiceDTO.class));
+                } catch (JsonProcessingException e) {
+                    parseErrors.put(firstIndex + chunk.size(), "Malformed invoice JSON: " + e.getOriginalMessage());
+                    chunk.add(null);
+                }
+                if (chunk.size() == chunkSize) {
+                    writeChunkResults(out, bulkCreateInvoicesUseCase.executeChunk(chunk, firstIndex), parseErrors);
+                    firstIndex += chunk.size();
+                    chunk.clear();
+                    parseErrors.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            writeChunkResults(out, bulkCreateInvoicesUseCase.executeChunk(chunk, firstIndex), parseErrors);
+        }
+    }
+
+    private void writeChunkResults(OutputStream out, List<BatchItemResultDTO> results,
+                                   Map<Integer, String> parseErrors) throws IOException {
+        for (BatchItemResultDTO result : results) {
+            String parseError = parseErrors.get(result.getIndex());
+            if (parseError != null) {
+                result.setError(parseError);
+            }
+            out.write(objectMapper.writeValueAsBytes(result));
+            out.write('\n');
+        }
+        out.flush();
+    }
+
     @GetMapping("/{invoiceId}")
     public ResponseEntity<InvoiceDTO> getInvoice(@PathVariable UUID invoiceId) {
         InvoiceDTO invoice = getInvoiceUseCase.execute(invoiceId);
@@ -33,7 +111,13 @@ public class BillingController {
     }
 
     @GetMapping
-    public ResponseEntity<java.util.List<InvoiceDTO>> getInvoices() {
-        return ResponseEntity.ok(getInvoiceListUseCase.execute());
+    public ResponseEntity<InvoicePageDTO> getInvoices(
+            @RequestParam(name = "status", required = false) String statusId,
+            @RequestParam(required = false) UUID partyIdTo,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(getInvoiceListUseCase.execute(statusId, partyIdTo, fromDate, toDate, cursor, limit));
     }
 }
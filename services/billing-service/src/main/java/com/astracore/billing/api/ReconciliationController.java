@@ -0,0 +1,43 @@
+package com.astracore.billing.api;
+
+import com.astracore.billing.application.dto.ReconciliationRunDTO;
+import com.astracore.billing.application.usecase.ReconcileInvoicePostingsUseCase;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Operator endpoints for reconciling invoices against their GL postings across all
+ * tenants.
+ */
+@RestController
+@RequestMapping("/api/v1/admin/reconciliation")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "billing.reconciliation.enabled", havingValue = "true")
+public class ReconciliationController {
+
+    private final ReconcileInvoicePostingsUseCase reconcileInvoicePostingsUseCase;
+
+    /**
+     * Starts a reconciliation in the background; 409 if one is already running. With
+     * {@code republish}, {@code InvoiceIssued} is raised again for every missing posting.
+     */
+    @PostMapping("/runs")
+    public ResponseEntity<ReconciliationRunDTO> startRun(@RequestParam(defaultValue = "false") boolean republish) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(reconcileInvoicePostingsUseCase.start(republish));
+    }
+
+    @GetMapping("/runs/latest")
+    public ResponseEntity<ReconciliationRunDTO> getLatestRun() {
+        return ResponseEntity.ok(reconcileInvoicePostingsUseCase.latest()
+                .orElseThrow(() -> new NoSuchElementException("No reconciliation has run")));
+    }
+}
@@ -0,0 +1,25 @@
+package com.astracore.billing.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchItemResultDTO {
+    private int index; // Zero-based position of the item in the submitted batch
+    private UUID invoiceId;
+    private String status; // CREATED, FAILED
+    private String error;
+
+    public static BatchItemResultDTO created(int index, UUID invoiceId) {
+        return new BatchItemResultDTO(index, invoiceId, "CREATED", null);
+    }
+
+    public static BatchItemResultDTO failed(int index, UUID invoiceId, String error) {
+        return new BatchItemResultDTO(index, invoiceId, "FAILED", error);
+    }
+}
@@ -0,0 +1,17 @@
+package com.astracore.billing.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchResultDTO {
+    private int submitted;
+    private int created;
+    private int failed;
+    private List<BatchItemResultDTO> results;
+}
@@ -9,6 +9,7 @@ import java.util.UUID;
 @Data
 public class InvoiceDTO {
     private UUID invoiceId;
+    private String tenantId;
     private String invoiceTypeId;
     private UUID partyIdFrom;
     private UUID partyIdTo;
@@ -11,5 +11,6 @@ public class InvoiceLineDTO {
     private UUID productId;
     private String description;
     private BigDecimal quantity;
+    private MoneyDTO unitPrice;
     private MoneyDTO amount;
 }
@@ -0,0 +1,20 @@
+package com.astracore.billing.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One keyset page of invoice summaries. {@code nextCursor} is opaque to clients and
+ * is {@code null} once the last page has been returned.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class InvoicePageDTO {
+    private List<InvoiceSummaryDTO> content;
+    private String nextCursor;
+    private boolean hasMore;
+}
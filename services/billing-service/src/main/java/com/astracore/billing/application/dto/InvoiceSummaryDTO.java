@@ -0,0 +1,19 @@
+package com.astracore.billing.application.dto;
+
+import lombok.Data;
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Data
+public class InvoiceSummaryDTO {
+    private UUID invoiceId;
+    private String invoiceTypeId;
+    private UUID partyIdFrom;
+    private UUID partyIdTo;
+    private String customerName;
+    private LocalDate invoiceDate;
+    private LocalDate dueDate;
+    private String statusId;
+    private String currencyUomId;
+    private MoneyDTO totalAmount;
+}
@@ -0,0 +1,25 @@
+package com.astracore.billing.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * An invoice whose GL postings do not match it, or GL postings for an invoice billing
+ * does not have.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PostingDiscrepancyDTO {
+    private String type; // MISSING, DUPLICATE, AMOUNT_MISMATCH, ORPHANED
+    private String invoiceId;
+    private String tenantId;
+    private BigDecimal billedAmount;
+    private List<BigDecimal> postedAmounts;
+    private List<UUID> transactionIds;
+}
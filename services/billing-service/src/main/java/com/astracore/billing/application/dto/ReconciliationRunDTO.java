@@ -0,0 +1,40 @@
+package com.astracore.billing.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Progress and findings of a reconciliation of invoices against their GL postings.
+ * {@code discrepancies} holds the first {@code billing.reconciliation.max-reported} found;
+ * the counts cover all of them.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReconciliationRunDTO {
+    private UUID runId;
+    private String status; // RUNNING, COMPLETED, FAILED
+    private boolean republish;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private long invoicesScanned;
+    private long postingsScanned;
+    private long matched;
+    private long missing;
+    private long pending; // not posted yet, but created within the settle window
+    private long duplicated;
+    private long amountMismatched;
+    private long orphaned;
+    private long amountsUnverified; // posted in an archived month
+    private long republished;
+    private long republishFailed;
+    private long elapsedMillis;
+    private long invoicesPerSecond;
+    private List<PostingDiscrepancyDTO> discrepancies;
+    private String error;
+}
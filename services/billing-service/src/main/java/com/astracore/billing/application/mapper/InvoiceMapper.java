@@ -2,9 +2,11 @@ package com.astracore.billing.application.mapper;
 
 import com.astracore.billing.application.dto.InvoiceDTO;
 import com.astracore.billing.application.dto.InvoiceLineDTO;
+import com.astracore.billing.application.dto.InvoiceSummaryDTO;
 import com.astracore.billing.application.dto.MoneyDTO;
 import com.astracore.billing.infrastructure.persistence.entity.InvoiceEntity;
 import com.astracore.billing.infrastructure.persistence.entity.InvoiceLineEntity;
+import com.astracore.billing.infrastructure.persistence.projection.InvoiceSummaryView;
 import com.astracore.domain.billing.Invoice;
 import com.astracore.domain.billing.InvoiceLine;
 import com.astracore.shared.domain.Money;
@@ -21,6 +23,7 @@ public interface InvoiceMapper {
     // Domain <-> Entity
     @Mapping(target = "totalAmount", source = "totalAmount", qualifiedByName = "moneyToBigDecimal")
     @Mapping(target = "lines", source = "lines")
+    @Mapping(target = "tenantId", ignore = true)
     InvoiceEntity toEntity(Invoice domain);
 
     @Mapping(target = "totalAmount", source = "totalAmount", qualifiedByName = "bigDecimalToMoney")
@@ -28,20 +31,66 @@ public interface InvoiceMapper {
     Invoice toDomain(InvoiceEntity entity);
 
     // InvoiceLine Mappings
+    @Mapping(target = "unitPrice", source = "unitPrice", qualifiedByName = "moneyToBigDecimal")
     @Mapping(target = "amount", source = "amount", qualifiedByName = "moneyToBigDecimal")
     InvoiceLineEntity toEntity(InvoiceLine domain);
 
+    @Mapping(target = "unitPrice", source = "unitPrice", qualifiedByName = "bigDecimalToMoney")
     @Mapping(target = "amount", source = "amount", qualifiedByName = "bigDecimalToMoney")
     InvoiceLine toDomain(InvoiceLineEntity entity);
 
     // Domain <-> DTO
     @Mapping(target = "totalAmount", source = "totalAmount", qualifiedByName = "moneyToDTO")
+    @Mapping(target = "tenantId", ignore = true)
     InvoiceDTO toDTO(Invoice domain);
+
+    @Mapping(target = "unitPrice", source = "unitPrice", qualifiedByName = "moneyToDTO")
+    @Mapping(target = "amount", source = "amount", qualifiedByName = "moneyToDTO")
+    InvoiceLineDTO toDTO(InvoiceLine domain);
     
     @Mapping(target = "totalAmount", source = "totalAmount", qualifiedByName = "dtoToMoney")
     Invoice toDomain(InvoiceDTO dto);
 
+    @Mapping(target = "unitPrice", source = "unitPrice", qualifiedByName = "dtoToMoney")
+    @Mapping(target = "amount", source = "amount", qualifiedByName = "dtoToMoney")
+    @Mapping(target = "invoiceItemTypeId", ignore = true)
+    InvoiceLine toDomain(InvoiceLineDTO dto);
+
+    // Entity -> DTO (read paths skip the domain round trip; lines must already be loaded)
+    @Mapping(target = "totalAmount", source = "entity", qualifiedByName = "entityTotalToDTO")
+    InvoiceDTO toDTO(InvoiceEntity entity);
+
+    @Mapping(target = "unitPrice", expression = "java(amountToDTO(entity.getUnitPrice(), entity.getInvoice().getCurrencyUomId()))")
+    @Mapping(target = "amount", expression = "java(amountToDTO(entity.getAmount(), entity.getInvoice().getCurrencyUomId()))")
+    InvoiceLineDTO toDTO(InvoiceLineEntity entity);
+
+    // Projection -> DTO (read-only list views, never loads lines)
+    @Mapping(target = "totalAmount", source = "view", qualifiedByName = "summaryTotalToDTO")
+    InvoiceSummaryDTO toSummaryDTO(InvoiceSummaryView view);
+
     // Helper Mappings
+    @Named("summaryTotalToDTO")
+    default MoneyDTO summaryTotalToDTO(InvoiceSummaryView view) {
+        if (view == null || view.getTotalAmount() == null) return null;
+        MoneyDTO dto = new MoneyDTO();
+        dto.setAmount(view.getTotalAmount());
+        dto.setCurrency(view.getCurrencyUomId());
+        return dto;
+    }
+
+    @Named("entityTotalToDTO")
+    default MoneyDTO entityTotalToDTO(InvoiceEntity entity) {
+        return entity == null ? null : amountToDTO(entity.getTotalAmount(), entity.getCurrencyUomId());
+    }
+
+    default MoneyDTO amountToDTO(BigDecimal amount, String currency) {
+        if (amount == null) return null;
+        MoneyDTO dto = new MoneyDTO();
+        dto.setAmount(amount);
+        dto.setCurrency(currency);
+        return dto;
+    }
+
     @Named("moneyToDTO")
     default MoneyDTO moneyToDTO(Money money) {
         if (money == null) return null;
@@ -0,0 +1,176 @@
+package com.astracore.billing.application.usecase;
+
+import com.astracore.billing.application.dto.BatchItemResultDTO;
+import com.astracore.billing.application.dto.BatchResultDTO;
+import com.astracore.billing.application.dto.InvoiceDTO;
+import com.astracore.billing.domain.service.AnomalyDetectionService;
+import com.astracore.billing.domain.service.DomainEventPublisher;
+import com.astracore.billing.infrastructure.cache.InvoiceCache;
+import com.astracore.billing.infrastructure.persistence.entity.InvoiceEntity;
+import com.astracore.billing.infrastructure.persistence.repository.InvoiceRepository;
+import com.astracore.domain.billing.Invoice;
+import com.astracore.shared.domain.DomainEvent;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Bulk invoice ingestion. Callers feed invoices in chunks; each chunk is validated
+ * and scored outside any transaction, then persisted in a single transaction so
+ * Hibernate can send the invoice and line inserts as JDBC batches. If a chunk
+ * fails at the database, its items are retried one by one to isolate the bad rows.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BulkCreateInvoicesUseCase {
+
+    private final InvoiceRepository invoiceRepository;
+    private final NewInvoiceFactory newInvoiceFactory;
+    private final AnomalyDetectionService anomalyDetectionService;
+    private final DomainEventPublisher domainEventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final InvoiceCache invoiceCache;
+
+    @Getter
+    @Value("${billing.batch.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${billing.batch.max-items:10000}")
+    private int maxItems;
+
+    /**
+     * Persists a fully materialized batch, chunk by chunk.
+     */
+    public BatchResultDTO execute(List<InvoiceDTO> invoices) {
+        if (invoices == null || invoices.isEmpty()) {
+            throw new IllegalArgumentException("At least one invoice is required");
+        }
+        if (invoices.size() > maxItems) {
+            throw new IllegalArgumentException("Batch exceeds " + maxItems + " invoices; use the NDJSON stream for larger imports");
+        }
+
+        List<BatchItemResultDTO> results = new ArrayList<>(invoices.size());
+        for (int from = 0; from < invoices.size(); from += chunkSize) {
+            int to = Math.min(from + chunkSize, invoices.size());
+            results.addAll(executeChunk(invoices.subList(from, to), from));
+        }
+        return summarize(results);
+    }
+
+    /**
+     * Persists one chunk of invoices.
+     *
+     * @param invoices   the chunk, at most {@link #getChunkSize()} items is recommended
+     * @param firstIndex position of {@code invoices.get(0)} in the overall batch, echoed in the results
+     * @return one result per submitted invoice, in submission order
+     */
+    public List<BatchItemResultDTO> executeChunk(List<InvoiceDTO> invoices, int firstIndex) {
+        BatchItemResultDTO[] results = new BatchItemResultDTO[invoices.size()];
+        List<PreparedInvoice> prepared = new ArrayList<>(invoices.size());
+
+        // 1. Validate and map
+        for (int i = 0; i < invoices.size(); i++) {
+            int index = firstIndex + i;
+            try {
+                prepared.add(new PreparedInvoice(i, index, newInvoiceFactory.toDomain(invoices.get(i))));
+            } catch (RuntimeException e) {
+                results[i] = BatchItemResultDTO.failed(index, invoiceIdOf(invoices.get(i)), e.getMessage());
+            }
+        }
+
+        // Score the whole chunk in one sidecar call, before any DB connection is taken
+        List<Invoice> domainInvoices = new ArrayList<>(prepared.size());
+        for (PreparedInvoice p : prepared) {
+            domainInvoices.add(p.domainInvoice());
+        }
+        List<Boolean> anomalies = anomalyDetectionService.areAnomalous(domainInvoices);
+        for (int i = 0; i < prepared.size(); i++) {
+            if (anomalies.get(i)) {
+                prepared.get(i).domainInvoice().setStatusId("REQUIRES_REVIEW");
+            }
+        }
+
+        // 2. Persist the whole chunk in one transaction; fall back to per-item on failure
+        List<PreparedInvoice> persisted = prepared;
+        if (prepared.isEmpty()) {
+            return List.of(results);
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> persist(prepared));
+        } catch (RuntimeException e) {
+            log.warn("Bulk insert of {} invoices starting at index {} failed, retrying individually: {}",
+                    prepared.size(), firstIndex, NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+            persisted = new ArrayList<>(prepared.size());
+            for (PreparedInvoice p : prepared) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> persist(List.of(p)));
+                    persisted.add(p);
+                } catch (RuntimeException itemFailure) {
+                    results[p.position()] = BatchItemResultDTO.failed(p.index(), p.invoiceId(),
+                            NestedExceptionUtils.getMostSpecificCause(itemFailure).getMessage());
+                }
+            }
+        }
+
+        for (PreparedInvoice p : persisted) {
+            results[p.position()] = BatchItemResultDTO.created(p.index(), p.invoiceId());
+        }
+        return List.of(results);
+    }
+
+    /**
+     * Inserts the invoices and records their InvoiceIssued events in the same transaction.
+     * Entities are rebuilt from the domain objects each time so a retry never sees state
+     * left behind by a rolled-back flush.
+     */
+    private void persist(List<PreparedInvoice> invoices) {
+        List<InvoiceEntity> entities = new ArrayList<>(invoices.size());
+        List<DomainEvent> events = new ArrayList<>(invoices.size());
+        for (PreparedInvoice p : invoices) {
+            InvoiceEntity entity = newInvoiceFactory.toNewEntity(p.domainInvoice());
+            entities.add(entity);
+            p.domainInvoice().markIssued(entity.getTenantId());
+            events.addAll(p.domainInvoice().pullDomainEvents());
+        }
+        invoiceRepository.saveAll(entities);
+        invoiceRepository.flush();
+        domainEventPublisher.publish(events);
+
+        Map<UUID, Long> versions = new HashMap<>(entities.size() * 2);
+        for (InvoiceEntity entity : entities) {
+            versions.put(entity.getInvoiceId(), entity.getVersion());
+        }
+        invoiceCache.evictAfterCommit(versions);
+    }
+
+    public static BatchResultDTO summarize(List<BatchItemResultDTO> results) {
+        int created = 0;
+        for (BatchItemResultDTO result : results) {
+            if ("CREATED".equals(result.getStatus())) {
+                created++;
+            }
+        }
+        return new BatchResultDTO(results.size(), created, results.size() - created, results);
+    }
+
+    private static UUID invoiceIdOf(InvoiceDTO dto) {
+        return dto != null ? dto.getInvoiceId() : null;
+    }
+
+    private record PreparedInvoice(int position, int index, Invoice domainInvoice) {
+        UUID invoiceId() {
+            return UUID.fromString(domainInvoice.getInvoiceId());
+        }
+    }
+}
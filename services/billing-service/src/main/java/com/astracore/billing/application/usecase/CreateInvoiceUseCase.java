@@ -2,14 +2,15 @@ package com.astracore.billing.application.usecase;
 
 import com.astracore.billing.application.dto.InvoiceDTO;
 import com.astracore.billing.application.mapper.InvoiceMapper;
+import com.astracore.billing.infrastructure.cache.InvoiceCache;
 import com.astracore.billing.infrastructure.persistence.entity.InvoiceEntity;
 import com.astracore.billing.infrastructure.persistence.repository.InvoiceRepository;
 import com.astracore.domain.billing.Invoice;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.UUID;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -17,55 +18,38 @@ public class CreateInvoiceUseCase {
 
     private final InvoiceRepository invoiceRepository;
     private final InvoiceMapper invoiceMapper;
+    private final NewInvoiceFactory newInvoiceFactory;
     private final com.astracore.billing.domain.service.AnomalyDetectionService anomalyDetectionService;
     private final com.astracore.billing.domain.service.DomainEventPublisher domainEventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final InvoiceCache invoiceCache;
 
-    @Transactional
     public InvoiceDTO execute(InvoiceDTO inputDTO) {
-        // 1. Map DTO to Domain
-        Invoice domainInvoice = invoiceMapper.toDomain(inputDTO);
+        // 1. Map DTO to Domain (validates required fields and assigns an ID)
+        Invoice domainInvoice = newInvoiceFactory.toDomain(inputDTO);
 
-        // 2. Business Logic / Validation (Stubbed for now)
-        // e.g., validatePartyExists(domainInvoice.getPartyIdFrom());
-        if (domainInvoice.getInvoiceId() == null) {
-            domainInvoice.setInvoiceId(UUID.randomUUID().toString());
-        }
-
-        // 3. Map Domain to Entity
-        InvoiceEntity entity = invoiceMapper.toEntity(domainInvoice);
-        
-        // Ensure bidirectional relationship for lines
-        if (entity.getLines() != null) {
-            int seqId = 1;
-            for (com.astracore.billing.infrastructure.persistence.entity.InvoiceLineEntity line : entity.getLines()) {
-                line.setInvoice(entity);
-                if (line.getInvoiceLineId() == null) {
-                    line.setInvoiceLineId(UUID.randomUUID());
-                }
-                if (line.getInvoiceItemSeqId() == null) {
-                    line.setInvoiceItemSeqId(seqId++);
-                }
-            }
-        }
-
-        // 4. AI Anomaly Check
+        // 2. AI Anomaly Check, deliberately before the transaction opens so a slow
+        //    sidecar never pins a pooled DB connection
         boolean isAnomaly = anomalyDetectionService.isAnomalous(domainInvoice);
         if (isAnomaly) {
             // Set status to REQUIRES_REVIEW for anomalous invoices
             domainInvoice.setStatusId("REQUIRES_REVIEW");
-            entity.setStatusId("REQUIRES_REVIEW");
         }
 
-        // 5. Save
-        InvoiceEntity savedEntity = invoiceRepository.save(entity);
+        return transactionTemplate.execute(status -> {
+            // 3. Map Domain to Entity, wiring lines back to their invoice
+            InvoiceEntity entity = newInvoiceFactory.toNewEntity(domainInvoice);
+
+            // 4. Save
+            InvoiceEntity savedEntity = invoiceRepository.save(entity);
+            invoiceCache.evictAfterCommit(Map.of(savedEntity.getInvoiceId(), savedEntity.getVersion()));
 
-        // 6. Publish domain events (e.g., InvoiceIssued)
-        // TODO: Replace hard-coded tenant with real tenant resolution from security context
-        domainInvoice.markIssued("default");
-        domainEventPublisher.publish(domainInvoice.pullDomainEvents());
+            // 5. Publish domain events (e.g., InvoiceIssued)
+            domainInvoice.markIssued(savedEntity.getTenantId());
+            domainEventPublisher.publish(domainInvoice.pullDomainEvents());
 
-        // 7. Map back to Domain then DTO
-        Invoice savedDomain = invoiceMapper.toDomain(savedEntity);
-        return invoiceMapper.toDTO(savedDomain);
+            // 6. Map straight to the response; the entity already holds everything it needs
+            return invoiceMapper.toDTO(savedEntity);
+        });
     }
 }
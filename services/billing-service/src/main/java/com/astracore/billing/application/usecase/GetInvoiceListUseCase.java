@@ -1,30 +1,91 @@
 package com.astracore.billing.application.usecase;
 
-import com.astracore.billing.application.dto.InvoiceDTO;
+import com.astracore.billing.application.dto.InvoicePageDTO;
+import com.astracore.billing.application.dto.InvoiceSummaryDTO;
 import com.astracore.billing.application.mapper.InvoiceMapper;
-import com.astracore.billing.infrastructure.persistence.entity.InvoiceEntity;
+import com.astracore.billing.infrastructure.persistence.projection.InvoiceSummaryView;
 import com.astracore.billing.infrastructure.persistence.repository.InvoiceRepository;
-import com.astracore.domain.billing.Invoice;
+import com.astracore.billing.infrastructure.persistence.repository.InvoiceSummaryCriteria;
+import com.astracore.tenancy.TenantContext;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
 public class GetInvoiceListUseCase {
 
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+
     private final InvoiceRepository invoiceRepository;
     private final InvoiceMapper invoiceMapper;
 
     @Transactional(readOnly = true)
-    public List<InvoiceDTO> execute() {
-        List<InvoiceEntity> entities = invoiceRepository.findAll();
-        return entities.stream()
-                .map(invoiceMapper::toDomain)
-                .map(invoiceMapper::toDTO)
-                .collect(Collectors.toList());
+    public InvoicePageDTO execute(String statusId, UUID partyIdTo, LocalDate fromDate, LocalDate toDate,
+                                  String cursor, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        InvoiceSummaryCriteria.InvoiceSummaryCriteriaBuilder criteria = InvoiceSummaryCriteria.builder()
+                .tenantId(TenantContext.current())
+                .statusId(statusId)
+                .partyIdTo(partyIdTo)
+                .fromDate(fromDate)
+                .toDate(toDate);
+        if (cursor != null && !cursor.isBlank()) {
+            String[] position = decodeCursor(cursor);
+            criteria.afterInvoiceDate(LocalDate.parse(position[0]))
+                    .afterInvoiceId(UUID.fromString(position[1]));
+        }
+
+        // Fetch one extra row to learn whether another page exists without a COUNT(*)
+        List<InvoiceSummaryView> rows = invoiceRepository.findSummaries(criteria.build(), pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) {
+            rows = rows.subList(0, pageSize);
+        }
+
+        List<InvoiceSummaryDTO> content = new ArrayList<>(rows.size());
+        for (InvoiceSummaryView row : rows) {
+            content.add(invoiceMapper.toSummaryDTO(row));
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            InvoiceSummaryView last = rows.get(rows.size() - 1);
+            nextCursor = encodeCursor(last.getInvoiceDate(), last.getInvoiceId());
+        }
+        return new InvoicePageDTO(content, nextCursor, hasMore);
+    }
+
+    private static String encodeCursor(LocalDate invoiceDate, UUID invoiceId) {
+        String raw = invoiceDate + "|" + invoiceId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            // Validate eagerly so a tampered cursor surfaces as a 400 rather than a SQL error
+            LocalDate.parse(parts[0]);
+            UUID.fromString(parts[1]);
+            return parts;
+        } catch (IllegalArgumentException | java.time.format.DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
     }
 }
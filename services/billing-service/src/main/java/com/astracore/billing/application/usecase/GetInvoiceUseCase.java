@@ -2,12 +2,13 @@ package com.astracore.billing.application.usecase;
 
 import com.astracore.billing.application.dto.InvoiceDTO;
 import com.astracore.billing.application.mapper.InvoiceMapper;
+import com.astracore.billing.infrastructure.cache.CachedInvoice;
+import com.astracore.billing.infrastructure.cache.InvoiceCache;
 import com.astracore.billing.infrastructure.persistence.entity.InvoiceEntity;
 import com.astracore.billing.infrastructure.persistence.repository.InvoiceRepository;
-import com.astracore.domain.billing.Invoice;
+import com.astracore.tenancy.TenantContext;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.util.UUID;
 
@@ -17,13 +18,28 @@ public class GetInvoiceUseCase {
 
     private final InvoiceRepository invoiceRepository;
     private final InvoiceMapper invoiceMapper;
+    private final InvoiceCache invoiceCache;
 
-    @Transactional(readOnly = true)
     public InvoiceDTO execute(UUID invoiceId) {
-        InvoiceEntity entity = invoiceRepository.findById(invoiceId)
-                .orElseThrow(() -> new RuntimeException("Invoice not found with ID: " + invoiceId));
+        InvoiceDTO invoice = invoiceCache.get(invoiceId, this::load);
+        // The cache is keyed by invoice alone, so another tenant's invoice may come back from it
+        String owner = invoice.getTenantId() != null ? invoice.getTenantId() : TenantContext.DEFAULT_TENANT;
+        if (!owner.equals(TenantContext.current())) {
+            throw notFound(invoiceId);
+        }
+        return invoice;
+    }
+
+    // Lines come back with the invoice in one query, so mapping needs no open transaction
+    private CachedInvoice load(UUID invoiceId) {
+        InvoiceEntity entity = invoiceRepository.findWithLinesByInvoiceId(invoiceId)
+                .orElseThrow(() -> notFound(invoiceId));
+
+        long version = entity.getVersion() != null ? entity.getVersion() : 0L;
+        return new CachedInvoice(version, invoiceMapper.toDTO(entity));
+    }
 
-        Invoice domain = invoiceMapper.toDomain(entity);
-        return invoiceMapper.toDTO(domain);
+    private static RuntimeException notFound(UUID invoiceId) {
+        return new RuntimeException("Invoice not found with ID: " + invoiceId);
     }
 }
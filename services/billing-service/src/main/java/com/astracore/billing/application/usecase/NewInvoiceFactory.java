@@ -0,0 +1,68 @@
+package com.astracore.billing.application.usecase;
+
+import com.astracore.billing.application.dto.InvoiceDTO;
+import com.astracore.billing.application.mapper.InvoiceMapper;
+import com.astracore.billing.infrastructure.persistence.entity.InvoiceEntity;
+import com.astracore.billing.infrastructure.persistence.entity.InvoiceLineEntity;
+import com.astracore.domain.billing.Invoice;
+import com.astracore.shared.id.UuidV7;
+import com.astracore.tenancy.TenantContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Turns inbound invoice payloads into validated domain objects and brand-new
+ * entities. Shared by the single and bulk create paths so both apply the same rules.
+ */
+@Component
+@RequiredArgsConstructor
+class NewInvoiceFactory {
+
+    private final InvoiceMapper invoiceMapper;
+
+    Invoice toDomain(InvoiceDTO dto) {
+        if (dto == null) {
+            throw new IllegalArgumentException("Invoice payload is required");
+        }
+        requireField(dto.getInvoiceTypeId(), "invoiceTypeId");
+        requireField(dto.getPartyIdFrom(), "partyIdFrom");
+        requireField(dto.getPartyIdTo(), "partyIdTo");
+        requireField(dto.getInvoiceDate(), "invoiceDate");
+        requireField(dto.getStatusId(), "statusId");
+        requireField(dto.getCurrencyUomId(), "currencyUomId");
+
+        Invoice domainInvoice = invoiceMapper.toDomain(dto);
+        if (domainInvoice.getInvoiceId() == null) {
+            domainInvoice.setInvoiceId(UuidV7.generate().toString());
+        }
+        // Totals are derived here; client-supplied line and invoice totals are not trusted
+        domainInvoice.recalculateTotals();
+        return domainInvoice;
+    }
+
+    InvoiceEntity toNewEntity(Invoice domainInvoice) {
+        InvoiceEntity entity = invoiceMapper.toEntity(domainInvoice);
+        entity.setTenantId(TenantContext.current());
+
+        // Ensure bidirectional relationship for lines
+        if (entity.getLines() != null) {
+            int seqId = 1;
+            for (InvoiceLineEntity line : entity.getLines()) {
+                line.setInvoice(entity);
+                if (line.getInvoiceLineId() == null) {
+                    line.setInvoiceLineId(UuidV7.generate());
+                }
+                if (line.getInvoiceItemSeqId() == null) {
+                    line.setInvoiceItemSeqId(seqId++);
+                }
+            }
+        }
+        return entity;
+    }
+
+    private static void requireField(Object value, String field) {
+        if (value == null) {
+            throw new IllegalArgumentException(field + " is required");
+        }
+    }
+}
@@ -0,0 +1,329 @@
+package com.astracore.billing.application.usecase;
+
+import com.astracore.billing.application.dto.PostingDiscrepancyDTO;
+import com.astracore.billing.application.dto.ReconciliationRunDTO;
+import com.astracore.billing.domain.service.DomainEventPublisher;
+import com.astracore.billing.infrastructure.reconciliation.BilledInvoice;
+import com.astracore.billing.infrastructure.reconciliation.BillingInvoiceReader;
+import com.astracore.billing.infrastructure.reconciliation.GlPosting;
+import com.astracore.billing.infrastructure.reconciliation.GlPostingReader;
+import com.astracore.billing.infrastructure.reconciliation.RowCursor;
+import com.astracore.domain.billing.InvoiceIssuedEvent;
+import com.astracore.shared.domain.DomainEvent;
+import com.astracore.tenancy.TenantContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Checks that every invoice was posted to the GL exactly once and for its total.
+ * <p>
+ * Invoices and invoice postings are each streamed from all their shards in invoice id
+ * order and merge-joined, so a run holds one fetch per cursor and the postings of one
+ * invoice, whatever the number of invoices. It reports invoices with no posting
+ * (MISSING), with more than one (DUPLICATE) or with a posting for another amount
+ * (AMOUNT_MISMATCH), and postings for invoices billing does not have (ORPHANED).
+ * Invoices created within {@code billing.reconciliation.settle-minutes} of the run may
+ * still be on their way to the GL and are only counted as pending. Rows a tenant move
+ * left on two shards for a moment are counted once.
+ * <p>
+ * With {@code republish}, {@code InvoiceIssued} is raised again for missing invoices,
+ * through the outbox like the original; gl-service ignores any that turn out to have
+ * been posted meanwhile. One run at a time per instance; progress is available from
+ * {@link #latest()}.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "billing.reconciliation.enabled", havingValue = "true")
+public class ReconcileInvoicePostingsUseCase {
+
+    static final String MISSING = "MISSING";
+    static final String DUPLICATE = "DUPLICATE";
+    static final String AMOUNT_MISMATCH = "AMOUNT_MISMATCH";
+    static final String ORPHANED = "ORPHANED";
+
+    private static final int REPUBLISH_CHUNK = 500;
+
+    private final BillingInvoiceReader billingInvoiceReader;
+    private final GlPostingReader glPostingReader;
+    private final DomainEventPublisher domainEventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int fetchSize;
+    private final Duration settleTime;
+    private final int maxReported;
+    private final boolean scheduledRepublish;
+    private final AtomicReference<Run> latest = new AtomicReference<>();
+
+    public ReconcileInvoicePostingsUseCase(BillingInvoiceReader billingInvoiceReader,
+                                           GlPostingReader glPostingReader,
+                                           DomainEventPublisher domainEventPublisher,
+                                           TransactionTemplate transactionTemplate,
+                                           @Value("${billing.reconciliation.fetch-size:5000}") int fetchSize,
+                                           @Value("${billing.reconciliation.settle-minutes:15}") long settleMinutes,
+                                           @Value("${billing.reconciliation.max-reported:1000}") int maxReported,
+                                           @Value("${billing.reconciliation.republish:false}") boolean scheduledRepublish) {
+        this.billingInvoiceReader = billingInvoiceReader;
+        this.glPostingReader = glPostingReader;
+        this.domainEventPublisher = domainEventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.fetchSize = fetchSize;
+        this.settleTime = Duration.ofMinutes(settleMinutes);
+        this.maxReported = maxReported;
+        this.scheduledRepublish = scheduledRepublish;
+    }
+
+    /**
+     * Starts a run on a background thread.
+     */
+    public ReconciliationRunDTO start(boolean republish) {
+        Run run = claim(republish);
+        Thread worker = new Thread(() -> {
+            try {
+                run(run);
+            } catch (RuntimeException e) {
+                log.error("Invoice posting reconciliation {} failed", run.id, e);
+            }
+        }, "billing-reconciliation");
+        worker.setDaemon(true);
+        worker.start();
+        return run.toDTO();
+    }
+
+    /**
+     * Runs on the calling thread.
+     */
+    public ReconciliationRunDTO reconcile(boolean republish) {
+        Run run = claim(republish);
+        run(run);
+        return run.toDTO();
+    }
+
+    public Optional<ReconciliationRunDTO> latest() {
+        return Optional.ofNullable(latest.get()).map(Run::toDTO);
+    }
+
+    @Scheduled(cron = "${billing.reconciliation.cron:-}")
+    public void reconcileOnSchedule() {
+        try {
+            reconcile(scheduledRepublish);
+        } catch (IllegalStateException e) {
+            log.warn("Skipping scheduled reconciliation: {}", e.getMessage());
+        }
+    }
+
+    private Run claim(boolean republish) {
+        Run run = new Run(republish, maxReported);
+        Run previous = latest.get();
+        boolean claimed = previous == null
+                ? latest.compareAndSet(null, run)
+                : !previous.isActive() && latest.compareAndSet(previous, run);
+        if (!claimed) {
+            throw new IllegalStateException("An invoice posting reconciliation is already running");
+        }
+        return run;
+    }
+
+    private void run(Run run) {
+        Instant settledBefore = run.startedAt.minus(settleTime);
+        List<BilledInvoice> toRepublish = new ArrayList<>();
+        List<GlPosting> postingsOfInvoice = new ArrayList<>();
+        log.info("Invoice posting reconciliation {} started{}", run.id, run.republish ? ", re-publishing gaps" : "");
+        // GL first: an invoice committed between the two snapshots then shows up as
+        // recently created and unposted, which is pending, never as an orphaned posting
+        try (RowCursor<GlPosting> postings = glPostingReader.open(fetchSize);
+             RowCursor<BilledInvoice> invoices = billingInvoiceReader.open(fetchSize)) {
+            BilledInvoice invoice = nextInvoice(invoices, run);
+            while (invoice != null || postings.peek() != null) {
+                GlPosting posting = postings.peek();
+                int order = invoice == null ? 1
+                        : posting == null ? -1
+                        : invoice.invoiceId().compareTo(posting.invoiceId());
+                if (order <= 0) {
+                    if (order == 0) {
+                        nextPostings(postings, invoice.invoiceId(), postingsOfInvoice, run);
+                    }
+                    check(run, invoice, postingsOfInvoice, settledBefore, toRepublish);
+                    invoice = nextInvoice(invoices, run);
+                } else {
+                    nextPostings(postings, posting.invoiceId(), postingsOfInvoice, run);
+                    run.orphaned++;
+                    run.report(ORPHANED, posting.invoiceId(), null, null, postingsOfInvoice);
+                }
+                postingsOfInvoice.clear();
+                if (toRepublish.size() >= REPUBLISH_CHUNK) {
+                    republish(run, toRepublish);
+                    toRepublish.clear();
+                }
+            }
+            republish(run, toRepublish);
+            run.finish("COMPLETED", null);
+            log.info("Invoice posting reconciliation {} completed: {} invoices, {} postings, {} matched, {} missing, "
+                            + "{} pending, {} duplicated, {} amount mismatches, {} orphaned, {} re-published in {} ms",
+                    run.id, run.invoices, run.postings, run.matched, run.missing, run.pending, run.duplicated,
+                    run.amountMismatched, run.orphaned, run.republished, run.elapsedMillis());
+        } catch (RuntimeException e) {
+            run.finish("FAILED", e.getMessage());
+            throw e;
+        }
+    }
+
+    // The next invoice id, once however many shards hold a copy of it
+    private static BilledInvoice nextInvoice(RowCursor<BilledInvoice> invoices, Run run) {
+        BilledInvoice invoice = invoices.next();
+        if (invoice == null) {
+            return null;
+        }
+        while (invoices.peek() != null && invoices.peek().invoiceId().equals(invoice.invoiceId())) {
+            invoices.next();
+        }
+        run.invoices++;
+        return invoice;
+    }
+
+    // Every posting for the invoice, once per transaction however many shards hold it
+    private static void nextPostings(RowCursor<GlPosting> postings, String invoiceId, List<GlPosting> into, Run run) {
+        while (postings.peek() != null && postings.peek().invoiceId().equals(invoiceId)) {
+            GlPosting posting = postings.next();
+            run.postings++;
+            if (into.stream().noneMatch(p -> p.transactionId().equals(posting.transactionId()))) {
+                into.add(posting);
+            }
+        }
+    }
+
+    private static void check(Run run, BilledInvoice invoice, List<GlPosting> postings, Instant settledBefore,
+                              List<BilledInvoice> toRepublish) {
+        if (postings.isEmpty()) {
+            if (!invoice.createdAt().isBefore(settledBefore)) {
+                run.pending++;
+                return;
+            }
+            run.missing++;
+            run.report(MISSING, invoice.invoiceId(), invoice.tenantId(), invoice.totalAmount(), postings);
+            if (run.republish) {
+                toRepublish.add(invoice);
+            }
+        } else if (postings.size() > 1) {
+            run.duplicated++;
+            run.report(DUPLICATE, invoice.invoiceId(), invoice.tenantId(), invoice.totalAmount(), postings);
+        } else if (postings.get(0).amount() == null) {
+            run.amountsUnverified++;
+            run.matched++;
+        } else if (postings.get(0).amount().compareTo(invoice.totalAmount()) != 0) {
+            run.amountMismatched++;
+            run.report(AMOUNT_MISMATCH, invoice.invoiceId(), invoice.tenantId(), invoice.totalAmount(), postings);
+        } else {
+            run.matched++;
+        }
+    }
+
+    /**
+     * Raises {@code InvoiceIssued} again, one transaction per tenant so each tenant's
+     * outbox rows land on its own shard. A tenant that cannot be reached is counted and
+     * left for the next run.
+     */
+    private void republish(Run run, List<BilledInvoice> missing) {
+        if (missing.isEmpty()) {
+            return;
+        }
+        Instant now = Instant.now();
+        Map<String, List<DomainEvent>> byTenant = new LinkedHashMap<>();
+        for (BilledInvoice invoice : missing) {
+            byTenant.computeIfAbsent(invoice.tenantId(), tenantId -> new ArrayList<>()).add(new InvoiceIssuedEvent(
+                    invoice.tenantId(), invoice.invoiceId(), invoice.customerId(), invoice.totalAmount(),
+                    invoice.currency(), invoice.invoiceDate(), invoice.dueDate(), now));
+        }
+        byTenant.forEach((tenantId, events) -> {
+            try {
+                TenantContext.run(tenantId, () ->
+                        transactionTemplate.executeWithoutResult(status -> domainEventPublisher.publish(events)));
+                run.republished += events.size();
+            } catch (RuntimeException e) {
+                run.republishFailed += events.size();
+                log.warn("Could not re-publish InvoiceIssued for {} invoices of tenant {}: {}",
+                        events.size(), tenantId, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Counters are written by the run's thread only and read by anyone.
+     */
+    private static final class Run {
+
+        private final UUID id = UUID.randomUUID();
+        private final boolean republish;
+        private final int maxReported;
+        private final Instant startedAt = Instant.now();
+        private final List<PostingDiscrepancyDTO> discrepancies = new ArrayList<>();
+        private volatile long invoices;
+        private volatile long postings;
+        private volatile long matched;
+        private volatile long missing;
+        private volatile long pending;
+        private volatile long duplicated;
+        private volatile long amountMismatched;
+        private volatile long orphaned;
+        private volatile long amountsUnverified;
+        private volatile long republished;
+        private volatile long republishFailed;
+        private volatile String status = "RUNNING";
+        private volatile Instant finishedAt;
+        private volatile String error;
+
+        private Run(boolean republish, int maxReported) {
+            this.republish = republish;
+            this.maxReported = maxReported;
+        }
+
+        boolean isActive() {
+            return finishedAt == null;
+        }
+
+        void report(String type, String invoiceId, String tenantId, BigDecimal billedAmount, List<GlPosting> postings) {
+            synchronized (discrepancies) {
+                if (discrepancies.size() >= maxReported) {
+                    return;
+                }
+                discrepancies.add(new PostingDiscrepancyDTO(type, invoiceId, tenantId, billedAmount,
+                        postings.stream().map(GlPosting::amount).toList(),
+                        postings.stream().map(GlPosting::transactionId).toList()));
+            }
+        }
+
+        void finish(String finalStatus, String failure) {
+            error = failure;
+            status = finalStatus;
+            finishedAt = Instant.now();
+        }
+
+        long elapsedMillis() {
+            Instant end = finishedAt != null ? finishedAt : Instant.now();
+            return Math.max(1, Duration.between(startedAt, end).toMillis());
+        }
+
+        ReconciliationRunDTO toDTO() {
+            List<PostingDiscrepancyDTO> reported;
+            synchronized (discrepancies) {
+                reported = List.copyOf(discrepancies);
+            }
+            return new ReconciliationRunDTO(id, status, republish, startedAt, finishedAt, invoices, postings, matched,
+                    missing, pending, duplicated, amountMismatched, orphaned, amountsUnverified, republished,
+                    republishFailed, elapsedMillis(), invoices * 1000 / elapsedMillis(), reported, error);
+        }
+    }
+}
@@ -2,6 +2,30 @@ package com.astracore.billing.domain.service;
 
 import com.astracore.domain.billing.Invoice;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 public interface AnomalyDetectionService {
     boolean isAnomalous(Invoice invoice);
+
+    /**
+     * Non-blocking variant. Implementations backed by a remote model should override
+     * this to coalesce concurrent callers into a single request.
+     */
+    default CompletableFuture<Boolean> isAnomalousAsync(Invoice invoice) {
+        return CompletableFuture.completedFuture(isAnomalous(invoice));
+    }
+
+    /**
+     * Scores a batch of invoices; element {@code i} of the result belongs to
+     * {@code invoices.get(i)}.
+     */
+    default List<Boolean> areAnomalous(List<Invoice> invoices) {
+        List<Boolean> results = new ArrayList<>(invoices.size());
+        for (Invoice invoice : invoices) {
+            results.add(isAnomalous(invoice));
+        }
+        return results;
+    }
 }
@@ -0,0 +1,127 @@
+package com.astracore.billing.infrastructure.ai;
+
+import com.astracore.billing.infrastructure.ai.AnomalySidecarClient.ScoreRequest;
+import com.astracore.billing.infrastructure.ai.AnomalySidecarClient.ScoreResult;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Coalesces concurrent single-invoice scoring requests into batch calls. A dispatcher
+ * thread waits for the first request, lingers up to {@code lingerMs} to collect up to
+ * {@code maxBatchSize} more, and hands the batch to a small sender pool so the next
+ * batch can form while the previous one is on the wire. When every sender is busy the
+ * dispatcher sends inline, which throttles intake instead of queueing without bound.
+ */
+@Slf4j
+class AnomalyScoringBatcher implements AutoCloseable {
+
+    private final BlockingQueue<Pending> queue;
+    private final Function<List<ScoreRequest>, List<ScoreResult>> batchScorer;
+    private final ScoreResult fallback;
+    private final int maxBatchSize;
+    private final long lingerNanos;
+    private final ExecutorService senders;
+    private final Thread dispatcher;
+    private volatile boolean running = true;
+
+    AnomalyScoringBatcher(Function<List<ScoreRequest>, List<ScoreResult>> batchScorer, ScoreResult fallback,
+                          int maxBatchSize, long lingerMs, int maxInFlight, int queueCapacity) {
+        this(batchScorer, fallback, maxBatchSize, lingerMs, queueCapacity, senderPool(maxInFlight));
+    }
+
+    AnomalyScoringBatcher(Function<List<ScoreRequest>, List<ScoreResult>> batchScorer, ScoreResult fallback,
+                          int maxBatchSize, long lingerMs, int queueCapacity, ExecutorService senders) {
+        this.batchScorer = batchScorer;
+        this.fallback = fallback;
+        this.maxBatchSize = maxBatchSize;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMs);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.senders = senders;
+        this.dispatcher = new Thread(this::dispatchLoop, "anomaly-batch-dispatcher");
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+
+    private static ExecutorService senderPool(int maxInFlight) {
+        return new ThreadPoolExecutor(maxInFlight, maxInFlight, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(maxInFlight), runnable -> {
+                    Thread thread = new Thread(runnable, "anomaly-batch-sender");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    CompletableFuture<ScoreResult> submit(ScoreRequest request) {
+        Pending pending = new Pending(request, new CompletableFuture<>());
+        if (!running || !queue.offer(pending)) {
+            // Saturated or shutting down: fail open rather than block the caller
+            pending.future.complete(fallback);
+        }
+        return pending.future;
+    }
+
+    private void dispatchLoop() {
+        List<Pending> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    Pending next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                List<Pending> toSend = List.copyOf(batch);
+                batch.clear();
+                senders.execute(() -> send(toSend));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        batch.forEach(pending -> pending.future.complete(fallback));
+        queue.forEach(pending -> pending.future.complete(fallback));
+    }
+
+    private void send(List<Pending> batch) {
+        List<ScoreRequest> requests = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            requests.add(pending.request);
+        }
+        try {
+            List<ScoreResult> results = batchScorer.apply(requests);
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).future.complete(results.get(i));
+            }
+        } catch (RuntimeException e) {
+            log.error("Anomaly batch of {} failed unexpectedly: {}", batch.size(), e.getMessage(), e);
+            batch.forEach(pending -> pending.future.complete(fallback));
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        dispatcher.interrupt();
+        senders.shutdown();
+    }
+
+    private record Pending(ScoreRequest request, CompletableFuture<ScoreResult> future) {
+    }
+}
@@ -0,0 +1,70 @@
+package com.astracore.billing.infrastructure.ai;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * HTTP transport to the AI sidecar. Uses a single shared JDK {@link HttpClient}, which
+ * keeps a pool of persistent connections, with explicit connect and read deadlines so a
+ * slow sidecar can never hold a caller for longer than {@code billing.ai.read-timeout-ms}.
+ */
+@Component
+@ConditionalOnExpression("${billing.ai.enabled:false} and '${billing.ai.engine:sidecar}' == 'sidecar'")
+public class AnomalySidecarClient {
+
+    private final RestClient restClient;
+
+    public AnomalySidecarClient(@Value("${billing.ai.url}") String aiServiceUrl,
+                                @Value("${billing.ai.connect-timeout-ms:200}") long connectTimeoutMs,
+                                @Value("${billing.ai.read-timeout-ms:500}") long readTimeoutMs) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        this.restClient = RestClient.builder()
+                .baseUrl(aiServiceUrl)
+                .requestFactory(requestFactory)
+                .build();
+    }
+
+    public List<ScoreResult> scoreBatch(List<ScoreRequest> requests) {
+        BatchScoreResponse response = restClient.post()
+                .uri("/predict/anomaly/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new BatchScoreRequest(requests))
+                .retrieve()
+                .body(BatchScoreResponse.class);
+        if (response == null || response.results() == null || response.results().size() != requests.size()) {
+            throw new IllegalStateException("Sidecar batch response does not match request size " + requests.size());
+        }
+        return response.results();
+    }
+
+    public record ScoreRequest(@JsonProperty("tenant_id") String tenantId,
+                               @JsonProperty("amount") double amount,
+                               @JsonProperty("currency") String currency,
+                               @JsonProperty("customer_id") String customerId) {
+    }
+
+    public record ScoreResult(@JsonProperty("is_anomalous") boolean anomalous,
+                              @JsonProperty("confidence_score") double confidenceScore,
+                              @JsonProperty("reason") String reason) {
+    }
+
+    record BatchScoreRequest(@JsonProperty("invoices") List<ScoreRequest> invoices) {
+    }
+
+    record BatchScoreResponse(@JsonProperty("results") List<ScoreResult> results) {
+    }
+}
@@ -0,0 +1,241 @@
+package com.astracore.billing.infrastructure.ai;
+
+import java.util.Arrays;
+
+/**
+ * One lock stripe of the streaming detector's per-customer state. Customers are keyed
+ * by the two halves of their UUID and stored column-wise in primitive arrays (no boxing,
+ * no per-customer objects) behind an open-addressing index. A doubly linked LRU list
+ * threaded through {@code prev}/{@code next} evicts the least recently seen customer
+ * once {@code capacity} is reached, so memory is fixed at construction time.
+ * <p>
+ * Each segment also keeps a P-square sketch of all amounts it has seen, used to judge
+ * customers that do not have enough history of their own yet.
+ */
+final class CustomerStatsSegment {
+
+    static final int NORMAL = 0;
+    static final int AMOUNT_OUTLIER = 1;
+    static final int VELOCITY = 2;
+
+    private static final int EMPTY = -1;
+
+    private final int capacity;
+    private final int mask;
+    private final int[] index;        // hash slot -> entry, EMPTY when free
+    private final long[] keyHi;
+    private final long[] keyLo;
+    private final double[] mean;      // EWMA of log1p(amount)
+    private final double[] variance;  // EWM variance of log1p(amount)
+    private final int[] observations;
+    private final long[] windowStart;
+    private final int[] windowCount;
+    private final int[] prev;
+    private final int[] next;
+    private final P2QuantileEstimator populationSketch;
+    private int head = EMPTY;         // most recently used
+    private int tail = EMPTY;         // least recently used
+    private int size;
+
+    CustomerStatsSegment(int capacity, double coldStartQuantile) {
+        this.capacity = capacity;
+        int tableSize = Integer.highestOneBit(Math.max(4, capacity * 2 - 1)) << 1;
+        this.mask = tableSize - 1;
+        this.index = new int[tableSize];
+        Arrays.fill(index, EMPTY);
+        this.keyHi = new long[capacity];
+        this.keyLo = new long[capacity];
+        this.mean = new double[capacity];
+        this.variance = new double[capacity];
+        this.observations = new int[capacity];
+        this.windowStart = new long[capacity];
+        this.windowCount = new int[capacity];
+        this.prev = new int[capacity];
+        this.next = new int[capacity];
+        this.populationSketch = new P2QuantileEstimator(coldStartQuantile);
+    }
+
+    /**
+     * Scores {@code x} (already log-transformed) for the customer and then folds it into
+     * the customer's statistics.
+     *
+     * @param nowMillis wall-clock time for velocity tracking, or a negative value to skip
+     *                  velocity (used when replaying history)
+     * @return a bit set of {@link #AMOUNT_OUTLIER} and {@link #VELOCITY}
+     */
+    synchronized int observe(long hi, long lo, double x, long nowMillis, StreamingAnomalySettings settings) {
+        int e = findOrInsert(hi, lo);
+        int verdict = NORMAL;
+
+        int n = observations[e];
+        if (n >= settings.minObservations()) {
+            double sd = Math.sqrt(variance[e]);
+            // Floor the deviation so a customer who always bills the same amount is not
+            // flagged for a one-cent change
+            double z = (x - mean[e]) / Math.max(sd, settings.minStdDev());
+            if (z > settings.zThreshold()) {
+                verdict |= AMOUNT_OUTLIER;
+            }
+        } else if (populationSketch.count() >= settings.minPopulation()
+                && x > populationSketch.estimate()) {
+            verdict |= AMOUNT_OUTLIER;
+        }
+
+        if (nowMillis >= 0) {
+            if (nowMillis - windowStart[e] > settings.velocityWindowMs()) {
+                windowStart[e] = nowMillis;
+                windowCount[e] = 0;
+            }
+            if (++windowCount[e] > settings.velocityMaxInvoices()) {
+                verdict |= VELOCITY;
+            }
+        }
+
+        if (n == 0) {
+            mean[e] = x;
+            variance[e] = 0;
+        } else {
+            double alpha = settings.alpha();
+            double diff = x - mean[e];
+            double increment = alpha * diff;
+            mean[e] += increment;
+            variance[e] = (1 - alpha) * (variance[e] + diff * increment);
+        }
+        if (n < Integer.MAX_VALUE) {
+            observations[e] = n + 1;
+        }
+        populationSketch.add(x);
+        return verdict;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Observations held for the customer, or 0 when it is not tracked. Does not count as
+     * a use for eviction.
+     */
+    synchronized int observations(long hi, long lo) {
+        int slot = home(hi, lo);
+        while (index[slot] != EMPTY) {
+            int e = index[slot];
+            if (keyHi[e] == hi && keyLo[e] == lo) {
+                return observations[e];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return 0;
+    }
+
+    private int findOrInsert(long hi, long lo) {
+        int slot = home(hi, lo);
+        while (index[slot] != EMPTY) {
+            int e = index[slot];
+            if (keyHi[e] == hi && keyLo[e] == lo) {
+                moveToFront(e);
+                return e;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        int e;
+        if (size < capacity) {
+            e = size++;
+        } else {
+            e = tail;
+            unlink(e);
+            removeFromIndex(e);
+            // The evicted entry's slot may have shifted; re-probe for the new key
+            slot = home(hi, lo);
+            while (index[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+        }
+        index[slot] = e;
+        keyHi[e] = hi;
+        keyLo[e] = lo;
+        mean[e] = 0;
+        variance[e] = 0;
+        observations[e] = 0;
+        windowStart[e] = 0;
+        windowCount[e] = 0;
+        linkFront(e);
+        return e;
+    }
+
+    /**
+     * Linear-probing delete with backward shift, so lookups never need tombstones.
+     */
+    private void removeFromIndex(int e) {
+        int slot = home(keyHi[e], keyLo[e]);
+        while (index[slot] != e) {
+            slot = (slot + 1) & mask;
+        }
+        int hole = slot;
+        int probe = hole;
+        while (true) {
+            probe = (probe + 1) & mask;
+            int moved = index[probe];
+            if (moved == EMPTY) {
+                break;
+            }
+            int ideal = home(keyHi[moved], keyLo[moved]);
+            // Shift back only if the hole lies cyclically between the entry's home and its slot
+            boolean between = hole <= probe
+                    ? ideal <= hole || ideal > probe
+                    : ideal <= hole && ideal > probe;
+            if (between) {
+                index[hole] = moved;
+                hole = probe;
+            }
+        }
+        index[hole] = EMPTY;
+    }
+
+    private void moveToFront(int e) {
+        if (head != e) {
+            unlink(e);
+            linkFront(e);
+        }
+    }
+
+    private void linkFront(int e) {
+        prev[e] = EMPTY;
+        next[e] = head;
+        if (head != EMPTY) {
+            prev[head] = e;
+        }
+        head = e;
+        if (tail == EMPTY) {
+            tail = e;
+        }
+    }
+
+    private void unlink(int e) {
+        int p = prev[e];
+        int n = next[e];
+        if (p != EMPTY) {
+            next[p] = n;
+        } else {
+            head = n;
+        }
+        if (n != EMPTY) {
+            prev[n] = p;
+        } else {
+            tail = p;
+        }
+    }
+
+    private int home(long hi, long lo) {
+        return (int) mix(hi, lo) & mask;
+    }
+
+    static long mix(long hi, long lo) {
+        long h = hi * 0x9E3779B97F4A7C15L ^ lo;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -1,57 +1,139 @@
 package com.astracore.billing.infrastructure.ai;
 
 import com.astracore.billing.domain.service.AnomalyDetectionService;
+import com.astracore.billing.infrastructure.ai.AnomalySidecarClient.ScoreRequest;
+import com.astracore.billing.infrastructure.ai.AnomalySidecarClient.ScoreResult;
 import com.astracore.domain.billing.Invoice;
-import lombok.RequiredArgsConstructor;
+import com.astracore.tenancy.TenantContext;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+/**
+ * Scores invoices against the AI sidecar. Single-invoice calls are micro-batched into
+ * {@code /predict/anomaly/batch}; every call is bounded by connect/read deadlines and a
+ * circuit breaker, and any failure fails open (the invoice is treated as normal).
+ */
 @Slf4j
 @Service
-@ConditionalOnProperty(name = "billing.ai.enabled", havingValue = "true")
-@RequiredArgsConstructor
-public class SidecarAnomalyDetectionService implements AnomalyDetectionService {
+@ConditionalOnExpression("${billing.ai.enabled:false} and '${billing.ai.engine:sidecar}' == 'sidecar'")
+public class SidecarAnomalyDetectionService implements AnomalyDetectionService, DisposableBean {
 
-    @Value("${billing.ai.url}")
-    private String aiServiceUrl;
+    private static final ScoreResult FAIL_OPEN = new ScoreResult(false, 0.0, "AI sidecar unavailable");
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final AnomalySidecarClient sidecarClient;
+    private final SidecarCircuitBreaker circuitBreaker;
+    private final AnomalyScoringBatcher batcher;
+    private final long callDeadlineMs;
+
+    public SidecarAnomalyDetectionService(AnomalySidecarClient sidecarClient,
+                                          @Value("${billing.ai.call-deadline-ms:750}") long callDeadlineMs,
+                                          @Value("${billing.ai.batch.max-size:64}") int maxBatchSize,
+                                          @Value("${billing.ai.batch.linger-ms:2}") long lingerMs,
+                                          @Value("${billing.ai.batch.max-in-flight:4}") int maxInFlight,
+                                          @Value("${billing.ai.batch.queue-capacity:4096}") int queueCapacity,
+                                          @Value("${billing.ai.circuit-breaker.failure-threshold:5}") int failureThreshold,
+                                          @Value("${billing.ai.circuit-breaker.open-duration-ms:10000}") long openDurationMs) {
+        this.sidecarClient = sidecarClient;
+        this.callDeadlineMs = callDeadlineMs;
+        this.circuitBreaker = new SidecarCircuitBreaker(failureThreshold, openDurationMs);
+        this.batcher = new AnomalyScoringBatcher(this::scoreBatch, FAIL_OPEN, maxBatchSize, lingerMs, maxInFlight, queueCapacity);
+    }
 
     @Override
     public boolean isAnomalous(Invoice invoice) {
         try {
-            String url = aiServiceUrl + "/predict/anomaly";
-            log.info("Calling AI Sidecar at {} for invoice: {}", url, invoice.getInvoiceId());
-
-            // Build payload with all required fields
-            Map<String, Object> payload = new HashMap<>();
-            payload.put("tenant_id", "default"); // TODO: Extract from security context
-            payload.put("amount", invoice.getTotalAmount().getAmount().doubleValue());
-            payload.put("currency", invoice.getTotalAmount().getCurrency());
-            payload.put("customer_id", invoice.getPartyIdTo());
-
-            Map<String, Object> response = restTemplate.postForObject(url, payload, Map.class);
-            
-            if (response != null && response.containsKey("is_anomalous")) {
-                boolean isAnomaly = (Boolean) response.get("is_anomalous");
-                if (isAnomaly) {
-                    log.warn("Anomaly detected for invoice: {} - Reason: {}", 
-                        invoice.getInvoiceId(), 
-                        response.get("reason"));
-                }
-                return isAnomaly;
+            return isAnomalousAsync(invoice).get(callDeadlineMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("AI Sidecar did not answer within {} ms for invoice {}, failing open", callDeadlineMs, invoice.getInvoiceId());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.error("Failed to score invoice {}: {}", invoice.getInvoiceId(), e.getMessage(), e);
+        }
+        // Fail-open: return false if AI service is down
+        return false;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> isAnomalousAsync(Invoice invoice) {
+        if (invoice.getTotalAmount() == null || invoice.getTotalAmount().getAmount() == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        if (circuitBreaker.isRejecting()) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return batcher.submit(toRequest(invoice)).thenApply(result -> interpret(invoice, result));
+    }
+
+    @Override
+    public List<Boolean> areAnomalous(List<Invoice> invoices) {
+        List<Boolean> anomalies = new ArrayList<>(Collections.nCopies(invoices.size(), Boolean.FALSE));
+        List<ScoreRequest> requests = new ArrayList<>(invoices.size());
+        List<Integer> positions = new ArrayList<>(invoices.size());
+        for (int i = 0; i < invoices.size(); i++) {
+            Invoice invoice = invoices.get(i);
+            if (invoice.getTotalAmount() != null && invoice.getTotalAmount().getAmount() != null) {
+                requests.add(toRequest(invoice));
+                positions.add(i);
             }
+        }
+        if (requests.isEmpty()) {
+            return anomalies;
+        }
+
+        List<ScoreResult> results = scoreBatch(requests);
+        for (int i = 0; i < results.size(); i++) {
+            int position = positions.get(i);
+            anomalies.set(position, interpret(invoices.get(position), results.get(i)));
+        }
+        return anomalies;
+    }
+
+    private List<ScoreResult> scoreBatch(List<ScoreRequest> requests) {
+        if (!circuitBreaker.allowRequest()) {
+            log.debug("AI Sidecar circuit open, skipping {} invoices", requests.size());
+            return Collections.nCopies(requests.size(), FAIL_OPEN);
+        }
+        try {
+            List<ScoreResult> results = sidecarClient.scoreBatch(requests);
+            circuitBreaker.recordSuccess();
+            return results;
         } catch (Exception e) {
-            log.error("Failed to call AI Sidecar: {}", e.getMessage(), e);
-            // Fail-open: return false if AI service is down
-            return false;
+            circuitBreaker.recordFailure();
+            log.error("Failed to call AI Sidecar for {} invoices: {}", requests.size(), e.getMessage());
+            return Collections.nCopies(requests.size(), FAIL_OPEN);
+        }
+    }
+
+    private static ScoreRequest toRequest(Invoice invoice) {
+        return new ScoreRequest(
+                TenantContext.current(),
+                invoice.getTotalAmount().getAmount().doubleValue(),
+                invoice.getTotalAmount().getCurrency().getCurrencyCode(),
+                invoice.getPartyIdTo());
+    }
+
+    private static boolean interpret(Invoice invoice, ScoreResult result) {
+        if (result != null && result.anomalous()) {
+            log.warn("Anomaly detected for invoice: {} - Reason: {}", invoice.getInvoiceId(), result.reason());
+            return true;
         }
         return false;
     }
+
+    @Override
+    public void destroy() {
+        batcher.close();
+    }
 }
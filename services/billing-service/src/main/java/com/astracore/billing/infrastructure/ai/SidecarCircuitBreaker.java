@@ -0,0 +1,60 @@
+package com.astracore.billing.infrastructure.ai;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Minimal consecutive-failure circuit breaker for the AI sidecar. After
+ * {@code failureThreshold} failures in a row it opens for {@code openDurationMs};
+ * while open, callers skip the sidecar entirely. The first caller after the open
+ * window is let through as a probe: success closes the circuit, failure re-opens it.
+ */
+class SidecarCircuitBreaker {
+
+    private final int failureThreshold;
+    private final long openDurationMs;
+    private final LongSupplier clock;
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong openUntil = new AtomicLong();
+
+    SidecarCircuitBreaker(int failureThreshold, long openDurationMs) {
+        this(failureThreshold, openDurationMs, System::currentTimeMillis);
+    }
+
+    SidecarCircuitBreaker(int failureThreshold, long openDurationMs, LongSupplier clock) {
+        this.failureThreshold = failureThreshold;
+        this.openDurationMs = openDurationMs;
+        this.clock = clock;
+    }
+
+    boolean allowRequest() {
+        long until = openUntil.get();
+        if (until == 0) {
+            return true;
+        }
+        long now = clock.getAsLong();
+        // Half-open: exactly one caller wins the CAS and probes; the rest keep failing fast
+        return now >= until && openUntil.compareAndSet(until, now + openDurationMs);
+    }
+
+    void recordSuccess() {
+        consecutiveFailures.set(0);
+        openUntil.set(0);
+    }
+
+    void recordFailure() {
+        if (consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            openUntil.set(clock.getAsLong() + openDurationMs);
+        }
+    }
+
+    /**
+     * Cheap, side-effect free check used to short-circuit before queueing work; unlike
+     * {@link #allowRequest()} it never claims the half-open probe.
+     */
+    boolean isRejecting() {
+        long until = openUntil.get();
+        return until != 0 && clock.getAsLong() < until;
+    }
+}
@@ -0,0 +1,151 @@
+package com.astracore.billing.infrastructure.ai;
+
+import com.astracore.billing.domain.service.AnomalyDetectionService;
+import com.astracore.billing.infrastructure.persistence.repository.InvoiceRepository;
+import com.astracore.domain.billing.Invoice;
+import com.astracore.tenancy.ShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * In-process anomaly scoring that needs no sidecar round trip. For every payer it keeps an
+ * exponentially weighted mean and variance of {@code log1p(amount)} and flags invoices
+ * whose z-score exceeds {@code z-threshold}; payers without enough history are compared
+ * with a high quantile of all amounts seen in their segment instead. A fixed-window
+ * counter additionally flags bursts of invoices to the same payer.
+ * <p>
+ * State is bounded ({@code max-customers}, LRU eviction) and is rebuilt from the last
+ * {@code warmup-days} of invoices on every tenant shard when the application starts.
+ */
+@Slf4j
+@Service
+@ConditionalOnExpression("${billing.ai.enabled:false} and '${billing.ai.engine:sidecar}' == 'streaming'")
+public class StreamingAnomalyDetectionService implements AnomalyDetectionService {
+
+    private final CustomerStatsSegment[] segments;
+    private final int segmentMask;
+    private final StreamingAnomalySettings settings;
+    private final InvoiceRepository invoiceRepository;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int warmupDays;
+
+    public StreamingAnomalyDetectionService(InvoiceRepository invoiceRepository,
+                                            ShardRouter shardRouter,
+                                            PlatformTransactionManager transactionManager,
+                                            @Value("${billing.ai.streaming.max-customers:200000}") int maxCustomers,
+                                            @Value("${billing.ai.streaming.segments:64}") int segmentCount,
+                                            @Value("${billing.ai.streaming.alpha:0.05}") double alpha,
+                                            @Value("${billing.ai.streaming.z-threshold:4.0}") double zThreshold,
+                                            @Value("${billing.ai.streaming.min-std-dev:0.1}") double minStdDev,
+                                            @Value("${billing.ai.streaming.min-observations:10}") int minObservations,
+                                            @Value("${billing.ai.streaming.cold-start-quantile:0.999}") double coldStartQuantile,
+                                            @Value("${billing.ai.streaming.cold-start-min-population:1000}") long minPopulation,
+                                            @Value("${billing.ai.streaming.velocity-window-ms:60000}") long velocityWindowMs,
+                                            @Value("${billing.ai.streaming.velocity-max-invoices:30}") int velocityMaxInvoices,
+                                            @Value("${billing.ai.streaming.warmup-days:90}") int warmupDays) {
+        if (maxCustomers <= 0 || segmentCount <= 0) {
+            throw new IllegalArgumentException("billing.ai.streaming.max-customers and segments must be positive");
+        }
+        int count = Integer.highestOneBit(Math.min(segmentCount, maxCustomers));
+        this.segments = new CustomerStatsSegment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new CustomerStatsSegment(Math.max(1, maxCustomers / count), coldStartQuantile);
+        }
+        this.segmentMask = count - 1;
+        this.settings = new StreamingAnomalySettings(alpha, zThreshold, minStdDev, minObservations,
+                minPopulation, velocityWindowMs, velocityMaxInvoices);
+        this.invoiceRepository = invoiceRepository;
+        this.shardRouter = shardRouter;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.warmupDays = warmupDays;
+    }
+
+    @Override
+    public boolean isAnomalous(Invoice invoice) {
+        if (invoice.getTotalAmount() == null || invoice.getTotalAmount().getAmount() == null
+                || invoice.getPartyIdTo() == null) {
+            return false;
+        }
+        int verdict = observe(invoice.getPartyIdTo(), invoice.getTotalAmount().getAmount(), System.currentTimeMillis());
+        if (verdict != CustomerStatsSegment.NORMAL) {
+            log.warn("Anomaly detected for invoice {}: {}", invoice.getInvoiceId(), describe(verdict));
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Replays recent history so scoring is meaningful straight after a restart. Velocity
+     * windows are not replayed; only amounts feed the statistics.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (warmupDays <= 0) {
+            return;
+        }
+        long started = System.nanoTime();
+        LocalDate since = LocalDate.now().minusDays(warmupDays);
+        long[] replayed = new long[1];
+        try {
+            for (String shard : shardRouter.shards()) {
+                shardRouter.runOnShard(shard, () -> readOnlyTransaction.executeWithoutResult(status ->
+                        invoiceRepository.scanPayerAmounts(since, (partyIdTo, amount) -> {
+                            observe(partyIdTo, amount, -1);
+                            replayed[0]++;
+                        })));
+            }
+            log.info("Streaming anomaly detector warmed up from {} invoices since {} in {} ms",
+                    replayed[0], since, (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            // A cold detector still works (population quantile, then per-payer stats)
+            log.error("Streaming anomaly detector warm-up failed after {} invoices: {}", replayed[0], e.getMessage(), e);
+        }
+    }
+
+    private int observe(String partyIdTo, BigDecimal amount, long nowMillis) {
+        long hi;
+        long lo;
+        try {
+            UUID key = UUID.fromString(partyIdTo);
+            hi = key.getMostSignificantBits();
+            lo = key.getLeastSignificantBits();
+        } catch (IllegalArgumentException e) {
+            // Non-UUID party ids: a 64-bit hash is plenty to tell payers apart
+            hi = 0;
+            lo = hash64(partyIdTo);
+        }
+        double x = Math.log1p(Math.max(0.0, amount.doubleValue()));
+        CustomerStatsSegment segment = segments[(int) (CustomerStatsSegment.mix(hi, lo) >>> 40) & segmentMask];
+        return segment.observe(hi, lo, x, nowMillis, settings);
+    }
+
+    private static long hash64(String value) {
+        long h = 0xCBF29CE484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001B3L;
+        }
+        return h;
+    }
+
+    private static String describe(int verdict) {
+        if ((verdict & CustomerStatsSegment.AMOUNT_OUTLIER) != 0 && (verdict & CustomerStatsSegment.VELOCITY) != 0) {
+            return "unusual amount and invoice burst for payer";
+        }
+        return (verdict & CustomerStatsSegment.AMOUNT_OUTLIER) != 0
+                ? "unusual amount for payer"
+                : "invoice burst for payer";
+    }
+}
@@ -0,0 +1,13 @@
+package com.astracore.billing.infrastructure.ai;
+
+/**
+ * Tuning knobs shared by every {@link CustomerStatsSegment}; see {@code billing.ai.streaming.*}.
+ */
+record StreamingAnomalySettings(double alpha,
+                                double zThreshold,
+                                double minStdDev,
+                                int minObservations,
+                                long minPopulation,
+                                long velocityWindowMs,
+                                int velocityMaxInvoices) {
+}
@@ -0,0 +1,10 @@
+package com.astracore.billing.infrastructure.cache;
+
+import com.astracore.billing.application.dto.InvoiceDTO;
+
+/**
+ * An invoice response together with the optimistic-lock version it was read at.
+ * Shared between callers, so the DTO must be treated as read-only.
+ */
+public record CachedInvoice(long version, InvoiceDTO invoice) {
+}
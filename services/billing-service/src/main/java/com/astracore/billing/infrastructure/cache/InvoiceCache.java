@@ -0,0 +1,116 @@
+package com.astracore.billing.infrastructure.cache;
+
+import com.astracore.billing.application.dto.InvoiceDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Read-through cache for single-invoice reads. The first tier is a bounded in-process
+ * Caffeine cache; the optional second tier ({@link RedisInvoiceCacheStore}) is shared by
+ * all replicas and fans invalidations out over pub/sub.
+ * <p>
+ * Every entry carries the entity version it was read at. An invalidation for version
+ * {@code v} drops anything older and, for a short while, refuses to cache older reads
+ * that were already in flight, so a slow loader cannot resurrect a stale invoice.
+ */
+@Component
+public class InvoiceCache {
+
+    private final boolean enabled;
+    private final Cache<UUID, CachedInvoice> local;
+    private final Cache<UUID, Long> minimumVersions;
+    private final RedisInvoiceCacheStore remote;
+
+    public InvoiceCache(ObjectProvider<RedisInvoiceCacheStore> remoteStore,
+                        MeterRegistry meterRegistry,
+                        @Value("${billing.cache.enabled:true}") boolean enabled,
+                        @Value("${billing.cache.local.max-entries:10000}") long maxEntries,
+                        @Value("${billing.cache.local.ttl-seconds:300}") long ttlSeconds) {
+        this.enabled = enabled;
+        this.local = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                // Safety net in case an invalidation message is lost
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        this.minimumVersions = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, local, "invoice");
+        this.remote = remoteStore.getIfAvailable();
+        if (remote != null) {
+            remote.onInvalidation(this::evictLocal);
+        }
+    }
+
+    public InvoiceDTO get(UUID invoiceId, Function<UUID, CachedInvoice> loader) {
+        if (!enabled) {
+            return loader.apply(invoiceId).invoice();
+        }
+        CachedInvoice cached = local.getIfPresent(invoiceId);
+        if (cached == null) {
+            cached = remote != null ? remote.get(invoiceId) : null;
+            if (cached == null) {
+                cached = loader.apply(invoiceId);
+                if (remote != null) {
+                    remote.put(invoiceId, cached);
+                }
+            }
+            putLocal(invoiceId, cached);
+        }
+        return cached.invoice();
+    }
+
+    /**
+     * Invalidates the given invoices (id to the version just written) once the surrounding
+     * transaction commits, or immediately when there is none.
+     */
+    public void evictAfterCommit(Map<UUID, Long> versions) {
+        if (!enabled || versions.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(versions);
+                }
+            });
+        } else {
+            evict(versions);
+        }
+    }
+
+    private void evict(Map<UUID, Long> versions) {
+        versions.forEach(this::evictLocal);
+        if (remote != null) {
+            remote.invalidate(versions);
+        }
+    }
+
+    private void evictLocal(UUID invoiceId, long version) {
+        minimumVersions.asMap().merge(invoiceId, version, Math::max);
+        local.asMap().computeIfPresent(invoiceId, (id, current) -> current.version() < version ? null : current);
+    }
+
+    private void putLocal(UUID invoiceId, CachedInvoice cached) {
+        Long minimum = minimumVersions.getIfPresent(invoiceId);
+        if (minimum != null && cached.version() < minimum) {
+            return;
+        }
+        local.asMap().merge(invoiceId, cached, (current, loaded) -> loaded.version() >= current.version() ? loaded : current);
+    }
+}
@@ -0,0 +1,217 @@
+package com.astracore.billing.infrastructure.cache;
+
+import com.astracore.billing.application.dto.InvoiceDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Shared second cache tier. Each invoice has a version pointer
+ * ({@code billing:invoice:<id>}) and one value key per version
+ * ({@code billing:invoice:<id>:<version>}). Pointers only ever move forward, so a reader
+ * that loaded an old row cannot make it current again; invalidating just advances the
+ * pointer past the cached value.
+ * <p>
+ * Invalidations are also published on {@code billing.cache.redis.channel} so every
+ * replica drops its in-process copy. Redis is an optimisation only: any failure is
+ * counted, treated as a miss and Redis is skipped for {@code retry-after-ms}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "billing.cache.redis.enabled", havingValue = "true")
+public class RedisInvoiceCacheStore implements InitializingBean, DisposableBean {
+
+    private static final String KEY_PREFIX = "billing:invoice:";
+
+    // Sets the pointer unless it already points at the same or a newer version
+    private static final RedisScript<Long> ADVANCE_POINTER = new DefaultRedisScript<>("""
+            local current = redis.call('GET', KEYS[1])
+            if (not current) or tonumber(current) < tonumber(ARGV[1]) then
+              redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2])
+              return 1
+            end
+            return 0
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisConnectionFactory connectionFactory;
+    private final ObjectMapper objectMapper;
+    private final List<ObjLongConsumer<UUID>> invalidationListeners = new CopyOnWriteArrayList<>();
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter errors;
+    private RedisMessageListenerContainer listenerContainer;
+    private volatile long unavailableUntil;
+
+    @Value("${billing.cache.redis.ttl-seconds:3600}")
+    private long ttlSeconds;
+
+    @Value("${billing.cache.redis.channel:billing.invoice.invalidations}")
+    private String channel;
+
+    @Value("${billing.cache.redis.retry-after-ms:5000}")
+    private long retryAfterMs;
+
+    public RedisInvoiceCacheStore(StringRedisTemplate redisTemplate,
+                                  RedisConnectionFactory connectionFactory,
+                                  ObjectMapper objectMapper,
+                                  MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.connectionFactory = connectionFactory;
+        this.objectMapper = objectMapper;
+        this.hits = remoteGets(meterRegistry, "hit");
+        this.misses = remoteGets(meterRegistry, "miss");
+        this.errors = Counter.builder("billing.cache.remote.errors")
+                .description("Redis cache operations that failed and fell back to the database")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(connectionFactory);
+        listenerContainer.addMessageListener((message, pattern) -> onMessage(message.getBody()), new ChannelTopic(channel));
+        listenerContainer.afterPropertiesSet();
+        try {
+            listenerContainer.start();
+        } catch (RuntimeException e) {
+            // The container keeps retrying the subscription in the background
+            log.warn("Could not subscribe to invoice cache invalidations yet: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        listenerContainer.destroy();
+    }
+
+    void onInvalidation(ObjLongConsumer<UUID> listener) {
+        invalidationListeners.add(listener);
+    }
+
+    CachedInvoice get(UUID invoiceId) {
+        if (!available()) {
+            return null;
+        }
+        try {
+            String version = redisTemplate.opsForValue().get(pointerKey(invoiceId));
+            String json = version != null ? redisTemplate.opsForValue().get(valueKey(invoiceId, version)) : null;
+            if (json == null) {
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return new CachedInvoice(Long.parseLong(version), objectMapper.readValue(json, InvoiceDTO.class));
+        } catch (JsonProcessingException | RuntimeException e) {
+            failed("read", invoiceId, e);
+            return null;
+        }
+    }
+
+    void put(UUID invoiceId, CachedInvoice cached) {
+        if (!available()) {
+            return;
+        }
+        try {
+            String version = Long.toString(cached.version());
+            Duration ttl = Duration.ofSeconds(ttlSeconds);
+            redisTemplate.opsForValue().set(valueKey(invoiceId, version), objectMapper.writeValueAsString(cached.invoice()), ttl);
+            redisTemplate.execute(ADVANCE_POINTER, List.of(pointerKey(invoiceId)), version, Long.toString(ttl.toMillis()));
+        } catch (JsonProcessingException | RuntimeException e) {
+            failed("write", invoiceId, e);
+        }
+    }
+
+    /**
+     * Advances the pointers of all given invoices in one pipeline and tells the other
+     * replicas about it with a single message.
+     */
+    void invalidate(Map<UUID, Long> versions) {
+        if (!available()) {
+            return;
+        }
+        byte[] script = ADVANCE_POINTER.getScriptAsString().getBytes(StandardCharsets.UTF_8);
+        byte[] ttlMillis = Long.toString(Duration.ofSeconds(ttlSeconds).toMillis()).getBytes(StandardCharsets.UTF_8);
+        StringBuilder message = new StringBuilder(versions.size() * 48);
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                versions.forEach((invoiceId, version) -> connection.scriptingCommands().eval(script, ReturnType.INTEGER, 1,
+                        pointerKey(invoiceId).getBytes(StandardCharsets.UTF_8),
+                        Long.toString(version).getBytes(StandardCharsets.UTF_8),
+                        ttlMillis));
+                return null;
+            });
+            versions.forEach((invoiceId, version) -> message.append(invoiceId).append(':').append(version).append('\n'));
+            redisTemplate.convertAndSend(channel, message.toString());
+        } catch (RuntimeException e) {
+            failed("invalidate", versions.keySet().iterator().next(), e);
+        }
+    }
+
+    private void onMessage(byte[] body) {
+        for (String line : new String(body, StandardCharsets.UTF_8).split("\n")) {
+            int separator = line.indexOf(':');
+            if (separator < 0) {
+                continue;
+            }
+            try {
+                UUID invoiceId = UUID.fromString(line.substring(0, separator));
+                long version = Long.parseLong(line.substring(separator + 1));
+                for (ObjLongConsumer<UUID> listener : invalidationListeners) {
+                    listener.accept(invoiceId, version);
+                }
+            } catch (IllegalArgumentException e) {
+                log.warn("Ignoring malformed invoice cache invalidation '{}'", line);
+            }
+        }
+    }
+
+    private boolean available() {
+        return System.currentTimeMillis() >= unavailableUntil;
+    }
+
+    private void failed(String operation, UUID invoiceId, Exception e) {
+        errors.increment();
+        unavailableUntil = System.currentTimeMillis() + retryAfterMs;
+        log.warn("Redis invoice cache {} failed for {}, bypassing Redis for {} ms: {}",
+                operation, invoiceId, retryAfterMs, e.getMessage());
+    }
+
+    private static Counter remoteGets(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("billing.cache.remote.gets")
+                .description("Invoice lookups answered by the shared Redis tier")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static String pointerKey(UUID invoiceId) {
+        return KEY_PREFIX + invoiceId;
+    }
+
+    private static String valueKey(UUID invoiceId, String version) {
+        return KEY_PREFIX + invoiceId + ":" + version;
+    }
+}
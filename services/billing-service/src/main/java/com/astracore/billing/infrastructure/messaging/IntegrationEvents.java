@@ -0,0 +1,29 @@
+package com.astracore.billing.infrastructure.messaging;
+
+import com.astracore.domain.billing.InvoiceIssuedEvent;
+import com.astracore.event.InvoiceIssued;
+
+/**
+ * Translation from billing domain events to the public contracts in event-contracts,
+ * plus the topic each contract is published on.
+ */
+public final class IntegrationEvents {
+
+    public static final String INVOICE_ISSUED_TOPIC = "invoice.issued.v1";
+
+    private IntegrationEvents() {
+    }
+
+    public static InvoiceIssued toInvoiceIssued(InvoiceIssuedEvent event) {
+        return new InvoiceIssued(
+                event.getTenantId(),
+                event.getInvoiceId(),
+                event.getCustomerId(),
+                event.getTotalAmount(),
+                event.getCurrency(),
+                event.getIssueDate(),
+                event.getDueDate(),
+                event.getOccurredOn()
+        );
+    }
+}
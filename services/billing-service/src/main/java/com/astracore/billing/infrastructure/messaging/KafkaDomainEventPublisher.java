@@ -3,21 +3,28 @@ package com.astracore.billing.infrastructure.messaging;
 import com.astracore.billing.domain.service.DomainEventPublisher;
 import com.astracore.domain.billing.InvoiceIssuedEvent;
 import com.astracore.event.InvoiceIssued;
+import com.astracore.event.routing.TenantKeys;
 import com.astracore.shared.domain.DomainEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
 
+import static com.astracore.billing.infrastructure.messaging.IntegrationEvents.INVOICE_ISSUED_TOPIC;
+
+/**
+ * Sends straight to Kafka from the caller's thread. Only used when the outbox is
+ * disabled; see {@link com.astracore.billing.infrastructure.messaging.outbox.OutboxDomainEventPublisher}.
+ */
 @Slf4j
 @Service
+@ConditionalOnProperty(name = "billing.outbox.enabled", havingValue = "false")
 @RequiredArgsConstructor
 public class KafkaDomainEventPublisher implements DomainEventPublisher {
 
-    private static final String INVOICE_ISSUED_TOPIC = "invoice.issued.v1";
-
     private final KafkaTemplate<String, Object> kafkaTemplate;
 
     @Override
@@ -36,18 +43,9 @@ public class KafkaDomainEventPublisher implements DomainEventPublisher {
     }
 
     private void publishInvoiceIssued(InvoiceIssuedEvent event) {
-        InvoiceIssued payload = new InvoiceIssued(
-                event.getTenantId(),
-                event.getInvoiceId(),
-                event.getCustomerId(),
-                event.getTotalAmount(),
-                event.getCurrency(),
-                event.getIssueDate(),
-                event.getDueDate(),
-                event.getOccurredOn()
-        );
+        InvoiceIssued payload = IntegrationEvents.toInvoiceIssued(event);
 
         log.info("Publishing InvoiceIssued event to topic {} for invoice {}", INVOICE_ISSUED_TOPIC, event.getInvoiceId());
-        kafkaTemplate.send(INVOICE_ISSUED_TOPIC, event.getInvoiceId(), payload);
+        kafkaTemplate.send(INVOICE_ISSUED_TOPIC, TenantKeys.key(event.getTenantId(), event.getInvoiceId()), payload);
     }
 }
@@ -0,0 +1,68 @@
+package com.astracore.billing.infrastructure.messaging.outbox;
+
+import com.astracore.billing.domain.service.DomainEventPublisher;
+import com.astracore.billing.infrastructure.messaging.IntegrationEvents;
+import com.astracore.domain.billing.InvoiceIssuedEvent;
+import com.astracore.event.InvoiceIssued;
+import com.astracore.event.routing.TenantKeys;
+import com.astracore.shared.domain.DomainEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records integration events in {@code event_outbox} as part of the caller's
+ * transaction. Nothing touches Kafka here; {@link OutboxRelay} ships the rows later,
+ * so a rollback can never leak an event and a slow broker never stalls a request.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "billing.outbox.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+public class OutboxDomainEventPublisher implements DomainEventPublisher {
+
+    static final String INVOICE_ISSUED_TYPE = "InvoiceIssued";
+
+    private final OutboxStore outboxStore;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(List<DomainEvent> events) {
+        if (events == null || events.isEmpty()) {
+            return;
+        }
+
+        List<OutboxMessage> messages = new ArrayList<>(events.size());
+        for (DomainEvent event : events) {
+            if (event instanceof InvoiceIssuedEvent invoiceIssuedEvent) {
+                InvoiceIssued payload = IntegrationEvents.toInvoiceIssued(invoiceIssuedEvent);
+                messages.add(new OutboxMessage(null, "Invoice", payload.getInvoiceId(), INVOICE_ISSUED_TYPE,
+                        IntegrationEvents.INVOICE_ISSUED_TOPIC, TenantKeys.key(payload.getTenantId(), payload.getInvoiceId()),
+                        toJson(payload), null));
+            } else {
+                log.debug("Ignoring unsupported domain event type: {}", event.getClass().getName());
+            }
+        }
+
+        if (!messages.isEmpty()) {
+            outboxStore.append(messages);
+        }
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize outbox payload " + payload, e);
+        }
+    }
+}
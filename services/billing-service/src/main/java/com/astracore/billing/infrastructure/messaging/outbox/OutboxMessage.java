@@ -0,0 +1,21 @@
+package com.astracore.billing.infrastructure.messaging.outbox;
+
+import lombok.Value;
+
+import java.time.Instant;
+
+/**
+ * One row of {@code event_outbox}: an integration event captured in the business
+ * transaction and waiting for {@link OutboxRelay} to hand it to Kafka.
+ */
+@Value
+public class OutboxMessage {
+    Long outboxId; // null until inserted
+    String aggregateType;
+    String aggregateId;
+    String eventType;
+    String topic;
+    String messageKey;
+    String payload;
+    Instant createdAt;
+}
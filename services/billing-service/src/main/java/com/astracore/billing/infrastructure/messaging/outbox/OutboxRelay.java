@@ -0,0 +1,179 @@
+package com.astracore.billing.infrastructure.messaging.outbox;
+
+import com.astracore.event.InvoiceIssued;
+import com.astracore.tenancy.ShardRouter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains {@code event_outbox} to Kafka. Each poll claims a batch with
+ * {@code FOR UPDATE SKIP LOCKED}, so any number of billing-service replicas can relay
+ * concurrently, fires all sends without waiting in between (the producer pipelines
+ * them), waits for the whole batch against one {@code billing.outbox.send-timeout-ms}
+ * deadline, then deletes the rows whose sends were acknowledged. Rows whose send failed
+ * or was not acknowledged in time stay behind and are retried on a later poll, giving
+ * at-least-once delivery.
+ * <p>
+ * Every tenant shard has its own outbox; each tick drains them one after the other, and
+ * a shard that cannot be reached does not hold back the others.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "billing.outbox.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+    private final OutboxStore outboxStore;
+    private final ShardRouter shardRouter;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter publishedCounter;
+    private final Counter failedCounter;
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    @Value("${billing.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${billing.outbox.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    public OutboxRelay(OutboxStore outboxStore,
+                       ShardRouter shardRouter,
+                       KafkaTemplate<String, Object> kafkaTemplate,
+                       ObjectMapper objectMapper,
+                       TransactionTemplate transactionTemplate,
+                       MeterRegistry meterRegistry) {
+        this.outboxStore = outboxStore;
+        this.shardRouter = shardRouter;
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.publishedCounter = Counter.builder("billing.outbox.published")
+                .description("Outbox messages acknowledged by Kafka")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("billing.outbox.failed")
+                .description("Outbox sends that failed and will be retried")
+                .register(meterRegistry);
+        TimeGauge.builder("billing.outbox.relay.lag", lagMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+                .description("Age of the oldest outbox message seen by the last relay poll, across shards")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${billing.outbox.poll-interval-ms:200}")
+    public void relay() {
+        long oldest = 0;
+        for (String shard : shardRouter.shards()) {
+            try {
+                oldest = Math.max(oldest, shardRouter.callOnShard(shard, this::drain));
+            } catch (RuntimeException e) {
+                log.warn("Outbox relay could not drain shard {}: {}", shard, e.getMessage());
+            }
+        }
+        lagMillis.set(oldest);
+    }
+
+    /**
+     * Keeps draining while full batches go through so a backlog clears without waiting for
+     * the next tick; stops as soon as anything fails so a broker outage does not spin.
+     *
+     * @return the age in milliseconds of the oldest message of the first batch
+     */
+    private long drain() {
+        RelayedBatch first = transactionTemplate.execute(status -> relayBatch());
+        RelayedBatch batch = first;
+        while (batch != null && batch.delivered() == batchSize) {
+            batch = transactionTemplate.execute(status -> relayBatch());
+        }
+        return first == null ? 0 : first.lagMillis();
+    }
+
+    private RelayedBatch relayBatch() {
+        List<OutboxMessage> batch = outboxStore.lockNextBatch(batchSize);
+        if (batch.isEmpty()) {
+            return new RelayedBatch(0, 0);
+        }
+        long lag = Math.max(0, Duration.between(batch.get(0).getCreatedAt(), Instant.now()).toMillis());
+
+        List<CompletableFuture<SendResult<String, Object>>> sends = new ArrayList<>(batch.size());
+        for (OutboxMessage message : batch) {
+            sends.add(send(message));
+        }
+
+        // One deadline for the whole batch: the rows stay locked while we wait
+        try {
+            CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            // Some sends failed or are still in flight; the acknowledged ones are kept below
+        }
+
+        List<Long> delivered = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            OutboxMessage message = batch.get(i);
+            CompletableFuture<SendResult<String, Object>> sent = sends.get(i);
+            if (sent.isDone() && !sent.isCompletedExceptionally()) {
+                delivered.add(message.getOutboxId());
+            } else {
+                failedCounter.increment();
+                log.warn("Failed to relay outbox message {} ({} for {}), will retry: {}",
+                        message.getOutboxId(), message.getEventType(), message.getAggregateId(), failure(sent));
+            }
+        }
+
+        if (!delivered.isEmpty()) {
+            outboxStore.delete(delivered);
+            publishedCounter.increment(delivered.size());
+        }
+        return new RelayedBatch(delivered.size(), lag);
+    }
+
+    private CompletableFuture<SendResult<String, Object>> send(OutboxMessage message) {
+        try {
+            Object payload = switch (message.getEventType()) {
+                case OutboxDomainEventPublisher.INVOICE_ISSUED_TYPE -> objectMapper.readValue(message.getPayload(), InvoiceIssued.class);
+                default -> throw new IllegalStateException("Unknown outbox event type " + message.getEventType());
+            };
+            return kafkaTemplate.send(message.getTopic(), message.getMessageKey(), payload);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private String failure(CompletableFuture<?> sent) {
+        if (!sent.isDone()) {
+            return "not acknowledged within " + sendTimeoutMs + " ms";
+        }
+        try {
+            sent.join();
+            return "acknowledged";
+        } catch (CompletionException | CancellationException e) {
+            return (e.getCause() != null ? e.getCause() : e).getMessage();
+        }
+    }
+
+    private record RelayedBatch(int delivered, long lagMillis) {
+    }
+}
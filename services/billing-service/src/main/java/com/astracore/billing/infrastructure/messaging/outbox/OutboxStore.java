@@ -0,0 +1,68 @@
+package com.astracore.billing.infrastructure.messaging.outbox;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * JDBC access to {@code event_outbox}. Writes join the caller's transaction, which is
+ * what makes the outbox atomic with the invoice rows.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OutboxStore {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO event_outbox (aggregate_type, aggregate_id, event_type, topic, message_key, payload)
+            VALUES (?, ?, ?, ?, ?, ?)
+            """;
+
+    // SKIP LOCKED lets every replica's relay claim a disjoint batch without waiting on each other
+    private static final String LOCK_BATCH_SQL = """
+            SELECT outbox_id, aggregate_type, aggregate_id, event_type, topic, message_key, payload, created_at
+              FROM event_outbox
+             ORDER BY outbox_id
+             LIMIT ?
+               FOR UPDATE SKIP LOCKED
+            """;
+
+    private static final RowMapper<OutboxMessage> ROW_MAPPER = (rs, rowNum) -> new OutboxMessage(
+            rs.getLong("outbox_id"),
+            rs.getString("aggregate_type"),
+            rs.getString("aggregate_id"),
+            rs.getString("event_type"),
+            rs.getString("topic"),
+            rs.getString("message_key"),
+            rs.getString("payload"),
+            rs.getTimestamp("created_at").toInstant()
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void append(List<OutboxMessage> messages) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, messages, messages.size(), (ps, message) -> {
+            ps.setString(1, message.getAggregateType());
+            ps.setString(2, message.getAggregateId());
+            ps.setString(3, message.getEventType());
+            ps.setString(4, message.getTopic());
+            ps.setString(5, message.getMessageKey());
+            ps.setString(6, message.getPayload());
+        });
+    }
+
+    /**
+     * Claims up to {@code limit} of the oldest pending messages. Must run inside a
+     * transaction; the row locks are held until it ends.
+     */
+    public List<OutboxMessage> lockNextBatch(int limit) {
+        return jdbcTemplate.query(LOCK_BATCH_SQL, ROW_MAPPER, limit);
+    }
+
+    public void delete(List<Long> outboxIds) {
+        jdbcTemplate.update("DELETE FROM event_outbox WHERE outbox_id = ANY (?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", outboxIds.toArray())));
+    }
+}
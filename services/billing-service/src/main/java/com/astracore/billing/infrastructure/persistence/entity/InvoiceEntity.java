@@ -1,5 +1,7 @@
 package com.astracore.billing.infrastructure.persistence.entity;
 
+import com.astracore.shared.id.UuidV7;
+import com.astracore.tenancy.TenantContext;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
@@ -20,6 +22,9 @@ public class InvoiceEntity extends BaseEntity {
     @Column(name = "invoice_id")
     private UUID invoiceId;
 
+    @Column(name = "tenant_id", nullable = false, updatable = false)
+    private String tenantId;
+
     @Column(name = "invoice_type_id", nullable = false)
     private String invoiceTypeId;
 
@@ -54,4 +59,15 @@ public class InvoiceEntity extends BaseEntity {
         lines.add(line);
         line.setInvoice(this);
     }
+
+    @PrePersist
+    void assignId() {
+        if (invoiceId == null) {
+            invoiceId = UuidV7.generate();
+        }
+        // Hibernate writes null explicitly, so the column default would never apply
+        if (tenantId == null) {
+            tenantId = TenantContext.current();
+        }
+    }
 }
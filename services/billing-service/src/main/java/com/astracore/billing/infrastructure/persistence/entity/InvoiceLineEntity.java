@@ -1,5 +1,6 @@
 package com.astracore.billing.infrastructure.persistence.entity;
 
+import com.astracore.shared.id.UuidV7;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
@@ -33,6 +34,16 @@ public class InvoiceLineEntity extends BaseEntity {
     @Column(name = "quantity")
     private BigDecimal quantity;
 
+    @Column(name = "unit_price")
+    private BigDecimal unitPrice;
+
     @Column(name = "amount")
     private BigDecimal amount;
+
+    @PrePersist
+    void assignId() {
+        if (invoiceLineId == null) {
+            invoiceLineId = UuidV7.generate();
+        }
+    }
 }
@@ -0,0 +1,25 @@
+package com.astracore.billing.infrastructure.persistence.projection;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Read-only header projection of an invoice. Built straight from the
+ * {@code invoice} table so list queries never touch {@code invoice_line}.
+ */
+@Value
+public class InvoiceSummaryView {
+    UUID invoiceId;
+    String invoiceTypeId;
+    UUID partyIdFrom;
+    UUID partyIdTo;
+    String customerName;
+    LocalDate invoiceDate;
+    LocalDate dueDate;
+    String statusId;
+    String currencyUomId;
+    BigDecimal totalAmount;
+}
@@ -1,11 +1,19 @@
 package com.astracore.billing.infrastructure.persistence.repository;
 
 import com.astracore.billing.infrastructure.persistence.entity.InvoiceEntity;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface InvoiceRepository extends JpaRepository<InvoiceEntity, UUID> {
+public interface InvoiceRepository extends JpaRepository<InvoiceEntity, UUID>, InvoiceRepositoryCustom {
+
+    /**
+     * Loads the invoice together with its lines in a single joined query.
+     */
+    @EntityGraph(attributePaths = "lines")
+    Optional<InvoiceEntity> findWithLinesByInvoiceId(UUID invoiceId);
 }
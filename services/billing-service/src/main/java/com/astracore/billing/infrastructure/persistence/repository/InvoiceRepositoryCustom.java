@@ -0,0 +1,25 @@
+package com.astracore.billing.infrastructure.persistence.repository;
+
+import com.astracore.billing.infrastructure.persistence.projection.InvoiceSummaryView;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+public interface InvoiceRepositoryCustom {
+
+    /**
+     * Returns at most {@code limit} invoice headers ordered by
+     * {@code (invoice_date DESC, invoice_id DESC)}, starting strictly after the
+     * keyset position carried by {@code criteria}.
+     */
+    List<InvoiceSummaryView> findSummaries(InvoiceSummaryCriteria criteria, int limit);
+
+    /**
+     * Streams {@code (party_id_to, total_amount)} for every invoice dated on or after
+     * {@code since}, oldest first. Call inside a read-only transaction so rows are
+     * fetched in chunks rather than buffered in memory.
+     */
+    void scanPayerAmounts(LocalDate since, BiConsumer<String, BigDecimal> consumer);
+}
@@ -0,0 +1,103 @@
+package com.astracore.billing.infrastructure.persistence.repository;
+
+import com.astracore.billing.infrastructure.persistence.projection.InvoiceSummaryView;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+/**
+ * Keyset-paginated header reads. Plain SQL is used so the row-value comparison
+ * {@code (invoice_date, invoice_id) < (?, ?)} reaches Postgres untouched and can be
+ * answered by the tenant-leading composite indexes from {@code V5__invoice_tenant.sql}.
+ */
+@RequiredArgsConstructor
+public class InvoiceRepositoryImpl implements InvoiceRepositoryCustom {
+
+    private static final String SELECT_SUMMARY = """
+            SELECT invoice_id, invoice_type_id, party_id_from, party_id_to, customer_name,
+                   invoice_date, due_date, status_id, currency_uom_id, total_amount
+              FROM invoice
+             WHERE tenant_id = :tenantId
+            """;
+
+    private static final RowMapper<InvoiceSummaryView> SUMMARY_ROW_MAPPER = (rs, rowNum) -> {
+        Date dueDate = rs.getDate("due_date");
+        return new InvoiceSummaryView(
+                rs.getObject("invoice_id", UUID.class),
+                rs.getString("invoice_type_id"),
+                rs.getObject("party_id_from", UUID.class),
+                rs.getObject("party_id_to", UUID.class),
+                rs.getString("customer_name"),
+                rs.getDate("invoice_date").toLocalDate(),
+                dueDate != null ? dueDate.toLocalDate() : null,
+                rs.getString("status_id"),
+                rs.getString("currency_uom_id"),
+                rs.getBigDecimal("total_amount")
+        );
+    };
+
+    private static final String SCAN_PAYER_AMOUNTS = """
+            SELECT party_id_to, total_amount
+              FROM invoice
+             WHERE invoice_date >= ?
+               AND total_amount IS NOT NULL
+             ORDER BY invoice_date, invoice_id
+            """;
+
+    private static final int SCAN_FETCH_SIZE = 1000;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<InvoiceSummaryView> findSummaries(InvoiceSummaryCriteria criteria, int limit) {
+        StringBuilder sql = new StringBuilder(SELECT_SUMMARY);
+        MapSqlParameterSource params = new MapSqlParameterSource("tenantId", criteria.getTenantId());
+
+        if (criteria.getStatusId() != null) {
+            sql.append(" AND status_id = :statusId");
+            params.addValue("statusId", criteria.getStatusId());
+        }
+        if (criteria.getPartyIdTo() != null) {
+            sql.append(" AND party_id_to = :partyIdTo");
+            params.addValue("partyIdTo", criteria.getPartyIdTo());
+        }
+        if (criteria.getFromDate() != null) {
+            sql.append(" AND invoice_date >= :fromDate");
+            params.addValue("fromDate", criteria.getFromDate());
+        }
+        if (criteria.getToDate() != null) {
+            sql.append(" AND invoice_date <= :toDate");
+            params.addValue("toDate", criteria.getToDate());
+        }
+        if (criteria.getAfterInvoiceDate() != null && criteria.getAfterInvoiceId() != null) {
+            sql.append(" AND (invoice_date, invoice_id) < (:afterInvoiceDate, :afterInvoiceId)");
+            params.addValue("afterInvoiceDate", criteria.getAfterInvoiceDate());
+            params.addValue("afterInvoiceId", criteria.getAfterInvoiceId());
+        }
+
+        sql.append(" ORDER BY invoice_date DESC, invoice_id DESC LIMIT :limit");
+        params.addValue("limit", limit);
+
+        return jdbcTemplate.query(sql.toString(), params, SUMMARY_ROW_MAPPER);
+    }
+
+    @Override
+    public void scanPayerAmounts(LocalDate since, BiConsumer<String, BigDecimal> consumer) {
+        // A fetch size only streams (instead of buffering the whole result) inside a transaction
+        JdbcTemplate streaming = new JdbcTemplate(jdbcTemplate.getJdbcTemplate().getDataSource());
+        streaming.setFetchSize(SCAN_FETCH_SIZE);
+        streaming.query(SCAN_PAYER_AMOUNTS,
+                (RowCallbackHandler) rs -> consumer.accept(rs.getString("party_id_to"), rs.getBigDecimal("total_amount")),
+                Date.valueOf(since));
+    }
+}
@@ -0,0 +1,25 @@
+package com.astracore.billing.infrastructure.persistence.repository;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Filters and keyset position for {@link InvoiceRepositoryCustom#findSummaries}.
+ * {@code tenantId} is required; all other fields are optional.
+ * {@code afterInvoiceDate}/{@code afterInvoiceId} must be supplied together and identify
+ * the last row of the previous page.
+ */
+@Value
+@Builder
+public class InvoiceSummaryCriteria {
+    String tenantId;
+    String statusId;
+    UUID partyIdTo;
+    LocalDate fromDate;
+    LocalDate toDate;
+    LocalDate afterInvoiceDate;
+    UUID afterInvoiceId;
+}
@@ -0,0 +1,13 @@
+package com.astracore.billing.infrastructure.reconciliation;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * One invoice as reconciliation reads it: enough to compare with its posting and to
+ * raise its {@code InvoiceIssued} again.
+ */
+public record BilledInvoice(String invoiceId, String tenantId, String customerId, BigDecimal totalAmount,
+                            String currency, LocalDate invoiceDate, LocalDate dueDate, Instant createdAt) {
+}
@@ -0,0 +1,12 @@
+package com.astracore.billing.infrastructure.reconciliation;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * One GL transaction posted for an invoice.
+ *
+ * @param amount what the transaction debits; null when its entries have been archived
+ */
+public record GlPosting(String invoiceId, UUID transactionId, BigDecimal amount) {
+}
@@ -0,0 +1,81 @@
+package com.astracore.billing.infrastructure.reconciliation;
+
+import com.astracore.tenancy.TenantShards;
+import org.springframework.jdbc.core.RowMapper;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Streams every invoice posting of every gl-service shard in invoice id order, read
+ * straight from the GL databases configured under
+ * {@code billing.reconciliation.gl.shards.<name>} (ideally read replicas).
+ * <p>
+ * Each shard is read twice: postings recorded against their invoice in
+ * {@code posted_source_document}, and invoice postings from before source documents were
+ * recorded, which carry the invoice id only in their description. A posting's amount is
+ * what it debits, read from its journal entries; once the month is archived the entries
+ * are gone and the amount is null.
+ */
+public class GlPostingReader implements AutoCloseable {
+
+    private static final String POSTED_SQL = """
+            SELECT p.source_document_id AS invoice_id, p.transaction_id,
+                   (SELECT MAX(e.amount) FROM transaction_entry e
+                     WHERE e.transaction_id = p.transaction_id
+                       AND e.transaction_date = p.transaction_date
+                       AND e.debit_credit_flag = 'D') AS amount
+              FROM posted_source_document p
+             WHERE p.source_document_type = 'INVOICE'
+             ORDER BY p.source_document_id COLLATE "C"
+            """;
+
+    private static final String UNTAGGED_SQL = """
+            SELECT substring(t.description FROM 9) AS invoice_id, t.transaction_id,
+                   (SELECT MAX(e.amount) FROM transaction_entry e
+                     WHERE e.transaction_id = t.transaction_id
+                       AND e.transaction_date = t.transaction_date
+                       AND e.debit_credit_flag = 'D') AS amount
+              FROM accounting_transaction t
+             WHERE t.transaction_type = 'SALES_INVOICE'
+               AND t.source_document_id IS NULL
+               AND t.description LIKE 'Invoice %'
+             ORDER BY substring(t.description FROM 9) COLLATE "C"
+            """;
+
+    private static final RowMapper<GlPosting> ROW_MAPPER = (rs, rowNum) -> new GlPosting(
+            rs.getString("invoice_id"),
+            rs.getObject("transaction_id", UUID.class),
+            rs.getBigDecimal("amount")
+    );
+
+    private final TenantShards shards;
+
+    public GlPostingReader(TenantShards shards) {
+        this.shards = shards;
+    }
+
+    public RowCursor<GlPosting> open(int fetchSize) {
+        List<RowCursor<GlPosting>> cursors = new ArrayList<>(2 * shards.dataSources().size());
+        try {
+            for (Map.Entry<String, DataSource> shard : shards.dataSources().entrySet()) {
+                cursors.add(StreamingQuery.open("invoice postings on GL shard " + shard.getKey(), shard.getValue(),
+                        POSTED_SQL, fetchSize, ROW_MAPPER, GlPosting::invoiceId));
+                cursors.add(StreamingQuery.open("untagged invoice postings on GL shard " + shard.getKey(),
+                        shard.getValue(), UNTAGGED_SQL, fetchSize, ROW_MAPPER, GlPosting::invoiceId));
+            }
+        } catch (RuntimeException e) {
+            cursors.forEach(RowCursor::close);
+            throw e;
+        }
+        return new MergedCursor<>(cursors, GlPosting::invoiceId);
+    }
+
+    @Override
+    public void close() {
+        shards.close();
+    }
+}
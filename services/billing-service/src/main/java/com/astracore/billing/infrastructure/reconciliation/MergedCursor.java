@@ -0,0 +1,67 @@
+package com.astracore.billing.infrastructure.reconciliation;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+
+/**
+ * Several cursors sorted by the same key read as one, e.g. the same table on every
+ * shard. Holds one row per source at a time, so memory grows with the number of
+ * sources and not their size. Rows with equal keys from different sources come out
+ * next to each other.
+ */
+public final class MergedCursor<T> implements RowCursor<T> {
+
+    private final List<? extends RowCursor<T>> sources;
+    private final PriorityQueue<RowCursor<T>> heads;
+
+    public MergedCursor(List<? extends RowCursor<T>> sources, Function<T, String> key) {
+        this.sources = sources;
+        this.heads = new PriorityQueue<>(Math.max(1, sources.size()),
+                Comparator.comparing((RowCursor<T> source) -> key.apply(source.peek())));
+        for (RowCursor<T> source : sources) {
+            if (source.peek() != null) {
+                heads.add(source);
+            }
+        }
+    }
+
+    @Override
+    public T peek() {
+        RowCursor<T> first = heads.peek();
+        return first == null ? null : first.peek();
+    }
+
+    @Override
+    public T next() {
+        RowCursor<T> first = heads.poll();
+        if (first == null) {
+            return null;
+        }
+        T row = first.next();
+        if (first.peek() != null) {
+            heads.add(first);
+        }
+        return row;
+    }
+
+    @Override
+    public void close() {
+        RuntimeException failure = null;
+        for (RowCursor<T> source : sources) {
+            try {
+                source.close();
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
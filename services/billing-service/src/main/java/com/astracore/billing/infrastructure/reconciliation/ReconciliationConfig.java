@@ -0,0 +1,36 @@
+package com.astracore.billing.infrastructure.reconciliation;
+
+import com.astracore.tenancy.TenantShards;
+import com.astracore.tenancy.config.TenancySettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Billing-to-GL reconciliation, off unless {@code billing.reconciliation.enabled}. Reads
+ * the billing shards this service already knows and the GL databases configured under
+ * {@code billing.reconciliation.gl.shards.<name>}, as under {@code spring.datasource}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "billing.reconciliation.enabled", havingValue = "true")
+public class ReconciliationConfig {
+
+    @Bean
+    public BillingInvoiceReader billingInvoiceReader(ObjectProvider<TenantShards> tenantShards, DataSource dataSource) {
+        TenantShards shards = tenantShards.getIfAvailable();
+        return new BillingInvoiceReader(shards != null
+                ? shards.dataSources()
+                : Map.of(TenancySettings.SINGLE_SHARD, dataSource));
+    }
+
+    // Not a TenantShards bean of its own, which would clash with billing's shards
+    @Bean(destroyMethod = "close")
+    public GlPostingReader glPostingReader(Environment environment) {
+        return new GlPostingReader(TenantShards.bind(environment, "billing.reconciliation.gl"));
+    }
+}
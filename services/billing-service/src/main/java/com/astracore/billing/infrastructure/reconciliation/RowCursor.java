@@ -0,0 +1,21 @@
+package com.astracore.billing.infrastructure.reconciliation;
+
+/**
+ * Rows read one at a time in ascending key order, for merge-joining two sorted streams
+ * without holding either in memory.
+ */
+public interface RowCursor<T> extends AutoCloseable {
+
+    /**
+     * The next row without consuming it; null once the cursor is exhausted.
+     */
+    T peek();
+
+    /**
+     * The next row; null once the cursor is exhausted.
+     */
+    T next();
+
+    @Override
+    void close();
+}
@@ -0,0 +1,124 @@
+package com.astracore.billing.infrastructure.reconciliation;
+
+import org.springframework.jdbc.core.RowMapper;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.function.Function;
+
+/**
+ * A query read through a server-side cursor: PostgreSQL only streams a result in
+ * fetch-size chunks inside a transaction on a forward-only statement, so the cursor
+ * holds one connection in a read-only transaction until it is closed. Memory stays at
+ * one fetch whatever the size of the result.
+ * <p>
+ * The query must return rows in ascending key order. That is checked as rows arrive, so
+ * a collation that sorts differently from Java's string order fails the run instead of
+ * producing false discrepancies.
+ */
+public final class StreamingQuery<T> implements RowCursor<T> {
+
+    private final String description;
+    private final Connection connection;
+    private final PreparedStatement statement;
+    private final ResultSet resultSet;
+    private final RowMapper<T> rowMapper;
+    private final Function<T, String> key;
+    private T head;
+    private String lastKey;
+    private int rowNum;
+    private boolean exhausted;
+
+    private StreamingQuery(String description, Connection connection, PreparedStatement statement, ResultSet resultSet,
+                           RowMapper<T> rowMapper, Function<T, String> key) {
+        this.description = description;
+        this.connection = connection;
+        this.statement = statement;
+        this.resultSet = resultSet;
+        this.rowMapper = rowMapper;
+        this.key = key;
+    }
+
+    /**
+     * @param description what the query reads, for errors, e.g. {@code invoices on shard-a}
+     */
+    public static <T> StreamingQuery<T> open(String description, DataSource dataSource, String sql, int fetchSize,
+                                             RowMapper<T> rowMapper, Function<T, String> key) {
+        Connection connection = null;
+        try {
+            connection = dataSource.getConnection();
+            connection.setAutoCommit(false);
+            connection.setReadOnly(true);
+            PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            return new StreamingQuery<>(description, connection, statement, statement.executeQuery(), rowMapper, key);
+        } catch (SQLException e) {
+            if (connection != null) {
+                release(connection);
+            }
+            throw new IllegalStateException("Could not open cursor over " + description + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public T peek() {
+        if (head == null && !exhausted) {
+            head = read();
+        }
+        return head;
+    }
+
+    @Override
+    public T next() {
+        T row = peek();
+        head = null;
+        return row;
+    }
+
+    @Override
+    public void close() {
+        try {
+            resultSet.close();
+            statement.close();
+        } catch (SQLException e) {
+            // The connection is rolled back and returned regardless
+        }
+        release(connection);
+    }
+
+    private T read() {
+        try {
+            if (!resultSet.next()) {
+                exhausted = true;
+                return null;
+            }
+            T row = rowMapper.mapRow(resultSet, ++rowNum);
+            String rowKey = key.apply(row);
+            if (lastKey != null && rowKey.compareTo(lastKey) < 0) {
+                throw new IllegalStateException("Cursor over " + description + " is not in key order: "
+                        + rowKey + " after " + lastKey);
+            }
+            lastKey = rowKey;
+            return row;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not read cursor over " + description + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static void release(Connection connection) {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            // Closing a pooled connection resets it anyway
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            // Nothing left to release
+        }
+    }
+}
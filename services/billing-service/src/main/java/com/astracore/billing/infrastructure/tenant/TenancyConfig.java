@@ -0,0 +1,43 @@
+package com.astracore.billing.infrastructure.tenant;
+
+import com.astracore.tenancy.TenantTable;
+import com.astracore.tenancy.config.EnableTenancy;
+import com.astracore.tenancy.config.TenantDataModel;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Tenant sharding under {@code billing.tenancy}; see {@link EnableTenancy}.
+ */
+@Configuration
+@EnableTenancy(prefix = "billing.tenancy")
+public class TenancyConfig {
+
+    /**
+     * What moving a tenant copies, parents first. Parties and products are master data
+     * other tenants' invoices may point at too, so only the ones the tenant's invoices
+     * reference are copied, and they stay behind on the source.
+     */
+    static final List<TenantTable> TENANT_TABLES = List.of(
+            TenantTable.shared("party", """
+                    party_id IN (SELECT party_id_from FROM invoice WHERE tenant_id = {tenant}
+                                 UNION SELECT party_id_to FROM invoice WHERE tenant_id = {tenant})"""),
+            TenantTable.shared("product", """
+                    product_id IN (SELECT l.product_id
+                                     FROM invoice_line l JOIN invoice i ON i.invoice_id = l.invoice_id
+                                    WHERE i.tenant_id = {tenant})"""),
+            TenantTable.owned("invoice", "tenant_id = {tenant}"),
+            TenantTable.owned("invoice_line", "invoice_id IN (SELECT invoice_id FROM invoice WHERE tenant_id = {tenant})"),
+            // Pending events follow their invoices; the target's sequence numbers them afresh
+            TenantTable.owned("event_outbox", """
+                    aggregate_type = 'Invoice'
+                    AND aggregate_id IN (SELECT invoice_id::text FROM invoice WHERE tenant_id = {tenant})""")
+                    .withoutColumns("outbox_id"));
+
+    @Bean
+    public TenantDataModel tenantDataModel() {
+        return new TenantDataModel(TENANT_TABLES, "SELECT DISTINCT tenant_id FROM invoice");
+    }
+}
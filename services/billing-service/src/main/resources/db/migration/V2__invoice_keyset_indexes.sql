@@ -0,0 +1,19 @@
+/*
+ * Keyset pagination support for GET /api/v1/invoices
+ * Every list query orders by (invoice_date DESC, invoice_id DESC); each optional
+ * equality filter gets its own composite index with the keyset columns trailing so
+ * Postgres can satisfy filter + ordering + cursor seek with a single index range scan.
+ */
+
+-- Unfiltered listing and date-range-only listing
+CREATE INDEX idx_invoice_date_id ON invoice(invoice_date DESC, invoice_id DESC);
+
+-- Filter by status
+CREATE INDEX idx_invoice_status_date_id ON invoice(status_id, invoice_date DESC, invoice_id DESC);
+
+-- Filter by customer (optionally combined with status)
+CREATE INDEX idx_invoice_party_to_date_id ON invoice(party_id_to, invoice_date DESC, invoice_id DESC);
+
+-- Superseded by the composite indexes above
+DROP INDEX IF EXISTS idx_invoice_date;
+DROP INDEX IF EXISTS idx_invoice_party_to;
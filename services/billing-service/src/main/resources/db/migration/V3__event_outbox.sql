@@ -0,0 +1,16 @@
+/*
+ * Transactional outbox for integration events.
+ * Rows are inserted in the same transaction as the business change and deleted by
+ * OutboxRelay once Kafka has acknowledged them, so the table only ever holds the
+ * in-flight backlog and the primary key index is all the relay needs.
+ */
+CREATE TABLE event_outbox (
+    outbox_id BIGSERIAL PRIMARY KEY,
+    aggregate_type VARCHAR(50) NOT NULL,
+    aggregate_id VARCHAR(100) NOT NULL,
+    event_type VARCHAR(100) NOT NULL,
+    topic VARCHAR(255) NOT NULL,
+    message_key VARCHAR(255),
+    payload TEXT NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
@@ -0,0 +1,5 @@
+/*
+ * Unit price behind each line so line totals (unit_price x quantity) can be derived
+ * server-side. Nullable: lines created before this change only carry their total.
+ */
+ALTER TABLE invoice_line ADD COLUMN unit_price DECIMAL(18, 6);
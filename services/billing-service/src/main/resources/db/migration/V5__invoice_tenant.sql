@@ -0,0 +1,26 @@
+/*
+ * Tenant ownership of invoices, and the shard placement catalog.
+ * Invoices written before tenancy belong to the 'default' tenant. Every list read filters
+ * by tenant, so the filtered keyset indexes from V2 are rebuilt with tenant_id leading;
+ * idx_invoice_date_id stays for the anomaly detector's warm-up, which scans all tenants.
+ * tenant_placement is created on every shard but only read on the catalog shard; see
+ * TenantPlacementStore.
+ * customer_name was only ever created by Hibernate's ddl-auto, which reaches one shard;
+ * it is declared here so every shard has it.
+ */
+ALTER TABLE invoice ADD COLUMN IF NOT EXISTS customer_name VARCHAR(255);
+ALTER TABLE invoice ADD COLUMN tenant_id VARCHAR(64) NOT NULL DEFAULT 'default';
+
+CREATE INDEX idx_invoice_tenant_date_id ON invoice(tenant_id, invoice_date DESC, invoice_id DESC);
+CREATE INDEX idx_invoice_tenant_status_date_id ON invoice(tenant_id, status_id, invoice_date DESC, invoice_id DESC);
+CREATE INDEX idx_invoice_tenant_party_to_date_id ON invoice(tenant_id, party_id_to, invoice_date DESC, invoice_id DESC);
+
+DROP INDEX IF EXISTS idx_invoice_status_date_id;
+DROP INDEX IF EXISTS idx_invoice_party_to_date_id;
+
+CREATE TABLE tenant_placement (
+    tenant_id VARCHAR(64) PRIMARY KEY,
+    shard VARCHAR(64) NOT NULL,
+    frozen BOOLEAN NOT NULL DEFAULT FALSE,
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
@@ -1,9 +1,18 @@
 package com.astracore.billing;
 
+import com.astracore.billing.application.dto.BatchItemResultDTO;
 import com.astracore.billing.application.dto.InvoiceDTO;
 import com.astracore.billing.application.dto.InvoiceLineDTO;
 import com.astracore.billing.application.dto.MoneyDTO;
+import com.astracore.billing.application.mapper.InvoiceMapper;
+import com.astracore.billing.infrastructure.persistence.entity.InvoiceEntity;
+import com.astracore.billing.infrastructure.persistence.entity.InvoiceLineEntity;
+import com.astracore.billing.infrastructure.persistence.repository.InvoiceRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.JsonPath;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -12,15 +21,24 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
 
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -47,11 +65,24 @@ public class BillingServiceIntegrationTest {
         registry.add("spring.flyway.url", postgres::getJdbcUrl);
         registry.add("spring.flyway.user", postgres::getUsername);
         registry.add("spring.flyway.password", postgres::getPassword);
+        registry.add("spring.jpa.properties.hibernate.generate_statistics", () -> "true");
     }
 
     @Autowired
     private org.springframework.jdbc.core.JdbcTemplate jdbcTemplate;
 
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private InvoiceMapper invoiceMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     @Test
     void createInvoice_shouldPersistAndReturnInvoice() throws Exception {
         // Arrange
@@ -94,4 +125,296 @@ public class BillingServiceIntegrationTest {
                 .andExpect(jsonPath("$.invoiceId").isNotEmpty())
                 .andExpect(jsonPath("$.totalAmount.amount").value(100.00));
     }
+
+    @Test
+    void createInvoice_shouldRecomputeTotalsFromLines() throws Exception {
+        UUID partyIdFrom = UUID.randomUUID();
+        UUID partyIdTo = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO party (party_id, party_type, version) VALUES (?, 'ORGANIZATION', 0)", partyIdFrom);
+        jdbcTemplate.update("INSERT INTO party (party_id, party_type, version) VALUES (?, 'PERSON', 0)", partyIdTo);
+
+        InvoiceDTO invoiceDTO = new InvoiceDTO();
+        invoiceDTO.setInvoiceTypeId("SALES_INVOICE");
+        invoiceDTO.setPartyIdFrom(partyIdFrom);
+        invoiceDTO.setPartyIdTo(partyIdTo);
+        invoiceDTO.setInvoiceDate(LocalDate.now());
+        invoiceDTO.setCurrencyUomId("USD");
+        invoiceDTO.setStatusId("IN_PROCESS");
+        // Client totals are wrong on purpose; the server must ignore them
+        invoiceDTO.setTotalAmount(usd("999.99"));
+
+        InvoiceLineDTO priced = new InvoiceLineDTO();
+        priced.setInvoiceItemSeqId(1);
+        priced.setDescription("Licences");
+        priced.setQuantity(new BigDecimal("3"));
+        priced.setUnitPrice(usd("19.99"));
+        priced.setAmount(usd("0.01"));
+
+        InvoiceLineDTO flat = new InvoiceLineDTO();
+        flat.setInvoiceItemSeqId(2);
+        flat.setDescription("Setup fee");
+        flat.setQuantity(BigDecimal.ONE);
+        flat.setAmount(usd("5.50"));
+        invoiceDTO.setLines(List.of(priced, flat));
+
+        String created = mockMvc.perform(post("/api/v1/invoices")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(invoiceDTO)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.totalAmount.amount").value(65.47))
+                .andExpect(jsonPath("$.lines[0].amount.amount").value(59.97))
+                .andExpect(jsonPath("$.lines[1].amount.amount").value(5.50))
+                .andReturn().getResponse().getContentAsString();
+        UUID invoiceId = UUID.fromString(JsonPath.read(created, "$.invoiceId"));
+
+        assertEquals(0, new BigDecimal("65.47").compareTo(jdbcTemplate.queryForObject(
+                "SELECT total_amount FROM invoice WHERE invoice_id = ?", BigDecimal.class, invoiceId)));
+        assertEquals(0, new BigDecimal("59.97").compareTo(jdbcTemplate.queryForObject(
+                "SELECT amount FROM invoice_line WHERE invoice_id = ? AND invoice_item_seq_id = 1", BigDecimal.class, invoiceId)));
+    }
+
+    @Test
+    void createInvoicesBatch_shouldReportEachItemAndPersistOnlyValidInvoices() throws Exception {
+        UUID partyIdFrom = UUID.randomUUID();
+        UUID partyIdTo = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO party (party_id, party_type, version) VALUES (?, 'ORGANIZATION', 0)", partyIdFrom);
+        jdbcTemplate.update("INSERT INTO party (party_id, party_type, version) VALUES (?, 'PERSON', 0)", partyIdTo);
+
+        InvoiceDTO first = batchInvoice(partyIdFrom, partyIdTo);
+        // Passes validation but breaks the party foreign key, failing the chunk transaction
+        InvoiceDTO unknownParty = batchInvoice(partyIdFrom, UUID.randomUUID());
+        InvoiceDTO last = batchInvoice(partyIdFrom, partyIdTo);
+        String body = "[" + objectMapper.writeValueAsString(first) + ","
+                + objectMapper.writeValueAsString(unknownParty) + ",null,"
+                + objectMapper.writeValueAsString(last) + "]";
+
+        mockMvc.perform(post("/api/v1/invoices/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.submitted").value(4))
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.failed").value(2))
+                .andExpect(jsonPath("$.results[*].index").value(contains(0, 1, 2, 3)))
+                .andExpect(jsonPath("$.results[*].status").value(contains("CREATED", "FAILED", "FAILED", "CREATED")))
+                .andExpect(jsonPath("$.results[0].invoiceId").value(first.getInvoiceId().toString()))
+                .andExpect(jsonPath("$.results[0].error").doesNotExist())
+                .andExpect(jsonPath("$.results[1].invoiceId").value(unknownParty.getInvoiceId().toString()))
+                .andExpect(jsonPath("$.results[1].error").value(containsString("foreign key")))
+                .andExpect(jsonPath("$.results[2].error").value("Invoice payload is required"))
+                .andExpect(jsonPath("$.results[3].invoiceId").value(last.getInvoiceId().toString()));
+
+        assertEquals(List.of(first.getInvoiceId(), last.getInvoiceId()),
+                persistedInvoiceIds(first.getInvoiceId(), unknownParty.getInvoiceId(), last.getInvoiceId()));
+    }
+
+    @Test
+    void createInvoicesStream_shouldWriteOneResultLinePerInputLine() throws Exception {
+        UUID partyIdFrom = UUID.randomUUID();
+        UUID partyIdTo = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO party (party_id, party_type, version) VALUES (?, 'ORGANIZATION', 0)", partyIdFrom);
+        jdbcTemplate.update("INSERT INTO party (party_id, party_type, version) VALUES (?, 'PERSON', 0)", partyIdTo);
+
+        InvoiceDTO first = batchInvoice(partyIdFrom, partyIdTo);
+        InvoiceDTO unknownParty = batchInvoice(partyIdFrom, UUID.randomUUID());
+        InvoiceDTO last = batchInvoice(partyIdFrom, partyIdTo);
+        String body = objectMapper.writeValueAsString(first) + "\n"
+                + "{\"invoiceTypeId\": \"SALES_INVOICE\",\n"
+                + objectMapper.writeValueAsString(unknownParty) + "\n"
+                + "\n"
+                + objectMapper.writeValueAsString(last) + "\n";
+
+        String response = mockMvc.perform(post("/api/v1/invoices/batch")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        List<BatchItemResultDTO> results = new ArrayList<>();
+        for (String line : response.split("\n")) {
+            results.add(objectMapper.readValue(line, BatchItemResultDTO.class));
+        }
+        // Blank lines are skipped and do not take an index
+        assertEquals(List.of(0, 1, 2, 3), results.stream().map(BatchItemResultDTO::getIndex).toList());
+        assertEquals(List.of("CREATED", "FAILED", "FAILED", "CREATED"),
+                results.stream().map(BatchItemResultDTO::getStatus).toList());
+        assertEquals(first.getInvoiceId(), results.get(0).getInvoiceId());
+        assertNull(results.get(0).getError());
+        assertTrue(results.get(1).getError().startsWith("Malformed invoice JSON"), results.get(1).getError());
+        assertEquals(unknownParty.getInvoiceId(), results.get(2).getInvoiceId());
+        assertTrue(results.get(2).getError().contains("foreign key"), results.get(2).getError());
+        assertEquals(last.getInvoiceId(), results.get(3).getInvoiceId());
+
+        assertEquals(List.of(first.getInvoiceId(), last.getInvoiceId()),
+                persistedInvoiceIds(first.getInvoiceId(), unknownParty.getInvoiceId(), last.getInvoiceId()));
+    }
+
+    @Test
+    void listInvoices_shouldPageWithKeysetCursor() throws Exception {
+        UUID partyIdFrom = UUID.randomUUID();
+        UUID partyIdTo = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO party (party_id, party_type, version) VALUES (?, 'ORGANIZATION', 0)", partyIdFrom);
+        jdbcTemplate.update("INSERT INTO party (party_id, party_type, version) VALUES (?, 'PERSON', 0)", partyIdTo);
+
+        for (int i = 0; i < 3; i++) {
+            InvoiceDTO invoiceDTO = new InvoiceDTO();
+            invoiceDTO.setInvoiceTypeId("SALES_INVOICE");
+            invoiceDTO.setPartyIdFrom(partyIdFrom);
+            invoiceDTO.setPartyIdTo(partyIdTo);
+            invoiceDTO.setInvoiceDate(LocalDate.now().minusDays(i));
+            invoiceDTO.setCurrencyUomId("USD");
+            invoiceDTO.setStatusId("IN_PROCESS");
+            MoneyDTO totalAmount = new MoneyDTO();
+            totalAmount.setAmount(new BigDecimal("10.00"));
+            totalAmount.setCurrency("USD");
+            invoiceDTO.setTotalAmount(totalAmount);
+            invoiceDTO.setLines(Collections.emptyList());
+
+            mockMvc.perform(post("/api/v1/invoices")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(invoiceDTO)))
+                    .andExpect(status().isCreated());
+        }
+
+        String firstPage = mockMvc.perform(get("/api/v1/invoices")
+                        .param("partyIdTo", partyIdTo.toString())
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andExpect(jsonPath("$.content[0].invoiceDate").value(LocalDate.now().toString()))
+                .andExpect(jsonPath("$.hasMore").value(true))
+                .andReturn().getResponse().getContentAsString();
+
+        String cursor = JsonPath.read(firstPage, "$.nextCursor");
+
+        mockMvc.perform(get("/api/v1/invoices")
+                        .param("partyIdTo", partyIdTo.toString())
+                        .param("limit", "2")
+                        .param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].invoiceDate").value(LocalDate.now().minusDays(2).toString()))
+                .andExpect(jsonPath("$.hasMore").value(false));
+    }
+
+    @Test
+    void readingInvoicesWithLines_shouldIssueConstantNumberOfStatements() throws Exception {
+        UUID partyIdFrom = UUID.randomUUID();
+        UUID partyIdTo = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO party (party_id, party_type, version) VALUES (?, 'ORGANIZATION', 0)", partyIdFrom);
+        jdbcTemplate.update("INSERT INTO party (party_id, party_type, version) VALUES (?, 'PERSON', 0)", partyIdTo);
+
+        List<UUID> invoiceIds = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            InvoiceEntity invoice = new InvoiceEntity();
+            invoice.setInvoiceId(UUID.randomUUID());
+            invoice.setInvoiceTypeId("SALES_INVOICE");
+            invoice.setPartyIdFrom(partyIdFrom);
+            invoice.setPartyIdTo(partyIdTo);
+            invoice.setInvoiceDate(LocalDate.now());
+            invoice.setStatusId("IN_PROCESS");
+            invoice.setCurrencyUomId("USD");
+            invoice.setTotalAmount(new BigDecimal("30.00"));
+            for (int seq = 1; seq <= 3; seq++) {
+                InvoiceLineEntity line = new InvoiceLineEntity();
+                line.setInvoiceLineId(UUID.randomUUID());
+                line.setInvoiceItemSeqId(seq);
+                line.setQuantity(BigDecimal.ONE);
+                line.setAmount(new BigDecimal("10.00"));
+                invoice.addLine(line);
+            }
+            invoiceRepository.save(invoice);
+            invoiceIds.add(invoice.getInvoiceId());
+        }
+
+        long twoInvoices = statementsToReadAndMap(invoiceIds.subList(0, 2));
+        long sixInvoices = statementsToReadAndMap(invoiceIds);
+        assertEquals(twoInvoices, sixInvoices);
+        assertEquals(2, sixInvoices); // invoices, then one batched load of all their lines
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(get("/api/v1/invoices/" + invoiceIds.get(0)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lines.length()").value(3));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getInvoice_shouldServeRepeatReadsFromCache() throws Exception {
+        UUID partyIdFrom = UUID.randomUUID();
+        UUID partyIdTo = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO party (party_id, party_type, version) VALUES (?, 'ORGANIZATION', 0)", partyIdFrom);
+        jdbcTemplate.update("INSERT INTO party (party_id, party_type, version) VALUES (?, 'PERSON', 0)", partyIdTo);
+
+        InvoiceDTO invoiceDTO = new InvoiceDTO();
+        invoiceDTO.setInvoiceTypeId("SALES_INVOICE");
+        invoiceDTO.setPartyIdFrom(partyIdFrom);
+        invoiceDTO.setPartyIdTo(partyIdTo);
+        invoiceDTO.setInvoiceDate(LocalDate.now());
+        invoiceDTO.setCurrencyUomId("USD");
+        invoiceDTO.setStatusId("IN_PROCESS");
+        invoiceDTO.setLines(Collections.emptyList());
+
+        String created = mockMvc.perform(post("/api/v1/invoices")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(invoiceDTO)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        String invoiceId = JsonPath.read(created, "$.invoiceId");
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/api/v1/invoices/" + invoiceId))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.invoiceId").value(invoiceId));
+        }
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    private static InvoiceDTO batchInvoice(UUID partyIdFrom, UUID partyIdTo) {
+        InvoiceDTO invoiceDTO = new InvoiceDTO();
+        invoiceDTO.setInvoiceId(UUID.randomUUID());
+        invoiceDTO.setInvoiceTypeId("SALES_INVOICE");
+        invoiceDTO.setPartyIdFrom(partyIdFrom);
+        invoiceDTO.setPartyIdTo(partyIdTo);
+        invoiceDTO.setInvoiceDate(LocalDate.now());
+        invoiceDTO.setCurrencyUomId("USD");
+        invoiceDTO.setStatusId("IN_PROCESS");
+        InvoiceLineDTO line = new InvoiceLineDTO();
+        line.setInvoiceItemSeqId(1);
+        line.setDescription("Support");
+        line.setQuantity(BigDecimal.ONE);
+        line.setAmount(usd("12.00"));
+        invoiceDTO.setLines(List.of(line));
+        return invoiceDTO;
+    }
+
+    // The given invoices that made it to the database, in the order given
+    private List<UUID> persistedInvoiceIds(UUID... invoiceIds) {
+        List<UUID> persisted = new ArrayList<>();
+        for (UUID invoiceId : invoiceIds) {
+            Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM invoice WHERE invoice_id = ?", Integer.class, invoiceId);
+            if (count != null && count > 0) {
+                persisted.add(invoiceId);
+            }
+        }
+        return persisted;
+    }
+
+    private static MoneyDTO usd(String amount) {
+        MoneyDTO money = new MoneyDTO();
+        money.setAmount(new BigDecimal(amount));
+        money.setCurrency("USD");
+        return money;
+    }
+
+    private long statementsToReadAndMap(List<UUID> invoiceIds) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        transactionTemplate.executeWithoutResult(status ->
+                invoiceRepository.findAllById(invoiceIds).forEach(invoiceMapper::toDTO));
+        return statistics.getPrepareStatementCount();
+    }
 }
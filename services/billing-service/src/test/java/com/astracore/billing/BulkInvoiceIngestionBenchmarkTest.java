@@ -0,0 +1,141 @@
+package com.astracore.billing;
+
+import com.astracore.billing.application.dto.BatchResultDTO;
+import com.astracore.billing.application.dto.InvoiceDTO;
+import com.astracore.billing.application.dto.InvoiceLineDTO;
+import com.astracore.billing.application.dto.MoneyDTO;
+import com.astracore.billing.application.usecase.BulkCreateInvoicesUseCase;
+import com.astracore.billing.application.usecase.CreateInvoiceUseCase;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.KafkaContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares rows/sec of the single-invoice path against the chunked bulk path.
+ * Opt-in because it inserts tens of thousands of rows:
+ * {@code mvn -pl services/billing-service test -Dtest=BulkInvoiceIngestionBenchmarkTest -Dbenchmark=true}
+ */
+@SpringBootTest
+@Testcontainers
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class BulkInvoiceIngestionBenchmarkTest {
+
+    private static final int INVOICES = 5_000;
+    private static final int LINES_PER_INVOICE = 5;
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @Container
+    static KafkaContainer kafka = new KafkaContainer(DockerImageName.parse("confluentinc/cp-kafka:7.3.0"));
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.flyway.url", postgres::getJdbcUrl);
+        registry.add("spring.flyway.user", postgres::getUsername);
+        registry.add("spring.flyway.password", postgres::getPassword);
+        registry.add("spring.kafka.bootstrap-servers", kafka::getBootstrapServers);
+    }
+
+    @Autowired
+    private CreateInvoiceUseCase createInvoiceUseCase;
+
+    @Autowired
+    private BulkCreateInvoicesUseCase bulkCreateInvoicesUseCase;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void bulkPath_shouldOutperformSingleInvoicePath() {
+        UUID partyIdFrom = UUID.randomUUID();
+        UUID partyIdTo = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO party (party_id, party_type, version) VALUES (?, 'ORGANIZATION', 0)", partyIdFrom);
+        jdbcTemplate.update("INSERT INTO party (party_id, party_type, version) VALUES (?, 'PERSON', 0)", partyIdTo);
+
+        // Warm up both paths so JIT and connection pool are primed
+        createInvoiceUseCase.execute(invoice(partyIdFrom, partyIdTo));
+        bulkCreateInvoicesUseCase.execute(invoices(partyIdFrom, partyIdTo, 100));
+
+        List<InvoiceDTO> singles = invoices(partyIdFrom, partyIdTo, INVOICES);
+        long singleStart = System.nanoTime();
+        for (InvoiceDTO dto : singles) {
+            createInvoiceUseCase.execute(dto);
+        }
+        double singleRowsPerSec = rowsPerSecond(System.nanoTime() - singleStart);
+
+        List<InvoiceDTO> bulk = invoices(partyIdFrom, partyIdTo, INVOICES);
+        long bulkStart = System.nanoTime();
+        BatchResultDTO result = bulkCreateInvoicesUseCase.execute(bulk);
+        double bulkRowsPerSec = rowsPerSecond(System.nanoTime() - bulkStart);
+
+        System.out.printf("single-invoice path: %.0f rows/sec%n", singleRowsPerSec);
+        System.out.printf("bulk path:           %.0f rows/sec (%.1fx)%n", bulkRowsPerSec, bulkRowsPerSec / singleRowsPerSec);
+
+        assertThat(result.getCreated()).isEqualTo(INVOICES);
+        assertThat(bulkRowsPerSec).isGreaterThan(singleRowsPerSec);
+    }
+
+    private static double rowsPerSecond(long elapsedNanos) {
+        long rows = (long) INVOICES * (1 + LINES_PER_INVOICE);
+        return rows / (elapsedNanos / 1_000_000_000.0);
+    }
+
+    private static List<InvoiceDTO> invoices(UUID partyIdFrom, UUID partyIdTo, int count) {
+        List<InvoiceDTO> invoices = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            invoices.add(invoice(partyIdFrom, partyIdTo));
+        }
+        return invoices;
+    }
+
+    private static InvoiceDTO invoice(UUID partyIdFrom, UUID partyIdTo) {
+        InvoiceDTO invoiceDTO = new InvoiceDTO();
+        invoiceDTO.setInvoiceTypeId("SALES_INVOICE");
+        invoiceDTO.setPartyIdFrom(partyIdFrom);
+        invoiceDTO.setPartyIdTo(partyIdTo);
+        invoiceDTO.setInvoiceDate(LocalDate.now());
+        invoiceDTO.setCurrencyUomId("USD");
+        invoiceDTO.setStatusId("IN_PROCESS");
+
+        MoneyDTO lineAmount = new MoneyDTO();
+        lineAmount.setAmount(new BigDecimal("20.00"));
+        lineAmount.setCurrency("USD");
+
+        List<InvoiceLineDTO> lines = new ArrayList<>(LINES_PER_INVOICE);
+        for (int i = 0; i < LINES_PER_INVOICE; i++) {
+            InvoiceLineDTO line = new InvoiceLineDTO();
+            line.setDescription("Line " + i);
+            line.setQuantity(BigDecimal.ONE);
+            line.setAmount(lineAmount);
+            lines.add(line);
+        }
+        invoiceDTO.setLines(lines);
+
+        MoneyDTO totalAmount = new MoneyDTO();
+        totalAmount.setAmount(new BigDecimal("100.00"));
+        totalAmount.setCurrency("USD");
+        invoiceDTO.setTotalAmount(totalAmount);
+        return invoiceDTO;
+    }
+}
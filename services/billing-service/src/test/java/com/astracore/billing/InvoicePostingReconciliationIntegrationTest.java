@@ -0,0 +1,187 @@
+package com.astracore.billing;
+
+import com.astracore.billing.application.dto.InvoiceDTO;
+import com.astracore.billing.application.dto.MoneyDTO;
+import com.astracore.billing.application.dto.PostingDiscrepancyDTO;
+import com.astracore.billing.application.dto.ReconciliationRunDTO;
+import com.astracore.billing.application.usecase.ReconcileInvoicePostingsUseCase;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.JsonPath;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Testcontainers
+public class InvoicePostingReconciliationIntegrationTest {
+
+    private static final UUID AR_ACCOUNT_ID = UUID.randomUUID();
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    // gl-service's database, with its real schema
+    @Container
+    static PostgreSQLContainer<?> glPostgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        // Keep re-published events in the outbox where the test can see them
+        registry.add("billing.outbox.poll-interval-ms", () -> "3600000");
+        registry.add("billing.reconciliation.enabled", () -> "true");
+        registry.add("billing.reconciliation.settle-minutes", () -> "0");
+        registry.add("billing.reconciliation.fetch-size", () -> "2");
+        registry.add("billing.reconciliation.gl.shards.gl-a.url", glPostgres::getJdbcUrl);
+        registry.add("billing.reconciliation.gl.shards.gl-a.username", glPostgres::getUsername);
+        registry.add("billing.reconciliation.gl.shards.gl-a.password", glPostgres::getPassword);
+    }
+
+    @BeforeAll
+    static void migrateGlSchema() {
+        Flyway.configure()
+                .dataSource(glPostgres.getJdbcUrl(), glPostgres.getUsername(), glPostgres.getPassword())
+                .locations("filesystem:../gl-service/src/main/resources/db/migration")
+                .load()
+                .migrate();
+        gl().update("INSERT INTO gl_account (gl_account_id, account_name, account_code, gl_account_type_id) "
+                + "VALUES (?, 'Accounts Receivable', 'AR', 'ASSET')", AR_ACCOUNT_ID);
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ReconcileInvoicePostingsUseCase reconcileInvoicePostingsUseCase;
+
+    @Test
+    void reconciliation_shouldReportEachKindOfGapAndRepublishMissingInvoices() throws Exception {
+        UUID partyIdFrom = UUID.randomUUID();
+        UUID partyIdTo = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO party (party_id, party_type, version) VALUES (?, 'ORGANIZATION', 0)", partyIdFrom);
+        jdbcTemplate.update("INSERT INTO party (party_id, party_type, version) VALUES (?, 'PERSON', 0)", partyIdTo);
+        String matched = createInvoice(partyIdFrom, partyIdTo, "10.00");
+        String duplicated = createInvoice(partyIdFrom, partyIdTo, "20.00");
+        String mismatched = createInvoice(partyIdFrom, partyIdTo, "30.00");
+        String missing = createInvoice(partyIdFrom, partyIdTo, "40.00");
+        String orphan = UUID.randomUUID().toString();
+
+        postToGl(matched, "10.00", true);
+        postToGl(duplicated, "20.00", true);
+        // Posted again before postings were tagged with their invoice
+        postToGl(duplicated, "20.00", false);
+        postToGl(mismatched, "31.00", true);
+        postToGl(orphan, "50.00", true);
+
+        ReconciliationRunDTO run = reconcileInvoicePostingsUseCase.reconcile(true);
+
+        assertEquals("COMPLETED", run.getStatus());
+        assertEquals(4, run.getInvoicesScanned());
+        assertEquals(5, run.getPostingsScanned());
+        assertEquals(1, run.getMatched());
+        assertEquals(1, run.getMissing());
+        assertEquals(1, run.getDuplicated());
+        assertEquals(1, run.getAmountMismatched());
+        assertEquals(1, run.getOrphaned());
+        assertEquals(1, run.getRepublished());
+        Map<String, String> types = run.getDiscrepancies().stream()
+                .collect(Collectors.toMap(PostingDiscrepancyDTO::getInvoiceId, PostingDiscrepancyDTO::getType));
+        assertEquals(Map.of(missing, "MISSING", duplicated, "DUPLICATE", mismatched, "AMOUNT_MISMATCH",
+                orphan, "ORPHANED"), types);
+
+        // Once when issued, once re-published
+        assertEquals(2, outboxCount(missing));
+        assertEquals(1, outboxCount(matched));
+
+        mockMvc.perform(get("/api/v1/admin/reconciliation/runs/latest"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.runId").value(run.getRunId().toString()))
+                .andExpect(jsonPath("$.missing").value(1));
+    }
+
+    private String createInvoice(UUID partyIdFrom, UUID partyIdTo, String amount) throws Exception {
+        InvoiceDTO invoiceDTO = new InvoiceDTO();
+        invoiceDTO.setInvoiceTypeId("SALES_INVOICE");
+        invoiceDTO.setPartyIdFrom(partyIdFrom);
+        invoiceDTO.setPartyIdTo(partyIdTo);
+        invoiceDTO.setInvoiceDate(LocalDate.now());
+        invoiceDTO.setCurrencyUomId("USD");
+        invoiceDTO.setStatusId("IN_PROCESS");
+        MoneyDTO totalAmount = new MoneyDTO();
+        totalAmount.setAmount(new BigDecimal(amount));
+        totalAmount.setCurrency("USD");
+        invoiceDTO.setTotalAmount(totalAmount);
+        invoiceDTO.setLines(Collections.emptyList());
+
+        String response = mockMvc.perform(post("/api/v1/invoices")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(invoiceDTO)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return JsonPath.read(response, "$.invoiceId");
+    }
+
+    // One GL transaction debiting the amount, recorded against the invoice when tagged
+    private static void postToGl(String invoiceId, String amount, boolean tagged) {
+        UUID transactionId = UUID.randomUUID();
+        Timestamp transactionDate = Timestamp.from(Instant.now());
+        gl().update("INSERT INTO accounting_transaction (transaction_id, transaction_date, entry_date, description, "
+                        + "transaction_type, is_posted, source_document_type, source_document_id) "
+                        + "VALUES (?, ?, NOW(), ?, 'SALES_INVOICE', TRUE, ?, ?)",
+                transactionId, transactionDate, "Invoice " + invoiceId,
+                tagged ? "INVOICE" : null, tagged ? invoiceId : null);
+        gl().update("INSERT INTO transaction_entry (transaction_entry_id, transaction_id, gl_account_id, amount, "
+                        + "debit_credit_flag, transaction_date) VALUES (?, ?, ?, ?, 'D', ?)",
+                UUID.randomUUID(), transactionId, AR_ACCOUNT_ID, new BigDecimal(amount), transactionDate);
+        if (tagged) {
+            gl().update("INSERT INTO posted_source_document (source_document_type, source_document_id, transaction_id, "
+                    + "transaction_date) VALUES ('INVOICE', ?, ?, ?)", invoiceId, transactionId, transactionDate);
+        }
+    }
+
+    private int outboxCount(String invoiceId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM event_outbox WHERE aggregate_id = ?",
+                Integer.class, invoiceId);
+    }
+
+    private static JdbcTemplate gl() {
+        return new JdbcTemplate(new DriverManagerDataSource(glPostgres.getJdbcUrl(), glPostgres.getUsername(),
+                glPostgres.getPassword()));
+    }
+}
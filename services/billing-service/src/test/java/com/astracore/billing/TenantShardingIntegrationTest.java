@@ -0,0 +1,173 @@
+package com.astracore.billing;
+
+import com.astracore.billing.application.dto.InvoiceDTO;
+import com.astracore.billing.application.dto.MoneyDTO;
+import com.astracore.tenancy.ShardRouter;
+import com.astracore.tenancy.TenantShards;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Testcontainers
+public class TenantShardingIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> shardA = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @Container
+    static PostgreSQLContainer<?> shardB = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("billing.tenancy.enabled", () -> "true");
+        registry.add("billing.tenancy.placement-refresh-ms", () -> "100");
+        for (var shard : new Object[][]{{"shard-a", shardA}, {"shard-b", shardB}}) {
+            PostgreSQLContainer<?> container = (PostgreSQLContainer<?>) shard[1];
+            String prefix = "billing.tenancy.shards." + shard[0];
+            registry.add(prefix + ".url", container::getJdbcUrl);
+            registry.add(prefix + ".username", container::getUsername);
+            registry.add(prefix + ".password", container::getPassword);
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private TenantShards tenantShards;
+
+    @Test
+    void invoices_shouldLiveOnTheirTenantsShardAndStayInvisibleToOtherTenants() throws Exception {
+        String tenant = tenantOn("shard-a");
+        String otherTenant = tenantOn("shard-b");
+        UUID partyIdFrom = UUID.randomUUID();
+        UUID partyIdTo = UUID.randomUUID();
+        insertParties("shard-a", partyIdFrom, partyIdTo);
+
+        String invoiceId = createInvoice(tenant, partyIdFrom, partyIdTo);
+
+        assertEquals(1, invoiceCount("shard-a", tenant));
+        assertEquals(0, invoiceCount("shard-b", tenant));
+        mockMvc.perform(get("/api/v1/invoices/" + invoiceId).header("X-Tenant-ID", tenant))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tenantId").value(tenant));
+        mockMvc.perform(get("/api/v1/invoices/" + invoiceId).header("X-Tenant-ID", otherTenant))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/v1/invoices").param("partyIdTo", partyIdTo.toString())
+                        .header("X-Tenant-ID", otherTenant))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(0));
+        mockMvc.perform(get("/api/v1/invoices").header("X-Tenant-ID", "not a tenant"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void movingTenant_shouldCopyItsRowsAndRouteToTheNewShard() throws Exception {
+        String tenant = tenantOn("shard-a");
+        UUID partyIdFrom = UUID.randomUUID();
+        UUID partyIdTo = UUID.randomUUID();
+        insertParties("shard-a", partyIdFrom, partyIdTo);
+        String invoiceId = createInvoice(tenant, partyIdFrom, partyIdTo);
+        createInvoice(tenant, partyIdFrom, partyIdTo);
+
+        mockMvc.perform(post("/api/v1/admin/tenants/" + tenant + "/move").param("shard", "shard-b"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sourceShard").value("shard-a"))
+                .andExpect(jsonPath("$.targetShard").value("shard-b"))
+                .andExpect(jsonPath("$.copiedRows.invoice").value(2))
+                .andExpect(jsonPath("$.sourceCleaned").value(true));
+
+        assertEquals("shard-b", shardRouter.shardFor(tenant));
+        assertEquals(0, invoiceCount("shard-a", tenant));
+        assertEquals(2, invoiceCount("shard-b", tenant));
+        // Parties are shared master data: copied, and left in place for other tenants
+        assertEquals(2, jdbc("shard-b").queryForObject(
+                "SELECT COUNT(*) FROM party WHERE party_id IN (?, ?)", Integer.class, partyIdFrom, partyIdTo));
+        assertEquals(2, jdbc("shard-a").queryForObject(
+                "SELECT COUNT(*) FROM party WHERE party_id IN (?, ?)", Integer.class, partyIdFrom, partyIdTo));
+
+        mockMvc.perform(get("/api/v1/invoices").param("partyIdTo", partyIdTo.toString())
+                        .header("X-Tenant-ID", tenant))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2));
+        mockMvc.perform(get("/api/v1/invoices/" + invoiceId).header("X-Tenant-ID", tenant))
+                .andExpect(status().isOk());
+        createInvoice(tenant, partyIdFrom, partyIdTo);
+        assertEquals(3, invoiceCount("shard-b", tenant));
+    }
+
+    private String tenantOn(String shard) {
+        for (int i = 0; ; i++) {
+            String tenant = "tenant-" + UUID.randomUUID().toString().substring(0, 8) + "-" + i;
+            if (shardRouter.ring().shardFor(tenant).equals(shard)) {
+                return tenant;
+            }
+        }
+    }
+
+    private void insertParties(String shard, UUID partyIdFrom, UUID partyIdTo) {
+        jdbc(shard).update("INSERT INTO party (party_id, party_type, version) VALUES (?, 'ORGANIZATION', 0)", partyIdFrom);
+        jdbc(shard).update("INSERT INTO party (party_id, party_type, version) VALUES (?, 'PERSON', 0)", partyIdTo);
+    }
+
+    private String createInvoice(String tenant, UUID partyIdFrom, UUID partyIdTo) throws Exception {
+        InvoiceDTO invoiceDTO = new InvoiceDTO();
+        invoiceDTO.setInvoiceTypeId("SALES_INVOICE");
+        invoiceDTO.setPartyIdFrom(partyIdFrom);
+        invoiceDTO.setPartyIdTo(partyIdTo);
+        invoiceDTO.setInvoiceDate(LocalDate.now());
+        invoiceDTO.setCurrencyUomId("USD");
+        invoiceDTO.setStatusId("IN_PROCESS");
+        MoneyDTO totalAmount = new MoneyDTO();
+        totalAmount.setAmount(new BigDecimal("10.00"));
+        totalAmount.setCurrency("USD");
+        invoiceDTO.setTotalAmount(totalAmount);
+        invoiceDTO.setLines(Collections.emptyList());
+
+        String response = mockMvc.perform(post("/api/v1/invoices")
+                        .header("X-Tenant-ID", tenant)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(invoiceDTO)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return JsonPath.read(response, "$.invoiceId");
+    }
+
+    private int invoiceCount(String shard, String tenant) {
+        return jdbc(shard).queryForObject("SELECT COUNT(*) FROM invoice WHERE tenant_id = ?", Integer.class, tenant);
+    }
+
+    private JdbcTemplate jdbc(String shard) {
+        return new JdbcTemplate(tenantShards.get(shard));
+    }
+}
@@ -0,0 +1,86 @@
+package com.astracore.billing;
+
+import com.astracore.shared.id.UuidV7;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Inserts the same number of rows into two identical tables keyed by random (v4) and
+ * time-ordered (v7) UUIDs, then compares throughput and primary key index size.
+ * Opt-in because it writes millions of rows:
+ * {@code mvn -pl services/billing-service test -Dtest=UuidV7PrimaryKeyBenchmarkTest -Dbenchmark=true [-Dbenchmark.rows=5000000]}
+ */
+@Testcontainers
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class UuidV7PrimaryKeyBenchmarkTest {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 2_000_000);
+    private static final int BATCH_SIZE = 1_000;
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withCommand("postgres", "-c", "shared_buffers=256MB");
+
+    @Test
+    void timeOrderedKeys_shouldInsertFasterIntoASmallerIndex() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(
+                postgres.getJdbcUrl() + "&reWriteBatchedInserts=true", postgres.getUsername(), postgres.getPassword())) {
+            Result random = run(connection, "pk_random", UUID::randomUUID);
+            Result timeOrdered = run(connection, "pk_time_ordered", UuidV7::generate);
+
+            System.out.printf("%,d rows%n", ROWS);
+            System.out.printf("uuid v4: %,.0f rows/sec, pkey index %,d kB%n", random.rowsPerSecond, random.indexBytes / 1024);
+            System.out.printf("uuid v7: %,.0f rows/sec, pkey index %,d kB%n", timeOrdered.rowsPerSecond, timeOrdered.indexBytes / 1024);
+
+            assertThat(timeOrdered.indexBytes).isLessThan(random.indexBytes);
+            assertThat(timeOrdered.rowsPerSecond).isGreaterThan(random.rowsPerSecond);
+        }
+    }
+
+    private static Result run(Connection connection, String table, Supplier<UUID> ids) throws SQLException {
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("CREATE TABLE " + table + " (id UUID PRIMARY KEY, amount NUMERIC(19, 4) NOT NULL)");
+        }
+
+        connection.setAutoCommit(false);
+        long started = System.nanoTime();
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO " + table + " (id, amount) VALUES (?, ?)")) {
+            for (int i = 1; i <= ROWS; i++) {
+                insert.setObject(1, ids.get());
+                insert.setInt(2, i);
+                insert.addBatch();
+                if (i % BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+            insert.executeBatch();
+            connection.commit();
+        }
+        double rowsPerSecond = ROWS / ((System.nanoTime() - started) / 1_000_000_000.0);
+        connection.setAutoCommit(true);
+
+        try (Statement query = connection.createStatement();
+             ResultSet rs = query.executeQuery("SELECT pg_relation_size('" + table + "_pkey')")) {
+            rs.next();
+            return new Result(rowsPerSecond, rs.getLong(1));
+        }
+    }
+
+    private record Result(double rowsPerSecond, long indexBytes) {
+    }
+}
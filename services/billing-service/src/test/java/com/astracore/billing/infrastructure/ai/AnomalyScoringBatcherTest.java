@@ -0,0 +1,184 @@
+package com.astracore.billing.infrastructure.ai;
+
+import com.astracore.billing.infrastructure.ai.AnomalySidecarClient.ScoreRequest;
+import com.astracore.billing.infrastructure.ai.AnomalySidecarClient.ScoreResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AnomalyScoringBatcherTest {
+
+    private static final ScoreResult FALLBACK = new ScoreResult(false, 0.0, "fallback");
+    private static final long HOUR_MS = TimeUnit.HOURS.toMillis(1);
+
+    private final ManualExecutor senders = new ManualExecutor();
+    private final List<List<ScoreRequest>> batches = new CopyOnWriteArrayList<>();
+    private AnomalyScoringBatcher batcher;
+
+    @AfterEach
+    void close() {
+        if (batcher != null) {
+            batcher.close();
+        }
+    }
+
+    @Test
+    void batch_shouldBeSentAsSoonAsItIsFull() throws Exception {
+        // A linger of an hour: only reaching the size can release the batch
+        batcher = new AnomalyScoringBatcher(echo(), FALLBACK, 3, HOUR_MS, 16, senders);
+
+        List<CompletableFuture<ScoreResult>> futures = submit(5);
+
+        senders.runNext();
+        assertThat(batches).hasSize(1);
+        assertThat(batches.get(0)).extracting(ScoreRequest::customerId).containsExactly("c0", "c1", "c2");
+        for (int i = 0; i < 3; i++) {
+            assertThat(futures.get(i).getNow(null).reason()).isEqualTo("c" + i);
+        }
+        // The other two wait for a third or for the linger to run out
+        assertThat(senders.awaitTask(200)).isNull();
+        assertThat(futures.subList(3, 5)).noneMatch(CompletableFuture::isDone);
+    }
+
+    @Test
+    void batch_shouldBeSentWhenLingerExpires() throws Exception {
+        batcher = new AnomalyScoringBatcher(echo(), FALLBACK, 100, 50, 16, senders);
+
+        List<CompletableFuture<ScoreResult>> futures = submit(2);
+
+        senders.runNext();
+        assertThat(batches).hasSize(1);
+        assertThat(batches.get(0)).hasSize(2);
+        assertThat(futures.get(0).getNow(null).reason()).isEqualTo("c0");
+        assertThat(futures.get(1).getNow(null).reason()).isEqualTo("c1");
+    }
+
+    @Test
+    void batch_shouldWaitOutLingerWhileNotFull() throws Exception {
+        batcher = new AnomalyScoringBatcher(echo(), FALLBACK, 100, HOUR_MS, 16, senders);
+
+        List<CompletableFuture<ScoreResult>> futures = submit(2);
+
+        assertThat(senders.awaitTask(200)).isNull();
+        assertThat(futures).noneMatch(CompletableFuture::isDone);
+    }
+
+    @Test
+    void failedBatch_shouldCompleteEveryWaitingCallerWithFallback() throws Exception {
+        batcher = new AnomalyScoringBatcher(requests -> {
+            batches.add(requests);
+            throw new IllegalStateException("sidecar down");
+        }, FALLBACK, 4, HOUR_MS, 16, senders);
+
+        List<CompletableFuture<ScoreResult>> futures = submit(4);
+
+        senders.runNext();
+        assertThat(futures).allSatisfy(future -> assertThat(future.getNow(null)).isSameAs(FALLBACK));
+    }
+
+    @Test
+    void shortResult_shouldStillCompleteEveryCaller() throws Exception {
+        batcher = new AnomalyScoringBatcher(requests -> {
+            batches.add(requests);
+            return List.of(new ScoreResult(true, 0.9, "only one"));
+        }, FALLBACK, 3, HOUR_MS, 16, senders);
+
+        List<CompletableFuture<ScoreResult>> futures = submit(3);
+
+        senders.runNext();
+        assertThat(futures.get(0).getNow(null).reason()).isEqualTo("only one");
+        assertThat(futures.get(1).getNow(null)).isSameAs(FALLBACK);
+        assertThat(futures.get(2).getNow(null)).isSameAs(FALLBACK);
+    }
+
+    @Test
+    void close_shouldCompleteQueuedCallersWithFallback() throws Exception {
+        batcher = new AnomalyScoringBatcher(echo(), FALLBACK, 100, HOUR_MS, 16, senders);
+        List<CompletableFuture<ScoreResult>> futures = submit(3);
+
+        batcher.close();
+
+        for (CompletableFuture<ScoreResult> future : futures) {
+            assertThat(future.get(5, TimeUnit.SECONDS)).isSameAs(FALLBACK);
+        }
+        assertThat(batcher.submit(request(9)).getNow(null)).isSameAs(FALLBACK);
+    }
+
+    private Function<List<ScoreRequest>, List<ScoreResult>> echo() {
+        return requests -> {
+            batches.add(requests);
+            return requests.stream().map(request -> new ScoreResult(false, 0.1, request.customerId())).toList();
+        };
+    }
+
+    private List<CompletableFuture<ScoreResult>> submit(int count) {
+        List<CompletableFuture<ScoreResult>> futures = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            futures.add(batcher.submit(request(i)));
+        }
+        return futures;
+    }
+
+    private static ScoreRequest request(int i) {
+        return new ScoreRequest("acme", 100 + i, "USD", "c" + i);
+    }
+
+    /**
+     * Holds the batches the dispatcher hands over until the test runs them, so a test sees
+     * exactly which batches formed and when.
+     */
+    private static final class ManualExecutor extends AbstractExecutorService {
+
+        private final BlockingQueue<Runnable> tasks = new LinkedBlockingQueue<>();
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        Runnable awaitTask(long timeoutMs) throws InterruptedException {
+            return tasks.poll(timeoutMs, TimeUnit.MILLISECONDS);
+        }
+
+        void runNext() throws InterruptedException {
+            Runnable task = awaitTask(5_000);
+            assertThat(task).as("a batch handed to the senders").isNotNull();
+            task.run();
+        }
+
+        @Override
+        public void shutdown() {
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return List.of();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return false;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return false;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.astracore.billing.infrastructure.ai;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerStatsSegmentTest {
+
+    private static final StreamingAnomalySettings SETTINGS =
+            new StreamingAnomalySettings(0.1, 3.0, 0.05, 5, 50, 60_000, 10);
+
+    @Test
+    void eviction_shouldShiftProbeChainBackAcrossTableEnd() {
+        // Capacity 4 gives an 8-slot table; a, b and c all hash to the last slot, so b and
+        // c wrap round to slots 0 and 1, and d (home 0) is pushed on to slot 2
+        CustomerStatsSegment segment = new CustomerStatsSegment(4, 0.95);
+        List<long[]> last = keysWithHome(8, 7, 3);
+        long[] a = last.get(0);
+        long[] b = last.get(1);
+        long[] c = last.get(2);
+        long[] d = keysWithHome(8, 0, 1).get(0);
+        long[] e = keysWithHome(8, 4, 1).get(0);
+
+        observe(segment, a, b, c, d);
+        // a is least recently used, so e evicts it; b, c and d must all shift back across
+        // the end of the table or be lost behind the hole a leaves in slot 7
+        observe(segment, e);
+
+        assertThat(segment.size()).isEqualTo(4);
+        assertThat(observations(segment, a)).isZero();
+        assertThat(observations(segment, b)).isEqualTo(1);
+        assertThat(observations(segment, c)).isEqualTo(1);
+        assertThat(observations(segment, d)).isEqualTo(1);
+        assertThat(observations(segment, e)).isEqualTo(1);
+    }
+
+    @Test
+    void eviction_shouldTakeLeastRecentlySeenCustomer() {
+        CustomerStatsSegment segment = new CustomerStatsSegment(4, 0.95);
+        List<long[]> keys = keysWithHome(8, 7, 6);
+
+        observe(segment, keys.get(0), keys.get(1), keys.get(2), keys.get(3));
+        // Seeing the oldest customer again makes the second one the next to go
+        observe(segment, keys.get(0));
+        observe(segment, keys.get(4));
+
+        assertThat(observations(segment, keys.get(0))).isEqualTo(2);
+        assertThat(observations(segment, keys.get(1))).isZero();
+        assertThat(observations(segment, keys.get(4))).isEqualTo(1);
+
+        observe(segment, keys.get(5));
+
+        assertThat(observations(segment, keys.get(2))).isZero();
+        assertThat(observations(segment, keys.get(3))).isEqualTo(1);
+        assertThat(segment.size()).isEqualTo(4);
+    }
+
+    @Test
+    void evictedCustomer_shouldStartAfresh() {
+        CustomerStatsSegment segment = new CustomerStatsSegment(1, 0.95);
+        long[] first = {1, 1};
+        long[] second = {2, 2};
+
+        observe(segment, first, first, first);
+        observe(segment, second);
+        observe(segment, first);
+
+        assertThat(observations(segment, first)).isEqualTo(1);
+        assertThat(observations(segment, second)).isZero();
+    }
+
+    @Test
+    void segment_shouldMatchLruModelWhenKeysCrowdAroundTableEnd() {
+        // Capacity 8 gives a 16-slot table; every key hashes to one of the last three or
+        // first three slots, so probe chains keep wrapping and deletes keep shifting
+        int capacity = 8;
+        List<long[]> pool = new ArrayList<>();
+        for (int home : new int[]{13, 14, 15, 0, 1, 2}) {
+            pool.addAll(keysWithHome(16, home, 4));
+        }
+        CustomerStatsSegment segment = new CustomerStatsSegment(capacity, 0.95);
+        // Least recently seen first; re-inserted on every use, so reads leave the order alone
+        LinkedHashMap<Integer, Integer> model = new LinkedHashMap<>();
+        Random random = new Random(42);
+
+        for (int step = 0; step < 20_000; step++) {
+            int k = random.nextInt(pool.size());
+            observe(segment, pool.get(k));
+            Integer seen = model.remove(k);
+            model.put(k, seen == null ? 1 : seen + 1);
+            if (model.size() > capacity) {
+                Iterator<Map.Entry<Integer, Integer>> eldest = model.entrySet().iterator();
+                eldest.next();
+                eldest.remove();
+            }
+
+            assertThat(segment.size()).isEqualTo(model.size());
+            for (int i = 0; i < pool.size(); i++) {
+                assertThat(observations(segment, pool.get(i)))
+                        .as("customer %d after step %d", i, step)
+                        .isEqualTo(model.getOrDefault(i, 0));
+            }
+        }
+    }
+
+    private static void observe(CustomerStatsSegment segment, long[]... keys) {
+        for (long[] key : keys) {
+            segment.observe(key[0], key[1], Math.log1p(100), -1, SETTINGS);
+        }
+    }
+
+    private static int observations(CustomerStatsSegment segment, long[] key) {
+        return segment.observations(key[0], key[1]);
+    }
+
+    private static List<long[]> keysWithHome(int tableSize, int home, int count) {
+        List<long[]> keys = new ArrayList<>();
+        for (long lo = 1; keys.size() < count; lo++) {
+            if (((int) CustomerStatsSegment.mix(home, lo) & (tableSize - 1)) == home) {
+                keys.add(new long[]{home, lo});
+            }
+        }
+        return keys;
+    }
+}
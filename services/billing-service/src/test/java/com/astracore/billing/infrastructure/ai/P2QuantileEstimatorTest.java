@@ -0,0 +1,96 @@
+package com.astracore.billing.infrastructure.ai;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.DoubleSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class P2QuantileEstimatorTest {
+
+    @ParameterizedTest
+    @ValueSource(doubles = {0.5, 0.9, 0.95, 0.99})
+    void estimate_shouldConvergeOnUniformQuantile(double quantile) {
+        Random random = new Random(7);
+        P2QuantileEstimator estimator = new P2QuantileEstimator(quantile);
+
+        double[] samples = feed(estimator, 100_000, random::nextDouble);
+
+        assertThat(estimator.estimate()).isCloseTo(exact(samples, quantile), within(0.01));
+    }
+
+    @ParameterizedTest
+    @ValueSource(doubles = {0.5, 0.95})
+    void estimate_shouldConvergeOnSkewedQuantile(double quantile) {
+        // Log-normal, like invoice amounts: a long right tail
+        Random random = new Random(11);
+        P2QuantileEstimator estimator = new P2QuantileEstimator(quantile);
+
+        double[] samples = feed(estimator, 100_000, () -> Math.exp(4 + random.nextGaussian()));
+
+        double expected = exact(samples, quantile);
+        assertThat(estimator.estimate()).isCloseTo(expected, within(expected * 0.03));
+    }
+
+    @Test
+    void estimate_shouldTrackSortedInputInEitherDirection() {
+        P2QuantileEstimator ascending = new P2QuantileEstimator(0.9);
+        P2QuantileEstimator descending = new P2QuantileEstimator(0.9);
+        for (int i = 0; i < 10_000; i++) {
+            ascending.add(i);
+            descending.add(9_999 - i);
+        }
+
+        assertThat(ascending.estimate()).isCloseTo(9_000, within(100.0));
+        assertThat(descending.estimate()).isCloseTo(9_000, within(100.0));
+    }
+
+    @Test
+    void estimate_shouldBeExactBeforeFiveObservations() {
+        P2QuantileEstimator estimator = new P2QuantileEstimator(0.5);
+        assertThat(estimator.estimate()).isNaN();
+
+        estimator.add(30);
+        estimator.add(10);
+        estimator.add(20);
+
+        assertThat(estimator.count()).isEqualTo(3);
+        assertThat(estimator.estimate()).isEqualTo(20);
+    }
+
+    @Test
+    void estimate_shouldStayWithinObservedRange() {
+        P2QuantileEstimator estimator = new P2QuantileEstimator(0.99);
+        Random random = new Random(3);
+        double min = Double.MAX_VALUE;
+        double max = -Double.MAX_VALUE;
+        for (int i = 0; i < 5_000; i++) {
+            // Mostly constant with rare spikes: parabolic steps must not overshoot
+            double x = random.nextInt(50) == 0 ? 1_000 * random.nextDouble() : 42;
+            estimator.add(x);
+            min = Math.min(min, x);
+            max = Math.max(max, x);
+            assertThat(estimator.estimate()).isBetween(min, max);
+        }
+    }
+
+    private static double[] feed(P2QuantileEstimator estimator, int count, DoubleSupplier source) {
+        double[] samples = new double[count];
+        for (int i = 0; i < count; i++) {
+            samples[i] = source.getAsDouble();
+            estimator.add(samples[i]);
+        }
+        return samples;
+    }
+
+    private static double exact(double[] samples, double quantile) {
+        double[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        return sorted[(int) Math.round(quantile * (sorted.length - 1))];
+    }
+}
@@ -0,0 +1,117 @@
+package com.astracore.billing.infrastructure.ai;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SidecarCircuitBreakerTest {
+
+    private static final long OPEN_MS = 1_000;
+
+    private final AtomicLong now = new AtomicLong(10_000);
+    private final SidecarCircuitBreaker breaker = new SidecarCircuitBreaker(3, OPEN_MS, now::get);
+
+    @Test
+    void breaker_shouldStayClosedBelowThreshold() {
+        breaker.recordFailure();
+        breaker.recordFailure();
+
+        assertThat(breaker.allowRequest()).isTrue();
+        assertThat(breaker.isRejecting()).isFalse();
+    }
+
+    @Test
+    void success_shouldResetConsecutiveFailures() {
+        breaker.recordFailure();
+        breaker.recordFailure();
+        breaker.recordSuccess();
+        breaker.recordFailure();
+        breaker.recordFailure();
+
+        assertThat(breaker.allowRequest()).isTrue();
+    }
+
+    @Test
+    void breaker_shouldGoFromOpenThroughHalfOpenToClosed() {
+        tripOpen();
+
+        assertThat(breaker.allowRequest()).isFalse();
+        assertThat(breaker.isRejecting()).isTrue();
+
+        now.addAndGet(OPEN_MS - 1);
+        assertThat(breaker.allowRequest()).isFalse();
+
+        // Half-open: the first caller after the window probes, the rest keep failing fast
+        now.addAndGet(1);
+        assertThat(breaker.isRejecting()).isFalse();
+        assertThat(breaker.allowRequest()).isTrue();
+        assertThat(breaker.allowRequest()).isFalse();
+        assertThat(breaker.isRejecting()).isTrue();
+
+        breaker.recordSuccess();
+
+        assertThat(breaker.allowRequest()).isTrue();
+        assertThat(breaker.allowRequest()).isTrue();
+        assertThat(breaker.isRejecting()).isFalse();
+    }
+
+    @Test
+    void failedProbe_shouldReopenForAnotherWindow() {
+        tripOpen();
+        now.addAndGet(OPEN_MS);
+        assertThat(breaker.allowRequest()).isTrue();
+
+        now.addAndGet(100);
+        breaker.recordFailure();
+
+        now.addAndGet(OPEN_MS - 1);
+        assertThat(breaker.allowRequest()).isFalse();
+        now.addAndGet(1);
+        assertThat(breaker.allowRequest()).isTrue();
+    }
+
+    @Test
+    void isRejecting_shouldNotClaimTheProbe() {
+        tripOpen();
+        now.addAndGet(OPEN_MS);
+
+        assertThat(breaker.isRejecting()).isFalse();
+        assertThat(breaker.isRejecting()).isFalse();
+        assertThat(breaker.allowRequest()).isTrue();
+    }
+
+    @Test
+    void halfOpen_shouldLetExactlyOneConcurrentCallerProbe() throws Exception {
+        tripOpen();
+        now.addAndGet(OPEN_MS);
+        int callers = 16;
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        try {
+            List<Callable<Boolean>> attempts = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                attempts.add(breaker::allowRequest);
+            }
+            int allowed = 0;
+            for (Future<Boolean> attempt : pool.invokeAll(attempts)) {
+                allowed += attempt.get() ? 1 : 0;
+            }
+            assertThat(allowed).isEqualTo(1);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void tripOpen() {
+        for (int i = 0; i < 3; i++) {
+            breaker.recordFailure();
+        }
+    }
+}
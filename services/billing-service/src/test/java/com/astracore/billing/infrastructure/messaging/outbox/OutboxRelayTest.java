@@ -0,0 +1,151 @@
+package com.astracore.billing.infrastructure.messaging.outbox;
+
+import com.astracore.event.InvoiceIssued;
+import com.astracore.tenancy.ShardRouter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OutboxRelayTest {
+
+    private static final long SEND_TIMEOUT_MS = 300;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final OutboxStore outboxStore = mock(OutboxStore.class);
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, Object> kafkaTemplate = mock(KafkaTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Map<String, CompletableFuture<SendResult<String, Object>>> sends = new HashMap<>();
+    private final List<List<Long>> deletes = new ArrayList<>();
+    private final ScheduledExecutorService broker = Executors.newSingleThreadScheduledExecutor();
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        relay = new OutboxRelay(outboxStore, ShardRouter.singleShard("default"), kafkaTemplate, objectMapper,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), meterRegistry);
+        ReflectionTestUtils.setField(relay, "batchSize", 10);
+        ReflectionTestUtils.setField(relay, "sendTimeoutMs", SEND_TIMEOUT_MS);
+
+        when(kafkaTemplate.send(anyString(), anyString(), any())).thenAnswer(call -> sends.get(call.<String>getArgument(1)));
+        doAnswer(call -> {
+            List<Long> ids = call.getArgument(0);
+            // Whatever is deleted here must already have been acknowledged by the broker
+            assertThat(ids).allSatisfy(id -> assertThat(sends.get("inv-" + id)).isCompleted());
+            deletes.add(List.copyOf(ids));
+            return null;
+        }).when(outboxStore).delete(anyList());
+    }
+
+    @AfterEach
+    void tearDown() {
+        broker.shutdownNow();
+    }
+
+    @Test
+    void relay_shouldMarkSentOnlyWhatTheBrokerAcknowledged() {
+        CompletableFuture<SendResult<String, Object>> ackedLater = new CompletableFuture<>();
+        sends.put("inv-1", ackedLater);
+        sends.put("inv-2", CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+        sends.put("inv-3", new CompletableFuture<>());
+        sends.put("inv-4", CompletableFuture.completedFuture(null));
+        broker.schedule(() -> ackedLater.complete(null), 50, TimeUnit.MILLISECONDS);
+        lockBatch(message(1), message(2), message(3), message(4));
+
+        relay.relay();
+
+        assertThat(deletes).containsExactly(List.of(1L, 4L));
+        assertThat(meterRegistry.counter("billing.outbox.published").count()).isEqualTo(2);
+        assertThat(meterRegistry.counter("billing.outbox.failed").count()).isEqualTo(2);
+    }
+
+    @Test
+    void relay_shouldLeaveTheWholeBatchPendingWhenNothingIsAcknowledged() {
+        sends.put("inv-1", new CompletableFuture<>());
+        sends.put("inv-2", CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+        lockBatch(message(1), message(2));
+
+        relay.relay();
+
+        verify(outboxStore, never()).delete(anyList());
+        assertThat(meterRegistry.counter("billing.outbox.failed").count()).isEqualTo(2);
+    }
+
+    @Test
+    void relay_shouldWaitForTheBatchAgainstOneDeadline() {
+        List<OutboxMessage> batch = new ArrayList<>();
+        for (long id = 1; id <= 5; id++) {
+            sends.put("inv-" + id, new CompletableFuture<>());
+            batch.add(message(id));
+        }
+        lockBatch(batch.toArray(OutboxMessage[]::new));
+
+        long started = System.nanoTime();
+        relay.relay();
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        // Waiting on each send in turn would hold the row locks for five timeouts
+        assertThat(elapsedMs).isBetween(SEND_TIMEOUT_MS, 3 * SEND_TIMEOUT_MS);
+        verify(outboxStore, never()).delete(anyList());
+    }
+
+    @Test
+    void unknownEventType_shouldStayPendingWithoutBeingSent() {
+        sends.put("inv-2", CompletableFuture.completedFuture(null));
+        OutboxMessage unknown = new OutboxMessage(1L, "Invoice", "inv-1", "InvoiceVoided", "billing.invoices",
+                "inv-1", "{}", Instant.now());
+        lockBatch(unknown, message(2));
+
+        relay.relay();
+
+        verify(kafkaTemplate, never()).send(anyString(), eq("inv-1"), any());
+        assertThat(deletes).containsExactly(List.of(2L));
+    }
+
+    private void lockBatch(OutboxMessage... batch) {
+        when(outboxStore.lockNextBatch(anyInt())).thenReturn(List.of(batch), List.of());
+    }
+
+    private OutboxMessage message(long id) {
+        String invoiceId = "inv-" + id;
+        InvoiceIssued event = new InvoiceIssued("acme", invoiceId, "cust-1", new BigDecimal("10.00"), "USD",
+                LocalDate.of(2026, 1, 5), LocalDate.of(2026, 2, 4), Instant.now());
+        try {
+            return new OutboxMessage(id, "Invoice", invoiceId, OutboxDomainEventPublisher.INVOICE_ISSUED_TYPE,
+                    "billing.invoices", invoiceId, objectMapper.writeValueAsString(event), Instant.now());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
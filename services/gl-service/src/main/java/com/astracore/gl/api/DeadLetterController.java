@@ -0,0 +1,39 @@
+package com.astracore.gl.api;
+
+import com.astracore.gl.application.dto.DeadLetterReplayDTO;
+import com.astracore.gl.application.dto.DeadLetterTopicDTO;
+import com.astracore.gl.messaging.DeadLetterReplayer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Operator endpoints for source event records that could not be posted: how many wait on
+ * each dead-letter topic, and sending them back to their source topic once the cause
+ * has been fixed.
+ */
+@RestController
+@RequestMapping("/api/v1/admin/dead-letters")
+@RequiredArgsConstructor
+public class DeadLetterController {
+
+    private final DeadLetterReplayer deadLetterReplayer;
+
+    @GetMapping
+    public ResponseEntity<List<DeadLetterTopicDTO>> getDeadLetters() {
+        return ResponseEntity.ok(deadLetterReplayer.pending());
+    }
+
+    @PostMapping("/{topic}/replay")
+    public ResponseEntity<DeadLetterReplayDTO> replay(@PathVariable String topic,
+                                                      @RequestParam(defaultValue = "1000") int max) {
+        return ResponseEntity.ok(deadLetterReplayer.replay(topic, max));
+    }
+}
@@ -0,0 +1,171 @@
+package com.astracore.gl.api;
+
+import com.astracore.gl.application.dto.AccountBalanceDTO;
+import com.astracore.gl.application.dto.AccountStatementLineDTO;
+import com.astracore.gl.application.dto.FiscalPeriodDTO;
+import com.astracore.gl.application.dto.JournalImportDTO;
+import com.astracore.gl.application.dto.LedgerReplayDTO;
+import com.astracore.gl.application.dto.TrialBalanceDTO;
+import com.astracore.gl.application.service.AccountStatementService;
+import com.astracore.gl.application.service.BalanceQueryService;
+import com.astracore.gl.application.service.FiscalPeriodCloseService;
+import com.astracore.gl.application.service.JournalImportService;
+import com.astracore.gl.application.service.LedgerReplayService;
+import com.astracore.gl.infrastructure.cache.GlAccountRef;
+import com.astracore.tenancy.TenantContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+@RestController
+@RequestMapping("/api/v1/ledger")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class LedgerController {
+
+    private final BalanceQueryService balanceQueryService;
+    private final LedgerReplayService ledgerReplayService;
+    private final FiscalPeriodCloseService fiscalPeriodCloseService;
+    private final AccountStatementService accountStatementService;
+    private final JournalImportService journalImportService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Balance of one account at the end of {@code asOf} (UTC); defaults to today.
+     */
+    @GetMapping("/accounts/{accountCode}/balance")
+    public ResponseEntity<AccountBalanceDTO> getAccountBalance(
+            @PathVariable String accountCode,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf) {
+        return ResponseEntity.ok(balanceQueryService.getAccountBalance(accountCode, asOfOrToday(asOf)));
+    }
+
+    /**
+     * Every entry of one account dated {@code from} to {@code to} (inclusive, UTC) with its
+     * running balance, streamed as NDJSON (the default) or CSV with {@code format=csv}.
+     */
+    @GetMapping("/accounts/{accountCode}/statement")
+    public ResponseEntity<StreamingResponseBody> getAccountStatement(
+            @PathVariable String accountCode,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "ndjson") String format) {
+        boolean csv = switch (format.toLowerCase()) {
+            case "ndjson" -> false;
+            case "csv" -> true;
+            default -> throw new IllegalArgumentException("Unsupported statement format: " + format);
+        };
+        GlAccountRef account = accountStatementService.requireStatement(accountCode, from, to);
+        // The body is written on an async thread, which has to read from this tenant's shard
+        String tenantId = TenantContext.current();
+        StreamingResponseBody body = out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+            if (csv) {
+                writer.write("transaction_entry_id,transaction_id,transaction_date,debit_credit_flag,amount,description,running_balance\n");
+            }
+            try (TenantContext.Scope ignored = TenantContext.enter(tenantId)) {
+                accountStatementService.streamStatement(account, from, to, line -> {
+                    try {
+                        writer.write(csv ? csvLine(line) : objectMapper.writeValueAsString(line));
+                        writer.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            writer.flush();
+        };
+        String filename = account.accountCode() + "-" + from + "-" + to + (csv ? ".csv" : ".ndjson");
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8) : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(body);
+    }
+
+    @GetMapping("/trial-balance")
+    public ResponseEntity<TrialBalanceDTO> getTrialBalance(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf) {
+        return ResponseEntity.ok(balanceQueryService.getTrialBalance(asOfOrToday(asOf)));
+    }
+
+    /**
+     * Starts rebuilding the monthly balances of the calling tenant's shard from the
+     * journal in the background; 409 if a rebuild is already running there.
+     */
+    @PostMapping("/replays")
+    public ResponseEntity<LedgerReplayDTO> startReplay() {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(ledgerReplayService.start());
+    }
+
+    @GetMapping("/replays/latest")
+    public ResponseEntity<LedgerReplayDTO> getLatestReplay() {
+        return ResponseEntity.ok(ledgerReplayService.latest()
+                .orElseThrow(() -> new NoSuchElementException("No ledger replay has run")));
+    }
+
+    /**
+     * Imports a historical journal from the request body, NDJSON (the default) or CSV with
+     * {@code format=csv}; 400 naming the line if the file is invalid. Transactions imported
+     * before are skipped, so a failed import can be sent again once corrected.
+     */
+    @PostMapping("/imports")
+    public ResponseEntity<JournalImportDTO> importJournal(InputStream body,
+                                                         @RequestParam(defaultValue = "ndjson") String format) {
+        return ResponseEntity.ok(journalImportService.importJournal(body, format));
+    }
+
+    @GetMapping("/periods")
+    public ResponseEntity<List<FiscalPeriodDTO>> getClosedPeriods() {
+        return ResponseEntity.ok(fiscalPeriodCloseService.findAll());
+    }
+
+    /**
+     * Closes the fiscal period {@code period} (yyyy-MM); 400 unless it has ended and follows
+     * the last closed period, 409 if the monthly balances need a replay first.
+     */
+    @PostMapping("/periods/{period}/close")
+    public ResponseEntity<FiscalPeriodDTO> closePeriod(@PathVariable YearMonth period) {
+        return ResponseEntity.ok(fiscalPeriodCloseService.close(period));
+    }
+
+    private static String csvLine(AccountStatementLineDTO line) {
+        return line.getTransactionEntryId() + "," + line.getTransactionId() + "," + line.getTransactionDate() + ","
+                + line.getDebitCreditFlag() + "," + line.getAmount().toPlainString() + ","
+                + csvField(line.getDescription()) + "," + line.getRunningBalance().toPlainString();
+    }
+
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static LocalDate asOfOrToday(LocalDate asOf) {
+        return asOf != null ? asOf : LocalDate.now(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,26 @@
+package com.astracore.gl.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Cumulative balance of one GL account at the end of {@code asOf} (UTC).
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AccountBalanceDTO {
+    private UUID glAccountId;
+    private String accountCode;
+    private String accountName;
+    private LocalDate asOf;
+    private BigDecimal debitTotal;
+    private BigDecimal creditTotal;
+    private BigDecimal balance; // debitTotal - creditTotal
+    private long entryCount;
+}
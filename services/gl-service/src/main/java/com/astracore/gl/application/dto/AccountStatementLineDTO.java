@@ -0,0 +1,26 @@
+package com.astracore.gl.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One line of an account statement; {@code runningBalance} is debits minus credits up to
+ * and including this entry.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AccountStatementLineDTO {
+    private UUID transactionEntryId;
+    private UUID transactionId;
+    private Instant transactionDate;
+    private String debitCreditFlag;
+    private BigDecimal amount;
+    private String description;
+    private BigDecimal runningBalance;
+}
@@ -0,0 +1,18 @@
+package com.astracore.gl.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of sending dead-lettered records back to their source topic.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DeadLetterReplayDTO {
+    private String topic;
+    private String deadLetterTopic;
+    private int replayed;
+    private long remaining;
+}
@@ -0,0 +1,17 @@
+package com.astracore.gl.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Records waiting on a source topic's dead-letter topic.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DeadLetterTopicDTO {
+    private String topic;
+    private String deadLetterTopic;
+    private long pending;
+}
@@ -0,0 +1,21 @@
+package com.astracore.gl.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * A closed fiscal period; {@code accountCount} is the number of frozen closing balances.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FiscalPeriodDTO {
+    private LocalDate periodStart;
+    private Instant closedAt;
+    private int accountCount;
+    private long entryCount;
+}
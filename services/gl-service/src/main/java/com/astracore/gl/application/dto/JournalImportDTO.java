@@ -0,0 +1,23 @@
+package com.astracore.gl.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of a bulk journal import. Transactions posted by an earlier import of the same
+ * source documents are counted as skipped.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class JournalImportDTO {
+    private long transactionsRead;
+    private long entriesRead;
+    private long transactionsImported;
+    private long entriesImported;
+    private long transactionsSkipped;
+    private int chunks;
+    private long elapsedMillis;
+    private long entriesPerSecond;
+}
@@ -0,0 +1,27 @@
+package com.astracore.gl.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Progress of a rebuild of the monthly balances from the journal.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LedgerReplayDTO {
+    private UUID replayId;
+    private String status; // RUNNING, CATCHING_UP, SWAPPING, COMPLETED, FAILED
+    private Instant startedAt;
+    private Instant finishedAt;
+    private int totalPeriods;
+    private int completedPeriods;
+    private long entriesReplayed;
+    private long elapsedMillis;
+    private long entriesPerSecond;
+    private String error;
+}
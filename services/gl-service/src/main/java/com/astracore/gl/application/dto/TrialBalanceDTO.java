@@ -0,0 +1,26 @@
+package com.astracore.gl.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Trial balance at the end of {@code asOf}, lines in hierarchy order (each parent
+ * followed by its children). {@code snapshotPeriod} is the month-end snapshot or closed
+ * fiscal period the figures were built from, or {@code null} when none was usable.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TrialBalanceDTO {
+    private LocalDate asOf;
+    private LocalDate snapshotPeriod;
+    private List<TrialBalanceLineDTO> lines;
+    private BigDecimal totalDebits;
+    private BigDecimal totalCredits;
+    private boolean balanced;
+}
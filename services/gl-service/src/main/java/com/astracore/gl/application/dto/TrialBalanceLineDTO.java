@@ -0,0 +1,30 @@
+package com.astracore.gl.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * One account in a trial balance. The plain totals are the account's own postings; the
+ * {@code rolledUp*} totals add every descendant in the {@code parent_gl_account_id} tree.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TrialBalanceLineDTO {
+    private UUID glAccountId;
+    private String accountCode;
+    private String accountName;
+    private String glAccountTypeId;
+    private String parentAccountCode;
+    private int level; // 0 for top-level accounts
+    private BigDecimal debitTotal;
+    private BigDecimal creditTotal;
+    private BigDecimal balance;
+    private BigDecimal rolledUpDebitTotal;
+    private BigDecimal rolledUpCreditTotal;
+    private BigDecimal rolledUpBalance;
+}
@@ -0,0 +1,163 @@
+package com.astracore.gl.application.posting;
+
+import com.astracore.gl.infrastructure.persistence.entity.AccountingTransactionEntity;
+import com.astracore.gl.infrastructure.persistence.entity.GeneralLedgerAccountEntity;
+import com.astracore.gl.infrastructure.persistence.entity.TransactionEntryEntity;
+import com.astracore.gl.infrastructure.persistence.repository.PostingRuleLine;
+import com.astracore.shared.id.UuidV7;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One posting rule compiled for repeated use: validated once, with its description
+ * templates split into literal text and placeholders, so building a transaction is a
+ * walk over a fixed array of lines. Immutable; a rule change compiles a new plan.
+ */
+public final class PostingPlan {
+
+    private final String eventType;
+    private final String transactionType;
+    private final Template description;
+    private final Line[] lines;
+    private final Template[] lineDescriptions;
+
+    private PostingPlan(String eventType, String transactionType, Template description, Line[] lines,
+                        Template[] lineDescriptions) {
+        this.eventType = eventType;
+        this.transactionType = transactionType;
+        this.description = description;
+        this.lines = lines;
+        this.lineDescriptions = lineDescriptions;
+    }
+
+    /**
+     * @param rows one rule's lines, in line order
+     * @throws IllegalArgumentException if the rule cannot balance or uses an unknown placeholder
+     */
+    static PostingPlan compile(List<PostingRuleLine> rows) {
+        PostingRuleLine header = rows.get(0);
+        String eventType = header.eventType();
+        Line[] lines = new Line[rows.size()];
+        Template[] lineDescriptions = new Template[rows.size()];
+        int debits = 0;
+        int credits = 0;
+        for (int i = 0; i < rows.size(); i++) {
+            PostingRuleLine row = rows.get(i);
+            if (row.debitCreditFlag() == null) {
+                throw new IllegalArgumentException("Posting rule " + eventType + " has no lines");
+            }
+            switch (row.debitCreditFlag()) {
+                case "D" -> debits++;
+                case "C" -> credits++;
+                default -> throw new IllegalArgumentException("Posting rule " + eventType + " line " + row.lineNo()
+                        + " has debit/credit flag " + row.debitCreditFlag());
+            }
+            if (row.accountCode() == null || row.accountCode().isBlank()) {
+                throw new IllegalArgumentException("Posting rule " + eventType + " line " + row.lineNo() + " has no account");
+            }
+            lines[i] = new Line(row.debitCreditFlag(), row.accountCode(), row.accountName(), row.glAccountTypeId());
+            lineDescriptions[i] = Template.compile(eventType, row.lineDescription());
+        }
+        // Every line posts the full amount, so only equal numbers of debits and credits balance
+        if (debits == 0 || debits != credits) {
+            throw new IllegalArgumentException("Posting rule " + eventType + " does not balance: "
+                    + debits + " debit and " + credits + " credit lines");
+        }
+        return new PostingPlan(eventType, header.transactionType(),
+                Template.compile(eventType, header.transactionDescription()), lines, lineDescriptions);
+    }
+
+    public String eventType() {
+        return eventType;
+    }
+
+    public List<Line> lines() {
+        return List.of(lines);
+    }
+
+    /**
+     * Builds the transaction for one source event.
+     *
+     * @param accounts the account for each of {@link #lines()}, in the same order
+     */
+    public AccountingTransactionEntity newTransaction(PostingSource source, GeneralLedgerAccountEntity[] accounts) {
+        AccountingTransactionEntity tx = new AccountingTransactionEntity();
+        tx.setTransactionId(UuidV7.generate());
+        tx.setTransactionDate(source.transactionDate());
+        tx.setEntryDate(Instant.now());
+        tx.setDescription(description.render(source));
+        tx.setTransactionType(transactionType);
+        tx.setPosted(true);
+        tx.setSourceDocumentType(source.documentType());
+        tx.setSourceDocumentId(source.documentId());
+        for (int i = 0; i < lines.length; i++) {
+            TransactionEntryEntity entry = new TransactionEntryEntity();
+            entry.setTransactionEntryId(UuidV7.generate());
+            entry.setGlAccount(accounts[i]);
+            entry.setAmount(source.amount());
+            entry.setDebitCreditFlag(lines[i].debitCreditFlag());
+            entry.setDescription(lineDescriptions[i].render(source));
+            tx.addEntry(entry);
+        }
+        return tx;
+    }
+
+    public record Line(String debitCreditFlag, String accountCode, String accountName, String glAccountTypeId) {
+    }
+
+    /**
+     * A description with {@code {document}} and {@code {reference}} placeholders, stored
+     * as alternating literal text and placeholder slots.
+     */
+    static final class Template {
+
+        private static final int DOCUMENT = 0;
+        private static final int REFERENCE = 1;
+
+        private final String[] literals;
+        private final int[] placeholders;
+
+        private Template(String[] literals, int[] placeholders) {
+            this.literals = literals;
+            this.placeholders = placeholders;
+        }
+
+        static Template compile(String eventType, String text) {
+            List<String> literals = new ArrayList<>();
+            List<Integer> placeholders = new ArrayList<>();
+            int from = 0;
+            int open;
+            while ((open = text.indexOf('{', from)) >= 0) {
+                int close = text.indexOf('}', open);
+                if (close < 0) {
+                    throw new IllegalArgumentException("Posting rule " + eventType + " has an unclosed placeholder in: " + text);
+                }
+                literals.add(text.substring(from, open));
+                placeholders.add(switch (text.substring(open + 1, close)) {
+                    case "document" -> DOCUMENT;
+                    case "reference" -> REFERENCE;
+                    default -> throw new IllegalArgumentException("Posting rule " + eventType
+                            + " uses unknown placeholder " + text.substring(open, close + 1));
+                });
+                from = close + 1;
+            }
+            literals.add(text.substring(from));
+            return new Template(literals.toArray(String[]::new),
+                    placeholders.stream().mapToInt(Integer::intValue).toArray());
+        }
+
+        String render(PostingSource source) {
+            if (placeholders.length == 0) {
+                return literals[0];
+            }
+            StringBuilder out = new StringBuilder(64).append(literals[0]);
+            for (int i = 0; i < placeholders.length; i++) {
+                out.append(placeholders[i] == DOCUMENT ? source.documentId() : source.reference())
+                        .append(literals[i + 1]);
+            }
+            return out.toString();
+        }
+    }
+}
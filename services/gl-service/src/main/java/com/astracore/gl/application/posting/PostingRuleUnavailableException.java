@@ -0,0 +1,17 @@
+package com.astracore.gl.application.posting;
+
+/**
+ * No usable posting rule for an event type on the current shard: none is defined, or the
+ * shard's rules have never compiled. A configuration problem rather than a bad event, so
+ * consumers hand such events back for redelivery instead of skipping them.
+ */
+public class PostingRuleUnavailableException extends IllegalStateException {
+
+    public PostingRuleUnavailableException(String message) {
+        super(message);
+    }
+
+    public PostingRuleUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
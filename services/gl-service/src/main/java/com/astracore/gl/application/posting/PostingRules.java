@@ -0,0 +1,114 @@
+package com.astracore.gl.application.posting;
+
+import com.astracore.gl.infrastructure.persistence.repository.PostingRuleLine;
+import com.astracore.gl.infrastructure.persistence.repository.PostingRuleStore;
+import com.astracore.tenancy.ShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The posting rules of each shard, compiled into {@link PostingPlan}s. Posting asks for a
+ * plan once per batch and reads it from memory.
+ * <p>
+ * A shard's rules are compiled on first use and re-read every
+ * {@code gl.posting.rules.refresh-ms}; they are only recompiled when a row has changed.
+ * A change that does not compile is logged and the shard keeps posting with the rules it
+ * had, so a bad edit cannot stop posting. Rules live on every shard; a change has to be
+ * made on each of them.
+ */
+@Slf4j
+@Component
+public class PostingRules {
+
+    private final PostingRuleStore postingRuleStore;
+    private final ShardRouter shardRouter;
+    private final Map<String, Compiled> byShard = new ConcurrentHashMap<>();
+
+    public PostingRules(PostingRuleStore postingRuleStore, ShardRouter shardRouter) {
+        this.postingRuleStore = postingRuleStore;
+        this.shardRouter = shardRouter;
+    }
+
+    /**
+     * The current shard's plan for an event type.
+     *
+     * @throws PostingRuleUnavailableException if the shard has no usable rule for it
+     */
+    public PostingPlan plan(String eventType) {
+        String shard = shardRouter.currentShard();
+        Compiled compiled = byShard.get(shard);
+        if (compiled == null) {
+            compiled = load(shard);
+        }
+        PostingPlan plan = compiled.plans().get(eventType);
+        if (plan == null) {
+            throw new PostingRuleUnavailableException("No posting rule for " + eventType + " on shard " + shard);
+        }
+        return plan;
+    }
+
+    @Scheduled(fixedDelayString = "${gl.posting.rules.refresh-ms:5000}",
+            initialDelayString = "${gl.posting.rules.refresh-ms:5000}")
+    public void refresh() {
+        for (String shard : shardRouter.shards()) {
+            try {
+                load(shard);
+            } catch (RuntimeException e) {
+                log.warn("Could not refresh posting rules on shard {}: {}", shard, e.getMessage());
+            }
+        }
+    }
+
+    private synchronized Compiled load(String shard) {
+        List<PostingRuleLine> rows = shardRouter.callOnShard(shard, postingRuleStore::findAll);
+        Compiled current = byShard.get(shard);
+        if (current != null && current.rows().equals(rows)) {
+            return current;
+        }
+        Map<String, PostingPlan> plans;
+        try {
+            plans = compile(rows);
+        } catch (IllegalArgumentException e) {
+            if (current == null) {
+                throw new PostingRuleUnavailableException("Posting rules on shard " + shard + " are invalid: " + e.getMessage(), e);
+            }
+            log.error("Posting rules on shard {} were changed but are invalid, still posting with the previous rules: {}",
+                    shard, e.getMessage());
+            // Remember the rows so the same bad edit is reported once
+            Compiled kept = new Compiled(rows, current.plans());
+            byShard.put(shard, kept);
+            return kept;
+        }
+        Compiled compiled = new Compiled(rows, plans);
+        byShard.put(shard, compiled);
+        log.info("Compiled posting rules for {} on shard {}", plans.keySet(), shard);
+        return compiled;
+    }
+
+    // Rows arrive ordered by event type and line
+    private static Map<String, PostingPlan> compile(List<PostingRuleLine> rows) {
+        Map<String, PostingPlan> plans = new HashMap<>();
+        List<PostingRuleLine> rule = new ArrayList<>();
+        for (PostingRuleLine row : rows) {
+            if (!rule.isEmpty() && !rule.get(0).eventType().equals(row.eventType())) {
+                plans.put(rule.get(0).eventType(), PostingPlan.compile(rule));
+                rule.clear();
+            }
+            rule.add(row);
+        }
+        if (!rule.isEmpty()) {
+            plans.put(rule.get(0).eventType(), PostingPlan.compile(rule));
+        }
+        return Map.copyOf(plans);
+    }
+
+    private record Compiled(List<PostingRuleLine> rows, Map<String, PostingPlan> plans) {
+    }
+}
@@ -0,0 +1,39 @@
+package com.astracore.gl.application.posting;
+
+import com.astracore.event.InvoiceIssued;
+import com.astracore.event.PaymentReceived;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+/**
+ * What posting needs from one source event. The event type selects the posting rule; the
+ * document type and id identify the event for de-duplication and are fixed per event
+ * type here rather than in the rules, so editing a rule cannot make redeliveries look new.
+ *
+ * @param reference the document this one refers to, e.g. the invoice a payment settles
+ */
+public record PostingSource(String eventType, String documentType, String documentId, String reference,
+                            BigDecimal amount, Instant transactionDate) {
+
+    public static final String INVOICE_ISSUED = "INVOICE_ISSUED";
+    public static final String PAYMENT_RECEIVED = "PAYMENT_RECEIVED";
+
+    static final String DOCUMENT_INVOICE = "INVOICE";
+    static final String DOCUMENT_PAYMENT = "PAYMENT";
+
+    public static PostingSource of(InvoiceIssued event) {
+        Instant transactionDate = event.getIssueDate() != null
+                ? event.getIssueDate().atStartOfDay().toInstant(ZoneOffset.UTC)
+                : Instant.now();
+        return new PostingSource(INVOICE_ISSUED, DOCUMENT_INVOICE, event.getInvoiceId(), null,
+                event.getTotalAmount(), transactionDate);
+    }
+
+    public static PostingSource of(PaymentReceived event) {
+        Instant transactionDate = event.getOccurredOn() != null ? event.getOccurredOn() : Instant.now();
+        return new PostingSource(PAYMENT_RECEIVED, DOCUMENT_PAYMENT, event.getPaymentId(), event.getInvoiceId(),
+                event.getAmount(), transactionDate);
+    }
+}
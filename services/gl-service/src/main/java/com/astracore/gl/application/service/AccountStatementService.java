@@ -0,0 +1,123 @@
+package com.astracore.gl.application.service;
+
+import com.astracore.gl.application.dto.AccountStatementLineDTO;
+import com.astracore.gl.infrastructure.archive.JournalArchive;
+import com.astracore.gl.infrastructure.cache.ChartOfAccountsCache;
+import com.astracore.gl.infrastructure.cache.GlAccountRef;
+import com.astracore.gl.infrastructure.persistence.repository.AccountStatementStore;
+import com.astracore.gl.infrastructure.persistence.repository.JournalPartitionStore;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Account statements (ledger cards): every entry of one account over a date range, in
+ * date order, each with the running balance.
+ * <p>
+ * The opening balance comes from {@link BalanceQueryService}, then entries are streamed
+ * month by month: one index range scan per monthly partition through a server-side
+ * cursor, preceded by the archive file for archived months. Nothing is held per entry,
+ * so memory does not grow with the statement. Everything is read in one repeatable-read
+ * snapshot, so the running balance always agrees with the balance queries.
+ */
+@Service
+public class AccountStatementService {
+
+    private final ChartOfAccountsCache chartOfAccounts;
+    private final BalanceQueryService balanceQueryService;
+    private final AccountStatementStore accountStatementStore;
+    private final JournalPartitionStore journalPartitionStore;
+    private final JournalArchive journalArchive;
+    private final TransactionTemplate snapshotTransaction;
+
+    public AccountStatementService(ChartOfAccountsCache chartOfAccounts,
+                                   BalanceQueryService balanceQueryService,
+                                   AccountStatementStore accountStatementStore,
+                                   JournalPartitionStore journalPartitionStore,
+                                   JournalArchive journalArchive,
+                                   PlatformTransactionManager transactionManager) {
+        this.chartOfAccounts = chartOfAccounts;
+        this.balanceQueryService = balanceQueryService;
+        this.accountStatementStore = accountStatementStore;
+        this.journalPartitionStore = journalPartitionStore;
+        this.journalArchive = journalArchive;
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setReadOnly(true);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    /**
+     * @throws NoSuchElementException   if the account does not exist
+     * @throws IllegalArgumentException if {@code from} is after {@code to}
+     */
+    public GlAccountRef requireStatement(String accountCode, LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Statement start " + from + " is after its end " + to);
+        }
+        return chartOfAccounts.find(accountCode)
+                .orElseThrow(() -> new NoSuchElementException("GL account not found: " + accountCode));
+    }
+
+    /**
+     * Passes each entry of {@code account} dated {@code from} to {@code to} (inclusive,
+     * UTC) to {@code action}.
+     */
+    public void streamStatement(GlAccountRef account, LocalDate from, LocalDate to,
+                                Consumer<AccountStatementLineDTO> action) {
+        snapshotTransaction.executeWithoutResult(status -> {
+            RunningBalance running = new RunningBalance(
+                    balanceQueryService.getAccountBalance(account.accountCode(), from.minusDays(1)).getBalance());
+            Instant end = to.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+            for (LocalDate month = from.withDayOfMonth(1); month.isBefore(to.plusDays(1)); month = month.plusMonths(1)) {
+                Instant monthFrom = max(month.atStartOfDay(ZoneOffset.UTC).toInstant(),
+                        from.atStartOfDay(ZoneOffset.UTC).toInstant());
+                Instant monthTo = min(month.plusMonths(1).atStartOfDay(ZoneOffset.UTC).toInstant(), end);
+                // Postings dated in a month after it was archived stay in the database and follow the file
+                journalPartitionStore.findArchived(month).ifPresent(archived ->
+                        journalArchive.forEachEntry(archived, monthFrom, monthTo, entry -> {
+                            if (account.glAccountId().equals(entry.glAccountId())) {
+                                action.accept(running.line(entry.transactionEntryId(), entry.transactionId(),
+                                        entry.transactionDate(), entry.debitCreditFlag(), entry.amount(),
+                                        entry.description()));
+                            }
+                        }));
+                accountStatementStore.forEachEntry(account.glAccountId(), monthFrom, monthTo, entry ->
+                        action.accept(running.line(entry.transactionEntryId(), entry.transactionId(),
+                                entry.transactionDate(), entry.debitCreditFlag(), entry.amount(), entry.description())));
+            }
+        });
+    }
+
+    private static Instant max(Instant a, Instant b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static Instant min(Instant a, Instant b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static final class RunningBalance {
+
+        private BigDecimal balance;
+
+        private RunningBalance(BigDecimal opening) {
+            this.balance = opening;
+        }
+
+        AccountStatementLineDTO line(UUID transactionEntryId, UUID transactionId, Instant transactionDate,
+                                     String debitCreditFlag, BigDecimal amount, String description) {
+            balance = "D".equals(debitCreditFlag) ? balance.add(amount) : balance.subtract(amount);
+            return new AccountStatementLineDTO(transactionEntryId, transactionId, transactionDate, debitCreditFlag,
+                    amount, description, balance);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.astracore.gl.application.service;
+
+import com.astracore.gl.application.dto.AccountBalanceDTO;
+import com.astracore.gl.application.dto.TrialBalanceDTO;
+import com.astracore.gl.application.dto.TrialBalanceLineDTO;
+import com.astracore.gl.infrastructure.archive.JournalArchive;
+import com.astracore.gl.infrastructure.cache.ChartOfAccountsCache;
+import com.astracore.gl.infrastructure.cache.GlAccountRef;
+import com.astracore.gl.infrastructure.persistence.repository.AccountBalanceStore;
+import com.astracore.gl.infrastructure.persistence.repository.BalanceSnapshotStore;
+import com.astracore.gl.infrastructure.persistence.repository.BalanceTotals;
+import com.astracore.gl.infrastructure.persistence.repository.FiscalPeriodStore;
+import com.astracore.gl.infrastructure.persistence.repository.JournalPartitionStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Account balances and trial balances as of the end of a day (UTC).
+ * <p>
+ * Figures start from the later of the latest closed fiscal period and the latest valid
+ * month-end snapshot before the requested month, add the per-month totals of any months
+ * since, then settle the requested month from the journal: entries up to the cut-off when it falls in the first half of the month,
+ * otherwise the month's total minus entries after the cut-off. The work therefore
+ * depends on the number of accounts and on at most half a month of entries, not on the
+ * size of the ledger. The end of a closed period is answered from its frozen closing
+ * balances alone. Everything is read in one repeatable-read snapshot. Entries of
+ * archived months are read back from the archive files.
+ */
+@Service
+@RequiredArgsConstructor
+public class BalanceQueryService {
+
+    private static final LocalDate LEDGER_START = LocalDate.of(1, 1, 1);
+
+    private final ChartOfAccountsCache chartOfAccounts;
+    private final AccountBalanceStore accountBalanceStore;
+    private final BalanceSnapshotStore balanceSnapshotStore;
+    private final FiscalPeriodStore fiscalPeriodStore;
+    private final JournalPartitionStore journalPartitionStore;
+    private final JournalArchive journalArchive;
+
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public AccountBalanceDTO getAccountBalance(String accountCode, LocalDate asOf) {
+        GlAccountRef account = chartOfAccounts.find(accountCode)
+                .orElseThrow(() -> new NoSuchElementException("GL account not found: " + accountCode));
+        BalanceTotals totals = balancesAsOf(asOf, account.glAccountId()).totals()
+                .getOrDefault(account.glAccountId(), BalanceTotals.ZERO);
+        return new AccountBalanceDTO(account.glAccountId(), account.accountCode(), account.accountName(), asOf,
+                totals.debitTotal(), totals.creditTotal(), totals.balance(), totals.entryCount());
+    }
+
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public TrialBalanceDTO getTrialBalance(LocalDate asOf) {
+        Balances balances = balancesAsOf(asOf, null);
+
+        Map<UUID, GlAccountRef> accounts = new HashMap<>();
+        for (GlAccountRef account : chartOfAccounts.all()) {
+            accounts.put(account.glAccountId(), account);
+        }
+
+        // Roll each account's own totals up into every ancestor
+        Map<UUID, BalanceTotals> rolledUp = new HashMap<>();
+        for (GlAccountRef account : accounts.values()) {
+            BalanceTotals own = balances.totals().getOrDefault(account.glAccountId(), BalanceTotals.ZERO);
+            int depth = 0;
+            for (GlAccountRef node = account; node != null; node = accounts.get(node.parentGlAccountId())) {
+                if (++depth > accounts.size()) {
+                    throw new IllegalStateException("Cycle in GL account hierarchy above " + account.accountCode());
+                }
+                rolledUp.merge(node.glAccountId(), own, BalanceTotals::plus);
+            }
+        }
+
+        Map<UUID, List<GlAccountRef>> children = new HashMap<>();
+        List<GlAccountRef> roots = new ArrayList<>();
+        for (GlAccountRef account : accounts.values()) {
+            if (account.parentGlAccountId() != null && accounts.containsKey(account.parentGlAccountId())) {
+                children.computeIfAbsent(account.parentGlAccountId(), k -> new ArrayList<>()).add(account);
+            } else {
+                roots.add(account);
+            }
+        }
+
+        List<TrialBalanceLineDTO> lines = new ArrayList<>(accounts.size());
+        roots.sort(Comparator.comparing(GlAccountRef::accountCode));
+        for (GlAccountRef root : roots) {
+            appendLines(root, 0, accounts, children, balances.totals(), rolledUp, lines);
+        }
+
+        BigDecimal totalDebits = BigDecimal.ZERO;
+        BigDecimal totalCredits = BigDecimal.ZERO;
+        for (TrialBalanceLineDTO line : lines) {
+            totalDebits = totalDebits.add(line.getDebitTotal());
+            totalCredits = totalCredits.add(line.getCreditTotal());
+        }
+        return new TrialBalanceDTO(asOf, balances.snapshotPeriod(), lines, totalDebits, totalCredits,
+                totalDebits.compareTo(totalCredits) == 0);
+    }
+
+    private Balances balancesAsOf(LocalDate asOf, UUID glAccountId) {
+        LocalDate month = asOf.withDayOfMonth(1);
+        LocalDate nextMonth = month.plusMonths(1);
+
+        if (asOf.equals(nextMonth.minusDays(1)) && fiscalPeriodStore.isClosed(month)) {
+            return new Balances(month, fiscalPeriodStore.readClosing(month, glAccountId));
+        }
+
+        // Closing balances of a closed period win over a snapshot of the same month
+        Optional<LocalDate> closed = fiscalPeriodStore.latestClosedBefore(month);
+        Optional<LocalDate> snapshot = balanceSnapshotStore.latestUsableBefore(month)
+                .filter(period -> closed.isEmpty() || period.isAfter(closed.get()));
+        Optional<LocalDate> base = snapshot.or(() -> closed);
+        Map<UUID, BalanceTotals> totals = snapshot.isPresent()
+                ? balanceSnapshotStore.read(snapshot.get(), glAccountId)
+                : closed.map(period -> fiscalPeriodStore.readClosing(period, glAccountId)).orElseGet(HashMap::new);
+
+        LocalDate firstUnsnapshotted = base.map(period -> period.plusMonths(1)).orElse(LEDGER_START);
+        add(totals, accountBalanceStore.sumPeriods(firstUnsnapshotted, month, glAccountId));
+
+        Instant cutoff = asOf.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+        if (asOf.getDayOfMonth() * 2 <= month.lengthOfMonth()) {
+            add(totals, sumEntries(month, month.atStartOfDay(ZoneOffset.UTC).toInstant(), cutoff, glAccountId));
+        } else {
+            add(totals, accountBalanceStore.sumPeriods(month, nextMonth, glAccountId));
+            Map<UUID, BalanceTotals> after = sumEntries(
+                    month, cutoff, nextMonth.atStartOfDay(ZoneOffset.UTC).toInstant(), glAccountId);
+            after.forEach((id, t) -> totals.put(id, totals.getOrDefault(id, BalanceTotals.ZERO).minus(t)));
+        }
+        return new Balances(base.orElse(null), totals);
+    }
+
+    // Postings dated in a month after it was archived stay in the database, so both count
+    private Map<UUID, BalanceTotals> sumEntries(LocalDate month, Instant from, Instant to, UUID glAccountId) {
+        Map<UUID, BalanceTotals> totals = accountBalanceStore.sumEntries(from, to, glAccountId);
+        journalPartitionStore.findArchived(month)
+                .ifPresent(archived -> add(totals, journalArchive.sumEntries(archived, from, to, glAccountId)));
+        return totals;
+    }
+
+    private static void add(Map<UUID, BalanceTotals> totals, Map<UUID, BalanceTotals> delta) {
+        delta.forEach((id, t) -> totals.merge(id, t, BalanceTotals::plus));
+    }
+
+    private static void appendLines(GlAccountRef account, int level, Map<UUID, GlAccountRef> accounts,
+                                    Map<UUID, List<GlAccountRef>> children, Map<UUID, BalanceTotals> totals,
+                                    Map<UUID, BalanceTotals> rolledUp, List<TrialBalanceLineDTO> lines) {
+        BalanceTotals own = totals.getOrDefault(account.glAccountId(), BalanceTotals.ZERO);
+        BalanceTotals subtree = rolledUp.getOrDefault(account.glAccountId(), BalanceTotals.ZERO);
+        GlAccountRef parent = account.parentGlAccountId() == null ? null : accounts.get(account.parentGlAccountId());
+        lines.add(new TrialBalanceLineDTO(account.glAccountId(), account.accountCode(), account.accountName(),
+                account.glAccountTypeId(), parent == null ? null : parent.accountCode(), level,
+                own.debitTotal(), own.creditTotal(), own.balance(),
+                subtree.debitTotal(), subtree.creditTotal(), subtree.balance()));
+
+        List<GlAccountRef> kids = children.getOrDefault(account.glAccountId(), new ArrayList<>());
+        kids.sort(Comparator.comparing(GlAccountRef::accountCode));
+        for (GlAccountRef child : kids) {
+            appendLines(child, level + 1, accounts, children, totals, rolledUp, lines);
+        }
+    }
+
+    private record Balances(LocalDate snapshotPeriod, Map<UUID, BalanceTotals> totals) {
+    }
+}
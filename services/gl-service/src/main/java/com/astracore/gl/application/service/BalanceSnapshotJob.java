@@ -0,0 +1,98 @@
+package com.astracore.gl.application.service;
+
+import com.astracore.gl.infrastructure.persistence.repository.AccountBalanceStore;
+import com.astracore.gl.infrastructure.persistence.repository.BalanceSnapshotStore;
+import com.astracore.tenancy.ShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Takes a month-end balance snapshot for every completed month that lacks one and
+ * rebuilds snapshots flagged stale by backdated postings. A month counts as completed
+ * once {@code gl.balances.snapshot.settle-minutes} have passed since it ended, which
+ * leaves postings that were in flight at midnight time to commit. Runs on every shard.
+ * Safe to run on every instance; rebuilds serialize on each shard's snapshot lock.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "gl.balances.snapshot.enabled", havingValue = "true", matchIfMissing = true)
+public class BalanceSnapshotJob {
+
+    private final BalanceSnapshotStore balanceSnapshotStore;
+    private final AccountBalanceStore accountBalanceStore;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+
+    @Value("${gl.balances.snapshot.settle-minutes:60}")
+    private long settleMinutes;
+
+    public BalanceSnapshotJob(BalanceSnapshotStore balanceSnapshotStore,
+                              AccountBalanceStore accountBalanceStore,
+                              TransactionTemplate transactionTemplate,
+                              ShardRouter shardRouter) {
+        this.balanceSnapshotStore = balanceSnapshotStore;
+        this.accountBalanceStore = accountBalanceStore;
+        this.transactionTemplate = transactionTemplate;
+        this.shardRouter = shardRouter;
+    }
+
+    @Scheduled(cron = "${gl.balances.snapshot.cron:0 15 * * * *}", zone = "UTC")
+    public void run() {
+        for (String shard : shardRouter.shards()) {
+            try {
+                Integer rebuilt = shardRouter.callOnShard(shard,
+                        () -> transactionTemplate.execute(status -> snapshotCompletedMonths()));
+                if (rebuilt != null && rebuilt > 0) {
+                    log.info("Rebuilt {} month-end balance snapshots on shard {}", rebuilt, shard);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Balance snapshot run failed on shard {}: {}", shard, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @return the number of monthly snapshots written
+     */
+    public int snapshotCompletedMonths() {
+        balanceSnapshotStore.lockForRebuild();
+        LocalDate lastCompleted = LocalDate.ofInstant(Instant.now().minus(Duration.ofMinutes(settleMinutes)), ZoneOffset.UTC)
+                .withDayOfMonth(1)
+                .minusMonths(1);
+
+        List<LocalDate> existing = balanceSnapshotStore.snapshotPeriods();
+        LocalDate from = balanceSnapshotStore.earliestStale()
+                .or(() -> existing.isEmpty()
+                        ? accountBalanceStore.earliestPeriod()
+                        : Optional.of(existing.get(existing.size() - 1).plusMonths(1)))
+                .orElse(null);
+        if (from == null) {
+            return 0;
+        }
+
+        LocalDate previous = null;
+        for (LocalDate period : existing) {
+            if (period.isBefore(from)) {
+                previous = period;
+            }
+        }
+        int written = 0;
+        for (LocalDate period = from; !period.isAfter(lastCompleted); period = period.plusMonths(1)) {
+            balanceSnapshotStore.rebuild(period, previous);
+            previous = period;
+            written++;
+        }
+        return written;
+    }
+}
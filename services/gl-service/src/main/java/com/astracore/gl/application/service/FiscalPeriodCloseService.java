@@ -0,0 +1,184 @@
+package com.astracore.gl.application.service;
+
+import com.astracore.gl.application.dto.FiscalPeriodDTO;
+import com.astracore.gl.infrastructure.archive.JournalArchive;
+import com.astracore.gl.infrastructure.persistence.repository.AccountBalanceStore;
+import com.astracore.gl.infrastructure.persistence.repository.BalanceSnapshotStore;
+import com.astracore.gl.infrastructure.persistence.repository.BalanceTotals;
+import com.astracore.gl.infrastructure.persistence.repository.ClosingBalance;
+import com.astracore.gl.infrastructure.persistence.repository.FiscalPeriod;
+import com.astracore.gl.infrastructure.persistence.repository.FiscalPeriodStore;
+import com.astracore.gl.infrastructure.persistence.repository.JournalPartitionStore;
+import com.astracore.tenancy.ShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Closes fiscal periods (calendar months, UTC), freezing each account's closing balance.
+ * <p>
+ * Periods close in order, each once it has ended. A close aggregates the month's journal
+ * entries split by account hash over {@code gl.close.parallelism} workers, each on its
+ * own connection, checks the result against the monthly balances and writes opening,
+ * movement and closing figures per account: opening is the previous period's closing
+ * balance, so balances carry forward without reading older months again. The whole
+ * close holds the snapshot lock exclusively, which keeps backdated postings out until
+ * the period is recorded as closed; from then on postings dated in it are rejected and
+ * its rows cannot be changed. Balance queries use the closing balances as their base.
+ * <p>
+ * The fiscal calendar is per shard: closing a month closes it for every tenant on the
+ * shard of the current tenant.
+ */
+@Slf4j
+@Service
+public class FiscalPeriodCloseService {
+
+    private static final LocalDate LEDGER_START = LocalDate.of(1, 1, 1);
+
+    private final FiscalPeriodStore fiscalPeriodStore;
+    private final AccountBalanceStore accountBalanceStore;
+    private final BalanceSnapshotStore balanceSnapshotStore;
+    private final JournalPartitionStore journalPartitionStore;
+    private final JournalArchive journalArchive;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+
+    @Value("${gl.close.parallelism:4}")
+    private int parallelism;
+
+    public FiscalPeriodCloseService(FiscalPeriodStore fiscalPeriodStore,
+                                    AccountBalanceStore accountBalanceStore,
+                                    BalanceSnapshotStore balanceSnapshotStore,
+                                    JournalPartitionStore journalPartitionStore,
+                                    JournalArchive journalArchive,
+                                    TransactionTemplate transactionTemplate,
+                                    ShardRouter shardRouter) {
+        this.fiscalPeriodStore = fiscalPeriodStore;
+        this.accountBalanceStore = accountBalanceStore;
+        this.balanceSnapshotStore = balanceSnapshotStore;
+        this.journalPartitionStore = journalPartitionStore;
+        this.journalArchive = journalArchive;
+        this.transactionTemplate = transactionTemplate;
+        this.shardRouter = shardRouter;
+    }
+
+    public List<FiscalPeriodDTO> findAll() {
+        return fiscalPeriodStore.findAll().stream().map(FiscalPeriodCloseService::toDTO).toList();
+    }
+
+    /**
+     * Closes {@code month}.
+     *
+     * @throws IllegalArgumentException if the month has not ended, is already closed or
+     *                                  does not follow the last closed period
+     * @throws IllegalStateException    if the journal disagrees with the monthly balances
+     */
+    public FiscalPeriodDTO close(YearMonth month) {
+        LocalDate period = month.atDay(1);
+        if (!period.isBefore(LocalDate.now(ZoneOffset.UTC).withDayOfMonth(1))) {
+            throw new IllegalArgumentException("Fiscal period " + month + " has not ended");
+        }
+        FiscalPeriod closed = transactionTemplate.execute(status -> {
+            balanceSnapshotStore.lockForRebuild();
+            LocalDate previous = fiscalPeriodStore.latestClosed().orElse(null);
+            if (previous != null && !period.isAfter(previous)) {
+                throw new IllegalArgumentException("Fiscal period " + month + " is already closed");
+            }
+            if (previous != null && !period.equals(previous.plusMonths(1))) {
+                throw new IllegalArgumentException("Fiscal period " + YearMonth.from(previous.plusMonths(1))
+                        + " must be closed before " + month);
+            }
+
+            Map<UUID, BalanceTotals> movement = aggregate(period);
+            verify(period, movement);
+            Map<UUID, BalanceTotals> opening = previous != null
+                    ? fiscalPeriodStore.readClosing(previous, null)
+                    : accountBalanceStore.sumPeriods(LEDGER_START, period, null);
+
+            Set<UUID> accounts = new HashSet<>(opening.keySet());
+            accounts.addAll(movement.keySet());
+            List<ClosingBalance> balances = new ArrayList<>(accounts.size());
+            long entries = 0;
+            for (UUID glAccountId : accounts) {
+                BalanceTotals open = opening.getOrDefault(glAccountId, BalanceTotals.ZERO);
+                BalanceTotals moved = movement.getOrDefault(glAccountId, BalanceTotals.ZERO);
+                balances.add(new ClosingBalance(glAccountId, open, moved, open.plus(moved)));
+                entries += moved.entryCount();
+            }
+            fiscalPeriodStore.insertClosed(period, entries, balances);
+            return fiscalPeriodStore.find(period).orElseThrow();
+        });
+        log.info("Closed fiscal period {}: {} accounts, {} entries", month, closed.accountCount(), closed.entryCount());
+        return toDTO(closed);
+    }
+
+    private Map<UUID, BalanceTotals> aggregate(LocalDate period) {
+        int workers = Math.max(1, parallelism);
+        String shard = shardRouter.currentShard();
+        List<Callable<Map<UUID, BalanceTotals>>> buckets = new ArrayList<>(workers);
+        for (int bucket = 0; bucket < workers; bucket++) {
+            int current = bucket;
+            buckets.add(() -> shardRouter.callOnShard(shard,
+                    () -> fiscalPeriodStore.aggregateEntries(period, current, workers)));
+        }
+
+        Map<UUID, BalanceTotals> totals = new HashMap<>();
+        ForkJoinPool pool = new ForkJoinPool(workers);
+        try {
+            for (Future<Map<UUID, BalanceTotals>> result : pool.invokeAll(buckets)) {
+                totals.putAll(result.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while closing fiscal period " + period, e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+
+        journalPartitionStore.findArchived(period).ifPresent(archived -> journalArchive.sumEntries(archived,
+                        period.atStartOfDay(ZoneOffset.UTC).toInstant(),
+                        period.plusMonths(1).atStartOfDay(ZoneOffset.UTC).toInstant(), null)
+                .forEach((id, t) -> totals.merge(id, t, BalanceTotals::plus)));
+        return totals;
+    }
+
+    // The monthly balances are maintained incrementally; a close never freezes figures
+    // the journal does not back
+    private void verify(LocalDate period, Map<UUID, BalanceTotals> movement) {
+        Map<UUID, BalanceTotals> monthly = accountBalanceStore.sumPeriods(period, period.plusMonths(1), null);
+        Set<UUID> accounts = new HashSet<>(monthly.keySet());
+        accounts.addAll(movement.keySet());
+        for (UUID glAccountId : accounts) {
+            BalanceTotals journal = movement.getOrDefault(glAccountId, BalanceTotals.ZERO);
+            BalanceTotals balance = monthly.getOrDefault(glAccountId, BalanceTotals.ZERO);
+            if (journal.debitTotal().compareTo(balance.debitTotal()) != 0
+                    || journal.creditTotal().compareTo(balance.creditTotal()) != 0
+                    || journal.entryCount() != balance.entryCount()) {
+                throw new IllegalStateException("Monthly balances for account " + glAccountId + " in " + period
+                        + " do not match the journal; run a ledger replay before closing");
+            }
+        }
+    }
+
+    private static FiscalPeriodDTO toDTO(FiscalPeriod period) {
+        return new FiscalPeriodDTO(period.periodStart(), period.closedAt(), period.accountCount(), period.entryCount());
+    }
+}
@@ -1,18 +1,29 @@
 package com.astracore.gl.application.service;
 
 import com.astracore.event.InvoiceIssued;
+import com.astracore.event.PaymentReceived;
+import com.astracore.gl.application.posting.PostingPlan;
+import com.astracore.gl.application.posting.PostingRules;
+import com.astracore.gl.application.posting.PostingSource;
+import com.astracore.gl.infrastructure.cache.ChartOfAccountsCache;
+import com.astracore.gl.infrastructure.cache.RecentPostingFilter;
 import com.astracore.gl.infrastructure.persistence.entity.AccountingTransactionEntity;
 import com.astracore.gl.infrastructure.persistence.entity.GeneralLedgerAccountEntity;
-import com.astracore.gl.infrastructure.persistence.entity.TransactionEntryEntity;
-import com.astracore.gl.infrastructure.persistence.repository.AccountingTransactionRepository;
+import com.astracore.gl.infrastructure.persistence.repository.AccountBalanceStore;
+import com.astracore.gl.infrastructure.persistence.repository.FiscalPeriodStore;
 import com.astracore.gl.infrastructure.persistence.repository.GeneralLedgerAccountRepository;
+import com.astracore.gl.infrastructure.persistence.repository.JournalBatchStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
-import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 @Slf4j
@@ -20,73 +31,117 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class GlPostingService {
 
-    private final AccountingTransactionRepository accountingTransactionRepository;
     private final GeneralLedgerAccountRepository generalLedgerAccountRepository;
+    private final JournalBatchStore journalBatchStore;
+    private final ChartOfAccountsCache chartOfAccounts;
+    private final AccountBalanceStore accountBalanceStore;
+    private final RecentPostingFilter recentPostings;
+    private final FiscalPeriodStore fiscalPeriodStore;
+    private final PostingRules postingRules;
 
-    private static final String TX_TYPE_SALES_INVOICE = "SALES_INVOICE";
-
+    /**
+     * Posts one invoice unless it has been posted before.
+     */
     @Transactional
     public void postInvoice(InvoiceIssued event) {
-        if (event.getTotalAmount() == null) {
-            log.warn("Skipping GL posting for invoice {} because totalAmount is null", event.getInvoiceId());
-            return;
-        }
+        post(PostingSource.INVOICE_ISSUED, List.of(PostingSource.of(event)));
+    }
 
-        BigDecimal amount = event.getTotalAmount();
+    /**
+     * Posts a batch of invoices in one transaction, writing all transactions and entries
+     * with JDBC batch inserts. Accounts are resolved once per batch. Any failure rolls back
+     * the whole batch; callers isolate bad events by falling back to {@link #postInvoice}.
+     *
+     * @return the number of transactions posted
+     */
+    @Transactional
+    public int postInvoices(List<InvoiceIssued> events) {
+        List<PostingSource> sources = new ArrayList<>(events.size());
+        for (InvoiceIssued event : events) {
+            sources.add(PostingSource.of(event));
+        }
+        return post(PostingSource.INVOICE_ISSUED, sources);
+    }
 
-        // Resolve or create GL accounts
-        GeneralLedgerAccountEntity arAccount = getOrCreateAccount(
-                "AR",
-                "Accounts Receivable",
-                "ASSET"
-        );
+    /**
+     * Posts one payment unless it has been posted before.
+     */
+    @Transactional
+    public void postPayment(PaymentReceived event) {
+        post(PostingSource.PAYMENT_RECEIVED, List.of(PostingSource.of(event)));
+    }
 
-        GeneralLedgerAccountEntity revenueAccount = getOrCreateAccount(
-                "REV",
-                "Revenue",
-                "REVENUE"
-        );
+    /**
+     * Posts a batch of payments in one transaction, like {@link #postInvoices}.
+     *
+     * @return the number of transactions posted
+     */
+    @Transactional
+    public int postPayments(List<PaymentReceived> events) {
+        List<PostingSource> sources = new ArrayList<>(events.size());
+        for (PaymentReceived event : events) {
+            sources.add(PostingSource.of(event));
+        }
+        return post(PostingSource.PAYMENT_RECEIVED, sources);
+    }
 
-        // Build transaction
-        AccountingTransactionEntity tx = new AccountingTransactionEntity();
-        tx.setTransactionId(UUID.randomUUID());
-        tx.setTransactionDate(event.getIssueDate() != null ? event.getIssueDate().atStartOfDay().toInstant(java.time.ZoneOffset.UTC) : Instant.now());
-        tx.setEntryDate(Instant.now());
-        tx.setDescription("Invoice " + event.getInvoiceId());
-        tx.setTransactionType(TX_TYPE_SALES_INVOICE);
-        tx.setPosted(true);
+    // The event type's posting rule and its accounts are looked up once for the batch.
+    // Documents already posted are skipped: recently seen ones in memory, the rest by the
+    // posted source document registry, so redelivered events are harmless
+    private int post(String eventType, List<PostingSource> sources) {
+        PostingPlan plan = postingRules.plan(eventType);
+        List<PostingPlan.Line> lines = plan.lines();
+        GeneralLedgerAccountEntity[] accounts = new GeneralLedgerAccountEntity[lines.size()];
+        for (int i = 0; i < accounts.length; i++) {
+            PostingPlan.Line line = lines.get(i);
+            accounts[i] = getOrCreateAccount(line.accountCode(), line.accountName(), line.glAccountTypeId());
+        }
 
-        // Debit AR
-        TransactionEntryEntity debit = new TransactionEntryEntity();
-        debit.setTransactionEntryId(UUID.randomUUID());
-        debit.setGlAccount(arAccount);
-        debit.setAmount(amount);
-        debit.setDebitCreditFlag("D");
-        debit.setDescription("AR for invoice " + event.getInvoiceId());
-        tx.addEntry(debit);
+        List<AccountingTransactionEntity> transactions = new ArrayList<>(sources.size());
+        Set<String> documentKeys = new LinkedHashSet<>();
+        for (PostingSource source : sources) {
+            if (source.amount() == null) {
+                log.warn("Skipping GL posting for {} {} because its amount is null",
+                        source.documentType(), source.documentId());
+                continue;
+            }
+            if (source.documentId() != null) {
+                String key = RecentPostingFilter.key(source.documentType(), source.documentId());
+                if (recentPostings.isPosted(key) || !documentKeys.add(key)) {
+                    log.debug("Skipping {} {}: already posted", source.documentType(), source.documentId());
+                    continue;
+                }
+            }
+            transactions.add(plan.newTransaction(source, accounts));
+        }
 
-        // Credit Revenue
-        TransactionEntryEntity credit = new TransactionEntryEntity();
-        credit.setTransactionEntryId(UUID.randomUUID());
-        credit.setGlAccount(revenueAccount);
-        credit.setAmount(amount);
-        credit.setDebitCreditFlag("C");
-        credit.setDescription("Revenue for invoice " + event.getInvoiceId());
-        tx.addEntry(credit);
+        List<AccountingTransactionEntity> inserted = journalBatchStore.insert(transactions);
+        if (inserted.size() < transactions.size()) {
+            recentPostings.recordDatabaseDuplicates(transactions.size() - inserted.size());
+            log.info("Skipped {} {} events already posted by an earlier delivery", transactions.size() - inserted.size(), eventType);
+        }
+        requireOpenPeriods(inserted);
+        accountBalanceStore.addEntries(inserted);
+        recentPostings.markPostedAfterCommit(documentKeys);
+        log.info("Posted {} GL transactions for {} {} events", inserted.size(), sources.size(), eventType);
+        return inserted.size();
+    }
 
-        accountingTransactionRepository.save(tx);
-        log.info("Posted GL transaction {} for invoice {} with amount {}", tx.getTransactionId(), event.getInvoiceId(), amount);
+    // Runs after the insert so redeliveries into a closed period are skipped as duplicates
+    // rather than rejected; a rejection rolls the insert back. Current-month postings
+    // cannot reach a closed period, so only backdated ones are checked
+    private void requireOpenPeriods(List<AccountingTransactionEntity> transactions) {
+        LocalDate currentMonth = LocalDate.now(ZoneOffset.UTC).withDayOfMonth(1);
+        transactions.stream()
+                .map(AccountBalanceStore::periodStart)
+                .filter(currentMonth::isAfter)
+                .min(LocalDate::compareTo)
+                .ifPresent(fiscalPeriodStore::requireOpen);
     }
 
     private GeneralLedgerAccountEntity getOrCreateAccount(String accountCode, String name, String typeId) {
-        return generalLedgerAccountRepository.findByAccountCode(accountCode)
-                .orElseGet(() -> {
-                    GeneralLedgerAccountEntity entity = new GeneralLedgerAccountEntity();
-                    entity.setGlAccountId(UUID.randomUUID());
-                    entity.setAccountCode(accountCode);
-                    entity.setAccountName(name);
-                    entity.setGlAccountTypeId(typeId);
-                    return generalLedgerAccountRepository.save(entity);
-                });
+        // Served from the in-memory chart; getReferenceById hands out a proxy without a query
+        UUID glAccountId = chartOfAccounts.getOrCreate(accountCode, name, typeId).glAccountId();
+        return generalLedgerAccountRepository.getReferenceById(glAccountId);
     }
 }
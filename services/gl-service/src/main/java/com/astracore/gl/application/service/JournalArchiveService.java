@@ -0,0 +1,126 @@
+package com.astracore.gl.application.service;
+
+import com.astracore.gl.infrastructure.archive.JournalArchive;
+import com.astracore.gl.infrastructure.persistence.repository.ArchivedPeriod;
+import com.astracore.gl.infrastructure.persistence.repository.FiscalPeriodStore;
+import com.astracore.gl.infrastructure.persistence.repository.JournalPartitionStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Lifecycle of the monthly journal partitions: creates them ahead of time and moves
+ * closed months out of the database.
+ * <p>
+ * A month is archived once its fiscal period is closed and it is more than
+ * {@code gl.archive.retain-months} old. Archiving exports the month's partitions to files while they are still attached, then
+ * detaches and drops them in one short transaction. Only that transaction holds the
+ * exclusive lock on the journal tables; if a backdated posting reached the month during
+ * the export, the detached partition is exported again before it is dropped. Balances
+ * stay correct because they come from snapshots and per-month totals, and the few reads
+ * that need entries of an archived month fall back to its files.
+ */
+@Slf4j
+@Service
+public class JournalArchiveService {
+
+    private final JournalPartitionStore journalPartitionStore;
+    private final JournalArchive journalArchive;
+    private final FiscalPeriodStore fiscalPeriodStore;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${gl.partitions.premake-months:3}")
+    private int premakeMonths;
+
+    @Value("${gl.archive.retain-months:24}")
+    private int retainMonths;
+
+    public JournalArchiveService(JournalPartitionStore journalPartitionStore,
+                                 JournalArchive journalArchive,
+                                 FiscalPeriodStore fiscalPeriodStore,
+                                 TransactionTemplate transactionTemplate) {
+        this.journalPartitionStore = journalPartitionStore;
+        this.journalArchive = journalArchive;
+        this.fiscalPeriodStore = fiscalPeriodStore;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * @return the number of partitions created for the current month and the next
+     *         {@code gl.partitions.premake-months}
+     */
+    public int ensureUpcomingPartitions() {
+        LocalDate month = currentMonth();
+        int created = 0;
+        for (int i = 0; i <= premakeMonths; i++) {
+            LocalDate period = month.plusMonths(i);
+            Integer count = transactionTemplate.execute(status -> journalPartitionStore.ensureMonthlyPartition(period));
+            created += count == null ? 0 : count;
+        }
+        return created;
+    }
+
+    /**
+     * Archives every closed month older than {@code gl.archive.retain-months}, oldest first.
+     */
+    public List<ArchivedPeriod> archiveClosedMonths() {
+        Optional<LocalDate> latestClosed = fiscalPeriodStore.latestClosed();
+        if (latestClosed.isEmpty()) {
+            return List.of();
+        }
+        LocalDate before = currentMonth().minusMonths(retainMonths);
+        if (latestClosed.get().isBefore(before)) {
+            before = latestClosed.get().plusMonths(1);
+        }
+        List<ArchivedPeriod> archived = new ArrayList<>();
+        for (LocalDate period : journalPartitionStore.unarchivedPeriodsBefore(before)) {
+            archived.add(archiveMonth(period));
+        }
+        return archived;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the month's fiscal period is not closed
+     */
+    public ArchivedPeriod archiveMonth(LocalDate month) {
+        LocalDate period = month.withDayOfMonth(1);
+        if (!fiscalPeriodStore.isClosed(period)) {
+            throw new IllegalArgumentException("Only closed fiscal periods can be archived: " + period);
+        }
+        Optional<ArchivedPeriod> existing = journalPartitionStore.findArchived(period);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+        // Gives the month its own partitions, moving its rows out of the default partition
+        transactionTemplate.executeWithoutResult(status -> journalPartitionStore.ensureMonthlyPartition(period));
+
+        ArchivedPeriod exported = journalArchive.export(period);
+        ArchivedPeriod archived = transactionTemplate.execute(status -> {
+            journalPartitionStore.lock();
+            return journalPartitionStore.findArchived(period).orElseGet(() -> {
+                journalPartitionStore.detach(period);
+                ArchivedPeriod result = exported;
+                if (journalPartitionStore.count("accounting_transaction", period) != exported.transactionCount()
+                        || journalPartitionStore.count("transaction_entry", period) != exported.entryCount()) {
+                    result = journalArchive.export(period);
+                }
+                journalPartitionStore.markArchived(result);
+                return result;
+            });
+        });
+        log.info("Archived GL journal for {}: {} transactions, {} entries in {}", period,
+                archived.transactionCount(), archived.entryCount(), archived.entryFile().getParent());
+        return archived;
+    }
+
+    private static LocalDate currentMonth() {
+        return LocalDate.now(ZoneOffset.UTC).withDayOfMonth(1);
+    }
+}
@@ -0,0 +1,340 @@
+package com.astracore.gl.application.service;
+
+import com.astracore.gl.application.dto.JournalImportDTO;
+import com.astracore.gl.infrastructure.importing.JournalFileReader;
+import com.astracore.gl.infrastructure.importing.JournalFileReader.Column;
+import com.astracore.gl.infrastructure.persistence.repository.AccountBalanceStore;
+import com.astracore.gl.infrastructure.persistence.repository.FiscalPeriodStore;
+import com.astracore.gl.infrastructure.persistence.repository.JournalImportStore;
+import com.astracore.gl.infrastructure.persistence.repository.JournalPartitionStore;
+import com.astracore.tenancy.ShardRouter;
+import com.astracore.tenancy.TenantContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Imports historical journals in bulk from a CSV or NDJSON file (see
+ * {@link JournalFileReader}), one line per entry with each transaction's entries on
+ * consecutive lines.
+ * <p>
+ * The file is read once, as it arrives: each line is checked and streamed into a COPY,
+ * and each transaction's debits must equal its credits by the time its last line is
+ * read. Every {@code gl.import.chunk-size} entries or so, at a transaction boundary, the
+ * copied entries are merged into the journal and the monthly balances by one set-based
+ * statement and committed, so memory stays flat however large the file. Accounts must
+ * already exist in the tenant's chart.
+ * <p>
+ * Transactions are posted once per source document, {@value #DEFAULT_SOURCE_DOCUMENT_TYPE}
+ * and the transaction reference unless the file names one. A file that fails part way
+ * leaves its earlier chunks committed; importing the corrected file again skips them.
+ */
+@Slf4j
+@Service
+public class JournalImportService {
+
+    static final String DEFAULT_SOURCE_DOCUMENT_TYPE = "JOURNAL_IMPORT";
+    static final String DEFAULT_TRANSACTION_TYPE = "JOURNAL";
+
+    private final JournalImportStore journalImportStore;
+    private final FiscalPeriodStore fiscalPeriodStore;
+    private final AccountBalanceStore accountBalanceStore;
+    private final JournalPartitionStore journalPartitionStore;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate requiresNewTransaction;
+
+    @Value("${gl.import.chunk-size:200000}")
+    private int chunkSize;
+
+    public JournalImportService(JournalImportStore journalImportStore,
+                                FiscalPeriodStore fiscalPeriodStore,
+                                AccountBalanceStore accountBalanceStore,
+                                JournalPartitionStore journalPartitionStore,
+                                ShardRouter shardRouter,
+                                TransactionTemplate transactionTemplate,
+                                PlatformTransactionManager transactionManager) {
+        this.journalImportStore = journalImportStore;
+        this.fiscalPeriodStore = fiscalPeriodStore;
+        this.accountBalanceStore = accountBalanceStore;
+        this.journalPartitionStore = journalPartitionStore;
+        this.shardRouter = shardRouter;
+        this.transactionTemplate = transactionTemplate;
+        this.requiresNewTransaction = new TransactionTemplate(transactionManager);
+        // Partitions are created outside a chunk so their locks are not held while it merges
+        this.requiresNewTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Imports {@code in} for the current tenant.
+     *
+     * @param format {@code csv} or {@code ndjson}
+     * @throws IllegalArgumentException naming the offending line if the file is invalid
+     */
+    public JournalImportDTO importJournal(InputStream in, String format) {
+        String tenantId = TenantContext.current();
+        String shard = shardRouter.currentShard();
+        Import run = new Import();
+        try (JournalFileReader reader = JournalFileReader.open(in, format)) {
+            Cursor cursor = new Cursor(reader);
+            while (cursor.fields != null) {
+                if (!shardRouter.shardFor(tenantId).equals(shard)) {
+                    throw new IllegalStateException("Tenant " + tenantId + " moved to another shard during the import; "
+                            + run.transactionsImported + " transactions were imported, import the file again to finish");
+                }
+                shardRouter.runOnShard(shard, () -> transactionTemplate.executeWithoutResult(
+                        status -> importChunk(cursor, tenantId, run)));
+            }
+        } catch (IllegalArgumentException e) {
+            if (run.chunks == 0) {
+                throw e;
+            }
+            throw new IllegalArgumentException(e.getMessage() + " (" + run.transactionsImported
+                    + " transactions before it were imported; importing the corrected file again skips them)", e);
+        }
+        log.info("Imported {} of {} journal transactions ({} entries) in {} chunks in {} ms ({} entries/s)",
+                run.transactionsImported, run.transactionsRead, run.entriesImported, run.chunks,
+                run.elapsedMillis(), run.entriesPerSecond());
+        return run.toDTO();
+    }
+
+    // Stages and merges whole transactions from the cursor until about chunkSize entries;
+    // leaves the cursor on the first entry of the next transaction
+    private void importChunk(Cursor cursor, String tenantId, Import run) {
+        Chunk chunk = new Chunk();
+        JournalImportStore.Staging staging = journalImportStore.openStaging();
+        try {
+            while (cursor.fields != null) {
+                String[] fields = cursor.fields;
+                String ref = text(fields, Column.TRANSACTION_REF, 100, cursor.line);
+                if (!ref.equals(chunk.ref)) {
+                    if (chunk.ref != null) {
+                        chunk.requireBalanced();
+                        if (chunk.entries >= chunkSize) {
+                            break;
+                        }
+                    }
+                    chunk.begin(ref, cursor.line, transactionDate(fields, cursor.line));
+                } else if (!transactionDate(fields, cursor.line).equals(chunk.date)) {
+                    throw new IllegalArgumentException("Line " + cursor.line + ": transaction_date differs from line "
+                            + chunk.firstLine + " of transaction " + ref);
+                }
+                stage(staging, chunk, fields, cursor.line);
+                cursor.advance();
+            }
+            chunk.requireBalanced();
+            staging.finish();
+        } catch (RuntimeException e) {
+            staging.cancel();
+            throw e;
+        }
+
+        journalImportStore.findRepeatedDocument().ifPresent(document -> {
+            throw new IllegalArgumentException("Source document " + document + " belongs to more than one transaction;"
+                    + " each transaction's entries must be on consecutive lines");
+        });
+        List<String> unknown = journalImportStore.findUnknownAccounts(tenantId);
+        if (!unknown.isEmpty()) {
+            throw new IllegalArgumentException("Unknown account codes: " + String.join(", ", unknown));
+        }
+        for (LocalDate month : chunk.months) {
+            if (run.partitionedMonths.add(month)) {
+                requiresNewTransaction.executeWithoutResult(status -> journalPartitionStore.ensureMonthlyPartition(month));
+            }
+        }
+
+        JournalImportStore.MergeResult merged = journalImportStore.merge(tenantId);
+        // As with posting, only transactions actually merged are checked against closed
+        // periods, so re-importing a file that reaches into one since closed still skips
+        if (merged.earliestPeriod() != null
+                && merged.earliestPeriod().isBefore(LocalDate.now(ZoneOffset.UTC).withDayOfMonth(1))) {
+            fiscalPeriodStore.requireOpen(merged.earliestPeriod());
+            accountBalanceStore.markSnapshotsStale(merged.earliestPeriod());
+        }
+        run.chunkDone(chunk, merged);
+        log.debug("Journal import chunk {}: {} of {} transactions merged, {} entries", run.chunks,
+                merged.transactions(), chunk.transactions, merged.entries());
+    }
+
+    private static void stage(JournalImportStore.Staging staging, Chunk chunk, String[] fields, long line) {
+        String flag = fields[Column.DEBIT_CREDIT_FLAG.ordinal()].toUpperCase();
+        if (!flag.equals("D") && !flag.equals("C")) {
+            throw new IllegalArgumentException("Line " + line + ": debit_credit_flag must be D or C");
+        }
+        BigDecimal amount = amount(fields[Column.AMOUNT.ordinal()], line);
+        long cents = amount.unscaledValue().longValueExact();
+        if (flag.equals("D")) {
+            chunk.debitCents = Math.addExact(chunk.debitCents, cents);
+        } else {
+            chunk.creditCents = Math.addExact(chunk.creditCents, cents);
+        }
+
+        boolean first = chunk.transactionEntries == 0;
+        String sourceDocumentId = text(fields, Column.SOURCE_DOCUMENT_ID, 100, line);
+        staging.add(line, first, chunk.transactionId, chunk.date,
+                orDefault(text(fields, Column.TRANSACTION_TYPE, 50, line), DEFAULT_TRANSACTION_TYPE),
+                text(fields, Column.DESCRIPTION, 500, line),
+                orDefault(text(fields, Column.SOURCE_DOCUMENT_TYPE, 50, line), DEFAULT_SOURCE_DOCUMENT_TYPE),
+                orDefault(sourceDocumentId, chunk.ref),
+                UUID.randomUUID(),
+                text(fields, Column.ACCOUNT_CODE, 50, line),
+                flag,
+                amount,
+                text(fields, Column.ENTRY_DESCRIPTION, 500, line));
+        chunk.transactionEntries++;
+        chunk.entries++;
+    }
+
+    private static String text(String[] fields, Column column, int maxLength, long line) {
+        String value = fields[column.ordinal()];
+        if (value != null && value.length() > maxLength) {
+            throw new IllegalArgumentException("Line " + line + ": " + column.name().toLowerCase()
+                    + " is longer than " + maxLength + " characters");
+        }
+        return value;
+    }
+
+    private static String orDefault(String value, String defaultValue) {
+        return value != null ? value : defaultValue;
+    }
+
+    // Positive, at most two decimal places and within DECIMAL(18, 2)
+    private static BigDecimal amount(String text, long line) {
+        BigDecimal amount;
+        try {
+            amount = new BigDecimal(text.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Line " + line + ": amount '" + text + "' is not a number");
+        }
+        if (amount.signum() <= 0) {
+            throw new IllegalArgumentException("Line " + line + ": amount must be positive");
+        }
+        try {
+            amount = amount.setScale(2, RoundingMode.UNNECESSARY);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Line " + line + ": amount has more than two decimal places");
+        }
+        if (amount.precision() > 18) {
+            throw new IllegalArgumentException("Line " + line + ": amount is too large");
+        }
+        return amount;
+    }
+
+    // An ISO date is the start of that day in UTC; otherwise an ISO date-time with offset
+    private static Instant transactionDate(String[] fields, long line) {
+        String text = fields[Column.TRANSACTION_DATE.ordinal()].trim();
+        try {
+            return text.length() == 10
+                    ? LocalDate.parse(text).atStartOfDay(ZoneOffset.UTC).toInstant()
+                    : OffsetDateTime.parse(text).toInstant();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Line " + line + ": transaction_date '" + text
+                    + "' is not an ISO date or date-time");
+        }
+    }
+
+    /**
+     * The entry to stage next, which stays put between chunks.
+     */
+    private static final class Cursor {
+
+        private final JournalFileReader reader;
+        private String[] fields;
+        private long line;
+
+        private Cursor(JournalFileReader reader) {
+            this.reader = reader;
+            advance();
+        }
+
+        void advance() {
+            fields = reader.next();
+            line = reader.line();
+        }
+    }
+
+    /**
+     * The chunk being staged and its current transaction.
+     */
+    private static final class Chunk {
+
+        private final Set<LocalDate> months = new TreeSet<>();
+        private long transactions;
+        private long entries;
+        private String ref;
+        private long firstLine;
+        private UUID transactionId;
+        private Instant date;
+        private int transactionEntries;
+        private long debitCents;
+        private long creditCents;
+
+        void begin(String transactionRef, long line, Instant transactionDate) {
+            ref = transactionRef;
+            firstLine = line;
+            transactionId = UUID.randomUUID();
+            date = transactionDate;
+            transactionEntries = 0;
+            debitCents = 0;
+            creditCents = 0;
+            transactions++;
+            months.add(LocalDate.ofInstant(transactionDate, ZoneOffset.UTC).withDayOfMonth(1));
+        }
+
+        void requireBalanced() {
+            if (ref != null && debitCents != creditCents) {
+                throw new IllegalArgumentException("Line " + firstLine + ": transaction " + ref + " does not balance: debits "
+                        + BigDecimal.valueOf(debitCents, 2) + ", credits " + BigDecimal.valueOf(creditCents, 2));
+            }
+        }
+    }
+
+    private static final class Import {
+
+        private final long startedAt = System.nanoTime();
+        private final Set<LocalDate> partitionedMonths = new HashSet<>();
+        private int chunks;
+        private long transactionsRead;
+        private long entriesRead;
+        private long transactionsImported;
+        private long entriesImported;
+
+        void chunkDone(Chunk chunk, JournalImportStore.MergeResult merged) {
+            chunks++;
+            transactionsRead += chunk.transactions;
+            entriesRead += chunk.entries;
+            transactionsImported += merged.transactions();
+            entriesImported += merged.entries();
+        }
+
+        long elapsedMillis() {
+            return Math.max(1, (System.nanoTime() - startedAt) / 1_000_000);
+        }
+
+        long entriesPerSecond() {
+            return entriesRead * 1000 / elapsedMillis();
+        }
+
+        JournalImportDTO toDTO() {
+            return new JournalImportDTO(transactionsRead, entriesRead, transactionsImported, entriesImported,
+                    transactionsRead - transactionsImported, chunks, elapsedMillis(), entriesPerSecond());
+        }
+    }
+}
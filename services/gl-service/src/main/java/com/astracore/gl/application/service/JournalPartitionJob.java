@@ -0,0 +1,69 @@
+package com.astracore.gl.application.service;
+
+import com.astracore.gl.infrastructure.persistence.repository.ArchivedPeriod;
+import com.astracore.tenancy.ShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Creates upcoming journal partitions on startup and daily, and archives closed months
+ * when {@code gl.archive.enabled} is set, on every shard. Safe to run on every instance;
+ * maintenance serializes on each shard's partition lock.
+ */
+@Slf4j
+@Component
+public class JournalPartitionJob {
+
+    private final JournalArchiveService journalArchiveService;
+    private final ShardRouter shardRouter;
+
+    @Value("${gl.archive.enabled:false}")
+    private boolean archiveEnabled;
+
+    public JournalPartitionJob(JournalArchiveService journalArchiveService, ShardRouter shardRouter) {
+        this.journalArchiveService = journalArchiveService;
+        this.shardRouter = shardRouter;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        for (String shard : shardRouter.shards()) {
+            shardRouter.runOnShard(shard, () -> createUpcomingPartitions(shard));
+        }
+    }
+
+    @Scheduled(cron = "${gl.partitions.cron:0 5 0 * * *}", zone = "UTC")
+    public void run() {
+        for (String shard : shardRouter.shards()) {
+            try {
+                shardRouter.runOnShard(shard, () -> maintain(shard));
+            } catch (RuntimeException e) {
+                // One unreachable shard must not hold back the others
+                log.warn("GL journal maintenance failed on shard {}: {}", shard, e.getMessage());
+            }
+        }
+    }
+
+    private void maintain(String shard) {
+        createUpcomingPartitions(shard);
+        if (archiveEnabled) {
+            List<ArchivedPeriod> archived = journalArchiveService.archiveClosedMonths();
+            if (!archived.isEmpty()) {
+                log.info("Archived {} closed months of GL journal on shard {}", archived.size(), shard);
+            }
+        }
+    }
+
+    private void createUpcomingPartitions(String shard) {
+        int created = journalArchiveService.ensureUpcomingPartitions();
+        if (created > 0) {
+            log.info("Created {} GL journal partitions on shard {}", created, shard);
+        }
+    }
+}
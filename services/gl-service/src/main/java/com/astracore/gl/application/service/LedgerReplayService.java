@@ -0,0 +1,278 @@
+package com.astracore.gl.application.service;
+
+import com.astracore.gl.application.dto.LedgerReplayDTO;
+import com.astracore.gl.infrastructure.archive.JournalArchive;
+import com.astracore.gl.infrastructure.persistence.repository.ArchivedPeriod;
+import com.astracore.gl.infrastructure.persistence.repository.BalanceReplayStore;
+import com.astracore.gl.infrastructure.persistence.repository.BalanceSnapshotStore;
+import com.astracore.gl.infrastructure.persistence.repository.BalanceTotals;
+import com.astracore.gl.infrastructure.persistence.repository.JournalPartitionStore;
+import com.astracore.tenancy.ShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rebuilds the monthly account balances ({@code account_balance_shard}) from the journal,
+ * e.g. after a projection change or a posting bug fix.
+ * <p>
+ * The months to replay are split recursively across a fork-join pool of
+ * {@code gl.replay.parallelism} workers (0 means one per core). Each month is one
+ * set-based aggregation over its own journal partition, plus the archive files for
+ * archived months, so the work scales with the number of months and cores rather than
+ * moving entries through the service. Results go to a shadow table that is swapped in
+ * atomically; postings keep running meanwhile and the months they touch are aggregated
+ * again before and during the swap. Month-end snapshots are invalidated by the swap and
+ * rebuilt straight after when the snapshot job is enabled. A replay rebuilds the shard
+ * of the current tenant; one runs at a time per shard and instance, and progress is
+ * available from {@link #latest()}.
+ */
+@Slf4j
+@Service
+public class LedgerReplayService {
+
+    // A posting that started this long before a catch-up pass and committed after it is
+    // still picked up; postings are far shorter than this
+    private static final Duration CATCH_UP_MARGIN = Duration.ofMinutes(10);
+
+    private final BalanceReplayStore balanceReplayStore;
+    private final BalanceSnapshotStore balanceSnapshotStore;
+    private final JournalPartitionStore journalPartitionStore;
+    private final JournalArchive journalArchive;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectProvider<BalanceSnapshotJob> balanceSnapshotJob;
+    private final ShardRouter shardRouter;
+    private final Map<String, Replay> latest = new ConcurrentHashMap<>();
+
+    @Value("${gl.replay.parallelism:0}")
+    private int parallelism;
+
+    public LedgerReplayService(BalanceReplayStore balanceReplayStore,
+                               BalanceSnapshotStore balanceSnapshotStore,
+                               JournalPartitionStore journalPartitionStore,
+                               JournalArchive journalArchive,
+                               TransactionTemplate transactionTemplate,
+                               ObjectProvider<BalanceSnapshotJob> balanceSnapshotJob,
+                               ShardRouter shardRouter) {
+        this.balanceReplayStore = balanceReplayStore;
+        this.balanceSnapshotStore = balanceSnapshotStore;
+        this.journalPartitionStore = journalPartitionStore;
+        this.journalArchive = journalArchive;
+        this.transactionTemplate = transactionTemplate;
+        this.balanceSnapshotJob = balanceSnapshotJob;
+        this.shardRouter = shardRouter;
+    }
+
+    /**
+     * Starts a replay on a background thread.
+     */
+    public LedgerReplayDTO start() {
+        Replay replay = claim();
+        Thread worker = new Thread(() -> {
+            try {
+                shardRouter.runOnShard(replay.shard, () -> run(replay));
+            } catch (RuntimeException e) {
+                log.error("Ledger replay {} failed", replay.id, e);
+            }
+        }, "gl-ledger-replay");
+        worker.setDaemon(true);
+        worker.start();
+        return replay.toDTO();
+    }
+
+    /**
+     * Runs a replay on the calling thread.
+     */
+    public LedgerReplayDTO replay() {
+        Replay replay = claim();
+        run(replay);
+        return replay.toDTO();
+    }
+
+    public Optional<LedgerReplayDTO> latest() {
+        return Optional.ofNullable(latest.get(shardRouter.currentShard())).map(Replay::toDTO);
+    }
+
+    private Replay claim() {
+        Replay replay = new Replay(shardRouter.currentShard());
+        Replay previous = latest.get(replay.shard);
+        boolean claimed = previous == null
+                ? latest.putIfAbsent(replay.shard, replay) == null
+                : !previous.isActive() && latest.replace(replay.shard, previous, replay);
+        if (!claimed) {
+            throw new IllegalStateException("A ledger replay is already running on shard " + replay.shard);
+        }
+        return replay;
+    }
+
+    private void run(Replay replay) {
+        try {
+            Instant touchedSince = balanceReplayStore.databaseNow().minus(CATCH_UP_MARGIN);
+            balanceReplayStore.createShadow();
+
+            Map<LocalDate, ArchivedPeriod> archived = new HashMap<>();
+            for (ArchivedPeriod period : journalPartitionStore.findAllArchived()) {
+                archived.put(period.periodStart(), period);
+            }
+            TreeSet<LocalDate> periods = new TreeSet<>(balanceReplayStore.journalPeriods());
+            periods.addAll(archived.keySet());
+            List<LocalDate> months = new ArrayList<>(periods);
+            replay.totalPeriods = months.size();
+            log.info("Ledger replay {} started: {} months", replay.id, months.size());
+
+            int workers = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+            ForkJoinPool pool = new ForkJoinPool(workers);
+            try {
+                if (!months.isEmpty()) {
+                    pool.invoke(new MonthRange(replay, months, archived, 0, months.size()));
+                }
+            } finally {
+                pool.shutdown();
+            }
+            balanceReplayStore.indexShadow();
+
+            // Catch up without blocking postings, then once more under the swap lock
+            replay.status = "CATCHING_UP";
+            Instant nextTouchedSince = balanceReplayStore.databaseNow().minus(CATCH_UP_MARGIN);
+            balanceReplayStore.periodsTouchedSince(touchedSince).forEach(balanceReplayStore::reaggregateMonth);
+            Instant finalTouchedSince = nextTouchedSince;
+
+            replay.status = "SWAPPING";
+            transactionTemplate.executeWithoutResult(status -> {
+                balanceSnapshotStore.lockForRebuild();
+                balanceReplayStore.lockLive();
+                balanceReplayStore.periodsTouchedSince(finalTouchedSince).forEach(balanceReplayStore::reaggregateMonth);
+                balanceReplayStore.swap();
+                balanceSnapshotStore.markAllStale();
+            });
+            replay.finish("COMPLETED", null);
+            log.info("Ledger replay {} completed: {} months, {} entries in {} ms ({} entries/s)", replay.id,
+                    replay.completedPeriods.get(), replay.entries.get(), replay.elapsedMillis(), replay.entriesPerSecond());
+        } catch (RuntimeException e) {
+            replay.finish("FAILED", e.getMessage());
+            try {
+                balanceReplayStore.dropShadow();
+            } catch (RuntimeException cleanup) {
+                e.addSuppressed(cleanup);
+            }
+            throw e;
+        }
+
+        balanceSnapshotJob.ifAvailable(job -> transactionTemplate.execute(status -> job.snapshotCompletedMonths()));
+    }
+
+    private long replayMonth(LocalDate period, ArchivedPeriod archived) {
+        long entries = balanceReplayStore.aggregateMonth(period);
+        if (archived != null) {
+            Map<UUID, BalanceTotals> totals = journalArchive.sumEntries(archived,
+                    period.atStartOfDay(ZoneOffset.UTC).toInstant(),
+                    period.plusMonths(1).atStartOfDay(ZoneOffset.UTC).toInstant(), null);
+            balanceReplayStore.insertTotals(period, BalanceReplayStore.ARCHIVE_SHARD, totals);
+            entries += totals.values().stream().mapToLong(BalanceTotals::entryCount).sum();
+        }
+        return entries;
+    }
+
+    /**
+     * Months {@code [from, to)} of {@code months}, halved until one month per task.
+     */
+    private final class MonthRange extends RecursiveAction {
+
+        private final Replay replay;
+        private final List<LocalDate> months;
+        private final Map<LocalDate, ArchivedPeriod> archived;
+        private final int from;
+        private final int to;
+
+        private MonthRange(Replay replay, List<LocalDate> months, Map<LocalDate, ArchivedPeriod> archived,
+                           int from, int to) {
+            this.replay = replay;
+            this.months = months;
+            this.archived = archived;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                LocalDate period = months.get(from);
+                // Pool threads start without a shard; bind the replay's
+                shardRouter.runOnShard(replay.shard, () -> replay.periodDone(replayMonth(period, archived.get(period))));
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new MonthRange(replay, months, archived, from, middle),
+                    new MonthRange(replay, months, archived, middle, to));
+        }
+    }
+
+    private static final class Replay {
+
+        private final UUID id = UUID.randomUUID();
+        private final String shard;
+        private final Instant startedAt = Instant.now();
+        private final AtomicInteger completedPeriods = new AtomicInteger();
+        private final AtomicLong entries = new AtomicLong();
+        private volatile int totalPeriods;
+        private volatile String status = "RUNNING";
+        private volatile Instant finishedAt;
+        private volatile String error;
+
+        private Replay(String shard) {
+            this.shard = shard;
+        }
+
+        boolean isActive() {
+            return finishedAt == null;
+        }
+
+        void periodDone(long periodEntries) {
+            int done = completedPeriods.incrementAndGet();
+            long total = entries.addAndGet(periodEntries);
+            if (done == totalPeriods || done % Math.max(1, totalPeriods / 10) == 0) {
+                log.info("Ledger replay {}: {}/{} months, {} entries, {} entries/s",
+                        id, done, totalPeriods, total, entriesPerSecond());
+            }
+        }
+
+        void finish(String finalStatus, String failure) {
+            error = failure;
+            status = finalStatus;
+            finishedAt = Instant.now();
+        }
+
+        long elapsedMillis() {
+            Instant end = finishedAt != null ? finishedAt : Instant.now();
+            return Math.max(1, Duration.between(startedAt, end).toMillis());
+        }
+
+        long entriesPerSecond() {
+            return entries.get() * 1000 / elapsedMillis();
+        }
+
+        LedgerReplayDTO toDTO() {
+            return new LedgerReplayDTO(id, status, startedAt, finishedAt, totalPeriods, completedPeriods.get(),
+                    entries.get(), elapsedMillis(), entriesPerSecond(), error);
+        }
+    }
+}
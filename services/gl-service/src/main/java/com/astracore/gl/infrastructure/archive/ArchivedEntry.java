@@ -0,0 +1,12 @@
+package com.astracore.gl.infrastructure.archive;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One transaction entry read back from an archive file.
+ */
+public record ArchivedEntry(UUID transactionEntryId, UUID transactionId, UUID glAccountId, BigDecimal amount,
+                            String debitCreditFlag, String description, Instant transactionDate) {
+}
@@ -0,0 +1,202 @@
+package com.astracore.gl.infrastructure.archive;
+
+import com.astracore.gl.infrastructure.persistence.repository.ArchivedPeriod;
+import com.astracore.gl.infrastructure.persistence.repository.BalanceTotals;
+import com.astracore.gl.infrastructure.persistence.repository.JournalPartitionStore;
+import com.astracore.tenancy.ShardRouter;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Archived months of journal on disk, one directory per month under
+ * {@code gl.archive.directory} holding {@code accounting_transaction.tsv.gz} and
+ * {@code transaction_entry.tsv.gz}. With several shards each has its own subdirectory,
+ * named after the shard.
+ * <p>
+ * Files are in Postgres COPY text format (tab separated, backslash escapes, {@code \N}
+ * for null) with the tables' columns in table order and timestamps in ISO-8601 UTC, so a
+ * month can be restored with {@code COPY ... FROM}. Rows are sorted by transaction date,
+ * which lets readers stop at the end of the range they asked for.
+ */
+@Component
+public class JournalArchive {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final List<String> TRANSACTION_COLUMNS = List.of(
+            "transaction_id", utc("transaction_date"), utc("entry_date"), "description", "transaction_type",
+            "is_posted", "organization_party_id", "source_document_type", "source_document_id",
+            utc("created_at"), utc("updated_at"), "version");
+
+    private static final List<String> ENTRY_COLUMNS = List.of(
+            "transaction_entry_id", "transaction_id", "gl_account_id", "organization_party_id", "amount",
+            "debit_credit_flag", "description", utc("transaction_date"), utc("created_at"), utc("updated_at"),
+            "version");
+
+    // Positions in ENTRY_COLUMNS
+    private static final int ENTRY_ID = 0;
+    private static final int ENTRY_TRANSACTION_ID = 1;
+    private static final int ENTRY_GL_ACCOUNT_ID = 2;
+    private static final int ENTRY_AMOUNT = 4;
+    private static final int ENTRY_DEBIT_CREDIT_FLAG = 5;
+    private static final int ENTRY_DESCRIPTION = 6;
+    private static final int ENTRY_TRANSACTION_DATE = 7;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Path directory;
+    private final ShardRouter shardRouter;
+
+    public JournalArchive(JdbcTemplate jdbcTemplate,
+                          ShardRouter shardRouter,
+                          @Value("${gl.archive.directory:./gl-archive}") String directory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardRouter = shardRouter;
+        this.directory = Path.of(directory);
+    }
+
+    /**
+     * Writes the month's partitions, attached or detached, to its archive directory,
+     * replacing earlier files. Reads join the caller's transaction, if any.
+     */
+    public ArchivedPeriod export(LocalDate periodStart) {
+        Path shardDirectory = shardRouter.shards().size() > 1 ? directory.resolve(shardRouter.currentShard()) : directory;
+        Path monthDirectory = shardDirectory.resolve(String.format("%04d-%02d", periodStart.getYear(), periodStart.getMonthValue()));
+        try {
+            Files.createDirectories(monthDirectory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create archive directory " + monthDirectory, e);
+        }
+        Path transactionFile = monthDirectory.resolve("accounting_transaction.tsv.gz");
+        Path entryFile = monthDirectory.resolve("transaction_entry.tsv.gz");
+        long transactions = copyOut(JournalPartitionStore.partitionName("accounting_transaction", periodStart),
+                TRANSACTION_COLUMNS, "transaction_date, transaction_id", transactionFile);
+        long entries = copyOut(JournalPartitionStore.partitionName("transaction_entry", periodStart),
+                ENTRY_COLUMNS, "transaction_date, transaction_entry_id", entryFile);
+        return new ArchivedPeriod(periodStart, transactionFile.toAbsolutePath(), entryFile.toAbsolutePath(),
+                transactions, entries);
+    }
+
+    /**
+     * Calls {@code action} for every archived entry dated in {@code [from, to)}, in date order.
+     */
+    public void forEachEntry(ArchivedPeriod archived, Instant from, Instant to, Consumer<ArchivedEntry> action) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(archived.entryFile()), BUFFER_SIZE), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split("\t", -1);
+                Instant transactionDate = Instant.parse(fields[ENTRY_TRANSACTION_DATE]);
+                if (transactionDate.isBefore(from)) {
+                    continue;
+                }
+                if (!transactionDate.isBefore(to)) {
+                    break;
+                }
+                action.accept(new ArchivedEntry(
+                        UUID.fromString(fields[ENTRY_ID]),
+                        UUID.fromString(fields[ENTRY_TRANSACTION_ID]),
+                        UUID.fromString(fields[ENTRY_GL_ACCOUNT_ID]),
+                        new BigDecimal(fields[ENTRY_AMOUNT]),
+                        fields[ENTRY_DEBIT_CREDIT_FLAG],
+                        unescape(fields[ENTRY_DESCRIPTION]),
+                        transactionDate));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read archive file " + archived.entryFile(), e);
+        }
+    }
+
+    /**
+     * Archived entry totals per account for transactions dated in {@code [from, to)}; the
+     * counterpart of {@code AccountBalanceStore.sumEntries} for archived months.
+     */
+    public Map<UUID, BalanceTotals> sumEntries(ArchivedPeriod archived, Instant from, Instant to, UUID glAccountId) {
+        Map<UUID, BalanceTotals> totals = new HashMap<>();
+        forEachEntry(archived, from, to, entry -> {
+            if (glAccountId != null && !glAccountId.equals(entry.glAccountId())) {
+                return;
+            }
+            BalanceTotals delta = "D".equals(entry.debitCreditFlag())
+                    ? new BalanceTotals(entry.amount(), BigDecimal.ZERO, 1)
+                    : new BalanceTotals(BigDecimal.ZERO, entry.amount(), 1);
+            totals.merge(entry.glAccountId(), delta, BalanceTotals::plus);
+        });
+        return totals;
+    }
+
+    private long copyOut(String table, List<String> columns, String order, Path file) {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        String sql = "COPY (SELECT " + String.join(", ", columns) + " FROM " + table + " ORDER BY " + order + ") TO STDOUT";
+        Long rows = jdbcTemplate.execute((ConnectionCallback<Long>) con -> {
+            try (OutputStream out = new GZIPOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temporary), BUFFER_SIZE), BUFFER_SIZE)) {
+                return con.unwrap(PGConnection.class).getCopyAPI().copyOut(sql, out);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot write archive file " + temporary, e);
+            }
+        });
+        try {
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot move archive file into place: " + file, e);
+        }
+        return rows == null ? 0 : rows;
+    }
+
+    private static String utc(String column) {
+        return "to_char(" + column + " AT TIME ZONE 'UTC', 'YYYY-MM-DD\"T\"HH24:MI:SS.US\"Z\"')";
+    }
+
+    // COPY text format: \N is null; a backslash escapes the control characters COPY emits
+    private static String unescape(String field) {
+        if ("\\N".equals(field)) {
+            return null;
+        }
+        if (field.indexOf('\\') < 0) {
+            return field;
+        }
+        StringBuilder out = new StringBuilder(field.length());
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c != '\\' || i + 1 == field.length()) {
+                out.append(c);
+                continue;
+            }
+            char escaped = field.charAt(++i);
+            out.append(switch (escaped) {
+                case 'b' -> '\b';
+                case 'f' -> '\f';
+                case 'n' -> '\n';
+                case 'r' -> '\r';
+                case 't' -> '\t';
+                case 'v' -> '\u000B';
+                default -> escaped;
+            });
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,263 @@
+package com.astracore.gl.infrastructure.cache;
+
+import com.astracore.shared.id.UuidV7;
+import com.astracore.tenancy.ShardRouter;
+import com.astracore.tenancy.TenantContext;
+import com.astracore.tenancy.TenantUnavailableException;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory copy of {@code gl_account}, keyed by tenant and account code, so posting
+ * resolves accounts without touching the database. Lookups are for the current tenant
+ * ({@link TenantContext}).
+ * <p>
+ * The whole chart is loaded on startup. A missing account is created with
+ * {@code INSERT ... ON CONFLICT (tenant_id, account_code) DO NOTHING} in its own
+ * transaction and then read back, so instances racing to create the same code all end up
+ * with the row that won. A trigger on {@code gl_account} publishes every change on the
+ * {@value #CHANNEL} channel as {@code <tenant>:<code>}; each instance keeps one pooled
+ * connection per shard listening on it and refreshes the affected account, and reloads
+ * the shard whenever that connection is (re)established, in case notifications were
+ * missed while it was down.
+ * <p>
+ * A shard's notifications and reloads only touch tenants that currently route to it, so
+ * the rows a tenant move copies in and deletes behind it leave the cache alone; moved
+ * accounts keep their ids.
+ */
+@Slf4j
+@Component
+public class ChartOfAccountsCache implements SmartLifecycle {
+
+    static final String CHANNEL = "gl_account_changed";
+
+    private static final String SELECT_COLUMNS = """
+            SELECT gl_account_id, tenant_id, account_code, account_name, gl_account_type_id, parent_gl_account_id
+              FROM gl_account""";
+
+    private static final String INSERT_IF_ABSENT_SQL = """
+            INSERT INTO gl_account (gl_account_id, tenant_id, account_name, account_code, gl_account_type_id)
+            VALUES (?, ?, ?, ?, ?)
+            ON CONFLICT (tenant_id, account_code) DO NOTHING
+            """;
+
+    private static final RowMapper<GlAccountRef> ROW_MAPPER = (rs, rowNum) -> new GlAccountRef(
+            rs.getObject("gl_account_id", UUID.class),
+            rs.getString("tenant_id"),
+            rs.getString("account_code"),
+            rs.getString("account_name"),
+            rs.getString("gl_account_type_id"),
+            rs.getObject("parent_gl_account_id", UUID.class)
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+    private final TransactionTemplate requiresNewTransaction;
+    private final ShardRouter shardRouter;
+    private final Map<String, Map<String, GlAccountRef>> accounts = new ConcurrentHashMap<>();
+
+    @Value("${gl.accounts.cache.listen.enabled:true}")
+    private boolean listenEnabled;
+
+    @Value("${gl.accounts.cache.listen.poll-timeout-ms:5000}")
+    private int pollTimeoutMs;
+
+    @Value("${gl.accounts.cache.listen.reconnect-delay-ms:5000}")
+    private long reconnectDelayMs;
+
+    private volatile boolean running;
+    private final List<Thread> listenerThreads = new ArrayList<>();
+
+    public ChartOfAccountsCache(JdbcTemplate jdbcTemplate,
+                                DataSource dataSource,
+                                PlatformTransactionManager transactionManager,
+                                ShardRouter shardRouter) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSource = dataSource;
+        this.shardRouter = shardRouter;
+        this.requiresNewTransaction = new TransactionTemplate(transactionManager);
+        // A new account must be committed before any posting can reference it from cache
+        this.requiresNewTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public Optional<GlAccountRef> find(String accountCode) {
+        return Optional.ofNullable(tenantAccounts(TenantContext.current()).get(accountCode));
+    }
+
+    public Collection<GlAccountRef> all() {
+        return Collections.unmodifiableCollection(tenantAccounts(TenantContext.current()).values());
+    }
+
+    /**
+     * Returns the cached account, creating it if no instance has done so yet.
+     */
+    public GlAccountRef getOrCreate(String accountCode, String accountName, String glAccountTypeId) {
+        String tenantId = TenantContext.current();
+        Map<String, GlAccountRef> tenantAccounts = tenantAccounts(tenantId);
+        GlAccountRef cached = tenantAccounts.get(accountCode);
+        if (cached != null) {
+            return cached;
+        }
+        GlAccountRef account = requiresNewTransaction.execute(status -> {
+            jdbcTemplate.update(INSERT_IF_ABSENT_SQL, UuidV7.generate(), tenantId, accountName, accountCode, glAccountTypeId);
+            // Either our row or the one a concurrent writer committed first
+            return jdbcTemplate.queryForObject(SELECT_COLUMNS + " WHERE tenant_id = ? AND account_code = ?",
+                    ROW_MAPPER, tenantId, accountCode);
+        });
+        tenantAccounts.put(accountCode, account);
+        log.info("Provisioned GL account {} for tenant {} ({})", accountCode, tenantId, account.glAccountId());
+        return account;
+    }
+
+    public void reload() {
+        for (String shard : shardRouter.shards()) {
+            reload(shard);
+        }
+    }
+
+    void reload(String shard) {
+        Map<String, Map<String, GlAccountRef>> loaded = new HashMap<>();
+        for (GlAccountRef account : shardRouter.callOnShard(shard, () -> jdbcTemplate.query(SELECT_COLUMNS, ROW_MAPPER))) {
+            loaded.computeIfAbsent(account.tenantId(), tenantId -> new HashMap<>()).put(account.accountCode(), account);
+        }
+        Set<String> tenantIds = new HashSet<>(accounts.keySet());
+        tenantIds.addAll(loaded.keySet());
+        int count = 0;
+        for (String tenantId : tenantIds) {
+            if (!routesTo(tenantId, shard)) {
+                continue;
+            }
+            Map<String, GlAccountRef> tenantLoaded = loaded.getOrDefault(tenantId, Map.of());
+            Map<String, GlAccountRef> tenantAccounts = tenantAccounts(tenantId);
+            tenantAccounts.putAll(tenantLoaded);
+            tenantAccounts.keySet().retainAll(tenantLoaded.keySet());
+            count += tenantLoaded.size();
+        }
+        log.info("Loaded {} GL accounts from shard {} into the chart-of-accounts cache", count, shard);
+    }
+
+    void refresh(String shard, String tenantId, String accountCode) {
+        if (!routesTo(tenantId, shard)) {
+            return;
+        }
+        List<GlAccountRef> rows = shardRouter.callOnShard(shard, () -> jdbcTemplate.query(
+                SELECT_COLUMNS + " WHERE tenant_id = ? AND account_code = ?", ROW_MAPPER, tenantId, accountCode));
+        if (rows.isEmpty()) {
+            tenantAccounts(tenantId).remove(accountCode);
+        } else {
+            tenantAccounts(tenantId).put(accountCode, rows.get(0));
+        }
+    }
+
+    private Map<String, GlAccountRef> tenantAccounts(String tenantId) {
+        return accounts.computeIfAbsent(tenantId, id -> new ConcurrentHashMap<>());
+    }
+
+    private boolean routesTo(String tenantId, String shard) {
+        try {
+            return shardRouter.shardFor(tenantId).equals(shard);
+        } catch (TenantUnavailableException e) {
+            // Mid-move: keep what is cached until the tenant lands
+            return false;
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        try {
+            reload();
+        } catch (DataAccessException e) {
+            // Accounts are provisioned on demand; the listener reloads once it connects
+            log.warn("Could not load chart of accounts at startup: {}", e.getMessage());
+        }
+        if (listenEnabled) {
+            for (String shard : shardRouter.shards()) {
+                Thread listenerThread = new Thread(() -> listen(shard), "gl-account-listener-" + shard);
+                listenerThread.setDaemon(true);
+                listenerThread.start();
+                listenerThreads.add(listenerThread);
+            }
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        listenerThreads.forEach(Thread::interrupt);
+        listenerThreads.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Before the Kafka listener containers, so the first poll is served from memory
+        return Integer.MAX_VALUE - 200;
+    }
+
+    private void listen(String shard) {
+        while (running) {
+            try (Connection connection = shardRouter.callOnShard(shard, () -> DataSourceUtils.getConnection(dataSource))) {
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                // Catch up on anything that changed before we were listening
+                reload(shard);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutMs);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            String payload = notification.getParameter();
+                            int separator = payload.indexOf(':');
+                            refresh(shard, payload.substring(0, separator), payload.substring(separator + 1));
+                        }
+                    }
+                }
+            } catch (SQLException | DataAccessException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Chart-of-accounts listener for shard {} lost its connection, retrying in {} ms: {}",
+                        shard, reconnectDelayMs, e.getMessage());
+                try {
+                    Thread.sleep(reconnectDelayMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
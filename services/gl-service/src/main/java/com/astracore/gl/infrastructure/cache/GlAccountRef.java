@@ -0,0 +1,10 @@
+package com.astracore.gl.infrastructure.cache;
+
+import java.util.UUID;
+
+/**
+ * Immutable snapshot of a {@code gl_account} row as held by {@link ChartOfAccountsCache}.
+ */
+public record GlAccountRef(UUID glAccountId, String tenantId, String accountCode, String accountName,
+                           String glAccountTypeId, UUID parentGlAccountId) {
+}
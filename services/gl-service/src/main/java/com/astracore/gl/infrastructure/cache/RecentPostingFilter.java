@@ -0,0 +1,87 @@
+package com.astracore.gl.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Source documents this instance has posted recently, so redelivered events (after a
+ * rebalance, or a batch replayed record by record) are dropped without a database round
+ * trip. Membership is exact: a hit means the document is definitely posted, a miss means
+ * nothing, and the posted source document registry still decides. Keys are added
+ * only after the posting transaction commits, so a rolled-back posting is never
+ * remembered.
+ */
+@Component
+public class RecentPostingFilter {
+
+    private final Cache<String, Boolean> posted;
+    private final Counter memoryDuplicates;
+    private final Counter databaseDuplicates;
+
+    public RecentPostingFilter(MeterRegistry meterRegistry,
+                               @Value("${gl.posting.dedup.max-size:200000}") long maxSize,
+                               @Value("${gl.posting.dedup.window-minutes:60}") long windowMinutes) {
+        this.posted = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMinutes(windowMinutes))
+                .build();
+        this.memoryDuplicates = Counter.builder("gl.posting.duplicates")
+                .description("Postings rejected because their source document was already posted")
+                .tag("detected_by", "memory")
+                .register(meterRegistry);
+        this.databaseDuplicates = Counter.builder("gl.posting.duplicates")
+                .description("Postings rejected because their source document was already posted")
+                .tag("detected_by", "database")
+                .register(meterRegistry);
+    }
+
+    public static String key(String documentType, String documentId) {
+        return documentType + ':' + documentId;
+    }
+
+    /**
+     * True if the document is known to be posted; counts the hit.
+     */
+    public boolean isPosted(String key) {
+        if (posted.getIfPresent(key) != null) {
+            memoryDuplicates.increment();
+            return true;
+        }
+        return false;
+    }
+
+    public void recordDatabaseDuplicates(int count) {
+        databaseDuplicates.increment(count);
+    }
+
+    /**
+     * Remembers {@code keys} once the current transaction commits, or immediately when
+     * there is none.
+     */
+    public void markPostedAfterCommit(Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        List<String> snapshot = List.copyOf(keys);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            snapshot.forEach(key -> posted.put(key, Boolean.TRUE));
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                snapshot.forEach(key -> posted.put(key, Boolean.TRUE));
+            }
+        });
+    }
+}
@@ -0,0 +1,260 @@
+package com.astracore.gl.infrastructure.importing;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reads a journal file for bulk import one entry at a time, so memory does not depend on
+ * the size of the file. Each entry is one line of a transaction; the transaction's own
+ * fields are repeated on each of its lines.
+ * <p>
+ * {@code csv} files start with a header row naming their columns, in any order, and
+ * quote fields as in RFC 4180. {@code ndjson} files hold one JSON object per line, keyed
+ * by the same names. Empty values are read as absent. Names are those of {@link Column}
+ * in lower case; any other name is rejected so a misspelt column is not silently
+ * dropped.
+ */
+public abstract class JournalFileReader implements AutoCloseable {
+
+    public enum Column {
+        TRANSACTION_REF,
+        TRANSACTION_DATE,
+        TRANSACTION_TYPE,
+        DESCRIPTION,
+        SOURCE_DOCUMENT_TYPE,
+        SOURCE_DOCUMENT_ID,
+        ACCOUNT_CODE,
+        DEBIT_CREDIT_FLAG,
+        AMOUNT,
+        ENTRY_DESCRIPTION;
+
+        private static final Column[] REQUIRED = {TRANSACTION_REF, TRANSACTION_DATE, ACCOUNT_CODE, DEBIT_CREDIT_FLAG, AMOUNT};
+
+        static Column named(String name, long line) {
+            try {
+                return valueOf(name.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Line " + line + ": unknown column '" + name + "'");
+            }
+        }
+    }
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    protected final BufferedReader reader;
+
+    private JournalFileReader(InputStream in) {
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    /**
+     * @param format {@code csv} or {@code ndjson}
+     */
+    public static JournalFileReader open(InputStream in, String format) {
+        return switch (format.toLowerCase()) {
+            case "csv" -> new Csv(in);
+            case "ndjson" -> new Ndjson(in);
+            default -> throw new IllegalArgumentException("Unsupported journal format: " + format);
+        };
+    }
+
+    /**
+     * The fields of the next entry indexed by {@link Column#ordinal()}, null where absent;
+     * null at the end of the file. The array is reused by the following call.
+     */
+    public abstract String[] next();
+
+    /**
+     * The line the entry returned last starts on.
+     */
+    public abstract long line();
+
+    @Override
+    public void close() {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            // The request body is released by the container regardless
+        }
+    }
+
+    private static void requireColumns(String[] fields, long line) {
+        for (Column column : Column.REQUIRED) {
+            if (fields[column.ordinal()] == null) {
+                throw new IllegalArgumentException("Line " + line + ": " + column.name().toLowerCase() + " is missing");
+            }
+        }
+    }
+
+    private static final class Csv extends JournalFileReader {
+
+        private final StringBuilder field = new StringBuilder();
+        private final String[] fields = new String[Column.values().length];
+        private Column[] header;
+        private String[] record = new String[16];
+        private int recordSize;
+        private long nextLine = 1;
+        private long line;
+
+        private Csv(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public String[] next() {
+            if (header == null) {
+                if (!readRecord()) {
+                    return null;
+                }
+                header = new Column[recordSize];
+                for (int i = 0; i < recordSize; i++) {
+                    header[i] = Column.named(record[i], line);
+                }
+            }
+            if (!readRecord()) {
+                return null;
+            }
+            if (recordSize != header.length) {
+                throw new IllegalArgumentException("Line " + line + ": expected " + header.length + " fields but found "
+                        + recordSize);
+            }
+            Arrays.fill(fields, null);
+            for (int i = 0; i < recordSize; i++) {
+                fields[header[i].ordinal()] = record[i].isEmpty() ? null : record[i];
+            }
+            requireColumns(fields, line);
+            return fields;
+        }
+
+        @Override
+        public long line() {
+            return line;
+        }
+
+        // One record into record[0..recordSize), skipping blank lines; false at the end
+        private boolean readRecord() {
+            try {
+                while (true) {
+                    int c = reader.read();
+                    if (c == -1) {
+                        return false;
+                    }
+                    line = nextLine;
+                    recordSize = 0;
+                    field.setLength(0);
+                    boolean quoted = false;
+                    boolean blank = true;
+                    while (true) {
+                        if (quoted) {
+                            if (c == -1) {
+                                throw new IllegalArgumentException("Line " + line + ": unterminated quoted field");
+                            }
+                            if (c == '"') {
+                                c = reader.read();
+                                if (c != '"') {
+                                    quoted = false;
+                                    continue;
+                                }
+                            } else if (c == '\n') {
+                                nextLine++;
+                            }
+                            field.append((char) c);
+                        } else if (c == -1 || c == '\n') {
+                            if (c == '\n') {
+                                nextLine++;
+                            }
+                            break;
+                        } else if (c == '"' && field.isEmpty()) {
+                            quoted = true;
+                            blank = false;
+                        } else if (c == ',') {
+                            endField();
+                            blank = false;
+                        } else if (c != '\r') {
+                            field.append((char) c);
+                            blank = false;
+                        }
+                        c = reader.read();
+                    }
+                    if (!blank) {
+                        endField();
+                        return true;
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read journal file", e);
+            }
+        }
+
+        private void endField() {
+            if (recordSize == record.length) {
+                record = Arrays.copyOf(record, recordSize * 2);
+            }
+            record[recordSize++] = field.toString();
+            field.setLength(0);
+        }
+    }
+
+    private static final class Ndjson extends JournalFileReader {
+
+        private final String[] fields = new String[Column.values().length];
+        private long line;
+
+        private Ndjson(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public String[] next() {
+            try {
+                String text;
+                do {
+                    text = reader.readLine();
+                    line++;
+                    if (text == null) {
+                        return null;
+                    }
+                } while (text.isBlank());
+                Arrays.fill(fields, null);
+                try (JsonParser parser = JSON.createParser(text)) {
+                    if (parser.nextToken() != JsonToken.START_OBJECT) {
+                        throw new IllegalArgumentException("Line " + line + ": expected a JSON object");
+                    }
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        Column column = Column.named(parser.currentName(), line);
+                        JsonToken value = parser.nextToken();
+                        if (value.isStructStart()) {
+                            throw new IllegalArgumentException("Line " + line + ": " + parser.currentName()
+                                    + " must be a string or number");
+                        }
+                        String fieldValue = value == JsonToken.VALUE_NULL ? null : parser.getText();
+                        fields[column.ordinal()] = fieldValue == null || fieldValue.isEmpty() ? null : fieldValue;
+                    }
+                } catch (JsonProcessingException e) {
+                    throw new IllegalArgumentException("Line " + line + ": malformed JSON: " + e.getOriginalMessage());
+                }
+                requireColumns(fields, line);
+                return fields;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read journal file", e);
+            }
+        }
+
+        @Override
+        public long line() {
+            return line;
+        }
+    }
+}
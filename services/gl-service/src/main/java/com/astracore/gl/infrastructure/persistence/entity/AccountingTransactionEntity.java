@@ -1,5 +1,6 @@
 package com.astracore.gl.infrastructure.persistence.entity;
 
+import com.astracore.shared.id.UuidV7;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
@@ -37,6 +38,14 @@ public class AccountingTransactionEntity extends BaseEntity {
     @Column(name = "organization_party_id")
     private UUID organizationPartyId;
 
+    // Document this transaction was posted from, e.g. INVOICE + invoice id; claimed once
+    // in posted_source_document, since the partitioned table cannot enforce uniqueness
+    @Column(name = "source_document_type")
+    private String sourceDocumentType;
+
+    @Column(name = "source_document_id")
+    private String sourceDocumentId;
+
     @OneToMany(mappedBy = "transaction", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<TransactionEntryEntity> entries = new ArrayList<>();
 
@@ -44,4 +53,11 @@ public class AccountingTransactionEntity extends BaseEntity {
         entries.add(entry);
         entry.setTransaction(this);
     }
+
+    @PrePersist
+    void assignId() {
+        if (transactionId == null) {
+            transactionId = UuidV7.generate();
+        }
+    }
 }
@@ -1,5 +1,6 @@
 package com.astracore.gl.infrastructure.persistence.entity;
 
+import com.astracore.shared.id.UuidV7;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
@@ -19,7 +20,10 @@ public class GeneralLedgerAccountEntity extends BaseEntity {
     @Column(name = "account_name", nullable = false)
     private String accountName;
 
-    @Column(name = "account_code", nullable = false, unique = true)
+    @Column(name = "tenant_id", nullable = false, updatable = false)
+    private String tenantId;
+
+    @Column(name = "account_code", nullable = false)
     private String accountCode;
 
     @Column(name = "gl_account_type_id", nullable = false)
@@ -28,4 +32,11 @@ public class GeneralLedgerAccountEntity extends BaseEntity {
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "parent_gl_account_id")
     private GeneralLedgerAccountEntity parent;
+
+    @PrePersist
+    void assignId() {
+        if (glAccountId == null) {
+            glAccountId = UuidV7.generate();
+        }
+    }
 }
@@ -1,10 +1,12 @@
 package com.astracore.gl.infrastructure.persistence.entity;
 
+import com.astracore.shared.id.UuidV7;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.UUID;
 
 @Getter
@@ -36,4 +38,18 @@ public class TransactionEntryEntity extends BaseEntity {
 
     @Column(name = "description")
     private String description;
+
+    // Copy of the transaction's date; the partition key of transaction_entry
+    @Column(name = "transaction_date", nullable = false)
+    private Instant transactionDate;
+
+    @PrePersist
+    void assignId() {
+        if (transactionEntryId == null) {
+            transactionEntryId = UuidV7.generate();
+        }
+        if (transactionDate == null && transaction != null) {
+            transactionDate = transaction.getTransactionDate();
+        }
+    }
 }
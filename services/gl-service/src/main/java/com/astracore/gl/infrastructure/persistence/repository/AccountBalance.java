@@ -0,0 +1,19 @@
+package com.astracore.gl.infrastructure.persistence.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Debit and credit totals of one GL account for one month, merged across shards.
+ */
+public record AccountBalance(UUID glAccountId, LocalDate periodStart, BigDecimal debitTotal,
+                             BigDecimal creditTotal, long entryCount) {
+
+    /**
+     * Debits minus credits; positive for debit-normal balances.
+     */
+    public BigDecimal balance() {
+        return debitTotal.subtract(creditTotal);
+    }
+}
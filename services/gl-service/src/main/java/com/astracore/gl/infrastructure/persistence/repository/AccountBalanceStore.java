@@ -0,0 +1,200 @@
+package com.astracore.gl.infrastructure.persistence.repository;
+
+import com.astracore.gl.infrastructure.persistence.entity.AccountingTransactionEntity;
+import com.astracore.gl.infrastructure.persistence.entity.TransactionEntryEntity;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Incrementally maintained account balances in {@code account_balance_shard}.
+ * <p>
+ * Each call folds its entries into one delta per account and month and upserts them into
+ * a single randomly chosen shard, so two transactions posting to the same account only
+ * contend when they pick the same shard. Deltas are written in key order, which keeps
+ * lock acquisition ordered and deadlock-free. Reads sum every shard, so the shard count
+ * can be changed at any time. Writes join the caller's transaction.
+ * <p>
+ * Postings dated before the current month may land in a month that already has a
+ * snapshot; those flag the affected snapshots stale under the lock described in
+ * {@link BalanceSnapshotStore}. Postings to the current month never touch snapshots.
+ */
+@Repository
+public class AccountBalanceStore {
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO account_balance_shard (gl_account_id, period_start, shard, debit_total, credit_total, entry_count)
+            VALUES (?, ?, ?, ?, ?, ?)
+            ON CONFLICT (gl_account_id, period_start, shard) DO UPDATE
+               SET debit_total = account_balance_shard.debit_total + EXCLUDED.debit_total,
+                   credit_total = account_balance_shard.credit_total + EXCLUDED.credit_total,
+                   entry_count = account_balance_shard.entry_count + EXCLUDED.entry_count,
+                   updated_at = NOW()
+            """;
+
+    private static final String SELECT_MERGED = """
+            SELECT gl_account_id, period_start, SUM(debit_total) AS debit_total,
+                   SUM(credit_total) AS credit_total, SUM(entry_count) AS entry_count
+              FROM account_balance_shard
+            """;
+
+    private static final String MARK_SNAPSHOTS_STALE_SQL =
+            "UPDATE account_balance_snapshot_run SET stale = TRUE WHERE period_start >= ? AND NOT stale";
+
+    private static final String SUM_PERIODS_SQL = """
+            SELECT gl_account_id, SUM(debit_total) AS debit_total, SUM(credit_total) AS credit_total,
+                   SUM(entry_count) AS entry_count
+              FROM account_balance_shard
+             WHERE period_start >= ? AND period_start < ?
+            """;
+
+    private static final String SUM_ENTRIES_SQL = """
+            SELECT e.gl_account_id,
+                   COALESCE(SUM(e.amount) FILTER (WHERE e.debit_credit_flag = 'D'), 0) AS debit_total,
+                   COALESCE(SUM(e.amount) FILTER (WHERE e.debit_credit_flag <> 'D'), 0) AS credit_total,
+                   COUNT(*) AS entry_count
+              FROM transaction_entry e
+             WHERE e.transaction_date >= ? AND e.transaction_date < ?
+            """;
+
+    private static final RowMapper<AccountBalance> ROW_MAPPER = (rs, rowNum) -> new AccountBalance(
+            rs.getObject("gl_account_id", UUID.class),
+            rs.getObject("period_start", LocalDate.class),
+            rs.getBigDecimal("debit_total"),
+            rs.getBigDecimal("credit_total"),
+            rs.getLong("entry_count")
+    );
+
+    private static final Comparator<Key> KEY_ORDER = Comparator.comparing(Key::glAccountId)
+            .thenComparing(Key::periodStart);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int shards;
+
+    public AccountBalanceStore(JdbcTemplate jdbcTemplate, @Value("${gl.balances.shards:8}") int shards) {
+        if (shards < 1 || shards > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("gl.balances.shards must be between 1 and " + Short.MAX_VALUE);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.shards = shards;
+    }
+
+    public void addEntries(List<AccountingTransactionEntity> transactions) {
+        Map<Key, Delta> deltas = new TreeMap<>(KEY_ORDER);
+        for (AccountingTransactionEntity tx : transactions) {
+            LocalDate periodStart = periodStart(tx);
+            for (TransactionEntryEntity entry : tx.getEntries()) {
+                Delta delta = deltas.computeIfAbsent(new Key(entry.getGlAccount().getGlAccountId(), periodStart), k -> new Delta());
+                if ("D".equals(entry.getDebitCreditFlag())) {
+                    delta.debit = delta.debit.add(entry.getAmount());
+                } else {
+                    delta.credit = delta.credit.add(entry.getAmount());
+                }
+                delta.entries++;
+            }
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        markSnapshotsStale(deltas.keySet().stream().map(Key::periodStart).min(LocalDate::compareTo).orElseThrow());
+
+        short shard = (short) ThreadLocalRandom.current().nextInt(shards);
+        List<Map.Entry<Key, Delta>> rows = new ArrayList<>(deltas.entrySet());
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setObject(1, row.getKey().glAccountId());
+            ps.setObject(2, row.getKey().periodStart());
+            ps.setShort(3, shard);
+            ps.setBigDecimal(4, row.getValue().debit);
+            ps.setBigDecimal(5, row.getValue().credit);
+            ps.setLong(6, row.getValue().entries);
+        });
+    }
+
+    /**
+     * Flags the snapshots of {@code earliestPeriod} and later stale before balances of
+     * that month change; nothing to do for the current month, which has no snapshot.
+     */
+    public void markSnapshotsStale(LocalDate earliestPeriod) {
+        if (earliestPeriod.isBefore(LocalDate.now(ZoneOffset.UTC).withDayOfMonth(1))) {
+            jdbcTemplate.query(BalanceSnapshotStore.LOCK_SHARED_SQL, rs -> null);
+            jdbcTemplate.update(MARK_SNAPSHOTS_STALE_SQL, earliestPeriod);
+        }
+    }
+
+    public List<AccountBalance> findByAccount(UUID glAccountId) {
+        return jdbcTemplate.query(SELECT_MERGED + " WHERE gl_account_id = ? GROUP BY gl_account_id, period_start ORDER BY period_start",
+                ROW_MAPPER, glAccountId);
+    }
+
+    public List<AccountBalance> findByPeriod(LocalDate periodStart) {
+        return jdbcTemplate.query(SELECT_MERGED + " WHERE period_start = ? GROUP BY gl_account_id, period_start",
+                ROW_MAPPER, periodStart);
+    }
+
+    public Optional<LocalDate> earliestPeriod() {
+        return Optional.ofNullable(jdbcTemplate.queryForObject(
+                "SELECT MIN(period_start) FROM account_balance_shard", LocalDate.class));
+    }
+
+    /**
+     * Merged shard totals per account for months in {@code [fromPeriod, toPeriod)}.
+     */
+    public Map<UUID, BalanceTotals> sumPeriods(LocalDate fromPeriod, LocalDate toPeriod, UUID glAccountId) {
+        return sumByAccount(SUM_PERIODS_SQL, "gl_account_id", fromPeriod, toPeriod, glAccountId);
+    }
+
+    /**
+     * Entry totals per account for transactions dated in {@code [from, to)}, read from the
+     * journal itself; meant for spans within one month, which touch a single partition.
+     * Archived months are not included, see {@link JournalPartitionStore}.
+     */
+    public Map<UUID, BalanceTotals> sumEntries(Instant from, Instant to, UUID glAccountId) {
+        return sumByAccount(SUM_ENTRIES_SQL, "e.gl_account_id", Timestamp.from(from), Timestamp.from(to), glAccountId);
+    }
+
+    private Map<UUID, BalanceTotals> sumByAccount(String sql, String accountColumn, Object from, Object to, UUID glAccountId) {
+        StringBuilder query = new StringBuilder(sql);
+        List<Object> args = new ArrayList<>(List.of(from, to));
+        if (glAccountId != null) {
+            query.append(" AND ").append(accountColumn).append(" = ?");
+            args.add(glAccountId);
+        }
+        query.append(" GROUP BY ").append(accountColumn);
+        Map<UUID, BalanceTotals> totals = new HashMap<>();
+        jdbcTemplate.query(query.toString(), rs -> {
+            totals.put(rs.getObject("gl_account_id", UUID.class), new BalanceTotals(
+                    rs.getBigDecimal("debit_total"), rs.getBigDecimal("credit_total"), rs.getLong("entry_count")));
+        }, args.toArray());
+        return totals;
+    }
+
+    public static LocalDate periodStart(AccountingTransactionEntity tx) {
+        return LocalDate.ofInstant(tx.getTransactionDate(), ZoneOffset.UTC).withDayOfMonth(1);
+    }
+
+    private record Key(UUID glAccountId, LocalDate periodStart) {
+    }
+
+    private static final class Delta {
+        private BigDecimal debit = BigDecimal.ZERO;
+        private BigDecimal credit = BigDecimal.ZERO;
+        private long entries;
+    }
+}
@@ -0,0 +1,50 @@
+package com.astracore.gl.infrastructure.persistence.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Reads one account's journal entries in statement order.
+ */
+@Repository
+public class AccountStatementStore {
+
+    // Walks idx_transaction_entry_gl_date_id in key order, so rows arrive without a sort
+    private static final String ENTRIES_SQL = """
+            SELECT transaction_entry_id, transaction_id, amount, debit_credit_flag, description, transaction_date
+              FROM transaction_entry
+             WHERE gl_account_id = ? AND transaction_date >= ? AND transaction_date < ?
+             ORDER BY transaction_date, transaction_entry_id
+            """;
+
+    private final JdbcTemplate streaming;
+
+    public AccountStatementStore(JdbcTemplate jdbcTemplate, @Value("${gl.statement.fetch-size:1000}") int fetchSize) {
+        // A fetch size only streams (instead of buffering the whole result) inside a transaction
+        this.streaming = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.streaming.setFetchSize(fetchSize);
+    }
+
+    /**
+     * Calls {@code action} for each entry of the account dated in {@code [from, to)}, in
+     * (transaction date, entry id) order. Rows are fetched through a server-side cursor
+     * when called inside a transaction.
+     */
+    public void forEachEntry(UUID glAccountId, Instant from, Instant to, Consumer<JournalEntry> action) {
+        streaming.query(ENTRIES_SQL, (RowCallbackHandler) rs -> action.accept(new JournalEntry(
+                rs.getObject("transaction_entry_id", UUID.class),
+                rs.getObject("transaction_id", UUID.class),
+                rs.getBigDecimal("amount"),
+                rs.getString("debit_credit_flag"),
+                rs.getString("description"),
+                rs.getTimestamp("transaction_date").toInstant())),
+                glAccountId, Timestamp.from(from), Timestamp.from(to));
+    }
+}
@@ -0,0 +1,11 @@
+package com.astracore.gl.infrastructure.persistence.repository;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+/**
+ * A month of journal moved out of the database into gzip files.
+ */
+public record ArchivedPeriod(LocalDate periodStart, Path transactionFile, Path entryFile,
+                             long transactionCount, long entryCount) {
+}
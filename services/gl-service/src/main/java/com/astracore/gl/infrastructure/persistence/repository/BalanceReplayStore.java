@@ -0,0 +1,170 @@
+package com.astracore.gl.infrastructure.persistence.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Rebuilds {@code account_balance_shard} from the journal into a shadow table,
+ * {@code account_balance_shard_rebuild}, and swaps it in.
+ * <p>
+ * Each month is aggregated by one statement that reads a single journal partition and
+ * writes one row per account into shard 0; totals read back from archive files go to
+ * shard 1. The shadow table gets its keys and indexes only after the bulk load. Months
+ * that take postings while the rebuild runs are found through the live table's
+ * {@code updated_at} and aggregated again; the last such pass runs under the swap lock,
+ * which holds back posting until the renamed table is in place.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BalanceReplayStore {
+
+    public static final short JOURNAL_SHARD = 0;
+    public static final short ARCHIVE_SHARD = 1;
+
+    private static final String SHADOW = "account_balance_shard_rebuild";
+
+    private static final String AGGREGATE_MONTH_SQL = """
+            WITH totals AS (
+                SELECT gl_account_id,
+                       COALESCE(SUM(amount) FILTER (WHERE debit_credit_flag = 'D'), 0) AS debit_total,
+                       COALESCE(SUM(amount) FILTER (WHERE debit_credit_flag <> 'D'), 0) AS credit_total,
+                       COUNT(*) AS entry_count
+                  FROM transaction_entry
+                 WHERE transaction_date >= ? AND transaction_date < ?
+                 GROUP BY gl_account_id
+            )
+            INSERT INTO account_balance_shard_rebuild (gl_account_id, period_start, shard, debit_total, credit_total, entry_count)
+            SELECT gl_account_id, ?, ?, debit_total, credit_total, entry_count
+              FROM totals
+            RETURNING entry_count
+            """;
+
+    private static final String INSERT_TOTALS_SQL = """
+            INSERT INTO account_balance_shard_rebuild (gl_account_id, period_start, shard, debit_total, credit_total, entry_count)
+            VALUES (?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final String JOURNAL_RANGE_SQL = """
+            SELECT date_trunc('month', MIN(transaction_date) AT TIME ZONE 'UTC')::date AS first_period,
+                   date_trunc('month', MAX(transaction_date) AT TIME ZONE 'UTC')::date AS last_period
+              FROM accounting_transaction
+            """;
+
+    private static final String TOUCHED_SINCE_SQL =
+            "SELECT DISTINCT period_start FROM account_balance_shard WHERE updated_at >= ? ORDER BY period_start";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Replaces any shadow table left behind by an earlier, interrupted rebuild.
+     */
+    public void createShadow() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + SHADOW);
+        jdbcTemplate.execute("CREATE TABLE " + SHADOW + " (LIKE account_balance_shard INCLUDING DEFAULTS)");
+    }
+
+    public void indexShadow() {
+        jdbcTemplate.execute("ALTER TABLE " + SHADOW + " ADD CONSTRAINT " + SHADOW
+                + "_pkey PRIMARY KEY (gl_account_id, period_start, shard)");
+        jdbcTemplate.execute("ALTER TABLE " + SHADOW + " ADD CONSTRAINT " + SHADOW
+                + "_gl_account_id_fkey FOREIGN KEY (gl_account_id) REFERENCES gl_account(gl_account_id)");
+        jdbcTemplate.execute("CREATE INDEX idx_" + SHADOW + "_period ON " + SHADOW + "(period_start)");
+    }
+
+    public void dropShadow() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + SHADOW);
+    }
+
+    /**
+     * Every month from the first to the last transaction in the journal, empty if there
+     * are none. Archived months before the first are not included.
+     */
+    public List<LocalDate> journalPeriods() {
+        List<LocalDate> periods = new ArrayList<>();
+        jdbcTemplate.query(JOURNAL_RANGE_SQL, rs -> {
+            LocalDate first = rs.getObject("first_period", LocalDate.class);
+            LocalDate last = rs.getObject("last_period", LocalDate.class);
+            for (LocalDate period = first; period != null && !period.isAfter(last); period = period.plusMonths(1)) {
+                periods.add(period);
+            }
+        });
+        return periods;
+    }
+
+    /**
+     * Writes the journal totals of one month into the shadow table.
+     *
+     * @return the number of entries aggregated
+     */
+    public long aggregateMonth(LocalDate periodStart) {
+        Timestamp from = Timestamp.from(periodStart.atStartOfDay(ZoneOffset.UTC).toInstant());
+        Timestamp to = Timestamp.from(periodStart.plusMonths(1).atStartOfDay(ZoneOffset.UTC).toInstant());
+        return jdbcTemplate.queryForList(AGGREGATE_MONTH_SQL, Long.class, from, to, periodStart, JOURNAL_SHARD)
+                .stream()
+                .mapToLong(Long::longValue)
+                .sum();
+    }
+
+    /**
+     * Discards the journal totals of one month from the shadow table and aggregates them
+     * again.
+     */
+    public long reaggregateMonth(LocalDate periodStart) {
+        jdbcTemplate.update("DELETE FROM " + SHADOW + " WHERE period_start = ? AND shard = ?", periodStart, JOURNAL_SHARD);
+        return aggregateMonth(periodStart);
+    }
+
+    public void insertTotals(LocalDate periodStart, short shard, Map<UUID, BalanceTotals> totals) {
+        List<Map.Entry<UUID, BalanceTotals>> rows = new ArrayList<>(totals.entrySet());
+        jdbcTemplate.batchUpdate(INSERT_TOTALS_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setObject(1, row.getKey());
+            ps.setObject(2, periodStart);
+            ps.setShort(3, shard);
+            ps.setBigDecimal(4, row.getValue().debitTotal());
+            ps.setBigDecimal(5, row.getValue().creditTotal());
+            ps.setLong(6, row.getValue().entryCount());
+        });
+    }
+
+    /**
+     * Months of the live table written to at or after {@code since}.
+     */
+    public List<LocalDate> periodsTouchedSince(Instant since) {
+        return jdbcTemplate.queryForList(TOUCHED_SINCE_SQL, LocalDate.class, Timestamp.from(since));
+    }
+
+    public Instant databaseNow() {
+        return jdbcTemplate.queryForObject("SELECT NOW()", Timestamp.class).toInstant();
+    }
+
+    /**
+     * Blocks postings (but not reads) of the live table until commit.
+     */
+    public void lockLive() {
+        jdbcTemplate.execute("LOCK TABLE account_balance_shard IN EXCLUSIVE MODE");
+    }
+
+    /**
+     * Puts the shadow table in place of the live one, under the live names. Statements
+     * waiting on the old table resolve the name again and continue on the new one.
+     */
+    public void swap() {
+        jdbcTemplate.execute("DROP TABLE account_balance_shard");
+        jdbcTemplate.execute("ALTER TABLE " + SHADOW + " RENAME TO account_balance_shard");
+        jdbcTemplate.execute("ALTER TABLE account_balance_shard RENAME CONSTRAINT " + SHADOW
+                + "_pkey TO account_balance_shard_pkey");
+        jdbcTemplate.execute("ALTER TABLE account_balance_shard RENAME CONSTRAINT " + SHADOW
+                + "_gl_account_id_fkey TO account_balance_shard_gl_account_id_fkey");
+        jdbcTemplate.execute("ALTER INDEX idx_" + SHADOW + "_period RENAME TO idx_account_balance_shard_period");
+    }
+}
@@ -0,0 +1,128 @@
+package com.astracore.gl.infrastructure.persistence.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Month-end cumulative balances in {@code account_balance_snapshot}.
+ * <p>
+ * A snapshot for month P is the snapshot before it plus every shard total after that
+ * snapshot up to and including P. Postings dated in an already snapshotted month flag
+ * that snapshot and all later ones stale (see {@link AccountBalanceStore}); readers skip
+ * stale snapshots and the rebuild job recomputes them. Both sides serialize on a
+ * Postgres advisory lock: backdated postings hold it shared, rebuilds exclusively, so a
+ * rebuild never misses a posting that commits while it runs.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BalanceSnapshotStore {
+
+    static final long LOCK_KEY = 0x474C_5348_4F54L; // "GLSHOT"
+
+    static final String LOCK_SHARED_SQL = "SELECT pg_advisory_xact_lock_shared(" + LOCK_KEY + ")";
+
+    private static final String LOCK_EXCLUSIVE_SQL = "SELECT pg_advisory_xact_lock(" + LOCK_KEY + ")";
+
+    private static final String LATEST_USABLE_SQL = """
+            SELECT MAX(period_start)
+              FROM account_balance_snapshot_run
+             WHERE period_start < ?
+               AND period_start < COALESCE((SELECT MIN(period_start) FROM account_balance_snapshot_run WHERE stale),
+                                           DATE 'infinity')
+            """;
+
+    private static final String READ_SQL = """
+            SELECT gl_account_id, debit_total, credit_total, entry_count
+              FROM account_balance_snapshot
+             WHERE period_start = ?
+            """;
+
+    private static final String DELETE_SQL = "DELETE FROM account_balance_snapshot WHERE period_start = ?";
+
+    // previous snapshot (if any) + shard totals for (previous, period]
+    private static final String REBUILD_SQL = """
+            INSERT INTO account_balance_snapshot (period_start, gl_account_id, debit_total, credit_total, entry_count)
+            SELECT ?, gl_account_id,
+                   COALESCE(p.debit_total, 0) + COALESCE(m.debit_total, 0),
+                   COALESCE(p.credit_total, 0) + COALESCE(m.credit_total, 0),
+                   COALESCE(p.entry_count, 0) + COALESCE(m.entry_count, 0)
+              FROM (SELECT gl_account_id, debit_total, credit_total, entry_count
+                      FROM account_balance_snapshot
+                     WHERE period_start = CAST(? AS DATE)) p
+              FULL JOIN (SELECT gl_account_id, SUM(debit_total) AS debit_total,
+                                SUM(credit_total) AS credit_total, SUM(entry_count) AS entry_count
+                           FROM account_balance_shard
+                          WHERE period_start > COALESCE(CAST(? AS DATE), DATE '-infinity')
+                            AND period_start <= ?
+                          GROUP BY gl_account_id) m USING (gl_account_id)
+            """;
+
+    private static final String MARK_RUN_SQL = """
+            INSERT INTO account_balance_snapshot_run (period_start, taken_at, stale)
+            VALUES (?, NOW(), FALSE)
+            ON CONFLICT (period_start) DO UPDATE SET taken_at = NOW(), stale = FALSE
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Latest snapshot before {@code monthStart} that is still valid.
+     */
+    public Optional<LocalDate> latestUsableBefore(LocalDate monthStart) {
+        return Optional.ofNullable(jdbcTemplate.queryForObject(LATEST_USABLE_SQL, LocalDate.class, monthStart));
+    }
+
+    public Map<UUID, BalanceTotals> read(LocalDate periodStart, UUID glAccountId) {
+        String sql = glAccountId == null ? READ_SQL : READ_SQL + " AND gl_account_id = ?";
+        Object[] args = glAccountId == null ? new Object[]{periodStart} : new Object[]{periodStart, glAccountId};
+        Map<UUID, BalanceTotals> totals = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            totals.put(rs.getObject("gl_account_id", UUID.class), new BalanceTotals(
+                    rs.getBigDecimal("debit_total"), rs.getBigDecimal("credit_total"), rs.getLong("entry_count")));
+        }, args);
+        return totals;
+    }
+
+    /**
+     * Blocks backdated postings until the calling transaction ends.
+     */
+    public void lockForRebuild() {
+        jdbcTemplate.query(LOCK_EXCLUSIVE_SQL, rs -> null);
+    }
+
+    public Optional<LocalDate> earliestStale() {
+        return Optional.ofNullable(jdbcTemplate.queryForObject(
+                "SELECT MIN(period_start) FROM account_balance_snapshot_run WHERE stale", LocalDate.class));
+    }
+
+    /**
+     * Invalidates every snapshot, e.g. after the monthly totals were rebuilt; the caller
+     * holds {@link #lockForRebuild()}.
+     */
+    public void markAllStale() {
+        jdbcTemplate.update("UPDATE account_balance_snapshot_run SET stale = TRUE WHERE NOT stale");
+    }
+
+    public List<LocalDate> snapshotPeriods() {
+        return jdbcTemplate.queryForList(
+                "SELECT period_start FROM account_balance_snapshot_run ORDER BY period_start", LocalDate.class);
+    }
+
+    /**
+     * Recomputes the snapshot for {@code periodStart} on top of the one for
+     * {@code previousPeriod}, or from the first shard row when there is none.
+     */
+    public void rebuild(LocalDate periodStart, LocalDate previousPeriod) {
+        jdbcTemplate.update(DELETE_SQL, periodStart);
+        jdbcTemplate.update(REBUILD_SQL, periodStart, previousPeriod, previousPeriod, periodStart);
+        jdbcTemplate.update(MARK_RUN_SQL, periodStart);
+    }
+}
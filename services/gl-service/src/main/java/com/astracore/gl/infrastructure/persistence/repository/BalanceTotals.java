@@ -0,0 +1,28 @@
+package com.astracore.gl.infrastructure.persistence.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Debit and credit movement and entry count accumulated over some span of time.
+ */
+public record BalanceTotals(BigDecimal debitTotal, BigDecimal creditTotal, long entryCount) {
+
+    public static final BalanceTotals ZERO = new BalanceTotals(BigDecimal.ZERO, BigDecimal.ZERO, 0);
+
+    public BalanceTotals plus(BalanceTotals other) {
+        return new BalanceTotals(debitTotal.add(other.debitTotal), creditTotal.add(other.creditTotal),
+                entryCount + other.entryCount);
+    }
+
+    public BalanceTotals minus(BalanceTotals other) {
+        return new BalanceTotals(debitTotal.subtract(other.debitTotal), creditTotal.subtract(other.creditTotal),
+                entryCount - other.entryCount);
+    }
+
+    /**
+     * Debits minus credits; positive for debit-normal balances.
+     */
+    public BigDecimal balance() {
+        return debitTotal.subtract(creditTotal);
+    }
+}
@@ -0,0 +1,9 @@
+package com.astracore.gl.infrastructure.persistence.repository;
+
+import java.util.UUID;
+
+/**
+ * One account's frozen figures for a closed period; {@code closing} is cumulative.
+ */
+public record ClosingBalance(UUID glAccountId, BalanceTotals opening, BalanceTotals period, BalanceTotals closing) {
+}
@@ -0,0 +1,10 @@
+package com.astracore.gl.infrastructure.persistence.repository;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * A closed fiscal period (calendar month, UTC).
+ */
+public record FiscalPeriod(LocalDate periodStart, Instant closedAt, int accountCount, long entryCount) {
+}
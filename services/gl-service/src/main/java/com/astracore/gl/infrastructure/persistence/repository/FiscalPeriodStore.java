@@ -0,0 +1,156 @@
+package com.astracore.gl.infrastructure.persistence.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Closed fiscal periods and their frozen balances.
+ * <p>
+ * Closing and backdated posting serialize on the snapshot lock described in
+ * {@link BalanceSnapshotStore}: a close holds it exclusively, a posting dated before the
+ * current month holds it shared from {@link #requireOpen} until it commits. A posting
+ * therefore either commits before the close reads the month or sees the month closed
+ * and rolls back.
+ */
+@Repository
+@RequiredArgsConstructor
+public class FiscalPeriodStore {
+
+    private static final String LATEST_CLOSED_SQL = "SELECT MAX(period_start) FROM fiscal_period";
+
+    private static final String LATEST_CLOSED_BEFORE_SQL = "SELECT MAX(period_start) FROM fiscal_period WHERE period_start < ?";
+
+    private static final String READ_CLOSING_SQL = """
+            SELECT gl_account_id, closing_debit_total, closing_credit_total, closing_entry_count
+              FROM fiscal_period_balance
+             WHERE period_start = ?
+            """;
+
+    // Accounts are split into buckets by hash so each bucket can be aggregated separately
+    private static final String AGGREGATE_BUCKET_SQL = """
+            SELECT gl_account_id,
+                   COALESCE(SUM(amount) FILTER (WHERE debit_credit_flag = 'D'), 0) AS debit_total,
+                   COALESCE(SUM(amount) FILTER (WHERE debit_credit_flag <> 'D'), 0) AS credit_total,
+                   COUNT(*) AS entry_count
+              FROM transaction_entry
+             WHERE transaction_date >= ? AND transaction_date < ?
+               AND (hashtext(gl_account_id::text) & 2147483647) % ? = ?
+             GROUP BY gl_account_id
+            """;
+
+    private static final String INSERT_PERIOD_SQL =
+            "INSERT INTO fiscal_period (period_start, account_count, entry_count) VALUES (?, ?, ?)";
+
+    private static final String INSERT_BALANCE_SQL = """
+            INSERT INTO fiscal_period_balance (period_start, gl_account_id, opening_debit_total, opening_credit_total,
+                                               period_debit_total, period_credit_total, closing_debit_total,
+                                               closing_credit_total, closing_entry_count)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final RowMapper<FiscalPeriod> PERIOD_MAPPER = (rs, rowNum) -> new FiscalPeriod(
+            rs.getObject("period_start", LocalDate.class),
+            rs.getTimestamp("closed_at").toInstant(),
+            rs.getInt("account_count"),
+            rs.getLong("entry_count")
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public Optional<LocalDate> latestClosed() {
+        return Optional.ofNullable(jdbcTemplate.queryForObject(LATEST_CLOSED_SQL, LocalDate.class));
+    }
+
+    public Optional<LocalDate> latestClosedBefore(LocalDate periodStart) {
+        return Optional.ofNullable(jdbcTemplate.queryForObject(LATEST_CLOSED_BEFORE_SQL, LocalDate.class, periodStart));
+    }
+
+    public boolean isClosed(LocalDate periodStart) {
+        return latestClosed().map(closed -> !periodStart.isAfter(closed)).orElse(false);
+    }
+
+    public Optional<FiscalPeriod> find(LocalDate periodStart) {
+        return jdbcTemplate.query("SELECT * FROM fiscal_period WHERE period_start = ?", PERIOD_MAPPER, periodStart)
+                .stream().findFirst();
+    }
+
+    public List<FiscalPeriod> findAll() {
+        return jdbcTemplate.query("SELECT * FROM fiscal_period ORDER BY period_start", PERIOD_MAPPER);
+    }
+
+    /**
+     * Rejects postings dated in {@code earliestPeriod} when it is closed. Takes the
+     * snapshot lock shared, so call it in the posting transaction.
+     *
+     * @throws IllegalArgumentException if the period is closed
+     */
+    public void requireOpen(LocalDate earliestPeriod) {
+        jdbcTemplate.query(BalanceSnapshotStore.LOCK_SHARED_SQL, rs -> null);
+        Optional<LocalDate> closed = latestClosed();
+        if (closed.isPresent() && !earliestPeriod.isAfter(closed.get())) {
+            throw new IllegalArgumentException("Fiscal period " + earliestPeriod + " is closed; periods up to "
+                    + closed.get() + " accept no postings");
+        }
+    }
+
+    /**
+     * Cumulative closing totals per account, one row per account with activity to date.
+     */
+    public Map<UUID, BalanceTotals> readClosing(LocalDate periodStart, UUID glAccountId) {
+        String sql = glAccountId == null ? READ_CLOSING_SQL : READ_CLOSING_SQL + " AND gl_account_id = ?";
+        Object[] args = glAccountId == null ? new Object[]{periodStart} : new Object[]{periodStart, glAccountId};
+        Map<UUID, BalanceTotals> totals = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            totals.put(rs.getObject("gl_account_id", UUID.class), new BalanceTotals(
+                    rs.getBigDecimal("closing_debit_total"), rs.getBigDecimal("closing_credit_total"),
+                    rs.getLong("closing_entry_count")));
+        }, args);
+        return totals;
+    }
+
+    /**
+     * Journal totals for the month of accounts in hash bucket {@code bucket} of
+     * {@code buckets}.
+     */
+    public Map<UUID, BalanceTotals> aggregateEntries(LocalDate periodStart, int bucket, int buckets) {
+        Map<UUID, BalanceTotals> totals = new HashMap<>();
+        jdbcTemplate.query(AGGREGATE_BUCKET_SQL, rs -> {
+            totals.put(rs.getObject("gl_account_id", UUID.class), new BalanceTotals(
+                    rs.getBigDecimal("debit_total"), rs.getBigDecimal("credit_total"), rs.getLong("entry_count")));
+        }, Timestamp.from(periodStart.atStartOfDay(ZoneOffset.UTC).toInstant()),
+                Timestamp.from(periodStart.plusMonths(1).atStartOfDay(ZoneOffset.UTC).toInstant()), buckets, bucket);
+        return totals;
+    }
+
+    /**
+     * Records the period as closed with its balances; the rows cannot change afterwards.
+     */
+    public void insertClosed(LocalDate periodStart, long entryCount, Collection<ClosingBalance> balances) {
+        jdbcTemplate.update(INSERT_PERIOD_SQL, periodStart, balances.size(), entryCount);
+        List<ClosingBalance> rows = new ArrayList<>(balances);
+        jdbcTemplate.batchUpdate(INSERT_BALANCE_SQL, rows, 1000, (ps, row) -> {
+            ps.setObject(1, periodStart);
+            ps.setObject(2, row.glAccountId());
+            ps.setBigDecimal(3, row.opening().debitTotal());
+            ps.setBigDecimal(4, row.opening().creditTotal());
+            ps.setBigDecimal(5, row.period().debitTotal());
+            ps.setBigDecimal(6, row.period().creditTotal());
+            ps.setBigDecimal(7, row.closing().debitTotal());
+            ps.setBigDecimal(8, row.closing().creditTotal());
+            ps.setLong(9, row.closing().entryCount());
+        });
+    }
+}
@@ -0,0 +1,147 @@
+package com.astracore.gl.infrastructure.persistence.repository;
+
+import com.astracore.gl.infrastructure.persistence.entity.AccountingTransactionEntity;
+import com.astracore.gl.infrastructure.persistence.entity.TransactionEntryEntity;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Writes accounting transactions and their entries with JDBC batch inserts, bypassing
+ * the persistence context. Used for posting, where per-entity persist and flush
+ * dominate; writes join the caller's transaction. Referenced GL accounts must already
+ * exist.
+ */
+@Repository
+@RequiredArgsConstructor
+public class JournalBatchStore {
+
+    // One statement for the whole batch: claim each source document in the unpartitioned
+    // registry, insert only the transactions whose claim succeeded; RETURNING tells us which
+    private static final String INSERT_TRANSACTIONS_SQL = """
+            WITH input AS (
+                SELECT *
+                  FROM unnest(?::uuid[], ?::timestamptz[], ?::timestamptz[], ?::varchar[],
+                              ?::varchar[], ?::boolean[], ?::uuid[], ?::varchar[], ?::varchar[])
+                       AS t(transaction_id, transaction_date, entry_date, description, transaction_type,
+                            is_posted, organization_party_id, source_document_type, source_document_id)
+            ), claimed AS (
+                INSERT INTO posted_source_document (source_document_type, source_document_id,
+                                                    transaction_id, transaction_date)
+                SELECT source_document_type, source_document_id, transaction_id, transaction_date
+                  FROM input
+                 WHERE source_document_type IS NOT NULL AND source_document_id IS NOT NULL
+                ON CONFLICT DO NOTHING
+                RETURNING transaction_id
+            )
+            INSERT INTO accounting_transaction (transaction_id, transaction_date, entry_date, description,
+                                                transaction_type, is_posted, organization_party_id,
+                                                source_document_type, source_document_id,
+                                                created_at, updated_at, version)
+            SELECT i.*, NOW(), NOW(), 0
+              FROM input i
+             WHERE i.source_document_type IS NULL OR i.source_document_id IS NULL
+                OR i.transaction_id IN (SELECT transaction_id FROM claimed)
+            RETURNING transaction_id
+            """;
+
+    private static final String INSERT_ENTRY_SQL = """
+            INSERT INTO transaction_entry (transaction_entry_id, transaction_id, gl_account_id, organization_party_id,
+                                           amount, debit_credit_flag, description, transaction_date,
+                                           created_at, updated_at, version)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserts the transactions whose source document has not been posted yet, together
+     * with their entries. Transactions without a source document are always inserted.
+     *
+     * @return the transactions actually inserted, in input order
+     */
+    public List<AccountingTransactionEntity> insert(List<AccountingTransactionEntity> transactions) {
+        if (transactions.isEmpty()) {
+            return List.of();
+        }
+        Set<UUID> insertedIds = new HashSet<>(jdbcTemplate.query(
+                con -> insertTransactions(con, transactions),
+                (rs, rowNum) -> rs.getObject(1, UUID.class)));
+
+        List<AccountingTransactionEntity> inserted = new ArrayList<>(insertedIds.size());
+        List<TransactionEntryEntity> entries = new ArrayList<>(insertedIds.size() * 2);
+        for (AccountingTransactionEntity tx : transactions) {
+            if (insertedIds.contains(tx.getTransactionId())) {
+                inserted.add(tx);
+                entries.addAll(tx.getEntries());
+            }
+        }
+        if (entries.isEmpty()) {
+            return inserted;
+        }
+
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.batchUpdate(INSERT_ENTRY_SQL, entries, entries.size(), (ps, entry) -> {
+            ps.setObject(1, entry.getTransactionEntryId());
+            ps.setObject(2, entry.getTransaction().getTransactionId());
+            ps.setObject(3, entry.getGlAccount().getGlAccountId());
+            ps.setObject(4, entry.getOrganizationPartyId());
+            ps.setBigDecimal(5, entry.getAmount());
+            ps.setString(6, entry.getDebitCreditFlag());
+            ps.setString(7, entry.getDescription());
+            ps.setTimestamp(8, Timestamp.from(entry.getTransaction().getTransactionDate()));
+            ps.setTimestamp(9, now);
+            ps.setTimestamp(10, now);
+        });
+        return inserted;
+    }
+
+    private static PreparedStatement insertTransactions(Connection con, List<AccountingTransactionEntity> transactions)
+            throws SQLException {
+        int size = transactions.size();
+        UUID[] ids = new UUID[size];
+        Timestamp[] transactionDates = new Timestamp[size];
+        Timestamp[] entryDates = new Timestamp[size];
+        String[] descriptions = new String[size];
+        String[] types = new String[size];
+        Boolean[] posted = new Boolean[size];
+        UUID[] organizationPartyIds = new UUID[size];
+        String[] sourceTypes = new String[size];
+        String[] sourceIds = new String[size];
+        for (int i = 0; i < size; i++) {
+            AccountingTransactionEntity tx = transactions.get(i);
+            ids[i] = tx.getTransactionId();
+            transactionDates[i] = Timestamp.from(tx.getTransactionDate());
+            entryDates[i] = Timestamp.from(tx.getEntryDate());
+            descriptions[i] = tx.getDescription();
+            types[i] = tx.getTransactionType();
+            posted[i] = tx.isPosted();
+            organizationPartyIds[i] = tx.getOrganizationPartyId();
+            sourceTypes[i] = tx.getSourceDocumentType();
+            sourceIds[i] = tx.getSourceDocumentId();
+        }
+
+        PreparedStatement ps = con.prepareStatement(INSERT_TRANSACTIONS_SQL);
+        ps.setArray(1, con.createArrayOf("uuid", ids));
+        ps.setArray(2, con.createArrayOf("timestamptz", transactionDates));
+        ps.setArray(3, con.createArrayOf("timestamptz", entryDates));
+        ps.setArray(4, con.createArrayOf("varchar", descriptions));
+        ps.setArray(5, con.createArrayOf("varchar", types));
+        ps.setArray(6, con.createArrayOf("boolean", posted));
+        ps.setArray(7, con.createArrayOf("uuid", organizationPartyIds));
+        ps.setArray(8, con.createArrayOf("varchar", sourceTypes));
+        ps.setArray(9, con.createArrayOf("varchar", sourceIds));
+        return ps;
+    }
+}
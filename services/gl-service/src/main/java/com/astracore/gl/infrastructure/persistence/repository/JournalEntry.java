@@ -0,0 +1,12 @@
+package com.astracore.gl.infrastructure.persistence.repository;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One transaction entry as read for an account statement.
+ */
+public record JournalEntry(UUID transactionEntryId, UUID transactionId, BigDecimal amount, String debitCreditFlag,
+                           String description, Instant transactionDate) {
+}
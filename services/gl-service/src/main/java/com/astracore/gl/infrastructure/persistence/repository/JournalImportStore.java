@@ -0,0 +1,273 @@
+package com.astracore.gl.infrastructure.persistence.repository;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Bulk loads journal entries through a temporary staging table. Entries are streamed in
+ * with {@code COPY ... FROM STDIN}, then merged into the journal, the posted source
+ * document registry and the monthly balances by a single set-based statement. The
+ * staging table lives for one database transaction; call everything here within one.
+ * <p>
+ * Each staged row is one entry carrying its transaction's fields; the transaction's
+ * first entry is flagged and stands for the transaction. As with posting, a
+ * transaction whose source document has been posted before is skipped together with its
+ * entries, so loading the same entries again changes nothing.
+ */
+@Repository
+public class JournalImportStore {
+
+    private static final String CREATE_STAGING_SQL = """
+            CREATE TEMPORARY TABLE journal_import_entry (
+                line BIGINT NOT NULL,
+                first_entry BOOLEAN NOT NULL,
+                transaction_id UUID NOT NULL,
+                transaction_date TIMESTAMPTZ NOT NULL,
+                transaction_type VARCHAR(50) NOT NULL,
+                description VARCHAR(500),
+                source_document_type VARCHAR(50) NOT NULL,
+                source_document_id VARCHAR(100) NOT NULL,
+                transaction_entry_id UUID NOT NULL,
+                account_code VARCHAR(50) NOT NULL,
+                debit_credit_flag CHAR(1) NOT NULL,
+                amount DECIMAL(18, 2) NOT NULL,
+                entry_description VARCHAR(500)
+            ) ON COMMIT DROP
+            """;
+
+    private static final String COPY_SQL = """
+            COPY journal_import_entry (line, first_entry, transaction_id, transaction_date, transaction_type,
+                                       description, source_document_type, source_document_id, transaction_entry_id,
+                                       account_code, debit_credit_flag, amount, entry_description) FROM STDIN
+            """;
+
+    private static final String REPEATED_DOCUMENT_SQL = """
+            SELECT source_document_type || ' ' || source_document_id || ' at line ' || MAX(line)
+              FROM journal_import_entry
+             WHERE first_entry
+             GROUP BY source_document_type, source_document_id
+            HAVING COUNT(*) > 1
+             LIMIT 1
+            """;
+
+    private static final String UNKNOWN_ACCOUNTS_SQL = """
+            SELECT s.account_code
+              FROM (SELECT DISTINCT account_code FROM journal_import_entry) s
+             WHERE NOT EXISTS (SELECT 1 FROM gl_account a WHERE a.tenant_id = ? AND a.account_code = s.account_code)
+             ORDER BY s.account_code
+             LIMIT 10
+            """;
+
+    // Claims each transaction's source document first; only transactions whose claim
+    // succeeded are inserted, with their entries, and only those entries are added to
+    // the balances. Balance rows go to one shard in key order, like AccountBalanceStore
+    private static final String MERGE_SQL = """
+            WITH claimed AS (
+                INSERT INTO posted_source_document (source_document_type, source_document_id,
+                                                    transaction_id, transaction_date)
+                SELECT source_document_type, source_document_id, transaction_id, transaction_date
+                  FROM journal_import_entry
+                 WHERE first_entry
+                ON CONFLICT DO NOTHING
+                RETURNING transaction_id
+            ), transactions AS (
+                INSERT INTO accounting_transaction (transaction_id, transaction_date, entry_date, description,
+                                                    transaction_type, is_posted, source_document_type,
+                                                    source_document_id, created_at, updated_at, version)
+                SELECT s.transaction_id, s.transaction_date, NOW(), s.description, s.transaction_type, TRUE,
+                       s.source_document_type, s.source_document_id, NOW(), NOW(), 0
+                  FROM journal_import_entry s
+                  JOIN claimed c ON c.transaction_id = s.transaction_id
+                 WHERE s.first_entry
+                RETURNING transaction_date
+            ), entries AS (
+                INSERT INTO transaction_entry (transaction_entry_id, transaction_id, gl_account_id, amount,
+                                               debit_credit_flag, description, transaction_date,
+                                               created_at, updated_at, version)
+                SELECT s.transaction_entry_id, s.transaction_id, a.gl_account_id, s.amount, s.debit_credit_flag,
+                       s.entry_description, s.transaction_date, NOW(), NOW(), 0
+                  FROM journal_import_entry s
+                  JOIN claimed c ON c.transaction_id = s.transaction_id
+                  JOIN gl_account a ON a.tenant_id = ? AND a.account_code = s.account_code
+                RETURNING gl_account_id, transaction_date, amount, debit_credit_flag
+            ), balances AS (
+                INSERT INTO account_balance_shard (gl_account_id, period_start, shard, debit_total, credit_total,
+                                                   entry_count)
+                SELECT gl_account_id, date_trunc('month', transaction_date AT TIME ZONE 'UTC')::date, ?,
+                       COALESCE(SUM(amount) FILTER (WHERE debit_credit_flag = 'D'), 0),
+                       COALESCE(SUM(amount) FILTER (WHERE debit_credit_flag <> 'D'), 0),
+                       COUNT(*)
+                  FROM entries
+                 GROUP BY 1, 2
+                 ORDER BY 1, 2
+                ON CONFLICT (gl_account_id, period_start, shard) DO UPDATE
+                   SET debit_total = account_balance_shard.debit_total + EXCLUDED.debit_total,
+                       credit_total = account_balance_shard.credit_total + EXCLUDED.credit_total,
+                       entry_count = account_balance_shard.entry_count + EXCLUDED.entry_count,
+                       updated_at = NOW()
+            )
+            SELECT (SELECT COUNT(*) FROM transactions) AS transaction_count,
+                   (SELECT COUNT(*) FROM entries) AS entry_count,
+                   (SELECT date_trunc('month', MIN(transaction_date) AT TIME ZONE 'UTC')::date
+                      FROM transactions) AS earliest_period
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int shards;
+
+    public JournalImportStore(JdbcTemplate jdbcTemplate,
+                              @Value("${gl.balances.shards:8}") int shards) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shards = shards;
+    }
+
+    /**
+     * Creates the staging table and starts copying into it.
+     */
+    public Staging openStaging() {
+        jdbcTemplate.execute(CREATE_STAGING_SQL);
+        CopyIn copyIn = jdbcTemplate.execute((ConnectionCallback<CopyIn>) con ->
+                con.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL));
+        return new Staging(copyIn);
+    }
+
+    /**
+     * A source document staged for more than one transaction, e.g. {@code JOURNAL_IMPORT
+     * T-17 at line 4120}; such entries are not grouped by transaction.
+     */
+    public Optional<String> findRepeatedDocument() {
+        return jdbcTemplate.queryForList(REPEATED_DOCUMENT_SQL, String.class).stream().findFirst();
+    }
+
+    /**
+     * Up to ten staged account codes the tenant has no account for.
+     */
+    public List<String> findUnknownAccounts(String tenantId) {
+        return jdbcTemplate.queryForList(UNKNOWN_ACCOUNTS_SQL, String.class, tenantId);
+    }
+
+    /**
+     * Moves the staged entries into the journal and the monthly balances.
+     */
+    public MergeResult merge(String tenantId) {
+        short shard = (short) ThreadLocalRandom.current().nextInt(shards);
+        return jdbcTemplate.queryForObject(MERGE_SQL, (rs, rowNum) -> new MergeResult(
+                rs.getLong("transaction_count"),
+                rs.getLong("entry_count"),
+                rs.getObject("earliest_period", LocalDate.class)), tenantId, shard);
+    }
+
+    /**
+     * @param earliestPeriod the first month with a merged transaction; null if none was
+     */
+    public record MergeResult(long transactions, long entries, LocalDate earliestPeriod) {
+    }
+
+    /**
+     * Rows being copied into the staging table, written in COPY text format and sent in
+     * 64 KiB messages. {@link #finish} or {@link #cancel} before the transaction ends.
+     */
+    public static final class Staging {
+
+        private static final int FLUSH_SIZE = 64 * 1024;
+
+        private final CopyIn copyIn;
+        private final StringBuilder buffer = new StringBuilder(FLUSH_SIZE + 4096);
+
+        private Staging(CopyIn copyIn) {
+            this.copyIn = copyIn;
+        }
+
+        public void add(long line, boolean firstEntry, UUID transactionId, Instant transactionDate,
+                        String transactionType, String description, String sourceDocumentType,
+                        String sourceDocumentId, UUID transactionEntryId, String accountCode, String debitCreditFlag,
+                        BigDecimal amount, String entryDescription) {
+            buffer.append(line).append('\t')
+                    .append(firstEntry ? 't' : 'f').append('\t')
+                    .append(transactionId).append('\t')
+                    .append(transactionDate).append('\t');
+            field(transactionType).append('\t');
+            field(description).append('\t');
+            field(sourceDocumentType).append('\t');
+            field(sourceDocumentId).append('\t');
+            buffer.append(transactionEntryId).append('\t');
+            field(accountCode).append('\t');
+            buffer.append(debitCreditFlag).append('\t')
+                    .append(amount.toPlainString()).append('\t');
+            field(entryDescription).append('\n');
+            if (buffer.length() >= FLUSH_SIZE) {
+                flush();
+            }
+        }
+
+        /**
+         * @return the number of rows copied
+         */
+        public long finish() {
+            flush();
+            try {
+                return copyIn.endCopy();
+            } catch (SQLException e) {
+                throw new IllegalStateException("Could not load journal staging table: " + e.getMessage(), e);
+            }
+        }
+
+        /**
+         * Abandons the copy so the connection can roll back; a no-op once finished.
+         */
+        public void cancel() {
+            if (copyIn.isActive()) {
+                try {
+                    copyIn.cancelCopy();
+                } catch (SQLException e) {
+                    // The rollback that follows fails the connection if the copy is still open
+                }
+            }
+        }
+
+        private void flush() {
+            if (buffer.isEmpty()) {
+                return;
+            }
+            byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+            buffer.setLength(0);
+            try {
+                copyIn.writeToCopy(bytes, 0, bytes.length);
+            } catch (SQLException e) {
+                throw new IllegalStateException("Could not load journal staging table: " + e.getMessage(), e);
+            }
+        }
+
+        // COPY text format: \N is null; backslash and the delimiter characters are escaped
+        private StringBuilder field(String value) {
+            if (value == null) {
+                return buffer.append("\\N");
+            }
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '\\' -> buffer.append("\\\\");
+                    case '\t' -> buffer.append("\\t");
+                    case '\n' -> buffer.append("\\n");
+                    case '\r' -> buffer.append("\\r");
+                    default -> buffer.append(c);
+                }
+            }
+            return buffer;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.astracore.gl.infrastructure.persistence.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Monthly partitions of {@code accounting_transaction} and {@code transaction_entry}.
+ * <p>
+ * Each month (UTC) has its own partition in both tables, named e.g.
+ * {@code transaction_entry_y2024m01}; rows outside every partition sit in the default
+ * partition until {@link #ensureMonthlyPartition} carves their month out of it. Months
+ * the archive job has moved to files are recorded in {@code gl_archived_partition} and
+ * never get a partition again. All maintenance serializes on one advisory lock, taken
+ * by the SQL function as well as by {@link #lock()}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class JournalPartitionStore {
+
+    public static final List<String> JOURNAL_TABLES = List.of("accounting_transaction", "transaction_entry");
+
+    private static final String LOCK_SQL = "SELECT pg_advisory_xact_lock(hashtext('gl_journal_partitions'))";
+
+    private static final String ENSURE_SQL = "SELECT gl_ensure_monthly_partition(?)";
+
+    // Months with journal partitions or posted balances that are not archived yet
+    private static final String UNARCHIVED_BEFORE_SQL = """
+            SELECT period_start
+              FROM (SELECT to_date(right(c.relname, 8), '"y"YYYY"m"MM') AS period_start
+                      FROM pg_inherits i
+                      JOIN pg_class c ON c.oid = i.inhrelid
+                     WHERE i.inhparent = 'transaction_entry'::regclass
+                       AND c.relname ~ '_y[0-9]{4}m[0-9]{2}$'
+                    UNION
+                    SELECT period_start FROM account_balance_shard) p
+             WHERE period_start < ?
+               AND NOT EXISTS (SELECT 1 FROM gl_archived_partition a WHERE a.period_start = p.period_start)
+             ORDER BY period_start
+            """;
+
+    private static final String FIND_ARCHIVED_SQL = """
+            SELECT period_start, transaction_file, entry_file, transaction_count, entry_count
+              FROM gl_archived_partition
+             WHERE period_start = ?
+            """;
+
+    private static final String ALL_ARCHIVED_SQL = """
+            SELECT period_start, transaction_file, entry_file, transaction_count, entry_count
+              FROM gl_archived_partition
+             ORDER BY period_start
+            """;
+
+    private static final String INSERT_ARCHIVED_SQL = """
+            INSERT INTO gl_archived_partition (period_start, transaction_file, entry_file, transaction_count, entry_count)
+            VALUES (?, ?, ?, ?, ?)
+            """;
+
+    private static final RowMapper<ArchivedPeriod> ARCHIVED_MAPPER = (rs, rowNum) -> new ArchivedPeriod(
+            rs.getObject("period_start", LocalDate.class),
+            Path.of(rs.getString("transaction_file")),
+            Path.of(rs.getString("entry_file")),
+            rs.getLong("transaction_count"),
+            rs.getLong("entry_count")
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public static String partitionName(String table, LocalDate periodStart) {
+        return String.format("%s_y%04dm%02d", table, periodStart.getYear(), periodStart.getMonthValue());
+    }
+
+    /**
+     * Blocks until no other transaction is maintaining partitions; held until commit.
+     */
+    public void lock() {
+        jdbcTemplate.query(LOCK_SQL, rs -> null);
+    }
+
+    /**
+     * @return the number of partitions created for the month starting at {@code periodStart}
+     */
+    public int ensureMonthlyPartition(LocalDate periodStart) {
+        Integer created = jdbcTemplate.queryForObject(ENSURE_SQL, Integer.class, periodStart);
+        return created == null ? 0 : created;
+    }
+
+    public List<LocalDate> unarchivedPeriodsBefore(LocalDate periodStart) {
+        return jdbcTemplate.queryForList(UNARCHIVED_BEFORE_SQL, LocalDate.class, periodStart);
+    }
+
+    public Optional<ArchivedPeriod> findArchived(LocalDate periodStart) {
+        return jdbcTemplate.query(FIND_ARCHIVED_SQL, ARCHIVED_MAPPER, periodStart).stream().findFirst();
+    }
+
+    public List<ArchivedPeriod> findAllArchived() {
+        return jdbcTemplate.query(ALL_ARCHIVED_SQL, ARCHIVED_MAPPER);
+    }
+
+    /**
+     * Detaches the month's partitions from both journal tables. Takes an exclusive lock on
+     * the parents until commit, so callers keep the rest of the transaction short.
+     */
+    public void detach(LocalDate periodStart) {
+        for (String table : JOURNAL_TABLES) {
+            jdbcTemplate.execute("ALTER TABLE " + table + " DETACH PARTITION " + partitionName(table, periodStart));
+        }
+    }
+
+    public long count(String table, LocalDate periodStart) {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + partitionName(table, periodStart), Long.class);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Drops the month's detached partitions and records where their rows went.
+     */
+    public void markArchived(ArchivedPeriod archived) {
+        for (String table : JOURNAL_TABLES) {
+            jdbcTemplate.execute("DROP TABLE " + partitionName(table, archived.periodStart()));
+        }
+        jdbcTemplate.update(INSERT_ARCHIVED_SQL, archived.periodStart(), archived.transactionFile().toString(),
+                archived.entryFile().toString(), archived.transactionCount(), archived.entryCount());
+    }
+}
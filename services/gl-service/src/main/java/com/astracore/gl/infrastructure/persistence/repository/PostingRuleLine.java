@@ -0,0 +1,9 @@
+package com.astracore.gl.infrastructure.persistence.repository;
+
+/**
+ * One line of a posting rule, with its rule's header columns repeated.
+ */
+public record PostingRuleLine(String eventType, String transactionType, String transactionDescription, int lineNo,
+                              String debitCreditFlag, String accountCode, String accountName,
+                              String glAccountTypeId, String lineDescription) {
+}
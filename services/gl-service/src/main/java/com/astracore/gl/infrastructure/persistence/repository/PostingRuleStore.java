@@ -0,0 +1,43 @@
+package com.astracore.gl.infrastructure.persistence.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * The posting rule tables, read whole; they hold a handful of rows per event type.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PostingRuleStore {
+
+    // Rules without lines come back with a null line so they fail compilation visibly
+    private static final String FIND_ALL_SQL = """
+            SELECT r.event_type, r.transaction_type, r.description AS transaction_description,
+                   l.line_no, l.debit_credit_flag, l.account_code, l.account_name, l.gl_account_type_id,
+                   l.description AS line_description
+              FROM posting_rule r
+              LEFT JOIN posting_rule_line l ON l.event_type = r.event_type
+             ORDER BY r.event_type, l.line_no
+            """;
+
+    private static final RowMapper<PostingRuleLine> ROW_MAPPER = (rs, rowNum) -> new PostingRuleLine(
+            rs.getString("event_type"),
+            rs.getString("transaction_type"),
+            rs.getString("transaction_description"),
+            rs.getInt("line_no"),
+            rs.getString("debit_credit_flag"),
+            rs.getString("account_code"),
+            rs.getString("account_name"),
+            rs.getString("gl_account_type_id"),
+            rs.getString("line_description"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public List<PostingRuleLine> findAll() {
+        return jdbcTemplate.query(FIND_ALL_SQL, ROW_MAPPER);
+    }
+}
@@ -0,0 +1,71 @@
+package com.astracore.gl.infrastructure.tenant;
+
+import com.astracore.gl.infrastructure.persistence.repository.BalanceSnapshotStore;
+import com.astracore.tenancy.ShardRouter;
+import com.astracore.tenancy.TenantMoveListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.time.LocalDate;
+
+/**
+ * GL rules for moving a tenant. Closed fiscal periods are per shard and immutable, so a
+ * tenant whose postings reach into a closed period on either side cannot move: its
+ * closing balances could neither leave the source nor be added to the target's closes.
+ * The target's month-end snapshots do not cover the tenant's accounts, so they are
+ * flagged stale in the same transaction that copies the tenant in; reads fall back to
+ * the monthly balances until the next snapshot run.
+ */
+class GlTenantMoveGuard implements TenantMoveListener {
+
+    private static final String HAS_CLOSING_BALANCES_SQL = """
+            SELECT EXISTS (SELECT 1
+                             FROM fiscal_period_balance b
+                             JOIN gl_account a ON a.gl_account_id = b.gl_account_id
+                            WHERE a.tenant_id = ?)
+            """;
+
+    private static final String EARLIEST_PERIOD_SQL = """
+            SELECT MIN(s.period_start)
+              FROM account_balance_shard s
+              JOIN gl_account a ON a.gl_account_id = s.gl_account_id
+             WHERE a.tenant_id = ?
+            """;
+
+    private final ShardRouter shardRouter;
+    private final JdbcTemplate jdbcTemplate;
+
+    GlTenantMoveGuard(ShardRouter shardRouter, JdbcTemplate jdbcTemplate) {
+        this.shardRouter = shardRouter;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void beforeCopy(String tenantId, String sourceShard, String targetShard) {
+        if (Boolean.TRUE.equals(shardRouter.callOnShard(sourceShard,
+                () -> jdbcTemplate.queryForObject(HAS_CLOSING_BALANCES_SQL, Boolean.class, tenantId)))) {
+            throw new IllegalStateException("Tenant " + tenantId + " has closed fiscal periods on shard "
+                    + sourceShard + " and cannot be moved");
+        }
+        Date earliest = shardRouter.callOnShard(sourceShard,
+                () -> jdbcTemplate.queryForObject(EARLIEST_PERIOD_SQL, Date.class, tenantId));
+        Date latestClosed = shardRouter.callOnShard(targetShard,
+                () -> jdbcTemplate.queryForObject("SELECT MAX(period_start) FROM fiscal_period", Date.class));
+        if (earliest != null && latestClosed != null && !earliest.toLocalDate().isAfter(latestClosed.toLocalDate())) {
+            LocalDate closed = latestClosed.toLocalDate();
+            throw new IllegalStateException("Tenant " + tenantId + " has postings in " + earliest.toLocalDate()
+                    + ", which shard " + targetShard + " has closed up to " + closed);
+        }
+    }
+
+    @Override
+    public void afterCopy(String tenantId, String targetShard, Connection target) {
+        BalanceSnapshotStore targetSnapshots = new BalanceSnapshotStore(
+                new JdbcTemplate(new SingleConnectionDataSource(target, true)));
+        // Waits out a rebuild in progress, which would not see the copied rows
+        targetSnapshots.lockForRebuild();
+        targetSnapshots.markAllStale();
+    }
+}
@@ -0,0 +1,43 @@
+package com.astracore.gl.infrastructure.tenant;
+
+import com.astracore.tenancy.ShardRouter;
+import com.astracore.tenancy.TenantTable;
+import com.astracore.tenancy.config.EnableTenancy;
+import com.astracore.tenancy.config.TenantDataModel;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/**
+ * Tenant sharding under {@code gl.tenancy}; see {@link EnableTenancy}.
+ */
+@Configuration
+@EnableTenancy(prefix = "gl.tenancy")
+public class TenancyConfig {
+
+    private static final String TENANT_ACCOUNTS =
+            "gl_account_id IN (SELECT gl_account_id FROM gl_account WHERE tenant_id = {tenant})";
+    private static final String TENANT_TRANSACTIONS =
+            "transaction_id IN (SELECT transaction_id FROM transaction_entry WHERE " + TENANT_ACCOUNTS + ")";
+
+    /**
+     * What moving a tenant copies, parents first. Rows are deleted from the source in
+     * reverse order, so entries come before the transactions they identify as the
+     * tenant's. Snapshots are rebuilt on the target rather than copied.
+     */
+    static final List<TenantTable> TENANT_TABLES = List.of(
+            TenantTable.owned("gl_account", "tenant_id = {tenant}"),
+            TenantTable.owned("transaction_entry", TENANT_ACCOUNTS),
+            TenantTable.owned("accounting_transaction", TENANT_TRANSACTIONS),
+            TenantTable.owned("posted_source_document", TENANT_TRANSACTIONS),
+            TenantTable.owned("account_balance_shard", TENANT_ACCOUNTS),
+            TenantTable.derived("account_balance_snapshot", TENANT_ACCOUNTS));
+
+    @Bean
+    public TenantDataModel tenantDataModel(ShardRouter shardRouter, JdbcTemplate jdbcTemplate) {
+        return new TenantDataModel(TENANT_TABLES, "SELECT DISTINCT tenant_id FROM gl_account",
+                new GlTenantMoveGuard(shardRouter, jdbcTemplate));
+    }
+}
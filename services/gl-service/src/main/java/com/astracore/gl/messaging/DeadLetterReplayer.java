@@ -0,0 +1,205 @@
+package com.astracore.gl.messaging;
+
+import com.astracore.gl.application.dto.DeadLetterReplayDTO;
+import com.astracore.gl.application.dto.DeadLetterTopicDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Sends dead-lettered records back to the topic they were first read from, once whatever
+ * kept them from posting has been fixed. Records are read as raw bytes and written
+ * unchanged, without the failure and retry headers, and marked with
+ * {@value #REPLAYED_FROM_HEADER}; they then post, retry and dead-letter like any other.
+ * Redelivery of records that did post in the meantime is dropped as already posted.
+ * <p>
+ * Progress through each dead-letter topic is kept as the offsets of consumer group
+ * {@code gl-service-dlt-replay}, committed only after the broker has every re-sent
+ * record, so a replay that fails part way is picked up where it stopped. Records
+ * dead-lettered while a replay runs are left for the next one. One replay runs at a
+ * time per instance.
+ */
+@Slf4j
+@Component
+public class DeadLetterReplayer {
+
+    public static final String REPLAYED_FROM_HEADER = "gl-replayed-from";
+
+    private static final String GROUP_ID = "gl-service-dlt-replay";
+    private static final String DLT_HEADER_PREFIX = "kafka_dlt-";
+    private static final String RETRY_HEADER_PREFIX = "gl-retry-";
+
+    private final ConsumerFactory<Object, Object> consumerFactory;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final PostingRetryTopics retryTopics;
+    private final Duration timeout;
+
+    public DeadLetterReplayer(ConsumerFactory<Object, Object> consumerFactory,
+                              KafkaTemplate<String, Object> kafkaTemplate, PostingRetryTopics retryTopics,
+                              @Value("${gl.posting.retry.replay-timeout-ms:30000}") long timeoutMillis) {
+        this.consumerFactory = consumerFactory;
+        this.kafkaTemplate = kafkaTemplate;
+        this.retryTopics = retryTopics;
+        this.timeout = Duration.ofMillis(timeoutMillis);
+    }
+
+    public List<DeadLetterTopicDTO> pending() {
+        List<DeadLetterTopicDTO> topics = new ArrayList<>();
+        try (Consumer<String, byte[]> consumer = createConsumer()) {
+            for (String topic : PostingRetryTopics.SOURCE_TOPICS) {
+                String deadLetterTopic = retryTopics.deadLetterTopic(topic);
+                topics.add(new DeadLetterTopicDTO(topic, deadLetterTopic, pending(consumer, deadLetterTopic)));
+            }
+        }
+        return topics;
+    }
+
+    /**
+     * Re-sends up to {@code max} records from the dead-letter topic of {@code topic}.
+     */
+    public synchronized DeadLetterReplayDTO replay(String topic, int max) {
+        if (!PostingRetryTopics.SOURCE_TOPICS.contains(topic)) {
+            throw new IllegalArgumentException("Not a GL source topic: " + topic);
+        }
+        if (max <= 0) {
+            throw new IllegalArgumentException("max must be positive");
+        }
+        String deadLetterTopic = retryTopics.deadLetterTopic(topic);
+        try (Consumer<String, byte[]> consumer = createConsumer()) {
+            List<TopicPartition> partitions = partitionsOf(consumer, deadLetterTopic);
+            if (partitions.isEmpty()) {
+                return new DeadLetterReplayDTO(topic, deadLetterTopic, 0, 0);
+            }
+            consumer.assign(partitions);
+            Map<TopicPartition, Long> ends = consumer.endOffsets(partitions, timeout);
+            Map<TopicPartition, Long> positions = new HashMap<>();
+            for (TopicPartition partition : partitions) {
+                positions.put(partition, consumer.position(partition, timeout));
+            }
+
+            List<CompletableFuture<SendResult<String, Object>>> sends = new ArrayList<>();
+            Map<TopicPartition, OffsetAndMetadata> replayedTo = new HashMap<>();
+            long deadline = System.currentTimeMillis() + timeout.toMillis();
+            while (sends.size() < max && !caughtUp(positions, ends) && System.currentTimeMillis() < deadline) {
+                for (ConsumerRecord<String, byte[]> record : consumer.poll(Duration.ofMillis(500))) {
+                    TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+                    if (sends.size() >= max || record.offset() >= ends.get(partition)) {
+                        continue;
+                    }
+                    sends.add(kafkaTemplate.send(replayOf(record, topic)));
+                    replayedTo.put(partition, new OffsetAndMetadata(record.offset() + 1));
+                }
+                for (TopicPartition partition : partitions) {
+                    positions.put(partition, consumer.position(partition, timeout));
+                }
+            }
+            awaitAll(sends, deadLetterTopic);
+            if (!replayedTo.isEmpty()) {
+                consumer.commitSync(replayedTo, timeout);
+            }
+            log.info("Replayed {} records from {} to {}", sends.size(), deadLetterTopic, topic);
+            return new DeadLetterReplayDTO(topic, deadLetterTopic, sends.size(), pending(consumer, deadLetterTopic));
+        }
+    }
+
+    private ProducerRecord<String, Object> replayOf(ConsumerRecord<String, byte[]> record, String topic) {
+        RecordHeaders headers = new RecordHeaders();
+        String originalTopic = topic;
+        for (Header header : record.headers()) {
+            if (header.key().equals(KafkaHeaders.DLT_ORIGINAL_TOPIC)) {
+                originalTopic = new String(header.value(), StandardCharsets.UTF_8);
+            }
+            if (!header.key().startsWith(DLT_HEADER_PREFIX) && !header.key().startsWith(RETRY_HEADER_PREFIX)
+                    && !header.key().equals(REPLAYED_FROM_HEADER)) {
+                headers.add(header);
+            }
+        }
+        headers.add(REPLAYED_FROM_HEADER, record.topic().getBytes(StandardCharsets.UTF_8));
+        // The byte[] value goes out as is; see BinaryEventSerializer
+        return new ProducerRecord<>(PostingRetryTopics.SOURCE_TOPICS.contains(originalTopic) ? originalTopic : topic,
+                null, record.key(), record.value(), headers);
+    }
+
+    private void awaitAll(List<CompletableFuture<SendResult<String, Object>>> sends, String deadLetterTopic) {
+        try {
+            CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while replaying " + deadLetterTopic, e);
+        } catch (ExecutionException | TimeoutException e) {
+            // Nothing is committed, so the next replay re-sends these; duplicates are dropped as already posted
+            throw new IllegalStateException("Could not replay " + deadLetterTopic + ": " + e.getMessage(), e);
+        }
+    }
+
+    private long pending(Consumer<String, byte[]> consumer, String deadLetterTopic) {
+        List<TopicPartition> partitions = partitionsOf(consumer, deadLetterTopic);
+        if (partitions.isEmpty()) {
+            return 0;
+        }
+        Map<TopicPartition, Long> ends = consumer.endOffsets(partitions, timeout);
+        Map<TopicPartition, Long> beginnings = consumer.beginningOffsets(partitions, timeout);
+        Map<TopicPartition, OffsetAndMetadata> committed = consumer.committed(new HashSet<>(partitions), timeout);
+        long pending = 0;
+        for (TopicPartition partition : partitions) {
+            OffsetAndMetadata offset = committed.get(partition);
+            long from = Math.max(beginnings.get(partition), offset == null ? 0 : offset.offset());
+            pending += Math.max(0, ends.get(partition) - from);
+        }
+        return pending;
+    }
+
+    private List<TopicPartition> partitionsOf(Consumer<String, byte[]> consumer, String topic) {
+        List<PartitionInfo> infos = consumer.partitionsFor(topic, timeout);
+        List<TopicPartition> partitions = new ArrayList<>();
+        if (infos != null) {
+            for (PartitionInfo info : infos) {
+                partitions.add(new TopicPartition(info.topic(), info.partition()));
+            }
+        }
+        return partitions;
+    }
+
+    private static boolean caughtUp(Map<TopicPartition, Long> positions, Map<TopicPartition, Long> ends) {
+        return positions.entrySet().stream().allMatch(position -> position.getValue() >= ends.get(position.getKey()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Consumer<String, byte[]> createConsumer() {
+        Properties overrides = new Properties();
+        overrides.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
+        overrides.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class.getName());
+        overrides.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+        overrides.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        Consumer<?, ?> consumer = consumerFactory.createConsumer(GROUP_ID, null, null, overrides);
+        return (Consumer<String, byte[]>) consumer;
+    }
+}
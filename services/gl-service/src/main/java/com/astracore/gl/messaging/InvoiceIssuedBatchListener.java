@@ -0,0 +1,71 @@
+package com.astracore.gl.messaging;
+
+import com.astracore.event.InvoiceIssued;
+import com.astracore.gl.application.service.GlPostingService;
+import com.astracore.tenancy.ShardRouter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Posts {@code InvoiceIssued} records a poll at a time; see {@link PostingBatchListener}.
+ * Lanes are keyed by tenant and customer.
+ */
+@Component
+@ConditionalOnProperty(name = "gl.posting.batch.enabled", havingValue = "true", matchIfMissing = true)
+public class InvoiceIssuedBatchListener extends PostingBatchListener<InvoiceIssued> {
+
+    private final GlPostingService glPostingService;
+
+    public InvoiceIssuedBatchListener(GlPostingService glPostingService, ShardRouter shardRouter,
+                                      PostingRetryRecoverer recoverer, MeterRegistry meterRegistry,
+                                      @Value("${gl.posting.parallel.lanes:0}") int lanes,
+                                      @Value("${gl.tenancy.move-wait-ms:30000}") long moveWaitMillis) {
+        super(InvoiceIssued.class, "invoice", shardRouter, recoverer, meterRegistry, lanes, moveWaitMillis);
+        this.glPostingService = glPostingService;
+    }
+
+    @KafkaListener(topics = "invoice.issued.v1", groupId = "gl-service", batch = "true",
+            concurrency = "${gl.posting.batch.concurrency:1}",
+            properties = {
+                    "max.poll.records=${gl.posting.batch.max-records:500}",
+                    "fetch.min.bytes=${gl.posting.batch.min-bytes:16384}",
+                    "fetch.max.wait.ms=${gl.posting.batch.linger-ms:100}"
+            })
+    public void onInvoiceIssued(List<ConsumerRecord<String, Object>> records) {
+        onRecords(records);
+    }
+
+    @Override
+    protected void postAll(List<InvoiceIssued> events) {
+        glPostingService.postInvoices(events);
+    }
+
+    @Override
+    protected void postOne(InvoiceIssued event) {
+        glPostingService.postInvoice(event);
+    }
+
+    @Override
+    protected String documentIdOf(InvoiceIssued event) {
+        return event.getInvoiceId();
+    }
+
+    @Override
+    protected String tenantIdOf(InvoiceIssued event) {
+        return event.getTenantId();
+    }
+
+    @Override
+    protected String laneKey(InvoiceIssued event) {
+        if (event.getTenantId() == null && event.getCustomerId() == null) {
+            return String.valueOf(event.getInvoiceId());
+        }
+        return event.getTenantId() + "/" + event.getCustomerId();
+    }
+}
@@ -2,22 +2,38 @@ package com.astracore.gl.messaging;
 
 import com.astracore.event.InvoiceIssued;
 import com.astracore.gl.application.service.GlPostingService;
+import com.astracore.tenancy.ShardRouter;
+import com.astracore.tenancy.TenantContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 
+/**
+ * Posts one invoice per record, on its tenant's shard. Only active when batch posting is
+ * switched off; see {@link InvoiceIssuedBatchListener}.
+ */
 @Slf4j
 @Component
+@ConditionalOnProperty(name = "gl.posting.batch.enabled", havingValue = "false")
 @RequiredArgsConstructor
 public class InvoiceIssuedListener {
 
     private final GlPostingService glPostingService;
+    private final ShardRouter shardRouter;
+
+    @Value("${gl.tenancy.move-wait-ms:30000}")
+    private long moveWaitMillis;
 
     @KafkaListener(topics = "invoice.issued.v1", groupId = "gl-service")
     public void onInvoiceIssued(InvoiceIssued event) {
         log.info("Received InvoiceIssued event for invoice {} with amount {} {}",
                 event.getInvoiceId(), event.getTotalAmount(), event.getCurrency());
-        glPostingService.postInvoice(event);
+        String tenantId = event.getTenantId() != null ? event.getTenantId() : TenantContext.DEFAULT_TENANT;
+        // A tenant still being moved after the wait fails the record, and the container retries it
+        String shard = shardRouter.awaitShardFor(TenantContext.requireValid(tenantId), moveWaitMillis);
+        TenantContext.run(tenantId, () -> shardRouter.runOnShard(shard, () -> glPostingService.postInvoice(event)));
     }
 }
@@ -0,0 +1,72 @@
+package com.astracore.gl.messaging;
+
+import com.astracore.event.PaymentReceived;
+import com.astracore.gl.application.service.GlPostingService;
+import com.astracore.tenancy.ShardRouter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Posts {@code PaymentReceived} records a poll at a time, with the same batching and
+ * lanes as invoices; see {@link PostingBatchListener}. Lanes are keyed by tenant and the
+ * invoice being paid.
+ */
+@Component
+@ConditionalOnProperty(name = "gl.posting.batch.enabled", havingValue = "true", matchIfMissing = true)
+public class PaymentReceivedBatchListener extends PostingBatchListener<PaymentReceived> {
+
+    private final GlPostingService glPostingService;
+
+    public PaymentReceivedBatchListener(GlPostingService glPostingService, ShardRouter shardRouter,
+                                        PostingRetryRecoverer recoverer, MeterRegistry meterRegistry,
+                                        @Value("${gl.posting.parallel.lanes:0}") int lanes,
+                                        @Value("${gl.tenancy.move-wait-ms:30000}") long moveWaitMillis) {
+        super(PaymentReceived.class, "payment", shardRouter, recoverer, meterRegistry, lanes, moveWaitMillis);
+        this.glPostingService = glPostingService;
+    }
+
+    @KafkaListener(topics = "payment.received.v1", groupId = "gl-service", batch = "true",
+            concurrency = "${gl.posting.batch.concurrency:1}",
+            properties = {
+                    "max.poll.records=${gl.posting.batch.max-records:500}",
+                    "fetch.min.bytes=${gl.posting.batch.min-bytes:16384}",
+                    "fetch.max.wait.ms=${gl.posting.batch.linger-ms:100}"
+            })
+    public void onPaymentReceived(List<ConsumerRecord<String, Object>> records) {
+        onRecords(records);
+    }
+
+    @Override
+    protected void postAll(List<PaymentReceived> events) {
+        glPostingService.postPayments(events);
+    }
+
+    @Override
+    protected void postOne(PaymentReceived event) {
+        glPostingService.postPayment(event);
+    }
+
+    @Override
+    protected String documentIdOf(PaymentReceived event) {
+        return event.getPaymentId();
+    }
+
+    @Override
+    protected String tenantIdOf(PaymentReceived event) {
+        return event.getTenantId();
+    }
+
+    @Override
+    protected String laneKey(PaymentReceived event) {
+        if (event.getTenantId() == null && event.getInvoiceId() == null) {
+            return String.valueOf(event.getPaymentId());
+        }
+        return event.getTenantId() + "/" + event.getInvoiceId();
+    }
+}
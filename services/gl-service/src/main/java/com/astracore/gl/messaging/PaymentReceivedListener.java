@@ -0,0 +1,39 @@
+package com.astracore.gl.messaging;
+
+import com.astracore.event.PaymentReceived;
+import com.astracore.gl.application.service.GlPostingService;
+import com.astracore.tenancy.ShardRouter;
+import com.astracore.tenancy.TenantContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Posts one payment per record, on its tenant's shard. Only active when batch posting is
+ * switched off; see {@link PaymentReceivedBatchListener}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "gl.posting.batch.enabled", havingValue = "false")
+@RequiredArgsConstructor
+public class PaymentReceivedListener {
+
+    private final GlPostingService glPostingService;
+    private final ShardRouter shardRouter;
+
+    @Value("${gl.tenancy.move-wait-ms:30000}")
+    private long moveWaitMillis;
+
+    @KafkaListener(topics = "payment.received.v1", groupId = "gl-service")
+    public void onPaymentReceived(PaymentReceived event) {
+        log.info("Received PaymentReceived event for payment {} of invoice {} with amount {} {}",
+                event.getPaymentId(), event.getInvoiceId(), event.getAmount(), event.getCurrency());
+        String tenantId = event.getTenantId() != null ? event.getTenantId() : TenantContext.DEFAULT_TENANT;
+        // A tenant still being moved after the wait fails the record, and the container retries it
+        String shard = shardRouter.awaitShardFor(TenantContext.requireValid(tenantId), moveWaitMillis);
+        TenantContext.run(tenantId, () -> shardRouter.runOnShard(shard, () -> glPostingService.postPayment(event)));
+    }
+}
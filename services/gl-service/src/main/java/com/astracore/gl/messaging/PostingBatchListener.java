@@ -0,0 +1,320 @@
+package com.astracore.gl.messaging;
+
+import com.astracore.gl.application.posting.PostingRuleUnavailableException;
+import com.astracore.tenancy.ShardRouter;
+import com.astracore.tenancy.TenantContext;
+import com.astracore.tenancy.TenantUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Posts every source event record returned by one poll in a single database transaction.
+ * Poll size and how long the broker may wait to fill it are set with
+ * {@code gl.posting.batch.max-records}, {@code gl.posting.batch.min-bytes} and
+ * {@code gl.posting.batch.linger-ms}.
+ * <p>
+ * If the batch fails it is replayed one record per transaction so a single bad event
+ * cannot hold back the rest: records that still fail are handed to the
+ * {@link PostingRetryRecoverer}, which moves them to a retry topic, or straight to the
+ * dead-letter topic when they can never post (not a source event, or an invalid tenant).
+ * Failures that are not the record's fault (the database being unavailable, or no usable
+ * posting rule for the event), and records that could not be forwarded, go back to the
+ * container as a {@link BatchListenerFailedException} so offsets are committed up to that
+ * record and the remainder is redelivered.
+ * <p>
+ * A poll is split into {@code gl.posting.parallel.lanes} lanes by {@link #laneKey}, and
+ * the lanes post concurrently on a bounded pool, each as its own batch. Records with the
+ * same key share a lane and keep their order; account balances are sums, so their order
+ * across keys does not matter. The listener returns only when every lane has finished,
+ * so offsets are never committed past a record still being posted. When several lanes
+ * hit the outage case, the earliest failed record in the poll is reported; later records
+ * that did post are redelivered and dropped as already posted.
+ * <p>
+ * Within a lane each tenant's records post as their own batch on the tenant's shard. A
+ * tenant being moved to another shard is waited for up to {@code gl.tenancy.move-wait-ms};
+ * past that its records go back to the container like a database outage.
+ *
+ * @param <E> the event contract this listener posts
+ */
+@Slf4j
+abstract class PostingBatchListener<E> implements DisposableBean {
+
+    private final Class<E> eventClass;
+    private final String documentName;
+    private final ShardRouter shardRouter;
+    private final PostingRetryRecoverer recoverer;
+    private final long moveWaitMillis;
+    private final Counter postedCounter;
+    private final Counter forwardedCounter;
+    private final int laneCount;
+    private final ThreadPoolExecutor laneWorkers;
+
+    /**
+     * @param documentName what one event is about, for logs and thread names, e.g. {@code invoice}
+     */
+    PostingBatchListener(Class<E> eventClass, String documentName, ShardRouter shardRouter,
+                         PostingRetryRecoverer recoverer, MeterRegistry meterRegistry, int lanes,
+                         long moveWaitMillis) {
+        this.eventClass = eventClass;
+        this.documentName = documentName;
+        this.shardRouter = shardRouter;
+        this.recoverer = recoverer;
+        this.moveWaitMillis = moveWaitMillis;
+        this.laneCount = lanes > 0 ? lanes : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threads = new AtomicInteger();
+        // One task per lane per poll, so the queue never overflows; CallerRunsPolicy is a backstop
+        this.laneWorkers = new ThreadPoolExecutor(laneCount, laneCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(laneCount), runnable -> {
+                    Thread thread = new Thread(runnable, "gl-" + documentName + "-lane-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        this.postedCounter = Counter.builder("gl.posting.batch.records")
+                .description("Source event records handled by the batch listeners")
+                .tag("event", eventClass.getSimpleName())
+                .tag("outcome", "posted")
+                .register(meterRegistry);
+        this.forwardedCounter = Counter.builder("gl.posting.batch.records")
+                .description("Source event records handled by the batch listeners")
+                .tag("event", eventClass.getSimpleName())
+                .tag("outcome", "forwarded")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Posts the events as one transaction.
+     */
+    protected abstract void postAll(List<E> events);
+
+    /**
+     * Posts one event in its own transaction.
+     */
+    protected abstract void postOne(E event);
+
+    protected abstract String documentIdOf(E event);
+
+    /**
+     * The event's tenant as it arrived; null for events from before tenancy.
+     */
+    protected abstract String tenantIdOf(E event);
+
+    /**
+     * Events whose order must be kept return the same key.
+     */
+    protected abstract String laneKey(E event);
+
+    protected void onRecords(List<ConsumerRecord<String, Object>> records) {
+        List<ConsumerRecord<String, Object>> accepted = new ArrayList<>(records.size());
+        List<E> events = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, Object> record : records) {
+            if (eventClass.isInstance(record.value())) {
+                E event = eventClass.cast(record.value());
+                if (tenantOf(event) == null) {
+                    reject(record, accepted, new IllegalArgumentException("Invalid tenant id " + tenantIdOf(event)
+                            + " on " + documentName + " " + documentIdOf(event)));
+                    continue;
+                }
+                accepted.add(record);
+                events.add(event);
+            } else {
+                reject(record, accepted, new IllegalArgumentException("Expected " + eventClass.getSimpleName()
+                        + " but got " + (record.value() == null ? null : record.value().getClass().getName())));
+            }
+        }
+        if (events.isEmpty()) {
+            return;
+        }
+        if (laneCount == 1 || events.size() == 1) {
+            post(accepted, events);
+            return;
+        }
+
+        List<List<ConsumerRecord<String, Object>>> laneRecords = new ArrayList<>(laneCount);
+        List<List<E>> laneEvents = new ArrayList<>(laneCount);
+        for (int lane = 0; lane < laneCount; lane++) {
+            laneRecords.add(new ArrayList<>());
+            laneEvents.add(new ArrayList<>());
+        }
+        Map<ConsumerRecord<String, Object>, Integer> positions = new IdentityHashMap<>(accepted.size());
+        for (int i = 0; i < events.size(); i++) {
+            int lane = Math.floorMod(laneKey(events.get(i)).hashCode(), laneCount);
+            laneRecords.get(lane).add(accepted.get(i));
+            laneEvents.get(lane).add(events.get(i));
+            positions.put(accepted.get(i), i);
+        }
+
+        List<Future<?>> running = new ArrayList<>(laneCount);
+        for (int lane = 0; lane < laneCount; lane++) {
+            if (!laneEvents.get(lane).isEmpty()) {
+                List<ConsumerRecord<String, Object>> slice = laneRecords.get(lane);
+                List<E> sliceEvents = laneEvents.get(lane);
+                running.add(laneWorkers.submit(() -> post(slice, sliceEvents)));
+            }
+        }
+        // Wait for every lane, even after a failure, so nothing is still posting when the
+        // container seeks back
+        BatchListenerFailedException earliest = null;
+        RuntimeException unexpected = null;
+        for (Future<?> lane : running) {
+            try {
+                lane.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                unexpected = new IllegalStateException("Interrupted while waiting for GL posting lanes", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof BatchListenerFailedException failed) {
+                    if (earliest == null || positions.get(failed.getRecord()) < positions.get(earliest.getRecord())) {
+                        earliest = failed;
+                    }
+                } else {
+                    unexpected = new IllegalStateException("GL posting lane failed", e.getCause());
+                }
+            }
+        }
+        if (earliest != null) {
+            throw earliest;
+        }
+        if (unexpected != null) {
+            throw unexpected;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        laneWorkers.shutdown();
+    }
+
+    /**
+     * Posts each tenant's events as one batch on its shard, tenants in order of first
+     * appearance. Stops at the first failure that sends records back to the container.
+     */
+    private void post(List<ConsumerRecord<String, Object>> accepted, List<E> events) {
+        Map<String, List<Integer>> byTenant = new LinkedHashMap<>();
+        for (int i = 0; i < events.size(); i++) {
+            byTenant.computeIfAbsent(tenantOf(events.get(i)), tenantId -> new ArrayList<>()).add(i);
+        }
+        List<String> tenantIds = new ArrayList<>(byTenant.keySet());
+        for (int t = 0; t < tenantIds.size(); t++) {
+            String tenantId = tenantIds.get(t);
+            List<ConsumerRecord<String, Object>> tenantRecords = new ArrayList<>();
+            List<E> tenantEvents = new ArrayList<>();
+            for (int i : byTenant.get(tenantId)) {
+                tenantRecords.add(accepted.get(i));
+                tenantEvents.add(events.get(i));
+            }
+            try {
+                String shard;
+                try {
+                    shard = shardRouter.awaitShardFor(tenantId, moveWaitMillis);
+                } catch (TenantUnavailableException e) {
+                    throw new BatchListenerFailedException("Tenant " + tenantId + " is being moved", e, tenantRecords.get(0));
+                }
+                TenantContext.run(tenantId, () -> shardRouter.runOnShard(shard, () -> postBatch(tenantRecords, tenantEvents)));
+            } catch (BatchListenerFailedException e) {
+                // Tenants not reached yet may have records ahead of the failed one; resume
+                // from the earliest record that was not posted
+                int resumeAt = indexOf(accepted, e.getRecord());
+                for (String remaining : tenantIds.subList(t + 1, tenantIds.size())) {
+                    resumeAt = Math.min(resumeAt, byTenant.get(remaining).get(0));
+                }
+                if (accepted.get(resumeAt) == e.getRecord()) {
+                    throw e;
+                }
+                throw new BatchListenerFailedException(e.getMessage(), e.getCause(), accepted.get(resumeAt));
+            }
+        }
+    }
+
+    /**
+     * Posts the events as one batch, falling back to one transaction per event. Stops at
+     * the first event that fails for a reason other than the event itself.
+     */
+    private void postBatch(List<ConsumerRecord<String, Object>> accepted, List<E> events) {
+        try {
+            postAll(events);
+            postedCounter.increment(events.size());
+            return;
+        } catch (RuntimeException e) {
+            log.warn("Batch of {} {}s failed, posting one at a time: {}", events.size(), documentName, e.getMessage());
+        }
+
+        for (int i = 0; i < events.size(); i++) {
+            ConsumerRecord<String, Object> record = accepted.get(i);
+            try {
+                postOne(events.get(i));
+                postedCounter.increment();
+            } catch (TransientDataAccessException | CannotCreateTransactionException e) {
+                throw new BatchListenerFailedException("Database unavailable while posting " + documentName + " "
+                        + documentIdOf(events.get(i)), e, record);
+            } catch (PostingRuleUnavailableException e) {
+                throw new BatchListenerFailedException(e.getMessage(), e, record);
+            } catch (RuntimeException e) {
+                forward(record, e);
+            }
+        }
+    }
+
+    /**
+     * Forwards a record that can never post before anything else in the poll has posted.
+     * If it cannot be forwarded the poll is redelivered from the first record accepted so
+     * far, or from this one.
+     */
+    private void reject(ConsumerRecord<String, Object> record, List<ConsumerRecord<String, Object>> accepted,
+                        RuntimeException failure) {
+        try {
+            forward(record, failure);
+        } catch (BatchListenerFailedException e) {
+            throw accepted.isEmpty() ? e : new BatchListenerFailedException(e.getMessage(), e.getCause(), accepted.get(0));
+        }
+    }
+
+    private void forward(ConsumerRecord<String, Object> record, RuntimeException failure) {
+        try {
+            recoverer.accept(record, failure);
+        } catch (RuntimeException e) {
+            throw new BatchListenerFailedException("Could not forward record " + record.topic() + "-"
+                    + record.partition() + "@" + record.offset() + " for retry", e, record);
+        }
+        forwardedCounter.increment();
+    }
+
+    private static int indexOf(List<ConsumerRecord<String, Object>> records, ConsumerRecord<?, ?> record) {
+        for (int i = 0; i < records.size(); i++) {
+            if (records.get(i) == record) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Record is not part of this batch: " + record);
+    }
+
+    // Events from before tenancy carry no tenant; null for an id that is not valid
+    private String tenantOf(E event) {
+        String tenantId = tenantIdOf(event);
+        if (tenantId == null) {
+            return TenantContext.DEFAULT_TENANT;
+        }
+        try {
+            return TenantContext.requireValid(tenantId);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
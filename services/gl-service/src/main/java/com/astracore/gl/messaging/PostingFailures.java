@@ -0,0 +1,57 @@
+package com.astracore.gl.messaging;
+
+import com.astracore.gl.application.posting.PostingRuleUnavailableException;
+import com.astracore.tenancy.TenantUnavailableException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.messaging.converter.MessageConversionException;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+/**
+ * Sorts posting failures by what retrying them can achieve.
+ */
+final class PostingFailures {
+
+    private PostingFailures() {
+    }
+
+    /**
+     * Failures of the shard rather than the record: the database cannot be reached or
+     * reports a transient error, the tenant is being moved, or the shard has no usable
+     * posting rule. Every record behind this one would fail the same way, so these are
+     * retried in place, holding the partition, until the shard recovers. Batch listeners
+     * only hand these back to the container, together with failures to forward a record
+     * to its retry topic.
+     */
+    static boolean isOutage(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof BatchListenerFailedException
+                    || cause instanceof CannotCreateTransactionException
+                    || cause instanceof DataAccessResourceFailureException
+                    || cause instanceof TransientDataAccessException
+                    || cause instanceof TenantUnavailableException
+                    || cause instanceof PostingRuleUnavailableException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * False for records that can never post, such as payloads that are not a source
+     * event or carry an invalid tenant; they go straight to the dead-letter topic.
+     */
+    static boolean isRetryable(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DeserializationException
+                    || cause instanceof MessageConversionException
+                    || cause instanceof ClassCastException
+                    || cause instanceof IllegalArgumentException) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,71 @@
+package com.astracore.gl.messaging;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.listener.CommonErrorHandler;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.ExponentialBackOff;
+import org.springframework.util.backoff.FixedBackOff;
+
+/**
+ * Error handling for every GL consumer. A record that fails to post is handed to
+ * {@link PostingRetryRecoverer} at once, so the partition moves on while the record waits
+ * out its delay on a retry topic. Outages ({@link PostingFailures#isOutage}) are the
+ * exception: they are retried in place, backing off from one second up to
+ * {@code gl.posting.retry.outage-max-delay-ms}, for as long as the outage lasts.
+ */
+@Configuration
+public class PostingRetryConfig {
+
+    public static final String RETRY_CONTAINER_FACTORY = "postingRetryContainerFactory";
+
+    @Bean
+    public CommonErrorHandler postingErrorHandler(PostingRetryRecoverer recoverer,
+                                                  @Value("${gl.posting.retry.outage-max-delay-ms:30000}") long outageMaxDelayMillis) {
+        // The default back-off must allow retries: with none at all the handler recovers
+        // every failure without consulting the back-off function
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(recoverer, new FixedBackOff(0L, FixedBackOff.UNLIMITED_ATTEMPTS));
+        errorHandler.setBackOffFunction((record, failure) -> {
+            if (!PostingFailures.isOutage(failure)) {
+                return new FixedBackOff(0L, 0L);
+            }
+            ExponentialBackOff backOff = new ExponentialBackOff(1000L, 2.0);
+            backOff.setMaxInterval(outageMaxDelayMillis);
+            return backOff;
+        });
+        return errorHandler;
+    }
+
+    /**
+     * Containers for the retry topics: records are acknowledged one at a time, so one not
+     * due yet can be handed back with a delay while the partition is paused.
+     */
+    @Bean(RETRY_CONTAINER_FACTORY)
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> postingRetryContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer, ConsumerFactory<Object, Object> consumerFactory) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        factory.setBatchListener(false);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        return factory;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "gl.posting.retry.create-topics", havingValue = "true", matchIfMissing = true)
+    public KafkaAdmin.NewTopics postingRetryNewTopics(PostingRetryTopics retryTopics,
+                                                      @Value("${gl.posting.retry.partitions:3}") int partitions,
+                                                      @Value("${gl.posting.retry.replicas:1}") short replicas) {
+        return new KafkaAdmin.NewTopics(retryTopics.allTopics().stream()
+                .map(topic -> TopicBuilder.name(topic).partitions(partitions).replicas(replicas).build())
+                .toArray(NewTopic[]::new));
+    }
+}
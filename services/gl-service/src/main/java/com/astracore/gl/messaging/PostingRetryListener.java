@@ -0,0 +1,137 @@
+package com.astracore.gl.messaging;
+
+import com.astracore.event.InvoiceIssued;
+import com.astracore.event.PaymentReceived;
+import com.astracore.gl.application.service.GlPostingService;
+import com.astracore.tenancy.ShardRouter;
+import com.astracore.tenancy.TenantContext;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.listener.AcknowledgingMessageListener;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Posts records from the retry topics once their delay is up. Each tier has its own
+ * container in group {@code gl-service-retry}, so records waiting out a long delay never
+ * hold back a shorter tier. A record that is not due yet is handed back to its
+ * container, which pauses the partition until it is; tiers are written in due-time order
+ * per partition, so nothing behind it is due earlier.
+ * <p>
+ * Records post one per transaction on their tenant's shard. Failures go through the
+ * same error handler as the source topics: on to the next tier, the dead-letter topic,
+ * or back off in place during an outage. The tier at which records finally post is
+ * recorded in {@code gl.posting.retry.recovered}.
+ */
+@Slf4j
+@Component
+public class PostingRetryListener implements AcknowledgingMessageListener<String, Object>, SmartLifecycle {
+
+    private static final String GROUP_ID = "gl-service-retry";
+
+    private final GlPostingService glPostingService;
+    private final ShardRouter shardRouter;
+    private final PostingRetryTopics retryTopics;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentKafkaListenerContainerFactory<Object, Object> containerFactory;
+    private final long moveWaitMillis;
+    private final boolean autoStartup;
+    private final List<ConcurrentMessageListenerContainer<Object, Object>> containers = new ArrayList<>();
+
+    public PostingRetryListener(GlPostingService glPostingService, ShardRouter shardRouter,
+                                PostingRetryTopics retryTopics, MeterRegistry meterRegistry,
+                                @Qualifier(PostingRetryConfig.RETRY_CONTAINER_FACTORY)
+                                ConcurrentKafkaListenerContainerFactory<Object, Object> containerFactory,
+                                @Value("${gl.tenancy.move-wait-ms:30000}") long moveWaitMillis,
+                                @Value("${spring.kafka.listener.auto-startup:true}") boolean autoStartup) {
+        this.glPostingService = glPostingService;
+        this.shardRouter = shardRouter;
+        this.retryTopics = retryTopics;
+        this.meterRegistry = meterRegistry;
+        this.containerFactory = containerFactory;
+        this.moveWaitMillis = moveWaitMillis;
+        this.autoStartup = autoStartup;
+    }
+
+    @Override
+    public void onMessage(ConsumerRecord<String, Object> record, Acknowledgment acknowledgment) {
+        long wait = PostingRetryTopics.dueAt(record.headers()) - System.currentTimeMillis();
+        if (wait > 0) {
+            acknowledgment.nack(Duration.ofMillis(wait));
+            return;
+        }
+
+        Object value = record.value();
+        if (value instanceof InvoiceIssued invoice) {
+            onShard(invoice.getTenantId(), () -> glPostingService.postInvoice(invoice));
+        } else if (value instanceof PaymentReceived payment) {
+            onShard(payment.getTenantId(), () -> glPostingService.postPayment(payment));
+        } else {
+            throw new IllegalArgumentException("Expected a source event on " + record.topic() + " but got "
+                    + (value == null ? null : value.getClass().getName()));
+        }
+        acknowledgment.acknowledge();
+
+        int attempt = retryTopics.attemptOf(record.topic());
+        log.info("Posted record {}-{}@{} on retry {}", record.topic(), record.partition(), record.offset(), attempt);
+        DistributionSummary.builder("gl.posting.retry.recovered")
+                .description("Retry tier at which records that failed to post went through")
+                .tag("topic", retryTopics.sourceTopicOf(record.topic()))
+                .register(meterRegistry)
+                .record(attempt);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (!containers.isEmpty()) {
+            return;
+        }
+        for (int attempt = 1; attempt <= retryTopics.attempts(); attempt++) {
+            ConcurrentMessageListenerContainer<Object, Object> container =
+                    containerFactory.createContainer(retryTopics.retryTopics(attempt).toArray(String[]::new));
+            container.getContainerProperties().setGroupId(GROUP_ID);
+            container.getContainerProperties().setClientId(GROUP_ID + "-" + attempt);
+            container.getContainerProperties().setMessageListener(this);
+            container.setBeanName(GROUP_ID + "-" + attempt);
+            containers.add(container);
+            container.start();
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        containers.forEach(ConcurrentMessageListenerContainer::stop);
+        containers.clear();
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return !containers.isEmpty();
+    }
+
+    /**
+     * Started with the other listener containers, unless
+     * {@code spring.kafka.listener.auto-startup} is false.
+     */
+    @Override
+    public boolean isAutoStartup() {
+        return autoStartup;
+    }
+
+    private void onShard(String tenantId, Runnable posting) {
+        String tenant = TenantContext.requireValid(tenantId != null ? tenantId : TenantContext.DEFAULT_TENANT);
+        String shard = shardRouter.awaitShardFor(tenant, moveWaitMillis);
+        TenantContext.run(tenant, () -> shardRouter.runOnShard(shard, posting));
+    }
+}
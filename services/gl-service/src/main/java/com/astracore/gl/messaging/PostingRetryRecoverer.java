@@ -0,0 +1,76 @@
+package com.astracore.gl.messaging;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ConsumerAwareRecordRecoverer;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves a record that failed to post off its partition, to the next retry tier or the
+ * dead-letter topic as decided by {@link PostingRetryTopics#nextTopic}. Returns only once
+ * the broker has the record and throws if it could not be sent, so callers may commit
+ * past it. Besides the retry headers, forwarded records carry Spring Kafka's
+ * {@code kafka_dlt-*} headers: the topic, partition and offset the record was first read
+ * from, and the class, message and stack trace of the latest failure.
+ * <p>
+ * Forwarded records are counted in {@code gl.posting.retry.records}, tagged with the
+ * source topic and the destination ({@code retry-<n>} or {@code dlt}).
+ */
+@Slf4j
+@Component
+public class PostingRetryRecoverer implements ConsumerAwareRecordRecoverer {
+
+    private final PostingRetryTopics retryTopics;
+    private final MeterRegistry meterRegistry;
+    private final DeadLetterPublishingRecoverer publisher;
+
+    public PostingRetryRecoverer(KafkaTemplate<String, Object> kafkaTemplate, PostingRetryTopics retryTopics,
+                                 MeterRegistry meterRegistry) {
+        this.retryTopics = retryTopics;
+        this.meterRegistry = meterRegistry;
+        // Partition -1 leaves the choice to the producer's partitioner, which keeps each
+        // tenant's records together whatever the partition counts of the retry topics
+        this.publisher = new DeadLetterPublishingRecoverer(kafkaTemplate, (record, failure) ->
+                new TopicPartition(retryTopics.nextTopic(record.topic(), PostingFailures.isRetryable(failure)), -1));
+        // Keep the topic and offset the record was first read from across tiers
+        this.publisher.setAppendOriginalHeaders(false);
+        this.publisher.setHeadersFunction((record, failure) -> {
+            String destination = retryTopics.nextTopic(record.topic(), PostingFailures.isRetryable(failure));
+            int attempt = retryTopics.attemptOf(destination);
+            RecordHeaders headers = new RecordHeaders();
+            if (attempt > 0) {
+                long dueAt = System.currentTimeMillis() + retryTopics.delayMillis(attempt);
+                headers.add(PostingRetryTopics.ATTEMPT_HEADER, PostingRetryTopics.headerValue(attempt));
+                headers.add(PostingRetryTopics.DUE_AT_HEADER, PostingRetryTopics.headerValue(dueAt));
+            }
+            return headers;
+        });
+    }
+
+    @Override
+    public void accept(ConsumerRecord<?, ?> record, Consumer<?, ?> consumer, Exception failure) {
+        String destination = retryTopics.nextTopic(record.topic(), PostingFailures.isRetryable(failure));
+        publisher.accept(record, consumer, failure);
+        int attempt = retryTopics.attemptOf(destination);
+        if (attempt > 0) {
+            log.warn("Retrying record {}-{}@{} from {}: {}", record.topic(), record.partition(), record.offset(),
+                    destination, failure.getMessage());
+        } else {
+            log.error("Dead-lettered record {}-{}@{} to {}", record.topic(), record.partition(), record.offset(),
+                    destination, failure);
+        }
+        Counter.builder("gl.posting.retry.records")
+                .description("Records that failed to post, by where they were forwarded")
+                .tag("topic", retryTopics.sourceTopicOf(record.topic()))
+                .tag("destination", attempt > 0 ? "retry-" + attempt : "dlt")
+                .register(meterRegistry)
+                .increment();
+    }
+}
@@ -0,0 +1,132 @@
+package com.astracore.gl.messaging;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The retry and dead-letter topics behind each source event topic. A record that fails to
+ * post goes to {@code <topic>.retry-1}, then {@code .retry-2} and so on up to
+ * {@code gl.posting.retry.attempts}, and finally to {@code <topic>.dlt}. Each tier holds
+ * its records back for longer: {@code gl.posting.retry.initial-delay-ms}, multiplied by
+ * {@code gl.posting.retry.multiplier} per tier, capped at {@code gl.posting.retry.max-delay-ms}.
+ * <p>
+ * Forwarded records carry the tier they were sent to in {@value #ATTEMPT_HEADER} and the
+ * earliest time they may be posted again, in epoch milliseconds, in {@value #DUE_AT_HEADER}.
+ */
+@Component
+public class PostingRetryTopics {
+
+    public static final String INVOICE_ISSUED_TOPIC = "invoice.issued.v1";
+    public static final String PAYMENT_RECEIVED_TOPIC = "payment.received.v1";
+    public static final List<String> SOURCE_TOPICS = List.of(INVOICE_ISSUED_TOPIC, PAYMENT_RECEIVED_TOPIC);
+
+    public static final String ATTEMPT_HEADER = "gl-retry-attempt";
+    public static final String DUE_AT_HEADER = "gl-retry-due-at";
+
+    private static final String RETRY_SUFFIX = ".retry-";
+    private static final String DEAD_LETTER_SUFFIX = ".dlt";
+
+    private final int attempts;
+    private final long initialDelayMillis;
+    private final double multiplier;
+    private final long maxDelayMillis;
+
+    public PostingRetryTopics(@Value("${gl.posting.retry.attempts:3}") int attempts,
+                              @Value("${gl.posting.retry.initial-delay-ms:1000}") long initialDelayMillis,
+                              @Value("${gl.posting.retry.multiplier:5.0}") double multiplier,
+                              @Value("${gl.posting.retry.max-delay-ms:300000}") long maxDelayMillis) {
+        this.attempts = Math.max(0, attempts);
+        this.initialDelayMillis = initialDelayMillis;
+        this.multiplier = multiplier;
+        this.maxDelayMillis = maxDelayMillis;
+    }
+
+    public int attempts() {
+        return attempts;
+    }
+
+    public String retryTopic(String sourceTopic, int attempt) {
+        return sourceTopic + RETRY_SUFFIX + attempt;
+    }
+
+    public String deadLetterTopic(String sourceTopic) {
+        return sourceTopic + DEAD_LETTER_SUFFIX;
+    }
+
+    /**
+     * Every retry tier of {@code attempt}, one per source topic.
+     */
+    public List<String> retryTopics(int attempt) {
+        List<String> topics = new ArrayList<>(SOURCE_TOPICS.size());
+        for (String sourceTopic : SOURCE_TOPICS) {
+            topics.add(retryTopic(sourceTopic, attempt));
+        }
+        return topics;
+    }
+
+    /**
+     * Every retry and dead-letter topic.
+     */
+    public List<String> allTopics() {
+        List<String> topics = new ArrayList<>();
+        for (String sourceTopic : SOURCE_TOPICS) {
+            for (int attempt = 1; attempt <= attempts; attempt++) {
+                topics.add(retryTopic(sourceTopic, attempt));
+            }
+            topics.add(deadLetterTopic(sourceTopic));
+        }
+        return topics;
+    }
+
+    /**
+     * The source topic a source, retry or dead-letter topic belongs to.
+     */
+    public String sourceTopicOf(String topic) {
+        int retry = topic.lastIndexOf(RETRY_SUFFIX);
+        if (retry > 0) {
+            return topic.substring(0, retry);
+        }
+        return topic.endsWith(DEAD_LETTER_SUFFIX) ? topic.substring(0, topic.length() - DEAD_LETTER_SUFFIX.length()) : topic;
+    }
+
+    /**
+     * The retry tier of a topic; 0 for a source topic.
+     */
+    public int attemptOf(String topic) {
+        int retry = topic.lastIndexOf(RETRY_SUFFIX);
+        return retry > 0 ? Integer.parseInt(topic.substring(retry + RETRY_SUFFIX.length())) : 0;
+    }
+
+    /**
+     * Where a record that failed on {@code topic} goes next: the next retry tier, or the
+     * dead-letter topic once the tiers are used up or when retrying cannot help.
+     */
+    public String nextTopic(String topic, boolean retryable) {
+        String sourceTopic = sourceTopicOf(topic);
+        int next = attemptOf(topic) + 1;
+        return retryable && next <= attempts ? retryTopic(sourceTopic, next) : deadLetterTopic(sourceTopic);
+    }
+
+    public long delayMillis(int attempt) {
+        double delay = initialDelayMillis * Math.pow(multiplier, attempt - 1);
+        return (long) Math.min(delay, maxDelayMillis);
+    }
+
+    /**
+     * When a forwarded record may be posted again; 0 if it carries no due time.
+     */
+    public static long dueAt(Headers headers) {
+        Header header = headers.lastHeader(DUE_AT_HEADER);
+        return header == null ? 0L : Long.parseLong(new String(header.value(), StandardCharsets.UTF_8));
+    }
+
+    static byte[] headerValue(long value) {
+        return Long.toString(value).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ * Tenant ownership of the chart of accounts, and the shard placement catalog.
+ * Each tenant has its own chart, so account codes are unique per tenant. Everything else
+ * keyed by account (journal entries, balance shards and snapshots, closing balances)
+ * follows its account's tenant without a column of its own; transactions belong to the
+ * tenant whose accounts their entries post to. Accounts created before tenancy belong to
+ * the 'default' tenant.
+ * tenant_placement is created on every shard but only read on the catalog shard; see
+ * TenantPlacementStore.
+ */
+ALTER TABLE gl_account ADD COLUMN tenant_id VARCHAR(64) NOT NULL DEFAULT 'default';
+ALTER TABLE gl_account DROP CONSTRAINT gl_account_account_code_key;
+ALTER TABLE gl_account ADD CONSTRAINT uq_gl_account_tenant_code UNIQUE (tenant_id, account_code);
+
+-- The cache now needs the tenant as well as the code: the payload is "<tenant>:<code>"
+CREATE OR REPLACE FUNCTION notify_gl_account_changed() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP <> 'INSERT' THEN
+        PERFORM pg_notify('gl_account_changed', OLD.tenant_id || ':' || OLD.account_code);
+    END IF;
+    IF TG_OP <> 'DELETE' AND (TG_OP = 'INSERT' OR NEW.account_code <> OLD.account_code) THEN
+        PERFORM pg_notify('gl_account_changed', NEW.tenant_id || ':' || NEW.account_code);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TABLE tenant_placement (
+    tenant_id VARCHAR(64) PRIMARY KEY,
+    shard VARCHAR(64) NOT NULL,
+    frozen BOOLEAN NOT NULL DEFAULT FALSE,
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
@@ -0,0 +1,38 @@
+/*
+ * Posting rules: for each kind of source event, the transaction type and the debit and
+ * credit lines it posts. Every line posts the event's full amount, so a rule balances
+ * when it has as many debit lines as credit lines. Descriptions may use {document} (the
+ * source document id) and {reference} (the document it settles, e.g. a payment's
+ * invoice). Rules are reference data on each shard, not owned by a tenant; accounts are
+ * resolved in the posting tenant's own chart and created there on first use.
+ * gl-service compiles the rules in memory and picks up changes within
+ * gl.posting.rules.refresh-ms.
+ */
+CREATE TABLE posting_rule (
+    event_type VARCHAR(64) PRIMARY KEY,
+    transaction_type VARCHAR(50) NOT NULL,
+    description VARCHAR(255) NOT NULL
+);
+
+CREATE TABLE posting_rule_line (
+    event_type VARCHAR(64) NOT NULL REFERENCES posting_rule(event_type) ON DELETE CASCADE,
+    line_no INT NOT NULL,
+    debit_credit_flag CHAR(1) NOT NULL CHECK (debit_credit_flag IN ('D', 'C')),
+    account_code VARCHAR(50) NOT NULL,
+    account_name VARCHAR(255) NOT NULL,
+    gl_account_type_id VARCHAR(50) NOT NULL,
+    description VARCHAR(255) NOT NULL,
+    PRIMARY KEY (event_type, line_no)
+);
+
+-- The invoice rule reproduces what posting hard-coded before rules existed
+INSERT INTO posting_rule (event_type, transaction_type, description) VALUES
+    ('INVOICE_ISSUED', 'SALES_INVOICE', 'Invoice {document}'),
+    ('PAYMENT_RECEIVED', 'PAYMENT_RECEIPT', 'Payment {document}');
+
+INSERT INTO posting_rule_line (event_type, line_no, debit_credit_flag, account_code, account_name,
+                               gl_account_type_id, description) VALUES
+    ('INVOICE_ISSUED', 1, 'D', 'AR', 'Accounts Receivable', 'ASSET', 'AR for invoice {document}'),
+    ('INVOICE_ISSUED', 2, 'C', 'REV', 'Revenue', 'REVENUE', 'Revenue for invoice {document}'),
+    ('PAYMENT_RECEIVED', 1, 'D', 'CASH', 'Cash', 'ASSET', 'Cash for payment {document}'),
+    ('PAYMENT_RECEIVED', 2, 'C', 'AR', 'Accounts Receivable', 'ASSET', 'AR settled by payment {document} for invoice {reference}');
@@ -0,0 +1,14 @@
+/*
+ * Billing's reconciliation job reads every invoice posting in invoice id order and
+ * merge-joins it with the invoices. Ordering by byte value (collation "C") matches the
+ * order of billing's UUID keys and lets the scan come straight off this index instead of
+ * sorting the whole table.
+ */
+CREATE INDEX idx_posted_source_document_reconcile
+    ON posted_source_document (source_document_type, source_document_id COLLATE "C");
+
+-- Invoice postings from before source documents were recorded, including the duplicates
+-- V6 left untagged, so the job finds them without scanning the journal
+CREATE INDEX idx_accounting_transaction_untagged
+    ON accounting_transaction (transaction_type)
+    WHERE source_document_id IS NULL;
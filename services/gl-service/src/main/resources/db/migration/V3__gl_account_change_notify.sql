@@ -0,0 +1,19 @@
+/*
+ * Publish chart-of-accounts changes so every gl-service instance can refresh its
+ * in-memory cache. The payload is the affected account code.
+ */
+CREATE OR REPLACE FUNCTION notify_gl_account_changed() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP <> 'INSERT' THEN
+        PERFORM pg_notify('gl_account_changed', OLD.account_code);
+    END IF;
+    IF TG_OP <> 'DELETE' AND (TG_OP = 'INSERT' OR NEW.account_code <> OLD.account_code) THEN
+        PERFORM pg_notify('gl_account_changed', NEW.account_code);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_gl_account_changed
+    AFTER INSERT OR UPDATE OR DELETE ON gl_account
+    FOR EACH ROW EXECUTE FUNCTION notify_gl_account_changed();
@@ -0,0 +1,29 @@
+/*
+ * Running debit/credit totals per GL account and calendar month (UTC). Each account and
+ * period is spread over several shard rows so concurrent postings to the same account
+ * (AR, revenue) rarely wait on one row lock; readers sum the shards.
+ */
+CREATE TABLE account_balance_shard (
+    gl_account_id UUID NOT NULL REFERENCES gl_account(gl_account_id),
+    period_start DATE NOT NULL,
+    shard SMALLINT NOT NULL,
+    debit_total DECIMAL(20, 2) NOT NULL DEFAULT 0,
+    credit_total DECIMAL(20, 2) NOT NULL DEFAULT 0,
+    entry_count BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (gl_account_id, period_start, shard)
+);
+
+CREATE INDEX idx_account_balance_shard_period ON account_balance_shard(period_start);
+
+-- Seed from entries posted before the projection existed
+INSERT INTO account_balance_shard (gl_account_id, period_start, shard, debit_total, credit_total, entry_count)
+SELECT e.gl_account_id,
+       date_trunc('month', t.transaction_date AT TIME ZONE 'UTC')::date,
+       0,
+       COALESCE(SUM(e.amount) FILTER (WHERE e.debit_credit_flag = 'D'), 0),
+       COALESCE(SUM(e.amount) FILTER (WHERE e.debit_credit_flag = 'C'), 0),
+       COUNT(*)
+  FROM transaction_entry e
+  JOIN accounting_transaction t ON t.transaction_id = e.transaction_id
+ GROUP BY e.gl_account_id, date_trunc('month', t.transaction_date AT TIME ZONE 'UTC')::date;
@@ -0,0 +1,23 @@
+/*
+ * Cumulative balance of every GL account as of the end of a month, so balance and trial
+ * balance queries read one snapshot plus the months since instead of all entries.
+ * account_balance_snapshot_run has one row per snapshotted month; a posting dated in or
+ * before a snapshotted month flags it and every later one stale until the next rebuild.
+ */
+CREATE TABLE account_balance_snapshot (
+    period_start DATE NOT NULL,
+    gl_account_id UUID NOT NULL REFERENCES gl_account(gl_account_id),
+    debit_total DECIMAL(20, 2) NOT NULL,
+    credit_total DECIMAL(20, 2) NOT NULL,
+    entry_count BIGINT NOT NULL,
+    PRIMARY KEY (period_start, gl_account_id)
+);
+
+CREATE TABLE account_balance_snapshot_run (
+    period_start DATE PRIMARY KEY,
+    taken_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    stale BOOLEAN NOT NULL DEFAULT FALSE
+);
+
+-- Partial-month deltas are read by transaction date
+CREATE INDEX idx_accounting_transaction_date ON accounting_transaction(transaction_date);
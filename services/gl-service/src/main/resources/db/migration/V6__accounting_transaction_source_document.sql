@@ -0,0 +1,25 @@
+/*
+ * The business document a transaction was posted from. Unique, so posting the same
+ * document twice (e.g. a Kafka redelivery) inserts nothing the second time.
+ */
+ALTER TABLE accounting_transaction ADD COLUMN source_document_type VARCHAR(50);
+ALTER TABLE accounting_transaction ADD COLUMN source_document_id VARCHAR(100);
+
+-- Existing invoice postings carry the invoice id in their description. Where an invoice
+-- was already posted more than once only the first posting is tagged; the others are
+-- left for finance to reverse.
+UPDATE accounting_transaction t
+   SET source_document_type = 'INVOICE',
+       source_document_id = d.document_id
+  FROM (SELECT transaction_id,
+               substring(description FROM 9) AS document_id,
+               ROW_NUMBER() OVER (PARTITION BY substring(description FROM 9)
+                                  ORDER BY entry_date, transaction_id) AS rn
+          FROM accounting_transaction
+         WHERE transaction_type = 'SALES_INVOICE'
+           AND description LIKE 'Invoice %') d
+ WHERE t.transaction_id = d.transaction_id
+   AND d.rn = 1;
+
+CREATE UNIQUE INDEX uq_accounting_transaction_source
+    ON accounting_transaction(source_document_type, source_document_id);
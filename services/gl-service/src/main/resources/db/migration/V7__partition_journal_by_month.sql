@@ -0,0 +1,151 @@
+/*
+ * Range-partition the journal by transaction date, one partition per calendar month
+ * (UTC). Rows dated outside every monthly partition land in the default partition
+ * until gl_ensure_monthly_partition() carves their month out of it.
+ *
+ * Postgres requires the partition key in every unique index, so:
+ *   - primary keys become (id, transaction_date);
+ *   - transaction_entry carries its transaction's date, for pruning and as its own key;
+ *   - uniqueness of the source document moves to posted_source_document, a small
+ *     unpartitioned registry claimed in the same statement that inserts the transaction;
+ *   - the entry -> transaction foreign key is dropped so months can be detached and
+ *     archived independently. Both rows are always written by the same statement pair.
+ */
+
+ALTER TABLE accounting_transaction RENAME TO accounting_transaction_legacy;
+ALTER TABLE transaction_entry RENAME TO transaction_entry_legacy;
+DROP INDEX idx_accounting_transaction_date;
+DROP INDEX idx_transaction_entry_tx;
+DROP INDEX idx_transaction_entry_gl;
+ALTER TABLE accounting_transaction_legacy RENAME CONSTRAINT accounting_transaction_pkey TO accounting_transaction_legacy_pkey;
+ALTER TABLE transaction_entry_legacy RENAME CONSTRAINT transaction_entry_pkey TO transaction_entry_legacy_pkey;
+
+CREATE TABLE accounting_transaction (
+    transaction_id UUID NOT NULL,
+    transaction_date TIMESTAMPTZ NOT NULL,
+    entry_date TIMESTAMPTZ NOT NULL,
+    description VARCHAR(500),
+    transaction_type VARCHAR(50) NOT NULL,
+    is_posted BOOLEAN NOT NULL DEFAULT FALSE,
+    organization_party_id UUID,
+    source_document_type VARCHAR(50),
+    source_document_id VARCHAR(100),
+    created_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    version BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (transaction_id, transaction_date)
+) PARTITION BY RANGE (transaction_date);
+
+CREATE TABLE transaction_entry (
+    transaction_entry_id UUID NOT NULL,
+    transaction_id UUID NOT NULL,
+    gl_account_id UUID NOT NULL REFERENCES gl_account(gl_account_id),
+    organization_party_id UUID,
+    amount DECIMAL(18, 2) NOT NULL,
+    debit_credit_flag CHAR(1) NOT NULL,
+    description VARCHAR(500),
+    transaction_date TIMESTAMPTZ NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    version BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (transaction_entry_id, transaction_date)
+) PARTITION BY RANGE (transaction_date);
+
+CREATE TABLE accounting_transaction_default PARTITION OF accounting_transaction DEFAULT;
+CREATE TABLE transaction_entry_default PARTITION OF transaction_entry DEFAULT;
+
+CREATE INDEX idx_accounting_transaction_date ON accounting_transaction(transaction_date);
+CREATE INDEX idx_transaction_entry_tx ON transaction_entry(transaction_id);
+CREATE INDEX idx_transaction_entry_gl ON transaction_entry(gl_account_id, transaction_date);
+
+CREATE TABLE posted_source_document (
+    source_document_type VARCHAR(50) NOT NULL,
+    source_document_id VARCHAR(100) NOT NULL,
+    transaction_id UUID NOT NULL,
+    transaction_date TIMESTAMPTZ NOT NULL,
+    posted_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (source_document_type, source_document_id)
+);
+
+-- Months moved out of the database by the archive job; never recreated as partitions
+CREATE TABLE gl_archived_partition (
+    period_start DATE PRIMARY KEY,
+    transaction_file VARCHAR(1000) NOT NULL,
+    entry_file VARCHAR(1000) NOT NULL,
+    transaction_count BIGINT NOT NULL,
+    entry_count BIGINT NOT NULL,
+    archived_at TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
+
+/*
+ * Makes sure the month starting at period_start has its own partition in both journal
+ * tables, moving any rows for it out of the default partition. Returns the number of
+ * partitions created. Archived months are left alone: postings dated in them stay in the
+ * default partition.
+ */
+CREATE OR REPLACE FUNCTION gl_ensure_monthly_partition(period_start DATE) RETURNS INT AS $$
+DECLARE
+    month_start DATE := date_trunc('month', period_start)::date;
+    lower_bound TIMESTAMPTZ := month_start::timestamp AT TIME ZONE 'UTC';
+    upper_bound TIMESTAMPTZ := (month_start + INTERVAL '1 month')::timestamp AT TIME ZONE 'UTC';
+    parent TEXT;
+    partition_name TEXT;
+    created INT := 0;
+BEGIN
+    -- Serializes partition maintenance across instances and with the archive job
+    PERFORM pg_advisory_xact_lock(hashtext('gl_journal_partitions'));
+    IF EXISTS (SELECT 1 FROM gl_archived_partition a WHERE a.period_start = month_start) THEN
+        RETURN 0;
+    END IF;
+    FOREACH parent IN ARRAY ARRAY['accounting_transaction', 'transaction_entry'] LOOP
+        partition_name := parent || '_' || to_char(month_start, '"y"YYYY"m"MM');
+        IF to_regclass(partition_name) IS NULL THEN
+            EXECUTE format('CREATE TABLE %I (LIKE %I INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', partition_name, parent);
+            EXECUTE format('WITH moved AS (DELETE FROM %I WHERE transaction_date >= %L AND transaction_date < %L RETURNING *) '
+                           'INSERT INTO %I SELECT * FROM moved',
+                           parent || '_default', lower_bound, upper_bound, partition_name);
+            EXECUTE format('ALTER TABLE %I ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                           parent, partition_name, lower_bound, upper_bound);
+            created := created + 1;
+        END IF;
+    END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Partitions for every month with data, up to three months ahead
+DO $$
+DECLARE
+    first_month DATE;
+    month_start DATE;
+BEGIN
+    SELECT date_trunc('month', LEAST(MIN(transaction_date), NOW()) AT TIME ZONE 'UTC')::date
+      INTO first_month
+      FROM accounting_transaction_legacy;
+    month_start := COALESCE(first_month, date_trunc('month', NOW() AT TIME ZONE 'UTC')::date);
+    WHILE month_start <= (NOW() AT TIME ZONE 'UTC')::date + INTERVAL '3 months' LOOP
+        PERFORM gl_ensure_monthly_partition(month_start);
+        month_start := (month_start + INTERVAL '1 month')::date;
+    END LOOP;
+END;
+$$;
+
+INSERT INTO accounting_transaction
+SELECT transaction_id, transaction_date, entry_date, description, transaction_type, is_posted,
+       organization_party_id, source_document_type, source_document_id, created_at, updated_at, version
+  FROM accounting_transaction_legacy;
+
+INSERT INTO transaction_entry
+SELECT e.transaction_entry_id, e.transaction_id, e.gl_account_id, e.organization_party_id, e.amount,
+       e.debit_credit_flag, e.description, t.transaction_date, e.created_at, e.updated_at, e.version
+  FROM transaction_entry_legacy e
+  JOIN accounting_transaction_legacy t ON t.transaction_id = e.transaction_id;
+
+INSERT INTO posted_source_document (source_document_type, source_document_id, transaction_id, transaction_date)
+SELECT source_document_type, source_document_id, transaction_id, transaction_date
+  FROM accounting_transaction_legacy
+ WHERE source_document_type IS NOT NULL
+   AND source_document_id IS NOT NULL;
+
+DROP TABLE transaction_entry_legacy;
+DROP TABLE accounting_transaction_legacy;
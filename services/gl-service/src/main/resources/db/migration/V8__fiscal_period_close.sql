@@ -0,0 +1,47 @@
+/*
+ * Closed fiscal periods (calendar months, UTC) and their frozen balances. A month is
+ * closed when it has a fiscal_period row; postings dated in it or earlier are rejected.
+ * Balances are cumulative: closing = opening (the previous close) + the period's entries.
+ * Neither table accepts updates or deletes once written.
+ */
+CREATE TABLE fiscal_period (
+    period_start DATE PRIMARY KEY CHECK (EXTRACT(DAY FROM period_start) = 1),
+    closed_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    account_count INT NOT NULL,
+    entry_count BIGINT NOT NULL
+);
+
+CREATE TABLE fiscal_period_balance (
+    period_start DATE NOT NULL REFERENCES fiscal_period(period_start),
+    gl_account_id UUID NOT NULL REFERENCES gl_account(gl_account_id),
+    opening_debit_total DECIMAL(20, 2) NOT NULL,
+    opening_credit_total DECIMAL(20, 2) NOT NULL,
+    period_debit_total DECIMAL(20, 2) NOT NULL,
+    period_credit_total DECIMAL(20, 2) NOT NULL,
+    closing_debit_total DECIMAL(20, 2) NOT NULL,
+    closing_credit_total DECIMAL(20, 2) NOT NULL,
+    closing_entry_count BIGINT NOT NULL,
+    PRIMARY KEY (period_start, gl_account_id)
+);
+
+CREATE OR REPLACE FUNCTION gl_reject_closed_period_change() RETURNS TRIGGER AS $$
+BEGIN
+    RAISE EXCEPTION '% is immutable: closed fiscal periods cannot be changed', TG_TABLE_NAME;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_fiscal_period_immutable
+    BEFORE UPDATE OR DELETE ON fiscal_period
+    FOR EACH ROW EXECUTE FUNCTION gl_reject_closed_period_change();
+
+CREATE TRIGGER trg_fiscal_period_truncate
+    BEFORE TRUNCATE ON fiscal_period
+    FOR EACH STATEMENT EXECUTE FUNCTION gl_reject_closed_period_change();
+
+CREATE TRIGGER trg_fiscal_period_balance_immutable
+    BEFORE UPDATE OR DELETE ON fiscal_period_balance
+    FOR EACH ROW EXECUTE FUNCTION gl_reject_closed_period_change();
+
+CREATE TRIGGER trg_fiscal_period_balance_truncate
+    BEFORE TRUNCATE ON fiscal_period_balance
+    FOR EACH STATEMENT EXECUTE FUNCTION gl_reject_closed_period_change();
@@ -0,0 +1,5 @@
+-- Account statements walk one account's entries in (transaction_date, transaction_entry_id)
+-- order. With the entry id in the key that order comes straight off the index, and the
+-- index still serves the per-account date range sums, so it replaces the two-column one.
+CREATE INDEX idx_transaction_entry_gl_date_id ON transaction_entry(gl_account_id, transaction_date, transaction_entry_id);
+DROP INDEX idx_transaction_entry_gl;
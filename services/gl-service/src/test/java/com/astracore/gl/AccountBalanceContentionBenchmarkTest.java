@@ -0,0 +1,144 @@
+package com.astracore.gl;
+
+import com.astracore.gl.infrastructure.persistence.entity.AccountingTransactionEntity;
+import com.astracore.gl.infrastructure.persistence.entity.GeneralLedgerAccountEntity;
+import com.astracore.gl.infrastructure.persistence.entity.TransactionEntryEntity;
+import com.astracore.gl.infrastructure.persistence.repository.AccountBalance;
+import com.astracore.gl.infrastructure.persistence.repository.AccountBalanceStore;
+import com.astracore.shared.id.UuidV7;
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Many threads post to the same AR and revenue accounts concurrently, once with a single
+ * balance row per account (every posting queues on the same row lock until commit) and
+ * once with sharded rows. Opt-in:
+ * {@code mvn -pl services/gl-service test -Dtest=AccountBalanceContentionBenchmarkTest -Dbenchmark=true [-Dbenchmark.threads=32] [-Dbenchmark.shards=16]}
+ */
+@Testcontainers
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class AccountBalanceContentionBenchmarkTest {
+
+    private static final int THREADS = Integer.getInteger("benchmark.threads", 32);
+    private static final int POSTINGS_PER_THREAD = Integer.getInteger("benchmark.postings", 500);
+    private static final int SHARDS = Integer.getInteger("benchmark.shards", 16);
+    private static final BigDecimal AMOUNT = new BigDecimal("10.00");
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    private static HikariDataSource dataSource;
+    private static GeneralLedgerAccountEntity ar;
+    private static GeneralLedgerAccountEntity revenue;
+
+    @BeforeAll
+    static void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(postgres.getJdbcUrl());
+        dataSource.setUsername(postgres.getUsername());
+        dataSource.setPassword(postgres.getPassword());
+        dataSource.setMaximumPoolSize(THREADS);
+        Flyway.configure().dataSource(dataSource).load().migrate();
+
+        ar = account("AR", "ASSET");
+        revenue = account("REV", "REVENUE");
+    }
+
+    @AfterAll
+    static void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    void shardedBalances_shouldSustainMoreConcurrentPostingsThanOneRow() throws Exception {
+        double singleRow = run(1);
+        double sharded = run(SHARDS);
+
+        System.out.printf("%d threads x %d postings%n", THREADS, POSTINGS_PER_THREAD);
+        System.out.printf("1 shard:   %,.0f postings/sec%n", singleRow);
+        System.out.printf("%d shards: %,.0f postings/sec%n", SHARDS, sharded);
+
+        assertThat(sharded).isGreaterThan(singleRow);
+    }
+
+    private static double run(int shards) throws Exception {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("TRUNCATE account_balance_shard");
+        AccountBalanceStore store = new AccountBalanceStore(jdbcTemplate, shards);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        long started = System.nanoTime();
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            workers.add(executor.submit(() -> {
+                for (int i = 0; i < POSTINGS_PER_THREAD; i++) {
+                    AccountingTransactionEntity tx = posting();
+                    transactionTemplate.executeWithoutResult(status -> store.addEntries(List.of(tx)));
+                }
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        double elapsedSeconds = (System.nanoTime() - started) / 1_000_000_000.0;
+        executor.shutdown();
+
+        BigDecimal expected = AMOUNT.multiply(BigDecimal.valueOf((long) THREADS * POSTINGS_PER_THREAD));
+        List<AccountBalance> arBalances = store.findByAccount(ar.getGlAccountId());
+        assertThat(arBalances).hasSize(1);
+        assertThat(arBalances.get(0).debitTotal()).isEqualByComparingTo(expected);
+        assertThat(store.findByAccount(revenue.getGlAccountId()).get(0).creditTotal()).isEqualByComparingTo(expected);
+
+        return THREADS * POSTINGS_PER_THREAD / elapsedSeconds;
+    }
+
+    private static AccountingTransactionEntity posting() {
+        AccountingTransactionEntity tx = new AccountingTransactionEntity();
+        tx.setTransactionId(UuidV7.generate());
+        tx.setTransactionDate(Instant.now());
+        tx.addEntry(entry(ar, "D"));
+        tx.addEntry(entry(revenue, "C"));
+        return tx;
+    }
+
+    private static TransactionEntryEntity entry(GeneralLedgerAccountEntity account, String flag) {
+        TransactionEntryEntity entry = new TransactionEntryEntity();
+        entry.setGlAccount(account);
+        entry.setAmount(AMOUNT);
+        entry.setDebitCreditFlag(flag);
+        return entry;
+    }
+
+    private static GeneralLedgerAccountEntity account(String code, String type) {
+        UUID id = UuidV7.generate();
+        new JdbcTemplate(dataSource).update(
+                "INSERT INTO gl_account (gl_account_id, account_name, account_code, gl_account_type_id) VALUES (?, ?, ?, ?)",
+                id, code, code, type);
+        GeneralLedgerAccountEntity account = new GeneralLedgerAccountEntity();
+        account.setGlAccountId(id);
+        account.setAccountCode(code);
+        return account;
+    }
+}
@@ -1,14 +1,35 @@
 package com.astracore.gl;
 
 import com.astracore.event.InvoiceIssued;
+import com.astracore.event.PaymentReceived;
+import com.astracore.gl.application.dto.AccountStatementLineDTO;
+import com.astracore.gl.application.dto.DeadLetterReplayDTO;
+import com.astracore.gl.application.dto.DeadLetterTopicDTO;
+import com.astracore.gl.application.dto.JournalImportDTO;
+import com.astracore.gl.application.dto.LedgerReplayDTO;
+import com.astracore.gl.application.dto.TrialBalanceDTO;
+import com.astracore.gl.application.posting.PostingRules;
+import com.astracore.gl.application.service.AccountStatementService;
+import com.astracore.gl.application.service.BalanceQueryService;
+import com.astracore.gl.application.service.BalanceSnapshotJob;
+import com.astracore.gl.application.service.FiscalPeriodCloseService;
+import com.astracore.gl.application.service.GlPostingService;
+import com.astracore.gl.application.service.JournalImportService;
+import com.astracore.gl.application.service.LedgerReplayService;
+import com.astracore.gl.infrastructure.cache.ChartOfAccountsCache;
 import com.astracore.gl.infrastructure.persistence.entity.AccountingTransactionEntity;
 import com.astracore.gl.infrastructure.persistence.entity.TransactionEntryEntity;
 import com.astracore.gl.infrastructure.persistence.repository.AccountingTransactionRepository;
+import com.astracore.gl.infrastructure.persistence.repository.GeneralLedgerAccountRepository;
+import com.astracore.gl.messaging.DeadLetterReplayer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
@@ -22,15 +43,30 @@ import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 import org.testcontainers.utility.DockerImageName;
 
+import java.io.ByteArrayInputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
 import java.time.Instant;
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @SpringBootTest
 @Testcontainers
@@ -47,6 +83,45 @@ class GlPostingIntegrationTest {
     @Autowired
     private AccountingTransactionRepository accountingTransactionRepository;
 
+    @Autowired
+    private GeneralLedgerAccountRepository generalLedgerAccountRepository;
+
+    @Autowired
+    private ChartOfAccountsCache chartOfAccounts;
+
+    @Autowired
+    private GlPostingService glPostingService;
+
+    @Autowired
+    private BalanceQueryService balanceQueryService;
+
+    @Autowired
+    private BalanceSnapshotJob balanceSnapshotJob;
+
+    @Autowired
+    private LedgerReplayService ledgerReplayService;
+
+    @Autowired
+    private FiscalPeriodCloseService fiscalPeriodCloseService;
+
+    @Autowired
+    private AccountStatementService accountStatementService;
+
+    @Autowired
+    private PostingRules postingRules;
+
+    @Autowired
+    private JournalImportService journalImportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DeadLetterReplayer deadLetterReplayer;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @DynamicPropertySource
     static void configureProperties(DynamicPropertyRegistry registry) {
         // Database
@@ -59,6 +134,11 @@ class GlPostingIntegrationTest {
 
         // Kafka
         registry.add("spring.kafka.bootstrap-servers", kafka::getBootstrapServers);
+        // Retry tiers of 100, 200 and 400 ms
+        registry.add("gl.posting.retry.initial-delay-ms", () -> "100");
+        registry.add("gl.posting.retry.multiplier", () -> "2");
+        // Journal imports commit every couple of entries, so a small file spans chunks
+        registry.add("gl.import.chunk-size", () -> "2");
     }
 
     @Test
@@ -115,4 +195,364 @@ class GlPostingIntegrationTest {
         assertThat(debitTotal).isEqualByComparingTo(amount);
         assertThat(creditTotal).isEqualByComparingTo(amount);
     }
+
+    @Test
+    void invoiceIssuedBatch_shouldPostEveryValidEventDespiteBadRecord() throws Exception {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, kafka.getBootstrapServers());
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        KafkaTemplate<String, Object> kafkaTemplate = new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(props));
+
+        int invoices = 50;
+        for (int i = 0; i < invoices; i++) {
+            InvoiceIssued event = new InvoiceIssued("tenant-1", "batch-" + i, "cust-1", new BigDecimal("10.00"),
+                    "USD", LocalDate.now(), LocalDate.now().plusDays(30), Instant.now());
+            kafkaTemplate.send(TOPIC, event.getInvoiceId(), event);
+            if (i == invoices / 2) {
+                // Not an InvoiceIssued; must be dead-lettered without losing its neighbours
+                kafkaTemplate.send(TOPIC, "bad", "not an invoice");
+            }
+        }
+        kafkaTemplate.flush();
+
+        long posted = 0;
+        for (int i = 0; i < 20 && posted < invoices; i++) {
+            Thread.sleep(500);
+            posted = accountingTransactionRepository.findAll().stream()
+                    .filter(tx -> tx.getDescription() != null && tx.getDescription().startsWith("Invoice batch-"))
+                    .count();
+        }
+
+        assertThat(posted).isEqualTo(invoices);
+    }
+
+    @Test
+    void failingInvoice_shouldRetryThenDeadLetterAndPostOnceReplayed() throws Exception {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, kafka.getBootstrapServers());
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        KafkaTemplate<String, Object> kafkaTemplate = new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(props));
+        long pendingBefore = deadLetterPending();
+
+        // Rejects one invoice's entries until the constraint is dropped
+        jdbcTemplate.execute("ALTER TABLE transaction_entry ADD CONSTRAINT reject_poison CHECK (amount <> 13.13)");
+        try {
+            for (int i = 0; i < 5; i++) {
+                InvoiceIssued event = new InvoiceIssued("tenant-1", "dlt-" + i, "cust-1",
+                        new BigDecimal(i == 2 ? "13.13" : "10.00"), "USD", LocalDate.now(),
+                        LocalDate.now().plusDays(30), Instant.now());
+                kafkaTemplate.send(TOPIC, event.getInvoiceId(), event);
+            }
+            kafkaTemplate.flush();
+
+            long pending = pendingBefore;
+            for (int i = 0; i < 40 && pending == pendingBefore; i++) {
+                Thread.sleep(500);
+                pending = deadLetterPending();
+            }
+            assertThat(pending).isEqualTo(pendingBefore + 1);
+            assertThat(postedWithPrefix("Invoice dlt-")).isEqualTo(4);
+            assertThat(retryCounter("retry-3")).isGreaterThanOrEqualTo(1);
+            assertThat(retryCounter("dlt")).isGreaterThanOrEqualTo(1);
+        } finally {
+            jdbcTemplate.execute("ALTER TABLE transaction_entry DROP CONSTRAINT reject_poison");
+        }
+
+        DeadLetterReplayDTO replay = deadLetterReplayer.replay(TOPIC, 1000);
+        assertThat(replay.getReplayed()).isEqualTo(pendingBefore + 1);
+        assertThat(replay.getRemaining()).isZero();
+
+        long posted = 0;
+        for (int i = 0; i < 20 && posted < 5; i++) {
+            Thread.sleep(500);
+            posted = postedWithPrefix("Invoice dlt-");
+        }
+        assertThat(posted).isEqualTo(5);
+    }
+
+    @Test
+    void concurrentAccountProvisioning_shouldConvergeOnOneRow() throws Exception {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<UUID>> results = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return chartOfAccounts.getOrCreate("RACE", "Race Account", "ASSET").glAccountId();
+            }));
+        }
+        start.countDown();
+
+        Set<UUID> ids = new HashSet<>();
+        for (Future<UUID> result : results) {
+            ids.add(result.get(10, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+
+        assertThat(ids).hasSize(1);
+        assertThat(generalLedgerAccountRepository.findByAccountCode("RACE"))
+                .hasValueSatisfying(account -> assertThat(account.getGlAccountId()).isEqualTo(ids.iterator().next()));
+    }
+
+    @Test
+    void balanceQueries_shouldMatchJournalAcrossSnapshotsAndBackdatedPostings() {
+        // 2020 dates keep these figures apart from the other tests, which post today
+        postInvoice("tb-1", LocalDate.of(2020, 1, 10), "100.00");
+        postInvoice("tb-2", LocalDate.of(2020, 2, 20), "40.00");
+        postInvoice("tb-3", LocalDate.of(2020, 3, 5), "7.50");
+        balanceSnapshotJob.snapshotCompletedMonths();
+        // Lands in an already snapshotted month
+        postInvoice("tb-4", LocalDate.of(2020, 1, 31), "1.25");
+
+        List<LocalDate> asOfDates = List.of(LocalDate.of(2020, 1, 9), LocalDate.of(2020, 1, 31),
+                LocalDate.of(2020, 2, 19), LocalDate.of(2020, 2, 29), LocalDate.of(2020, 3, 4), LocalDate.of(2020, 3, 20));
+        for (LocalDate asOf : asOfDates) {
+            assertThat(balanceQueryService.getAccountBalance("AR", asOf).getBalance())
+                    .as("AR as of %s", asOf)
+                    .isEqualByComparingTo(journalBalance("AR", asOf));
+        }
+
+        balanceSnapshotJob.snapshotCompletedMonths();
+        TrialBalanceDTO trialBalance = balanceQueryService.getTrialBalance(LocalDate.of(2020, 3, 31));
+        assertThat(trialBalance.getSnapshotPeriod()).isEqualTo(LocalDate.of(2020, 2, 1));
+        assertThat(trialBalance.isBalanced()).isTrue();
+        assertThat(trialBalance.getLines())
+                .filteredOn(line -> "REV".equals(line.getAccountCode()))
+                .singleElement()
+                .satisfies(line -> assertThat(line.getBalance()).isEqualByComparingTo(journalBalance("REV", LocalDate.of(2020, 3, 31))));
+    }
+
+    @Test
+    void redeliveredInvoice_shouldBePostedOnce() {
+        InvoiceIssued event = new InvoiceIssued("tenant-1", "dup-1", "cust-1", new BigDecimal("12.00"),
+                "USD", LocalDate.now(), LocalDate.now().plusDays(30), Instant.now());
+
+        glPostingService.postInvoice(event);
+        glPostingService.postInvoice(event);
+        glPostingService.postInvoices(List.of(event, event));
+
+        Integer postings = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM accounting_transaction WHERE source_document_type = 'INVOICE' AND source_document_id = ?",
+                Integer.class, "dup-1");
+        assertThat(postings).isEqualTo(1);
+    }
+
+    @Test
+    void paymentReceived_shouldSettleReceivableOnce() {
+        postInvoice("pi-1", LocalDate.of(2022, 4, 1), "80.00");
+        PaymentReceived payment = new PaymentReceived("tenant-1", "pay-1", "pi-1", new BigDecimal("30.00"), "USD",
+                "CARD", Instant.parse("2022-04-10T09:00:00Z"));
+
+        glPostingService.postPayment(payment);
+        glPostingService.postPayments(List.of(payment, payment));
+
+        assertThat(paymentEntries("pay-1")).containsExactly("D CASH 30.00", "C AR 30.00");
+    }
+
+    @Test
+    void changedPostingRule_shouldApplyAfterRefreshAndInvalidChangeShouldBeIgnored() {
+        try {
+            jdbcTemplate.update("""
+                    UPDATE posting_rule_line SET account_code = 'BANK', account_name = 'Bank'
+                     WHERE event_type = 'PAYMENT_RECEIVED' AND line_no = 1""");
+            postingRules.refresh();
+            postPayment("pay-bank-1", "12.00");
+
+            // Two credit lines cannot balance; posting carries on with the previous rule
+            jdbcTemplate.update("UPDATE posting_rule_line SET debit_credit_flag = 'C' WHERE event_type = 'PAYMENT_RECEIVED'");
+            postingRules.refresh();
+            postPayment("pay-bank-2", "5.00");
+
+            assertThat(paymentEntries("pay-bank-1")).containsExactly("D BANK 12.00", "C AR 12.00");
+            assertThat(paymentEntries("pay-bank-2")).containsExactly("D BANK 5.00", "C AR 5.00");
+        } finally {
+            jdbcTemplate.update("""
+                    UPDATE posting_rule_line
+                       SET debit_credit_flag = CASE line_no WHEN 1 THEN 'D' ELSE 'C' END,
+                           account_code = CASE line_no WHEN 1 THEN 'CASH' ELSE 'AR' END,
+                           account_name = CASE line_no WHEN 1 THEN 'Cash' ELSE 'Accounts Receivable' END
+                     WHERE event_type = 'PAYMENT_RECEIVED'""");
+            postingRules.refresh();
+        }
+    }
+
+    @Test
+    void ledgerReplay_shouldRebuildCorruptedBalancesFromJournal() {
+        postInvoice("rp-1", LocalDate.of(2018, 6, 4), "55.00");
+        postInvoice("rp-2", LocalDate.of(2018, 7, 19), "20.00");
+        LocalDate asOf = LocalDate.of(2018, 7, 31);
+        BigDecimal expected = journalBalance("AR", asOf);
+        jdbcTemplate.update("UPDATE account_balance_shard SET debit_total = debit_total + 1000");
+
+        LedgerReplayDTO replay = ledgerReplayService.replay();
+
+        assertThat(replay.getStatus()).isEqualTo("COMPLETED");
+        assertThat(replay.getCompletedPeriods()).isEqualTo(replay.getTotalPeriods());
+        assertThat(balanceQueryService.getAccountBalance("AR", asOf).getBalance()).isEqualByComparingTo(expected);
+        assertThat(ledgerReplayService.latest()).hasValueSatisfying(latest ->
+                assertThat(latest.getReplayId()).isEqualTo(replay.getReplayId()));
+    }
+
+    @Test
+    void closedPeriods_shouldFreezeBalancesAndRejectPostings() {
+        // 2017 is older than anything the other tests post, so closing it leaves them open
+        postInvoice("fc-1", LocalDate.of(2017, 11, 6), "100.00");
+        postInvoice("fc-2", LocalDate.of(2017, 12, 14), "40.00");
+
+        assertThat(fiscalPeriodCloseService.close(YearMonth.of(2017, 11)).getEntryCount()).isEqualTo(2);
+        assertThat(fiscalPeriodCloseService.close(YearMonth.of(2017, 12)).getEntryCount()).isEqualTo(2);
+
+        assertThat(balanceQueryService.getAccountBalance("AR", LocalDate.of(2017, 11, 30)).getBalance())
+                .isEqualByComparingTo("100.00");
+        assertThat(balanceQueryService.getAccountBalance("AR", LocalDate.of(2017, 12, 10)).getBalance())
+                .isEqualByComparingTo("100.00");
+        TrialBalanceDTO trialBalance = balanceQueryService.getTrialBalance(LocalDate.of(2017, 12, 31));
+        assertThat(trialBalance.getSnapshotPeriod()).isEqualTo(LocalDate.of(2017, 12, 1));
+        assertThat(trialBalance.getLines())
+                .filteredOn(line -> "AR".equals(line.getAccountCode()))
+                .singleElement()
+                .satisfies(line -> assertThat(line.getBalance()).isEqualByComparingTo("140.00"));
+        BigDecimal carriedForward = jdbcTemplate.queryForObject("""
+                SELECT b.opening_debit_total - b.opening_credit_total
+                  FROM fiscal_period_balance b
+                  JOIN gl_account a ON a.gl_account_id = b.gl_account_id
+                 WHERE a.account_code = 'AR' AND b.period_start = '2017-12-01'
+                """, BigDecimal.class);
+        assertThat(carriedForward).isEqualByComparingTo("100.00");
+
+        assertThatThrownBy(() -> postInvoice("fc-3", LocalDate.of(2017, 12, 20), "5.00"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> fiscalPeriodCloseService.close(YearMonth.of(2017, 12)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(journalBalance("AR", LocalDate.of(2017, 12, 31))).isEqualByComparingTo("140.00");
+    }
+
+    @Test
+    void accountStatement_shouldStreamEntriesWithRunningBalance() {
+        postInvoice("st-1", LocalDate.of(2021, 1, 5), "10.00");
+        postInvoice("st-2", LocalDate.of(2021, 2, 10), "2.50");
+        postInvoice("st-3", LocalDate.of(2021, 2, 20), "99.00");
+        LocalDate from = LocalDate.of(2021, 1, 1);
+        LocalDate to = LocalDate.of(2021, 2, 15);
+
+        List<AccountStatementLineDTO> lines = new ArrayList<>();
+        accountStatementService.streamStatement(accountStatementService.requireStatement("AR", from, to), from, to, lines::add);
+
+        assertThat(lines).extracting(AccountStatementLineDTO::getAmount)
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(new BigDecimal("10.00"), new BigDecimal("2.50"));
+        assertThat(lines.get(0).getRunningBalance())
+                .isEqualByComparingTo(journalBalance("AR", from.minusDays(1)).add(new BigDecimal("10.00")));
+        assertThat(lines.get(1).getRunningBalance()).isEqualByComparingTo(journalBalance("AR", to));
+    }
+
+    @Test
+    void journalImport_shouldLoadBalancedTransactionsOnceAndRejectUnbalancedOnes() {
+        // 2023 is used by no other test and is later than the periods the close test closes
+        chartOfAccounts.getOrCreate("IMP-CASH", "Imported Cash", "ASSET");
+        chartOfAccounts.getOrCreate("IMP-EQUITY", "Imported Equity", "EQUITY");
+        String csv = """
+                transaction_ref,transaction_date,description,account_code,debit_credit_flag,amount
+                J-1,2023-03-01,"Opening balance, cash",IMP-CASH,D,1500.00
+                J-1,2023-03-01,"Opening balance, cash",IMP-EQUITY,C,1500.00
+                J-2,2023-04-15T12:00:00Z,Top-up,IMP-CASH,D,250.25
+                J-2,2023-04-15T12:00:00Z,Top-up,IMP-EQUITY,C,200
+                J-2,2023-04-15T12:00:00Z,Top-up,IMP-EQUITY,C,50.25
+                """;
+
+        JournalImportDTO imported = importJournal(csv, "csv");
+        JournalImportDTO again = importJournal(csv, "csv");
+        JournalImportDTO ndjson = importJournal("""
+                {"transaction_ref": "J-3", "transaction_date": "2023-05-02", "account_code": "IMP-EQUITY", "debit_credit_flag": "D", "amount": 0.25}
+                {"transaction_ref": "J-3", "transaction_date": "2023-05-02", "account_code": "IMP-CASH", "debit_credit_flag": "C", "amount": "0.25"}
+                """, "ndjson");
+
+        assertThat(imported.getTransactionsImported()).isEqualTo(2);
+        assertThat(imported.getEntriesImported()).isEqualTo(5);
+        assertThat(imported.getChunks()).isEqualTo(2);
+        assertThat(again.getTransactionsImported()).isZero();
+        assertThat(again.getTransactionsSkipped()).isEqualTo(2);
+        assertThat(ndjson.getEntriesImported()).isEqualTo(2);
+        assertThat(balanceQueryService.getAccountBalance("IMP-CASH", LocalDate.of(2023, 3, 31)).getBalance())
+                .isEqualByComparingTo("1500.00");
+        for (LocalDate asOf : List.of(LocalDate.of(2023, 4, 30), LocalDate.of(2023, 5, 31))) {
+            assertThat(balanceQueryService.getAccountBalance("IMP-CASH", asOf).getBalance())
+                    .as("IMP-CASH as of %s", asOf)
+                    .isEqualByComparingTo(journalBalance("IMP-CASH", asOf));
+        }
+        assertThat(journalBalance("IMP-CASH", LocalDate.of(2023, 5, 31))).isEqualByComparingTo("1750.00");
+        assertThat(jdbcTemplate.queryForObject("""
+                SELECT description FROM accounting_transaction
+                 WHERE source_document_type = 'JOURNAL_IMPORT' AND source_document_id = 'J-1'
+                """, String.class)).isEqualTo("Opening balance, cash");
+
+        assertThatThrownBy(() -> importJournal("""
+                transaction_ref,transaction_date,account_code,debit_credit_flag,amount
+                J-4,2023-06-01,IMP-CASH,D,10.00
+                J-4,2023-06-01,IMP-EQUITY,C,9.99
+                """, "csv"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Line 2");
+        assertThat(journalBalance("IMP-CASH", LocalDate.of(2023, 6, 30))).isEqualByComparingTo("1750.00");
+    }
+
+    private long postedWithPrefix(String descriptionPrefix) {
+        return accountingTransactionRepository.findAll().stream()
+                .filter(tx -> tx.getDescription() != null && tx.getDescription().startsWith(descriptionPrefix))
+                .count();
+    }
+
+    private long deadLetterPending() {
+        return deadLetterReplayer.pending().stream()
+                .filter(topic -> TOPIC.equals(topic.getTopic()))
+                .mapToLong(DeadLetterTopicDTO::getPending)
+                .sum();
+    }
+
+    private double retryCounter(String destination) {
+        Counter counter = meterRegistry.find("gl.posting.retry.records")
+                .tag("topic", TOPIC)
+                .tag("destination", destination)
+                .counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private JournalImportDTO importJournal(String content, String format) {
+        return journalImportService.importJournal(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), format);
+    }
+
+    private void postInvoice(String invoiceId, LocalDate issueDate, String amount) {
+        glPostingService.postInvoice(new InvoiceIssued("tenant-1", invoiceId, "cust-1", new BigDecimal(amount),
+                "USD", issueDate, issueDate.plusDays(30), Instant.now()));
+    }
+
+    private void postPayment(String paymentId, String amount) {
+        glPostingService.postPayment(new PaymentReceived("tenant-1", paymentId, "inv-" + paymentId, new BigDecimal(amount),
+                "USD", "WIRE", Instant.now()));
+    }
+
+    // "<flag> <account> <amount>" per entry, debits first
+    private List<String> paymentEntries(String paymentId) {
+        return jdbcTemplate.queryForList("""
+                SELECT e.debit_credit_flag || ' ' || a.account_code || ' ' || e.amount
+                  FROM transaction_entry e
+                  JOIN accounting_transaction t ON t.transaction_id = e.transaction_id
+                  JOIN gl_account a ON a.gl_account_id = e.gl_account_id
+                 WHERE t.source_document_type = 'PAYMENT' AND t.source_document_id = ?
+                 ORDER BY e.debit_credit_flag DESC
+                """, String.class, paymentId);
+    }
+
+    private BigDecimal journalBalance(String accountCode, LocalDate asOf) {
+        return jdbcTemplate.queryForObject("""
+                SELECT COALESCE(SUM(CASE WHEN e.debit_credit_flag = 'D' THEN e.amount ELSE -e.amount END), 0)
+                  FROM transaction_entry e
+                  JOIN accounting_transaction t ON t.transaction_id = e.transaction_id
+                  JOIN gl_account a ON a.gl_account_id = e.gl_account_id
+                 WHERE a.account_code = ? AND t.transaction_date < ?
+                """, BigDecimal.class, accountCode, Timestamp.from(asOf.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant()));
+    }
 }
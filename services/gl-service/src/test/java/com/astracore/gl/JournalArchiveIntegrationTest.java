@@ -0,0 +1,123 @@
+package com.astracore.gl;
+
+import com.astracore.event.InvoiceIssued;
+import com.astracore.gl.application.service.BalanceQueryService;
+import com.astracore.gl.application.service.BalanceSnapshotJob;
+import com.astracore.gl.application.service.FiscalPeriodCloseService;
+import com.astracore.gl.application.service.GlPostingService;
+import com.astracore.gl.application.service.JournalArchiveService;
+import com.astracore.gl.infrastructure.persistence.repository.ArchivedPeriod;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Archiving removes entries from the journal, so this runs against its own database.
+ */
+@SpringBootTest
+@Testcontainers
+class JournalArchiveIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @Autowired
+    private GlPostingService glPostingService;
+
+    @Autowired
+    private BalanceQueryService balanceQueryService;
+
+    @Autowired
+    private BalanceSnapshotJob balanceSnapshotJob;
+
+    @Autowired
+    private JournalArchiveService journalArchiveService;
+
+    @Autowired
+    private FiscalPeriodCloseService fiscalPeriodCloseService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) throws IOException {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.flyway.url", postgres::getJdbcUrl);
+        registry.add("spring.flyway.user", postgres::getUsername);
+        registry.add("spring.flyway.password", postgres::getPassword);
+        // Posting is called directly; no broker needed
+        registry.add("spring.kafka.listener.auto-startup", () -> "false");
+
+        Path archiveDirectory = Files.createTempDirectory("gl-archive");
+        registry.add("gl.archive.directory", archiveDirectory::toString);
+    }
+
+    @Test
+    void archivedMonth_shouldStillAnswerBalanceQueries() {
+        postInvoice("ar-1", LocalDate.of(2019, 5, 3), "30.00");
+        postInvoice("ar-2", LocalDate.of(2019, 5, 25), "12.00");
+        balanceSnapshotJob.snapshotCompletedMonths();
+        // Both ways of settling a month from the journal: up to mid-month, and back from month end
+        List<LocalDate> asOfDates = List.of(LocalDate.of(2019, 5, 10), LocalDate.of(2019, 5, 28));
+        Map<LocalDate, BigDecimal> expected = new HashMap<>();
+        for (LocalDate asOf : asOfDates) {
+            expected.put(asOf, balanceQueryService.getAccountBalance("AR", asOf).getBalance());
+        }
+
+        // Only closed periods are archived
+        assertThatThrownBy(() -> journalArchiveService.archiveMonth(LocalDate.of(2019, 5, 1)))
+                .isInstanceOf(IllegalArgumentException.class);
+        fiscalPeriodCloseService.close(YearMonth.of(2019, 5));
+        ArchivedPeriod archived = journalArchiveService.archiveMonth(LocalDate.of(2019, 5, 1));
+        // A redelivery after archiving is still recognised as posted
+        postInvoice("ar-1", LocalDate.of(2019, 5, 3), "30.00");
+
+        assertThat(archived.transactionCount()).isEqualTo(2);
+        assertThat(archived.entryCount()).isEqualTo(4);
+        assertThat(archived.entryFile()).exists();
+        assertThat(journalEntries(LocalDate.of(2019, 5, 1))).isZero();
+        assertThat(expected.get(LocalDate.of(2019, 5, 28))).isEqualByComparingTo("42.00");
+        for (LocalDate asOf : asOfDates) {
+            assertThat(balanceQueryService.getAccountBalance("AR", asOf).getBalance())
+                    .as("AR as of %s", asOf)
+                    .isEqualByComparingTo(expected.get(asOf));
+        }
+    }
+
+    private void postInvoice(String invoiceId, LocalDate issueDate, String amount) {
+        glPostingService.postInvoice(new InvoiceIssued("tenant-1", invoiceId, "cust-1", new BigDecimal(amount),
+                "USD", issueDate, issueDate.plusDays(30), Instant.now()));
+    }
+
+    private long journalEntries(LocalDate month) {
+        Long count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM transaction_entry WHERE transaction_date >= ? AND transaction_date < ?", Long.class,
+                Timestamp.from(month.atStartOfDay(ZoneOffset.UTC).toInstant()),
+                Timestamp.from(month.plusMonths(1).atStartOfDay(ZoneOffset.UTC).toInstant()));
+        return count == null ? 0 : count;
+    }
+}
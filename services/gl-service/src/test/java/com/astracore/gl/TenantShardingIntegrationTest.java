@@ -0,0 +1,163 @@
+package com.astracore.gl;
+
+import com.astracore.event.InvoiceIssued;
+import com.astracore.gl.application.service.BalanceQueryService;
+import com.astracore.gl.application.service.FiscalPeriodCloseService;
+import com.astracore.gl.messaging.InvoiceIssuedBatchListener;
+import com.astracore.tenancy.ShardRouter;
+import com.astracore.tenancy.TenantContext;
+import com.astracore.tenancy.TenantMove;
+import com.astracore.tenancy.TenantMover;
+import com.astracore.tenancy.TenantShards;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Testcontainers
+class TenantShardingIntegrationTest {
+
+    private static final String TOPIC = "invoice.issued.v1";
+
+    @Container
+    static PostgreSQLContainer<?> shardA = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @Container
+    static PostgreSQLContainer<?> shardB = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @Autowired
+    private InvoiceIssuedBatchListener batchListener;
+
+    @Autowired
+    private BalanceQueryService balanceQueryService;
+
+    @Autowired
+    private FiscalPeriodCloseService fiscalPeriodCloseService;
+
+    @Autowired
+    private TenantMover tenantMover;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private TenantShards tenantShards;
+
+    private long offset;
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("gl.tenancy.enabled", () -> "true");
+        registry.add("gl.tenancy.placement-refresh-ms", () -> "100");
+        for (var shard : new Object[][]{{"shard-a", shardA}, {"shard-b", shardB}}) {
+            PostgreSQLContainer<?> container = (PostgreSQLContainer<?>) shard[1];
+            String prefix = "gl.tenancy.shards." + shard[0];
+            registry.add(prefix + ".url", container::getJdbcUrl);
+            registry.add(prefix + ".username", container::getUsername);
+            registry.add(prefix + ".password", container::getPassword);
+        }
+        // Records are handed to the listener directly; no broker needed
+        registry.add("spring.kafka.listener.auto-startup", () -> "false");
+    }
+
+    @Test
+    void mixedTenantBatch_shouldPostEachTenantOnItsOwnShard() {
+        String tenantA = tenantOn("shard-a");
+        String tenantB = tenantOn("shard-b");
+        LocalDate today = LocalDate.now();
+        List<ConsumerRecord<String, Object>> records = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            records.add(record(i % 2 == 0 ? tenantA : tenantB, "10.00", today));
+        }
+
+        batchListener.onInvoiceIssued(records);
+        // A redelivery of the whole batch posts nothing twice
+        batchListener.onInvoiceIssued(records);
+
+        assertThat(arBalance(tenantA)).isEqualByComparingTo("30.00");
+        assertThat(arBalance(tenantB)).isEqualByComparingTo("30.00");
+        assertThat(accountCount("shard-a", tenantA)).isEqualTo(2);
+        assertThat(accountCount("shard-b", tenantA)).isZero();
+        assertThat(accountCount("shard-b", tenantB)).isEqualTo(2);
+        assertThat(accountCount("shard-a", tenantB)).isZero();
+    }
+
+    @Test
+    void movingTenant_shouldKeepItsBalancesAndStayIdempotent() {
+        String tenant = tenantOn("shard-a");
+        LocalDate today = LocalDate.now();
+        List<ConsumerRecord<String, Object>> records = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            records.add(record(tenant, "10.00", today));
+        }
+        batchListener.onInvoiceIssued(records);
+
+        TenantMove move = tenantMover.move(tenant, "shard-b");
+
+        assertThat(move.copiedRows()).containsEntry("accounting_transaction", 4L);
+        assertThat(move.sourceCleaned()).isTrue();
+        assertThat(shardRouter.shardFor(tenant)).isEqualTo("shard-b");
+        assertThat(accountCount("shard-a", tenant)).isZero();
+        assertThat(arBalance(tenant)).isEqualByComparingTo("40.00");
+
+        batchListener.onInvoiceIssued(records);
+        batchListener.onInvoiceIssued(List.of(record(tenant, "5.00", today)));
+        assertThat(arBalance(tenant)).isEqualByComparingTo("45.00");
+    }
+
+    @Test
+    void tenantWithClosedPeriods_shouldNotMove() {
+        String tenant = tenantOn("shard-b");
+        batchListener.onInvoiceIssued(List.of(record(tenant, "10.00", LocalDate.of(2018, 3, 10))));
+        shardRouter.runOnShard("shard-b", () -> fiscalPeriodCloseService.close(YearMonth.of(2018, 3)));
+
+        assertThatThrownBy(() -> tenantMover.move(tenant, "shard-a"))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(shardRouter.shardFor(tenant)).isEqualTo("shard-b");
+        assertThat(accountCount("shard-b", tenant)).isEqualTo(2);
+    }
+
+    private String tenantOn(String shard) {
+        for (int i = 0; ; i++) {
+            String tenant = "tenant-" + UUID.randomUUID().toString().substring(0, 8) + "-" + i;
+            if (shardRouter.ring().shardFor(tenant).equals(shard)) {
+                return tenant;
+            }
+        }
+    }
+
+    private ConsumerRecord<String, Object> record(String tenant, String amount, LocalDate issueDate) {
+        String invoiceId = UUID.randomUUID().toString();
+        InvoiceIssued event = new InvoiceIssued(tenant, invoiceId, "cust-1", new BigDecimal(amount), "USD",
+                issueDate, issueDate.plusDays(30), Instant.now());
+        return new ConsumerRecord<>(TOPIC, 0, offset++, tenant + ":" + invoiceId, event);
+    }
+
+    private BigDecimal arBalance(String tenant) {
+        return TenantContext.call(tenant,
+                () -> balanceQueryService.getAccountBalance("AR", LocalDate.now()).getBalance());
+    }
+
+    private int accountCount(String shard, String tenant) {
+        return new JdbcTemplate(tenantShards.get(shard))
+                .queryForObject("SELECT COUNT(*) FROM gl_account WHERE tenant_id = ?", Integer.class, tenant);
+    }
+}
@@ -0,0 +1,230 @@
+package com.astracore.gl.messaging;
+
+import com.astracore.tenancy.ShardRouter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.listener.CommonErrorHandler;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.ListenerExecutionFailedException;
+import org.springframework.kafka.listener.MessageListenerContainer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Drives {@link PostingBatchListener} with two lanes and hands its failures to the GL
+ * error handler, to see which offsets the container would commit and where it would
+ * resume.
+ */
+class PostingBatchListenerTest {
+
+    private static final String TOPIC = "invoice.issued.v1";
+    private static final TopicPartition PARTITION = new TopicPartition(TOPIC, 0);
+    // Lane keys "a" and "b" hash to different lanes of two
+    private static final String LANE_A = "a";
+    private static final String LANE_B = "b";
+
+    private final PostingRetryRecoverer recoverer = mock(PostingRetryRecoverer.class);
+    private final CommonErrorHandler errorHandler = new PostingRetryConfig().postingErrorHandler(recoverer, 10);
+    @SuppressWarnings("unchecked")
+    private final Consumer<String, Object> consumer = mock(Consumer.class);
+    private final MessageListenerContainer container = mock(MessageListenerContainer.class);
+    private final Map<TopicPartition, OffsetAndMetadata> committed = new HashMap<>();
+    private final Ledger ledger = new Ledger();
+    private final TestListener listener = new TestListener(ledger, recoverer);
+
+    PostingBatchListenerTest() {
+        when(container.getContainerProperties()).thenReturn(new ContainerProperties(TOPIC));
+        when(container.isRunning()).thenReturn(true);
+        doAnswer(call -> {
+            committed.putAll(call.getArgument(0));
+            return null;
+        }).when(consumer).commitSync(any(Map.class), any());
+    }
+
+    @AfterEach
+    void tearDown() {
+        listener.destroy();
+    }
+
+    @Test
+    void laneFailingMidBatch_shouldHoldBackItsPartitionFromTheFailedRecord() {
+        List<ConsumerRecord<String, Object>> poll = poll(
+                doc(0, LANE_A), doc(1, LANE_B), doc(2, LANE_A), doc(3, LANE_B), doc(4, LANE_A), doc(5, LANE_B));
+        ledger.failing.add("doc-2");
+
+        deliver(poll);
+
+        // Only the offsets ahead of the failed record are committed; it is read again from there
+        assertThat(committed).containsExactly(Map.entry(PARTITION, new OffsetAndMetadata(2)));
+        verify(consumer).seek(PARTITION, 2);
+        // Lane A stopped at the failure; lane B posted all of its records
+        assertThat(ledger.posted()).containsExactlyInAnyOrder("doc-0", "doc-1", "doc-3", "doc-5");
+        verify(recoverer, never()).accept(any(), any(), any());
+
+        // The outage is over; the container redelivers the partition from the failed record
+        ledger.failing.clear();
+        deliver(poll.subList(2, poll.size()));
+
+        assertThat(ledger.posted()).containsExactlyInAnyOrder("doc-0", "doc-1", "doc-2", "doc-3", "doc-4", "doc-5");
+        // Lane B's record ahead of the failure was committed and is not read again; those
+        // behind it come back with the partition and are skipped as already posted
+        assertThat(ledger.handedOver("doc-1")).isEqualTo(1);
+        assertThat(ledger.duplicates).containsExactlyInAnyOrder("doc-3", "doc-5");
+    }
+
+    @Test
+    void failuresInSeveralLanes_shouldResumeFromTheEarliestFailedRecord() {
+        List<ConsumerRecord<String, Object>> poll = poll(
+                doc(0, LANE_A), doc(1, LANE_B), doc(2, LANE_A), doc(3, LANE_B), doc(4, LANE_A));
+        ledger.failing.add("doc-1");
+        ledger.failing.add("doc-4");
+
+        assertThatThrownBy(() -> listener.onRecords(poll))
+                .isInstanceOfSatisfying(BatchListenerFailedException.class,
+                        failed -> assertThat(failed.getRecord()).isSameAs(poll.get(1)));
+        // Each lane stopped at its own failure
+        assertThat(ledger.posted()).containsExactlyInAnyOrder("doc-0", "doc-2");
+    }
+
+    @Test
+    void poll_shouldCommitNothingExtraWhenEveryLanePosts() {
+        List<ConsumerRecord<String, Object>> poll = poll(doc(0, LANE_A), doc(1, LANE_B), doc(2, LANE_A));
+
+        listener.onRecords(poll);
+
+        assertThat(ledger.posted()).containsExactlyInAnyOrder("doc-0", "doc-1", "doc-2");
+        assertThat(ledger.duplicates).isEmpty();
+    }
+
+    /**
+     * Hands the poll to the listener and, like the container, any failure to the error handler.
+     */
+    private void deliver(List<ConsumerRecord<String, Object>> records) {
+        try {
+            listener.onRecords(records);
+        } catch (RuntimeException e) {
+            ConsumerRecords<String, Object> data = new ConsumerRecords<>(Map.of(PARTITION, records));
+            try {
+                errorHandler.handleBatch(new ListenerExecutionFailedException("Listener failed", e), data, consumer,
+                        container, () -> { });
+            } catch (RuntimeException handedBack) {
+                // The handler rethrows after seeking so the container skips the rest of the poll
+            }
+        }
+    }
+
+    private static List<ConsumerRecord<String, Object>> poll(Doc... docs) {
+        List<ConsumerRecord<String, Object>> records = new ArrayList<>();
+        for (Doc doc : docs) {
+            records.add(new ConsumerRecord<>(TOPIC, 0, doc.offset(), doc.id(), doc));
+        }
+        return records;
+    }
+
+    private static Doc doc(long offset, String laneKey) {
+        return new Doc(offset, "doc-" + offset, laneKey);
+    }
+
+    record Doc(long offset, String id, String laneKey) {
+    }
+
+    /**
+     * Stands in for the GL posting service: a batch posts all or nothing, and documents
+     * already journaled are skipped.
+     */
+    static final class Ledger {
+
+        final Set<String> failing = ConcurrentHashMap.newKeySet();
+        final Set<String> journaled = ConcurrentHashMap.newKeySet();
+        final Set<String> duplicates = ConcurrentHashMap.newKeySet();
+        private final Map<String, AtomicInteger> handed = new ConcurrentHashMap<>();
+
+        void postAll(List<Doc> docs) {
+            docs.forEach(doc -> handed.computeIfAbsent(doc.id(), id -> new AtomicInteger()).incrementAndGet());
+            if (docs.stream().anyMatch(doc -> failing.contains(doc.id()))) {
+                throw new QueryTimeoutException("statement timeout");
+            }
+            docs.forEach(this::journal);
+        }
+
+        void postOne(Doc doc) {
+            if (failing.contains(doc.id())) {
+                throw new QueryTimeoutException("statement timeout");
+            }
+            journal(doc);
+        }
+
+        Set<String> posted() {
+            return journaled;
+        }
+
+        int handedOver(String documentId) {
+            AtomicInteger count = handed.get(documentId);
+            return count == null ? 0 : count.get();
+        }
+
+        private void journal(Doc doc) {
+            if (!journaled.add(doc.id())) {
+                duplicates.add(doc.id());
+            }
+        }
+    }
+
+    static final class TestListener extends PostingBatchListener<Doc> {
+
+        private final Ledger ledger;
+
+        TestListener(Ledger ledger, PostingRetryRecoverer recoverer) {
+            super(Doc.class, "doc", ShardRouter.singleShard("default"), recoverer, new SimpleMeterRegistry(), 2, 0);
+            this.ledger = ledger;
+        }
+
+        @Override
+        protected void postAll(List<Doc> events) {
+            ledger.postAll(events);
+        }
+
+        @Override
+        protected void postOne(Doc event) {
+            ledger.postOne(event);
+        }
+
+        @Override
+        protected String documentIdOf(Doc event) {
+            return event.id();
+        }
+
+        @Override
+        protected String tenantIdOf(Doc event) {
+            return null;
+        }
+
+        @Override
+        protected String laneKey(Doc event) {
+            return event.laneKey();
+        }
+    }
+}